@@ -0,0 +1,146 @@
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Int and long arrays held in ByteBuffers, either direct memory or a mapped file, split into chunks since
+ * one buffer is limited to 2GB. MappedGraph and OffHeapGraph keep their arrays in these.
+ */
+final class ChunkedArrays {
+  private static final int INT_CHUNK_BITS = 28;
+  private static final int LONG_CHUNK_BITS = 27;
+  // sun.misc.Unsafe.invokeCleaner, which frees a direct buffer at once, or null where it is not available.
+  private static final MethodHandle INVOKE_CLEANER = findCleaner();
+
+  private ChunkedArrays() {
+  }
+
+  /** A fixed-size int array. */
+  static final class Ints {
+    private static final long CHUNK_MASK = (1L << INT_CHUNK_BITS) - 1;
+    private final ByteBuffer[] chunks;
+
+    private Ints(ByteBuffer[] chunks) {
+      this.chunks = chunks;
+    }
+
+    /** Allocates an array in direct memory, in native byte order. */
+    static Ints allocate(long length) {
+      return new Ints(ChunkedArrays.allocate(length, Integer.BYTES, INT_CHUNK_BITS));
+    }
+
+    /** Maps a read-only, little-endian array from a file. */
+    static Ints map(FileChannel channel, long position, long length) throws IOException {
+      return new Ints(ChunkedArrays.map(channel, position, length, Integer.BYTES, INT_CHUNK_BITS));
+    }
+
+    int get(long index) {
+      return chunks[(int) (index >>> INT_CHUNK_BITS)].getInt((int) (index & CHUNK_MASK) << 2);
+    }
+
+    void put(long index, int value) {
+      chunks[(int) (index >>> INT_CHUNK_BITS)].putInt((int) (index & CHUNK_MASK) << 2, value);
+    }
+
+    /** Frees the memory of an allocated array. It must not be used afterwards. */
+    void free() {
+      for (ByteBuffer chunk : chunks) ChunkedArrays.free(chunk);
+    }
+  }
+
+  /** A fixed-size long array. */
+  static final class Longs {
+    private static final long CHUNK_MASK = (1L << LONG_CHUNK_BITS) - 1;
+    private final ByteBuffer[] chunks;
+
+    private Longs(ByteBuffer[] chunks) {
+      this.chunks = chunks;
+    }
+
+    /** Allocates an array in direct memory, in native byte order. */
+    static Longs allocate(long length) {
+      return new Longs(ChunkedArrays.allocate(length, Long.BYTES, LONG_CHUNK_BITS));
+    }
+
+    /** Maps a read-only, little-endian array from a file. */
+    static Longs map(FileChannel channel, long position, long length) throws IOException {
+      return new Longs(ChunkedArrays.map(channel, position, length, Long.BYTES, LONG_CHUNK_BITS));
+    }
+
+    long get(long index) {
+      return chunks[(int) (index >>> LONG_CHUNK_BITS)].getLong((int) (index & CHUNK_MASK) << 3);
+    }
+
+    void put(long index, long value) {
+      chunks[(int) (index >>> LONG_CHUNK_BITS)].putLong((int) (index & CHUNK_MASK) << 3, value);
+    }
+
+    /** Frees the memory of an allocated array. It must not be used afterwards. */
+    void free() {
+      for (ByteBuffer chunk : chunks) ChunkedArrays.free(chunk);
+    }
+  }
+
+  /**
+   * Frees a direct buffer now rather than whenever the garbage collector finds it unreachable. Where the JDK
+   * does not offer a way to do this, the buffer is left to the garbage collector. The buffer must not be used
+   * afterwards: reading freed memory can crash the JVM.
+   *
+   * @param buffer a direct buffer
+   * @return whether the memory was freed now
+   */
+  static boolean free(ByteBuffer buffer) {
+    if (INVOKE_CLEANER == null || !buffer.isDirect()) return false;
+    try {
+      INVOKE_CLEANER.invokeExact(buffer);
+      return true;
+    } catch (Throwable e) {
+      return false;
+    }
+  }
+
+  /** Returns whether free releases memory at once on this JDK. */
+  static boolean canFree() {
+    return INVOKE_CLEANER != null;
+  }
+
+  private static MethodHandle findCleaner() {
+    try {
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+      theUnsafe.setAccessible(true);
+      return MethodHandles.lookup()
+          .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+          .bindTo(theUnsafe.get(null));
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  private static ByteBuffer[] allocate(long length, int elementBytes, int chunkBits) {
+    long perChunk = 1L << chunkBits;
+    ByteBuffer[] chunks = new ByteBuffer[(int) ((length + perChunk - 1) >>> chunkBits)];
+    for (int i = 0; i < chunks.length; i++) {
+      long elements = Math.min(perChunk, length - i * perChunk);
+      chunks[i] = ByteBuffer.allocateDirect((int) (elements * elementBytes)).order(ByteOrder.nativeOrder());
+    }
+    return chunks;
+  }
+
+  private static ByteBuffer[] map(FileChannel channel, long position, long length, int elementBytes, int chunkBits) throws IOException {
+    long perChunk = 1L << chunkBits;
+    ByteBuffer[] chunks = new ByteBuffer[(int) ((length + perChunk - 1) >>> chunkBits)];
+    for (int i = 0; i < chunks.length; i++) {
+      long elements = Math.min(perChunk, length - i * perChunk);
+      MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, position + i * perChunk * elementBytes, elements * elementBytes);
+      chunks[i] = chunk.order(ByteOrder.LITTLE_ENDIAN);
+    }
+    return chunks;
+  }
+}
@@ -0,0 +1,229 @@
+import java.util.*;
+import java.util.function.IntPredicate;
+
+/**
+ * An immutable integer graph whose adjacency lists are gap-encoded and packed as varints.
+ *
+ * Each vertex's neighbor positions are sorted. The first is written as its signed distance from the
+ * vertex itself, and every later one as the gap from the one before it. Neighbors tend to sit close to
+ * each other, so most of these numbers fit in a single byte instead of the four a CsrGraph spends on
+ * every edge. The traversals decode each list sequentially as they walk it.
+ *
+ * As a Graph, its vertex ids are positions in id order, as in CsrGraph. Which vertices were keys of
+ * the map the CsrGraph came from is kept too.
+ *
+ * Numbers are written seven bits per byte, low bits first, with the high bit set on every byte but the last.
+ */
+public class CompressedGraph implements Graph {
+  private final int[] ids;
+  private final int[] offsets;
+  private final byte[] data;
+  private final int edgeCount;
+  // The positions of the vertices that are keys, or null if every vertex is.
+  private final BitSet keys;
+
+  private CompressedGraph(int[] ids, int[] offsets, byte[] data, int edgeCount, BitSet keys) {
+    this.ids = ids;
+    this.offsets = offsets;
+    this.data = data;
+    this.edgeCount = edgeCount;
+    this.keys = keys;
+  }
+
+  /**
+   * Compresses a CsrGraph.
+   *
+   * @param graph the graph to compress
+   * @return a compressed copy of the graph
+   */
+  public static CompressedGraph compress(CsrGraph graph) {
+    int n = graph.vertexCount();
+    int[] offsets = new int[n + 1];
+    byte[] data = new byte[Math.max(16, graph.edgeCount() + n)];
+    int at = 0;
+    int[] sorted = new int[0];
+
+    for (int i = 0; i < n; i++) {
+      offsets[i] = at;
+      int degree = graph.degree(i);
+      if (sorted.length < degree) sorted = new int[Math.max(degree, sorted.length * 2)];
+      System.arraycopy(graph.targets, graph.offsets[i], sorted, 0, degree);
+      Arrays.sort(sorted, 0, degree);
+
+      // Worst case: a degree prefix and five bytes per neighbor.
+      if (data.length - at < 5 * (degree + 1)) data = Arrays.copyOf(data, Math.max(data.length * 2, at + 5 * (degree + 1)));
+      at = writeVarint(data, at, degree);
+      int previous = i;
+      for (int k = 0; k < degree; k++) {
+        int target = sorted[k];
+        at = k == 0 ? writeVarint(data, at, zigzag(target - previous)) : writeVarint(data, at, target - previous);
+        previous = target;
+      }
+    }
+    offsets[n] = at;
+
+    return new CompressedGraph(graph.ids.clone(), offsets, Arrays.copyOf(data, at), graph.edgeCount(),
+        graph.keys == null ? null : (BitSet) graph.keys.clone());
+  }
+
+  private static int zigzag(int value) {
+    return (value << 1) ^ (value >> 31);
+  }
+
+  private static int unzigzag(int value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  private static int writeVarint(byte[] data, int at, int value) {
+    while ((value & ~0x7F) != 0) {
+      data[at++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    data[at++] = (byte) value;
+    return at;
+  }
+
+  /**
+   * Returns the number of vertices in the graph.
+   *
+   * @return the number of vertices
+   */
+  public int vertexCount() {
+    return ids.length;
+  }
+
+  /**
+   * Returns the number of edges in the graph.
+   *
+   * @return the number of edges
+   */
+  public int edgeCount() {
+    return edgeCount;
+  }
+
+  /**
+   * Returns the number of bytes held in this graph's arrays.
+   *
+   * @return the size of the ids, offsets and encoded adjacency, and of the key bits if there are any
+   */
+  public long bytesUsed() {
+    return 4L * ids.length + 4L * offsets.length + data.length + (keys == null ? 0 : keys.size() / 8);
+  }
+
+  /**
+   * Returns the position of the vertex with the given id, or a negative number if there is none.
+   *
+   * @param id the vertex id
+   * @return the position of the vertex
+   */
+  public int indexOf(int id) {
+    return Arrays.binarySearch(ids, id);
+  }
+
+  /**
+   * Returns whether the vertex at the given position is a key, rather than an id that only appears as a neighbor.
+   *
+   * @param index the position of the vertex
+   * @return whether the vertex is a key
+   */
+  public boolean isKey(int index) {
+    return keys == null || keys.get(index);
+  }
+
+  /**
+   * Returns the neighbor positions of the vertex at the given position, in ascending order.
+   *
+   * @param index the position of the vertex
+   * @return the decoded neighbor positions
+   */
+  public int[] neighbors(int index) {
+    Decoder decoder = new Decoder(index);
+    int[] neighbors = new int[decoder.remaining];
+    for (int k = 0; k < neighbors.length; k++) neighbors[k] = decoder.next();
+    return neighbors;
+  }
+
+  @Override
+  public boolean forEachNeighbor(int vertex, IntPredicate action) {
+    Decoder decoder = new Decoder(vertex);
+    while (decoder.remaining > 0) {
+      if (!action.test(decoder.next())) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Returns a sorted list of all vertex ids reachable from the given starting id,
+   * with the same meaning as Practice.sortedReachable on a map graph.
+   *
+   * @param starting the starting vertex id
+   * @return a sorted list of all reachable vertex ids
+   */
+  public List<Integer> sortedReachable(int starting) {
+    List<Integer> reachable = new ArrayList<>();
+    int start = indexOf(starting);
+    if (start < 0 || !isKey(start)) return reachable;
+
+    int[] positions = GraphTraversal.reachable(this, start);
+    Arrays.sort(positions);
+    for (int position : positions) reachable.add(ids[position]);
+    return reachable;
+  }
+
+  /**
+   * Returns whether there is a path from starting to ending through non-negative ids only,
+   * with the same meaning as Practice.positivePathExists.
+   *
+   * @param starting the starting vertex id
+   * @param ending the ending vertex id
+   * @return whether there exists a valid positive path from starting to ending
+   */
+  public boolean positivePathExists(int starting, int ending) {
+    if (starting < 0 || ending < 0) return false;
+    int start = indexOf(starting);
+    int end = indexOf(ending);
+    if (start < 0 || end < 0 || !isKey(start) || !isKey(end)) return false;
+    return GraphTraversal.anyReachable(this, start, vertex -> vertex == end, vertex -> ids[vertex] >= 0);
+  }
+
+  /**
+   * Walks one vertex's encoded neighbor list from front to back.
+   */
+  private final class Decoder {
+    int at;
+    int remaining;
+    int previous;
+    boolean first;
+
+    Decoder(int index) {
+      reset(index);
+    }
+
+    void reset(int index) {
+      at = offsets[index];
+      remaining = readVarint();
+      previous = index;
+      first = true;
+    }
+
+    int next() {
+      int value = readVarint();
+      previous += first ? unzigzag(value) : value;
+      first = false;
+      remaining--;
+      return previous;
+    }
+
+    private int readVarint() {
+      int value = 0;
+      int shift = 0;
+      byte b;
+      do {
+        b = data[at++];
+        value |= (b & 0x7F) << shift;
+        shift += 7;
+      } while (b < 0);
+      return value;
+    }
+  }
+}
@@ -0,0 +1,51 @@
+import java.util.*;
+
+/**
+ * Compares the memory and traversal time of a CompressedGraph against the CsrGraph it was built from.
+ *
+ * Usage: java CompressedGraphBenchmark [vertices] [degree]
+ *
+ * The graph is seeded and locality-heavy, the shape gap encoding is meant for: most edges go to
+ * vertices with nearby ids and one in eight goes anywhere in the graph.
+ */
+public class CompressedGraphBenchmark {
+  public static void main(String[] args) {
+    int vertices = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    int degree = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+
+    Random random = new Random(42);
+    int[] ids = new int[vertices];
+    int[] offsets = new int[vertices + 1];
+    int[] targets = new int[vertices * degree];
+    for (int i = 0; i < vertices; i++) {
+      ids[i] = i;
+      offsets[i + 1] = offsets[i] + degree;
+      for (int k = 0; k < degree; k++) {
+        int target = random.nextInt(8) == 0 ? random.nextInt(vertices) : i + random.nextInt(64) - 32;
+        targets[offsets[i] + k] = Math.floorMod(target, vertices);
+      }
+    }
+    CsrGraph csr = new CsrGraph(ids, offsets, targets);
+    CompressedGraph compressed = CompressedGraph.compress(csr);
+
+    System.out.printf("vertices=%d edges=%d%n", csr.vertexCount(), csr.edgeCount());
+    System.out.printf("csr=%d bytes compressed=%d bytes ratio=%.2fx%n",
+        csr.bytesUsed(), compressed.bytesUsed(), (double) csr.bytesUsed() / compressed.bytesUsed());
+
+    int[] starts = new int[5];
+    for (int i = 0; i < starts.length; i++) starts[i] = random.nextInt(vertices);
+    for (int round = 0; round < 3; round++) {
+      long begin = System.nanoTime();
+      long total = 0;
+      for (int start : starts) total += csr.sortedReachable(start).size();
+      long csrNanos = System.nanoTime() - begin;
+
+      begin = System.nanoTime();
+      for (int start : starts) total -= compressed.sortedReachable(start).size();
+      long compressedNanos = System.nanoTime() - begin;
+
+      if (total != 0) throw new AssertionError("CompressedGraph disagrees with CsrGraph");
+      System.out.printf("round %d: csr=%.1f ms compressed=%.1f ms%n", round, csrNanos / 1e6, compressedNanos / 1e6);
+    }
+  }
+}
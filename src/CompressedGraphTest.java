@@ -0,0 +1,64 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+public class CompressedGraphTest {
+
+  /**
+   * Test that compression round-trips neighbor lists, including duplicates, self-loops and
+   * neighbors on either side of the vertex.
+   */
+  @Test
+  public void testNeighborsRoundTrip() {
+    // ids 0..4; 0 -> {3}; 2 -> {4, 0, 2, 4}; 4 -> {1}
+    int[] ids = {0, 1, 2, 3, 4};
+    int[] offsets = {0, 1, 1, 5, 5, 6};
+    int[] targets = {3, 4, 0, 2, 4, 1};
+    CompressedGraph graph = CompressedGraph.compress(new CsrGraph(ids, offsets, targets));
+
+    assertArrayEquals(new int[] {3}, graph.neighbors(0));
+    assertArrayEquals(new int[] {}, graph.neighbors(1));
+    assertArrayEquals(new int[] {0, 2, 4, 4}, graph.neighbors(2));
+    assertArrayEquals(new int[] {1}, graph.neighbors(4));
+    assertEquals(6, graph.edgeCount());
+  }
+
+  /**
+   * Test that queries match Practice on a random map graph with negative and far-apart ids.
+   */
+  @Test
+  public void testQueriesMatchPractice() {
+    Random random = new Random(23);
+    Map<Integer, Set<Integer>> graph = new HashMap<>();
+    for (int i = 0; i < 300; i++) graph.put((i - 40) * 1000, new HashSet<>());
+    List<Integer> keys = new ArrayList<>(graph.keySet());
+    for (int i = 0; i < 450; i++) graph.get(keys.get(random.nextInt(300))).add(keys.get(random.nextInt(300)));
+    CompressedGraph compressed = CompressedGraph.compress(CsrGraph.fromMap(graph));
+
+    for (int id : keys) assertEquals(Practice.sortedReachable(graph, id), compressed.sortedReachable(id));
+    for (int i = 0; i < 500; i++) {
+      int a = keys.get(random.nextInt(300));
+      int b = keys.get(random.nextInt(300));
+      assertEquals(Practice.positivePathExists(graph, a, b), compressed.positivePathExists(a, b));
+    }
+  }
+
+  /**
+   * Test that a locality-heavy graph compresses to well under half its CSR size.
+   */
+  @Test
+  public void testCompresses() {
+    Random random = new Random(1);
+    int n = 10_000;
+    int[] ids = new int[n];
+    int[] offsets = new int[n + 1];
+    int[] targets = new int[n * 8];
+    for (int i = 0; i < n; i++) {
+      ids[i] = i;
+      offsets[i + 1] = offsets[i] + 8;
+      for (int k = 0; k < 8; k++) targets[offsets[i] + k] = Math.floorMod(i + random.nextInt(32) - 16, n);
+    }
+    CsrGraph csr = new CsrGraph(ids, offsets, targets);
+    assertTrue(CompressedGraph.compress(csr).bytesUsed() * 2 < csr.bytesUsed());
+  }
+}
@@ -0,0 +1,212 @@
+import java.util.*;
+import java.util.function.IntPredicate;
+
+/**
+ * An immutable integer graph stored in compressed sparse row (CSR) form.
+ *
+ * Vertex ids are kept in ascending order in one array, and each vertex is referred to internally by
+ * its position in that array. The neighbors of the vertex at position i are the positions
+ * targets[offsets[i]] through targets[offsets[i + 1] - 1]. The whole graph is three int arrays,
+ * with no per-vertex objects. As a Graph, its vertex ids are these positions.
+ *
+ * A graph built from a map remembers which vertices were keys of the map, as Practice's map queries
+ * treat an id that only appears as a neighbor differently from a key with no neighbors.
+ */
+public class CsrGraph implements Graph {
+  final int[] ids;
+  final int[] offsets;
+  final int[] targets;
+  // The positions of the vertices that were keys of the map, or null if every vertex was.
+  final BitSet keys;
+
+  /**
+   * Constructs a CsrGraph from its arrays, which are used as they are and must not be changed afterwards.
+   * Every vertex counts as a key.
+   *
+   * @param ids the vertex ids, in strictly ascending order
+   * @param offsets where each vertex's targets start, with one extra entry for the end of the last vertex
+   * @param targets the neighbor positions of every vertex, one after another
+   */
+  public CsrGraph(int[] ids, int[] offsets, int[] targets) {
+    this(ids, offsets, targets, null);
+  }
+
+  /**
+   * Constructs a CsrGraph from its arrays, which are used as they are and must not be changed afterwards.
+   *
+   * @param ids the vertex ids, in strictly ascending order
+   * @param offsets where each vertex's targets start, with one extra entry for the end of the last vertex
+   * @param targets the neighbor positions of every vertex, one after another
+   * @param keys the positions of the vertices that are keys, or null if every vertex is
+   */
+  public CsrGraph(int[] ids, int[] offsets, int[] targets, BitSet keys) {
+    if (offsets.length != ids.length + 1 || offsets[ids.length] != targets.length) {
+      throw new IllegalArgumentException("offsets do not match ids and targets");
+    }
+    if (keys != null && keys.length() > ids.length) throw new IllegalArgumentException("keys do not match ids");
+    this.ids = ids;
+    this.offsets = offsets;
+    this.targets = targets;
+    this.keys = keys;
+  }
+
+  /**
+   * Builds a CsrGraph from a map graph. Neighbors that are not keys of the map become vertices with no edges,
+   * which are not keys.
+   *
+   * @param graph a map representing the graph
+   * @return the same graph in CSR form
+   */
+  public static CsrGraph fromMap(Map<Integer, Set<Integer>> graph) {
+    TreeSet<Integer> vertexIds = new TreeSet<>(graph.keySet());
+    for (Set<Integer> neighbors : graph.values()) vertexIds.addAll(neighbors);
+
+    int[] ids = new int[vertexIds.size()];
+    int n = 0;
+    for (int id : vertexIds) ids[n++] = id;
+
+    int[] offsets = new int[n + 1];
+    BitSet keys = new BitSet(n);
+    for (int i = 0; i < n; i++) {
+      Set<Integer> neighbors = graph.get(ids[i]);
+      offsets[i + 1] = offsets[i] + (neighbors == null ? 0 : neighbors.size());
+      if (graph.containsKey(ids[i])) keys.set(i);
+    }
+
+    int[] targets = new int[offsets[n]];
+    for (int i = 0; i < n; i++) {
+      Set<Integer> neighbors = graph.get(ids[i]);
+      if (neighbors == null) continue;
+      int at = offsets[i];
+      for (int neighbor : neighbors) targets[at++] = Arrays.binarySearch(ids, neighbor);
+    }
+
+    return new CsrGraph(ids, offsets, targets, keys.cardinality() == n ? null : keys);
+  }
+
+  /**
+   * Returns this graph as a map graph, with every vertex that is a key as a key.
+   *
+   * @return a map representing the graph
+   */
+  public Map<Integer, Set<Integer>> toMap() {
+    Map<Integer, Set<Integer>> graph = new HashMap<>(ids.length * 4 / 3 + 1);
+    for (int i = 0; i < ids.length; i++) {
+      if (!isKey(i)) continue;
+      Set<Integer> neighbors = new HashSet<>((offsets[i + 1] - offsets[i]) * 4 / 3 + 1);
+      for (int e = offsets[i]; e < offsets[i + 1]; e++) neighbors.add(ids[targets[e]]);
+      graph.put(ids[i], neighbors);
+    }
+    return graph;
+  }
+
+  /**
+   * Returns the number of vertices in the graph.
+   *
+   * @return the number of vertices
+   */
+  public int vertexCount() {
+    return ids.length;
+  }
+
+  /**
+   * Returns the number of edges in the graph.
+   *
+   * @return the number of edges
+   */
+  public int edgeCount() {
+    return targets.length;
+  }
+
+  /**
+   * Returns the number of bytes held in this graph's arrays.
+   *
+   * @return the size of the ids, offsets and targets, and of the key bits if there are any
+   */
+  public long bytesUsed() {
+    return 4L * ids.length + 4L * offsets.length + 4L * targets.length + (keys == null ? 0 : keys.size() / 8);
+  }
+
+  /**
+   * Returns the position of the vertex with the given id, or a negative number if there is none.
+   *
+   * @param id the vertex id
+   * @return the position of the vertex
+   */
+  public int indexOf(int id) {
+    return Arrays.binarySearch(ids, id);
+  }
+
+  /**
+   * Returns whether the vertex at the given position is a key, rather than an id that only appears as a neighbor.
+   *
+   * @param index the position of the vertex
+   * @return whether the vertex is a key
+   */
+  public boolean isKey(int index) {
+    return keys == null || keys.get(index);
+  }
+
+  /**
+   * Returns the id of the vertex at the given position.
+   *
+   * @param index the position of the vertex
+   * @return the vertex id
+   */
+  public int id(int index) {
+    return ids[index];
+  }
+
+  /**
+   * Returns the number of edges leaving the vertex at the given position.
+   *
+   * @param index the position of the vertex
+   * @return the out-degree of the vertex
+   */
+  public int degree(int index) {
+    return offsets[index + 1] - offsets[index];
+  }
+
+  @Override
+  public boolean forEachNeighbor(int vertex, IntPredicate action) {
+    for (int e = offsets[vertex]; e < offsets[vertex + 1]; e++) {
+      if (!action.test(targets[e])) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Returns a sorted list of all vertex ids reachable from the given starting id,
+   * with the same meaning as Practice.sortedReachable on a map graph.
+   *
+   * @param starting the starting vertex id
+   * @return a sorted list of all reachable vertex ids
+   */
+  public List<Integer> sortedReachable(int starting) {
+    List<Integer> reachable = new ArrayList<>();
+    int start = indexOf(starting);
+    if (start < 0 || !isKey(start)) return reachable;
+
+    int[] positions = GraphTraversal.reachable(this, start);
+    // ids are in ascending order, so sorting the positions sorts the ids.
+    Arrays.sort(positions);
+    for (int position : positions) reachable.add(ids[position]);
+    return reachable;
+  }
+
+  /**
+   * Returns whether there is a path from starting to ending through non-negative ids only,
+   * with the same meaning as Practice.positivePathExists.
+   *
+   * @param starting the starting vertex id
+   * @param ending the ending vertex id
+   * @return whether there exists a valid positive path from starting to ending
+   */
+  public boolean positivePathExists(int starting, int ending) {
+    if (starting < 0 || ending < 0) return false;
+    int start = indexOf(starting);
+    int end = indexOf(ending);
+    if (start < 0 || end < 0 || !isKey(start) || !isKey(end)) return false;
+    return GraphTraversal.anyReachable(this, start, vertex -> vertex == end, vertex -> ids[vertex] >= 0);
+  }
+}
@@ -0,0 +1,71 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+public class CsrGraphTest {
+
+  /**
+   * Test that ids which only appear as neighbors answer the way Practice's map queries do.
+   */
+  @Test
+  public void testNeighborOnlyIdsMatchPractice() {
+    Map<Integer, Set<Integer>> graph = new HashMap<>();
+    graph.put(1, Set.of(2, 7));
+    graph.put(2, Set.of(-4));
+    graph.put(5, Set.of());
+    CsrGraph csr = CsrGraph.fromMap(graph);
+
+    assertEquals(5, csr.vertexCount());
+    assertFalse(csr.isKey(csr.indexOf(7)));
+    assertTrue(csr.isKey(csr.indexOf(5)));
+    for (int id : new int[] {1, 2, 5, 7, -4, 9}) {
+      assertEquals(Practice.sortedReachable(graph, id), csr.sortedReachable(id), "from " + id);
+      for (int other : new int[] {1, 2, 5, 7, -4, 9}) {
+        assertEquals(Practice.positivePathExists(graph, id, other), csr.positivePathExists(id, other), id + " to " + other);
+      }
+    }
+    assertEquals(graph, csr.toMap());
+  }
+
+  /**
+   * Test that the graphs made from a CsrGraph keep which vertices were keys.
+   */
+  @Test
+  public void testDerivedGraphsKeepKeys() {
+    Map<Integer, Set<Integer>> graph = new HashMap<>();
+    graph.put(3, Set.of(8, -1));
+    graph.put(8, Set.of(12));
+    graph.put(-1, Set.of(20));
+    graph.put(12, Set.of());
+    CsrGraph csr = CsrGraph.fromMap(graph);
+    CompressedGraph compressed = CompressedGraph.compress(csr);
+    GraphReordering reordered = GraphReordering.reorder(csr, GraphReordering.Order.DEGREE);
+
+    try (OffHeapGraph offHeap = OffHeapGraph.copyOf(csr, null)) {
+      for (int id : new int[] {3, 8, -1, 12, 20, 5}) {
+        List<Integer> expected = Practice.sortedReachable(graph, id);
+        assertEquals(expected, compressed.sortedReachable(id), "from " + id);
+        assertEquals(expected, reordered.sortedReachable(id), "from " + id);
+        assertEquals(expected, offHeap.sortedReachable(id), "from " + id);
+        for (int other : new int[] {3, 8, -1, 12, 20, 5}) {
+          boolean path = Practice.positivePathExists(graph, id, other);
+          assertEquals(path, compressed.positivePathExists(id, other), id + " to " + other);
+          assertEquals(path, reordered.positivePathExists(id, other), id + " to " + other);
+          assertEquals(path, offHeap.positivePathExists(id, other), id + " to " + other);
+        }
+      }
+    }
+  }
+
+  /**
+   * Test that a graph built from arrays counts every vertex as a key.
+   */
+  @Test
+  public void testArraysMakeEveryVertexAKey() {
+    CsrGraph chain = new CsrGraph(new int[] {0, 1, 2}, new int[] {0, 1, 2, 2}, new int[] {1, 2});
+    assertEquals(List.of(2), chain.sortedReachable(2));
+    assertTrue(chain.positivePathExists(0, 2));
+    assertEquals(Map.of(0, Set.of(1), 1, Set.of(2), 2, Set.of()), chain.toMap());
+    assertThrows(IllegalArgumentException.class, () -> new CsrGraph(new int[] {0}, new int[] {0, 0}, new int[0], BitSet.valueOf(new long[] {2})));
+  }
+}
@@ -0,0 +1,200 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A union-find structure over the ordinals 0..size-1, using path compression
+ * and union by rank so that find and union run in near-constant amortized time.
+ */
+public class DisjointSet {
+  private int[] parent;
+  private byte[] rank;
+  private int size;
+  private int components;
+
+  /**
+   * Constructs a DisjointSet where every ordinal starts in its own set.
+   *
+   * @param size the number of ordinals to start with
+   */
+  public DisjointSet(int size) {
+    parent = new int[size];
+    rank = new byte[size];
+    for (int i = 0; i < size; i++) parent[i] = i;
+    this.size = size;
+    components = size;
+  }
+
+  private DisjointSet(int[] parent, byte[] rank, int components) {
+    this.parent = parent;
+    this.rank = rank;
+    this.size = parent.length;
+    this.components = components;
+  }
+
+  /**
+   * Adds a new singleton set and returns its ordinal.
+   *
+   * @return the ordinal of the new set
+   */
+  public int add() {
+    if (size == parent.length) {
+      int capacity = Math.max(8, size + (size >> 1));
+      parent = Arrays.copyOf(parent, capacity);
+      rank = Arrays.copyOf(rank, capacity);
+    }
+
+    int ordinal = size++;
+    parent[ordinal] = ordinal;
+    components++;
+    return ordinal;
+  }
+
+  /**
+   * Returns the number of ordinals tracked by this structure.
+   *
+   * @return the number of ordinals
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the representative of the set containing the given ordinal.
+   *
+   * @param x the ordinal to look up
+   * @return the representative ordinal of its set
+   */
+  public int find(int x) {
+    int root = x;
+    while (parent[root] != root) root = parent[root];
+
+    while (parent[x] != root) {
+      int next = parent[x];
+      parent[x] = root;
+      x = next;
+    }
+
+    return root;
+  }
+
+  /**
+   * Merges the sets containing a and b.
+   *
+   * @param a the first ordinal
+   * @param b the second ordinal
+   * @return true if the two ordinals were in different sets before the call
+   */
+  public boolean union(int a, int b) {
+    int rootA = find(a);
+    int rootB = find(b);
+    if (rootA == rootB) return false;
+
+    if (rank[rootA] < rank[rootB]) {
+      int swap = rootA;
+      rootA = rootB;
+      rootB = swap;
+    }
+
+    parent[rootB] = rootA;
+    if (rank[rootA] == rank[rootB]) rank[rootA]++;
+    components--;
+    return true;
+  }
+
+  /**
+   * Returns true if a and b are in the same set.
+   *
+   * @param a the first ordinal
+   * @param b the second ordinal
+   * @return whether a and b share a representative
+   */
+  public boolean connected(int a, int b) {
+    return find(a) == find(b);
+  }
+
+  /**
+   * Returns the number of disjoint sets.
+   *
+   * @return the number of sets
+   */
+  public int components() {
+    return components;
+  }
+
+  /**
+   * A union-find over a fixed number of ordinals that many threads may union at once, for bulk loads.
+   *
+   * Roots are linked by compare-and-set, always the higher ordinal under the lower, so two threads
+   * linking the same roots cannot make a cycle; find halves paths with compare-and-set as it goes.
+   * Once every union is done, toDisjointSet hands the result over to an ordinary DisjointSet.
+   */
+  static final class Concurrent {
+    private final AtomicIntegerArray parent;
+
+    /**
+     * Constructs a Concurrent union-find where every ordinal starts in its own set.
+     *
+     * @param size the number of ordinals
+     */
+    Concurrent(int size) {
+      parent = new AtomicIntegerArray(size);
+      for (int i = 0; i < size; i++) parent.set(i, i);
+    }
+
+    int find(int x) {
+      while (true) {
+        int up = parent.get(x);
+        if (up == x) return x;
+        int grandparent = parent.get(up);
+        // Losing this race only means someone else shortened the path first.
+        if (grandparent != up) parent.compareAndSet(x, up, grandparent);
+        x = up;
+      }
+    }
+
+    /**
+     * Merges the sets containing a and b. Safe to call from several threads at once.
+     *
+     * @param a the first ordinal
+     * @param b the second ordinal
+     */
+    void union(int a, int b) {
+      while (true) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB) return;
+        if (rootA > rootB) {
+          int swap = rootA;
+          rootA = rootB;
+          rootB = swap;
+        }
+        // Fails only if rootB stopped being a root since find, in which case look again.
+        if (parent.compareAndSet(rootB, rootB, rootA)) return;
+      }
+    }
+
+    /**
+     * Returns a DisjointSet with the same sets. Must only be called once every union has returned.
+     *
+     * @return the equivalent DisjointSet
+     */
+    DisjointSet toDisjointSet() {
+      int size = parent.length();
+      int[] flat = new int[size];
+      byte[] rank = new byte[size];
+      int components = 0;
+      // Parents always have lower ordinals, so each root is final by the time its members are reached.
+      for (int i = 0; i < size; i++) {
+        int up = parent.get(i);
+        if (up == i) {
+          flat[i] = i;
+          components++;
+        } else {
+          flat[i] = flat[up];
+          rank[flat[i]] = 1;
+        }
+      }
+      return new DisjointSet(flat, rank, components);
+    }
+  }
+}
@@ -0,0 +1,274 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Loads graphs from edge-list text files, one "source target" pair of integers per line.
+ *
+ * Blank lines and lines starting with '#' or '%' are skipped. The file is split into byte ranges that
+ * end on line breaks, and each range is memory-mapped and parsed straight from its bytes on its own
+ * thread, without creating a String per line or per number. The per-range edge arrays are then merged
+ * into a CsrGraph, also in parallel, and the map and Vertex forms are built from that.
+ */
+public class EdgeListLoader {
+  private static final long MAX_CHUNK_BYTES = 1L << 26;
+
+  /**
+   * Loads an edge-list file as a CsrGraph.
+   *
+   * @param path the edge-list file
+   * @return the graph in CSR form
+   * @throws IOException if the file cannot be read or is malformed
+   */
+  public static CsrGraph loadCsr(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long[] bounds = chunkBounds(channel);
+      Edges[] parsed;
+      try {
+        parsed = IntStream.range(0, bounds.length - 1).parallel()
+            .mapToObj(i -> parse(channel, bounds[i], bounds[i + 1]))
+            .toArray(Edges[]::new);
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+      return merge(parsed);
+    }
+  }
+
+  /**
+   * Loads an edge-list file as a map graph, with every vertex that appears in the file as a key.
+   *
+   * @param path the edge-list file
+   * @return a map representing the graph
+   * @throws IOException if the file cannot be read or is malformed
+   */
+  public static Map<Integer, Set<Integer>> loadMap(Path path) throws IOException {
+    return loadCsr(path).toMap();
+  }
+
+  /**
+   * Loads an edge-list file as Vertex objects, keyed by the id that appears in the file.
+   * Each vertex's data is its id.
+   *
+   * @param path the edge-list file
+   * @return every vertex in the graph, keyed by id
+   * @throws IOException if the file cannot be read or is malformed
+   */
+  public static Map<Integer, Vertex<Integer>> loadVertices(Path path) throws IOException {
+    CsrGraph graph = loadCsr(path);
+    int n = graph.vertexCount();
+    List<Vertex<Integer>> vertices = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) vertices.add(new Vertex<>(graph.ids[i], new ArrayList<>(graph.degree(i))));
+
+    Map<Integer, Vertex<Integer>> byId = new HashMap<>(n * 4 / 3 + 1);
+    for (int i = 0; i < n; i++) {
+      Vertex<Integer> vertex = vertices.get(i);
+      for (int e = graph.offsets[i]; e < graph.offsets[i + 1]; e++) vertex.neighbors.add(vertices.get(graph.targets[e]));
+      byId.put(graph.ids[i], vertex);
+    }
+    return byId;
+  }
+
+  private static long[] chunkBounds(FileChannel channel) throws IOException {
+    long size = channel.size();
+    int chunks = (int) Math.max(Runtime.getRuntime().availableProcessors(), (size + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES);
+    long[] bounds = new long[chunks + 1];
+    bounds[chunks] = size;
+
+    ByteBuffer one = ByteBuffer.allocate(1);
+    for (int i = 1; i < chunks; i++) {
+      long at = Math.max(bounds[i - 1], size * i / chunks);
+      // Move the boundary just past the next line break so that no line is split between chunks.
+      while (at < size) {
+        one.clear();
+        channel.read(one, at++);
+        if (one.get(0) == '\n') break;
+      }
+      bounds[i] = at;
+    }
+    return bounds;
+  }
+
+  private static Edges parse(FileChannel channel, long from, long to) {
+    Edges edges = new Edges();
+    if (from >= to) return edges;
+
+    ByteBuffer buffer;
+    try {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    int limit = buffer.limit();
+    int pos = 0;
+    int[] pair = new int[2];
+    while (pos < limit) {
+      byte b = buffer.get(pos);
+      if (b == '#' || b == '%') {
+        while (pos < limit && buffer.get(pos) != '\n') pos++;
+        continue;
+      }
+      if (isSpace(b)) {
+        pos++;
+        continue;
+      }
+
+      for (int k = 0; k < 2; k++) {
+        while (pos < limit && (buffer.get(pos) == ' ' || buffer.get(pos) == '\t')) pos++;
+        boolean negative = pos < limit && buffer.get(pos) == '-';
+        if (negative) pos++;
+        int start = pos;
+        long value = 0;
+        while (pos < limit && buffer.get(pos) >= '0' && buffer.get(pos) <= '9') {
+          value = value * 10 + (buffer.get(pos++) - '0');
+          if (value > Integer.MAX_VALUE + 1L) throw malformed(from + pos);
+        }
+        if (pos == start) throw malformed(from + pos);
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) throw malformed(from + pos);
+        pair[k] = (int) value;
+      }
+
+      while (pos < limit && buffer.get(pos) != '\n') {
+        if (!isSpace(buffer.get(pos))) throw malformed(from + pos);
+        pos++;
+      }
+      edges.add(pair[0], pair[1]);
+    }
+
+    return edges;
+  }
+
+  private static boolean isSpace(byte b) {
+    return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+  }
+
+  private static UncheckedIOException malformed(long offset) {
+    return new UncheckedIOException(new IOException("Malformed edge list at byte " + offset));
+  }
+
+  /**
+   * Builds the CsrGraph from the edges of every chunk. Each chunk is renumbered and sorted by source on its own
+   * thread, and the vertices are then split into ranges that are counted and filled in parallel, so the only
+   * step over every vertex that is not split is the sum that turns degrees into offsets. Within a vertex the
+   * targets keep their order in the file.
+   */
+  private static CsrGraph merge(Edges[] parsed) {
+    int total = 0;
+    for (Edges edges : parsed) total = Math.addExact(total, edges.size);
+
+    int[] endpoints = new int[Math.multiplyExact(total, 2)];
+    int at = 0;
+    for (Edges edges : parsed) {
+      System.arraycopy(edges.sources, 0, endpoints, at, edges.size);
+      System.arraycopy(edges.destinations, 0, endpoints, at + edges.size, edges.size);
+      at += 2 * edges.size;
+    }
+    Arrays.parallelSort(endpoints);
+    int distinct = 0;
+    for (int i = 0; i < endpoints.length; i++) {
+      if (i == 0 || endpoints[i] != endpoints[i - 1]) endpoints[distinct++] = endpoints[i];
+    }
+    int[] ids = Arrays.copyOf(endpoints, distinct);
+    int n = ids.length;
+
+    Arrays.stream(parsed).parallel().forEach(edges -> edges.sortBySource(ids));
+
+    int ranges = Math.max(1, Math.min(n, 4 * Math.max(parsed.length, Runtime.getRuntime().availableProcessors())));
+    int[] offsets = new int[n + 1];
+    IntStream.range(0, ranges).parallel().forEach(r -> {
+      int from = (int) ((long) n * r / ranges);
+      int to = (int) ((long) n * (r + 1) / ranges);
+      for (Edges edges : parsed) {
+        for (int e = edges.firstFrom(from); e < edges.size && edges.sources[e] < to; e++) offsets[edges.sources[e] + 1]++;
+      }
+    });
+    Arrays.parallelPrefix(offsets, Integer::sum);
+
+    int[] targets = new int[total];
+    IntStream.range(0, ranges).parallel().forEach(r -> {
+      int from = (int) ((long) n * r / ranges);
+      int to = (int) ((long) n * (r + 1) / ranges);
+      int[] next = Arrays.copyOfRange(offsets, from, to);
+      for (Edges edges : parsed) {
+        for (int e = edges.firstFrom(from); e < edges.size && edges.sources[e] < to; e++) {
+          targets[next[edges.sources[e] - from]++] = edges.destinations[e];
+        }
+      }
+    });
+
+    return new CsrGraph(ids, offsets, targets);
+  }
+
+  /**
+   * Loads the given edge-list file and prints how long it took.
+   *
+   * Usage: java EdgeListLoader file
+   *
+   * @param args the path of the edge-list file
+   * @throws IOException if the file cannot be read or is malformed
+   */
+  public static void main(String[] args) throws IOException {
+    Path path = Paths.get(args[0]);
+    long start = System.nanoTime();
+    CsrGraph graph = loadCsr(path);
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.printf("vertices=%d edges=%d seconds=%.3f edges/s=%.0f%n",
+        graph.vertexCount(), graph.edgeCount(), seconds, graph.edgeCount() / seconds);
+  }
+
+  /**
+   * A growable pair of int arrays holding the edges parsed from one chunk.
+   */
+  private static final class Edges {
+    int[] sources = new int[1024];
+    int[] destinations = new int[1024];
+    int size;
+
+    void add(int source, int destination) {
+      if (size == sources.length) {
+        sources = Arrays.copyOf(sources, size * 2);
+        destinations = Arrays.copyOf(destinations, size * 2);
+      }
+      sources[size] = source;
+      destinations[size] = destination;
+      size++;
+    }
+
+    /**
+     * Replaces both ends of every edge with their positions in ids and orders the edges by source, keeping
+     * the file order among edges with the same source.
+     */
+    void sortBySource(int[] ids) {
+      // The source position above the edge's index, so a plain sort is also stable.
+      long[] keys = new long[size];
+      for (int e = 0; e < size; e++) keys[e] = (long) Arrays.binarySearch(ids, sources[e]) << 32 | e;
+      Arrays.sort(keys);
+      int[] sorted = new int[size];
+      for (int e = 0; e < size; e++) {
+        sources[e] = (int) (keys[e] >>> 32);
+        sorted[e] = Arrays.binarySearch(ids, destinations[(int) keys[e]]);
+      }
+      destinations = sorted;
+    }
+
+    /** Returns the index of the first edge whose source is at least the given position. */
+    int firstFrom(int source) {
+      int low = 0;
+      int high = size;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (sources[mid] < source) low = mid + 1;
+        else high = mid;
+      }
+      return low;
+    }
+  }
+}
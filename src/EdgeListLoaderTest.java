@@ -0,0 +1,88 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+public class EdgeListLoaderTest {
+
+  @TempDir
+  Path dir;
+
+  private Path write(String name, String contents) throws IOException {
+    Path file = dir.resolve(name);
+    Files.write(file, contents.getBytes(StandardCharsets.US_ASCII));
+    return file;
+  }
+
+  /**
+   * Test comments, blank lines, tabs, Windows line endings and negative ids.
+   */
+  @Test
+  public void testParsesFormats() throws IOException {
+    Path file = write("small.txt", "# comment\n1 2\r\n\n2\t-3\n% other comment\n  -3 1\n4 4");
+    Map<Integer, Set<Integer>> graph = EdgeListLoader.loadMap(file);
+
+    assertEquals(Set.of(1, 2, -3, 4), graph.keySet());
+    assertEquals(Set.of(2), graph.get(1));
+    assertEquals(Set.of(-3), graph.get(2));
+    assertEquals(Set.of(4), graph.get(4));
+    assertEquals(Arrays.asList(-3, 1, 2), Practice.sortedReachable(graph, 1));
+  }
+
+  /**
+   * Test that a large file split into many chunks loads the same graph as it was written from.
+   */
+  @Test
+  public void testLargeFileMatchesSource() throws IOException {
+    Random random = new Random(3);
+    Map<Integer, Set<Integer>> expected = new HashMap<>();
+    Map<Integer, List<Integer>> inFileOrder = new HashMap<>();
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 50_000; i++) {
+      int from = random.nextInt(5_000) - 100;
+      int to = random.nextInt(5_000) - 100;
+      expected.computeIfAbsent(from, k -> new HashSet<>()).add(to);
+      inFileOrder.computeIfAbsent(from, k -> new ArrayList<>()).add(to);
+      expected.computeIfAbsent(to, k -> new HashSet<>());
+      text.append(from).append(' ').append(to).append('\n');
+    }
+    Path file = write("large.txt", text.toString());
+
+    assertEquals(expected, EdgeListLoader.loadMap(file));
+    CsrGraph csr = EdgeListLoader.loadCsr(file);
+    assertEquals(50_000, csr.edgeCount());
+    // Each vertex's targets keep the order they have in the file.
+    for (Map.Entry<Integer, List<Integer>> entry : inFileOrder.entrySet()) {
+      int index = csr.indexOf(entry.getKey());
+      List<Integer> targets = new ArrayList<>();
+      csr.forEachNeighbor(index, neighbor -> targets.add(csr.id(neighbor)));
+      assertEquals(entry.getValue(), targets);
+    }
+  }
+
+  /**
+   * Test that the Vertex form is wired the same way as the file.
+   */
+  @Test
+  public void testLoadVertices() throws IOException {
+    Path file = write("vertices.txt", "5 8\n5 9\n8 2\n");
+    Map<Integer, Vertex<Integer>> vertices = EdgeListLoader.loadVertices(file);
+
+    assertEquals(Arrays.asList(2, 5, 8, 9), Practice.sortedReachable(vertices.get(5)));
+    assertEquals(2, Practice.oddVertices(vertices.get(5)));
+  }
+
+  /**
+   * Test that malformed lines are rejected.
+   */
+  @Test
+  public void testRejectsMalformedLines() throws IOException {
+    assertThrows(IOException.class, () -> EdgeListLoader.loadCsr(write("one.txt", "1 2\n3\n")));
+    assertThrows(IOException.class, () -> EdgeListLoader.loadCsr(write("letters.txt", "1 a\n")));
+    assertThrows(IOException.class, () -> EdgeListLoader.loadCsr(write("big.txt", "1 99999999999\n")));
+  }
+}
@@ -0,0 +1,176 @@
+import java.util.*;
+import java.util.function.IntPredicate;
+
+/**
+ * A compact, immutable copy of a Vertex graph: one array of values plus CSR adjacency. When every value
+ * is a non-null Integer the values are kept unboxed in an int[], which intValue reads directly.
+ *
+ * Freezing walks the graph from a set of roots and gives every vertex it reaches a dense ordinal,
+ * in the order vertices are found. The frozen graph stores no Vertex objects and no ArrayLists, so
+ * it takes a fraction of the memory and its scans run over plain arrays. The Handle returned by
+ * freeze maps between ordinals and the original vertices; dropping it lets the originals be
+ * collected while the frozen graph stays usable.
+ *
+ * As a Graph, its vertex ids are the ordinals. Practice has overloads of its Vertex queries that run on it.
+ *
+ * @param <T> the type of data stored in the vertices
+ */
+public class FrozenGraph<T> implements Graph {
+  // Exactly one of values and ints is set: ints when every value is a non-null Integer.
+  private final Object[] values;
+  private final int[] ints;
+  private final int[] offsets;
+  private final int[] targets;
+
+  private FrozenGraph(Object[] values, int[] ints, int[] offsets, int[] targets) {
+    this.values = values;
+    this.ints = ints;
+    this.offsets = offsets;
+    this.targets = targets;
+  }
+
+  /**
+   * Freezes every vertex reachable from the given roots. Null roots and null neighbors are skipped.
+   *
+   * @param <T> the type of data stored in the vertices
+   * @param roots the vertices to start from
+   * @return a handle holding the frozen graph and the mapping back to the original vertices
+   */
+  public static <T> Handle<T> freeze(Collection<Vertex<T>> roots) {
+    Map<Vertex<T>, Integer> ordinals = new IdentityHashMap<>();
+    List<Vertex<T>> vertices = new ArrayList<>();
+    long edgeCount = 0;
+
+    for (Vertex<T> root : roots) {
+      if (root == null || ordinals.containsKey(root)) continue;
+      ordinals.put(root, vertices.size());
+      vertices.add(root);
+
+      for (int next = vertices.size() - 1; next < vertices.size(); next++) {
+        for (Vertex<T> neighbor : vertices.get(next).neighbors) {
+          if (neighbor == null) continue;
+          edgeCount++;
+          if (ordinals.containsKey(neighbor)) continue;
+          ordinals.put(neighbor, vertices.size());
+          vertices.add(neighbor);
+        }
+      }
+    }
+
+    int n = vertices.size();
+    boolean allInts = true;
+    for (int i = 0; i < n && allInts; i++) allInts = vertices.get(i).data instanceof Integer;
+    Object[] values = allInts ? null : new Object[n];
+    int[] ints = allInts ? new int[n] : null;
+    int[] offsets = new int[n + 1];
+    int[] targets = new int[Math.toIntExact(edgeCount)];
+    int at = 0;
+    for (int i = 0; i < n; i++) {
+      Vertex<T> vertex = vertices.get(i);
+      if (allInts) ints[i] = (Integer) vertex.data;
+      else values[i] = vertex.data;
+      for (Vertex<T> neighbor : vertex.neighbors) {
+        if (neighbor != null) targets[at++] = ordinals.get(neighbor);
+      }
+      offsets[i + 1] = at;
+    }
+
+    return new Handle<>(new FrozenGraph<>(values, ints, offsets, targets), ordinals, vertices);
+  }
+
+  /**
+   * Returns the number of vertices in the graph.
+   *
+   * @return the number of vertices
+   */
+  public int vertexCount() {
+    return offsets.length - 1;
+  }
+
+  /**
+   * Returns the number of edges in the graph.
+   *
+   * @return the number of edges
+   */
+  public int edgeCount() {
+    return targets.length;
+  }
+
+  /**
+   * Returns the data of the vertex with the given ordinal.
+   *
+   * @param ordinal the ordinal of the vertex
+   * @return the data stored at the vertex
+   */
+  @SuppressWarnings("unchecked")
+  public T value(int ordinal) {
+    return ints != null ? (T) Integer.valueOf(ints[ordinal]) : (T) values[ordinal];
+  }
+
+  /**
+   * Returns the data of the vertex with the given ordinal as an int, without boxing when every value is an Integer.
+   *
+   * @param ordinal the ordinal of the vertex
+   * @return the data stored at the vertex
+   * @throws ClassCastException if the data is not an Integer
+   * @throws NullPointerException if the data is null
+   */
+  public int intValue(int ordinal) {
+    return ints != null ? ints[ordinal] : (Integer) values[ordinal];
+  }
+
+  @Override
+  public boolean forEachNeighbor(int vertex, IntPredicate action) {
+    for (int e = offsets[vertex]; e < offsets[vertex + 1]; e++) {
+      if (!action.test(targets[e])) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Maps between a FrozenGraph's ordinals and the vertices it was frozen from.
+   *
+   * @param <T> the type of data stored in the vertices
+   */
+  public static final class Handle<T> {
+    private final FrozenGraph<T> graph;
+    private final Map<Vertex<T>, Integer> ordinals;
+    private final List<Vertex<T>> originals;
+
+    private Handle(FrozenGraph<T> graph, Map<Vertex<T>, Integer> ordinals, List<Vertex<T>> originals) {
+      this.graph = graph;
+      this.ordinals = ordinals;
+      this.originals = originals;
+    }
+
+    /**
+     * Returns the frozen graph.
+     *
+     * @return the frozen graph
+     */
+    public FrozenGraph<T> graph() {
+      return graph;
+    }
+
+    /**
+     * Returns the ordinal of the given original vertex, or -1 if it was not reached while freezing.
+     *
+     * @param vertex an original vertex (may be null)
+     * @return its ordinal in the frozen graph
+     */
+    public int ordinalOf(Vertex<T> vertex) {
+      Integer ordinal = ordinals.get(vertex);
+      return ordinal == null ? -1 : ordinal;
+    }
+
+    /**
+     * Returns the original vertex with the given ordinal.
+     *
+     * @param ordinal the ordinal of the vertex
+     * @return the vertex it was frozen from
+     */
+    public Vertex<T> vertex(int ordinal) {
+      return originals.get(ordinal);
+    }
+  }
+}
@@ -0,0 +1,75 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+public class FrozenGraphTest {
+
+  /**
+   * Test that every Vertex query gives the same answer on the frozen form, from every vertex.
+   */
+  @Test
+  public void testQueriesMatchOriginal() {
+    Random random = new Random(12);
+    List<Vertex<Integer>> vertices = new ArrayList<>();
+    for (int i = 0; i < 80; i++) vertices.add(new Vertex<>(random.nextInt(30)));
+    for (int i = 0; i < 120; i++) vertices.get(random.nextInt(80)).neighbors.add(vertices.get(random.nextInt(80)));
+    vertices.get(3).neighbors.add(null);
+
+    FrozenGraph.Handle<Integer> handle = FrozenGraph.freeze(vertices);
+    FrozenGraph<Integer> frozen = handle.graph();
+    assertEquals(80, frozen.vertexCount());
+    assertEquals(120, frozen.edgeCount());
+
+    for (Vertex<Integer> vertex : vertices) {
+      int ordinal = handle.ordinalOf(vertex);
+      assertSame(vertex, handle.vertex(ordinal));
+      assertEquals(vertex.data, frozen.value(ordinal));
+      assertEquals(Practice.oddVertices(vertex), Practice.oddVertices(frozen, ordinal));
+      assertEquals(Practice.sortedReachable(vertex), Practice.sortedReachable(frozen, ordinal));
+    }
+    for (int i = 0; i < 300; i++) {
+      Vertex<Integer> a = vertices.get(random.nextInt(80));
+      Vertex<Integer> b = vertices.get(random.nextInt(80));
+      assertEquals(Practice.twoWay(a, b), Practice.twoWay(frozen, handle.ordinalOf(a), handle.ordinalOf(b)));
+    }
+  }
+
+  /**
+   * Test that only vertices reachable from the roots are frozen, and that unknown ordinals are handled.
+   */
+  @Test
+  public void testOnlyReachableVerticesAreFrozen() {
+    Vertex<Integer> v5 = new Vertex<>(5);
+    Vertex<Integer> v8 = new Vertex<>(8);
+    Vertex<Integer> stranger = new Vertex<>(7);
+    v5.neighbors.add(v8);
+
+    FrozenGraph.Handle<Integer> handle = FrozenGraph.freeze(Arrays.asList(v5, null));
+    assertEquals(2, handle.graph().vertexCount());
+    assertEquals(-1, handle.ordinalOf(stranger));
+    assertEquals(0, Practice.oddVertices(handle.graph(), -1));
+    assertTrue(Practice.sortedReachable(handle.graph(), 2).isEmpty());
+    assertFalse(Practice.twoWay(handle.graph(), 0, 5));
+  }
+
+  /**
+   * Test that values other than non-null Integers are kept as they are, and read the same way.
+   */
+  @Test
+  public void testOtherValues() {
+    Vertex<String> a = new Vertex<>("a");
+    Vertex<String> b = new Vertex<>(null);
+    a.neighbors.add(b);
+    FrozenGraph<String> strings = FrozenGraph.freeze(List.of(a)).graph();
+    assertEquals("a", strings.value(0));
+    assertNull(strings.value(1));
+    assertThrows(ClassCastException.class, () -> strings.intValue(0));
+
+    Vertex<Integer> one = new Vertex<>(1);
+    Vertex<Integer> missing = new Vertex<>(null);
+    one.neighbors.add(missing);
+    FrozenGraph<Integer> mixed = FrozenGraph.freeze(List.of(one)).graph();
+    assertEquals(1, mixed.intValue(0));
+    assertNull(mixed.value(1));
+  }
+}
@@ -0,0 +1,21 @@
+import java.util.function.IntPredicate;
+
+/**
+ * A directed graph whose vertices are identified by non-negative int ids.
+ *
+ * This is the one view the traversal kernels in GraphTraversal are written against. GraphAdapter
+ * presents Vertex, map and Professional graphs this way without copying their edges, and the compact
+ * graphs implement it directly, so an improvement to a kernel applies to every form at once.
+ */
+public interface Graph {
+
+  /**
+   * Passes the id of each direct neighbor of the given vertex to action, in order,
+   * stopping as soon as action returns false.
+   *
+   * @param vertex the id of the vertex
+   * @param action called with each neighbor id; returns false to stop
+   * @return true if every neighbor was passed to action, false if action stopped early
+   */
+  boolean forEachNeighbor(int vertex, IntPredicate action);
+}
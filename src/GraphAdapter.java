@@ -0,0 +1,102 @@
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+
+/**
+ * Presents a graph of objects as a Graph, without copying its edges.
+ *
+ * Each object is given an id the first time it is seen, either through idOf or while its neighbors
+ * are being listed, so only the part of the graph a traversal actually reaches is ever numbered.
+ * Null neighbors are skipped.
+ *
+ * @param <K> the type of object standing for a vertex
+ */
+public class GraphAdapter<K> implements Graph {
+  private final Function<K, ? extends Iterable<K>> neighbors;
+  private final Map<K, Integer> ids = new HashMap<>();
+  private final List<K> keys = new ArrayList<>();
+
+  /**
+   * Constructs a GraphAdapter that lists each object's neighbors with the given function.
+   *
+   * @param neighbors returns the direct neighbors of an object, or null for none
+   */
+  public GraphAdapter(Function<K, ? extends Iterable<K>> neighbors) {
+    this.neighbors = neighbors;
+  }
+
+  /**
+   * Returns a GraphAdapter over Vertex objects, following their neighbors lists.
+   *
+   * @param <T> the type of data stored in the vertices
+   * @return an adapter over Vertex graphs
+   */
+  public static <T> GraphAdapter<Vertex<T>> ofVertices() {
+    return new GraphAdapter<>(vertex -> vertex.neighbors);
+  }
+
+  /**
+   * Returns a GraphAdapter over a map graph. Neighbors that are not keys of the map have no neighbors of their own.
+   *
+   * @param graph a map representing the graph
+   * @return an adapter over the map graph
+   */
+  public static GraphAdapter<Integer> ofMap(Map<Integer, Set<Integer>> graph) {
+    return new GraphAdapter<>(graph::get);
+  }
+
+  /**
+   * Returns a GraphAdapter over professionals, following their connections.
+   *
+   * @return an adapter over Professional networks
+   */
+  public static GraphAdapter<Professional> ofProfessionals() {
+    return new GraphAdapter<>(Professional::getConnections);
+  }
+
+  /**
+   * Returns the id of the given object, numbering it if it has not been seen before.
+   *
+   * @param key the object
+   * @return its id
+   */
+  public int idOf(K key) {
+    Integer id = ids.get(key);
+    if (id != null) return id;
+
+    id = keys.size();
+    ids.put(key, id);
+    keys.add(key);
+    return id;
+  }
+
+  /**
+   * Returns the object with the given id.
+   *
+   * @param id an id returned by idOf or passed to a neighbor action
+   * @return the object with that id
+   */
+  public K key(int id) {
+    return keys.get(id);
+  }
+
+  /**
+   * Returns the number of objects numbered so far.
+   *
+   * @return the number of ids handed out
+   */
+  public int size() {
+    return keys.size();
+  }
+
+  @Override
+  public boolean forEachNeighbor(int vertex, IntPredicate action) {
+    Iterable<K> adjacent = neighbors.apply(keys.get(vertex));
+    if (adjacent == null) return true;
+
+    for (K neighbor : adjacent) {
+      if (neighbor != null && !action.test(idOf(neighbor))) return false;
+    }
+    return true;
+  }
+}
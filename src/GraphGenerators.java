@@ -0,0 +1,195 @@
+import java.util.*;
+
+/**
+ * Seeded generators of synthetic graphs and boards at any size, for benchmarks and tests.
+ *
+ * The graph generators return plain adjacency, one int array of neighbor ids per vertex 0..n-1,
+ * which the converters below turn into the Vertex, map or Professional form a Practice method takes.
+ * The same seed always gives the same graph. Generating 10^7 vertices is fine as adjacency, but the
+ * Vertex and Professional forms of a graph that size need a heap of several gigabytes.
+ */
+public final class GraphGenerators {
+  private GraphGenerators() {
+  }
+
+  /**
+   * Returns a chain 0 -> 1 -> ... -> n-1.
+   *
+   * @param n the number of vertices
+   * @return the adjacency of the chain
+   */
+  public static int[][] chain(int n) {
+    int[][] adjacency = new int[n][];
+    for (int v = 0; v < n; v++) adjacency[v] = v + 1 < n ? new int[] {v + 1} : new int[0];
+    return adjacency;
+  }
+
+  /**
+   * Returns a side-by-side grid in row-major order where every cell has an edge to the cell on its right and the cell below.
+   *
+   * @param side the number of rows and of columns
+   * @return the adjacency of the grid, with side * side vertices
+   */
+  public static int[][] grid(int side) {
+    int n = Math.multiplyExact(side, side);
+    int[][] adjacency = new int[n][];
+    for (int v = 0; v < n; v++) {
+      boolean right = v % side + 1 < side;
+      boolean down = v + side < n;
+      adjacency[v] = right && down ? new int[] {v + 1, v + side} : right ? new int[] {v + 1} : down ? new int[] {v + side} : new int[0];
+    }
+    return adjacency;
+  }
+
+  /**
+   * Returns a directed Erdos-Renyi style random graph where every edge picks its two ends uniformly.
+   * Duplicate edges and self loops are allowed, as they are in the Vertex form.
+   *
+   * @param n the number of vertices
+   * @param averageDegree the expected number of edges leaving each vertex
+   * @param seed the random seed
+   * @return the adjacency of the graph
+   */
+  public static int[][] erdosRenyi(int n, double averageDegree, long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+    long edges = Math.round(n * averageDegree);
+    int[] from = new int[Math.toIntExact(edges)];
+    int[] to = new int[from.length];
+    for (int e = 0; e < from.length; e++) {
+      from[e] = random.nextInt(n);
+      to[e] = random.nextInt(n);
+    }
+    return fromEdges(n, from, to);
+  }
+
+  /**
+   * Returns a Barabasi-Albert preferential-attachment graph: each new vertex links to edgesPerVertex
+   * earlier vertices, picked with probability proportional to their degree, which gives a power-law
+   * degree distribution. Every link is made in both directions.
+   *
+   * @param n the number of vertices
+   * @param edgesPerVertex the number of links each new vertex makes
+   * @param seed the random seed
+   * @return the adjacency of the graph
+   */
+  public static int[][] preferentialAttachment(int n, int edgesPerVertex, long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+    int links = Math.toIntExact(Math.max(0, (long) (n - 1) * edgesPerVertex));
+    int[] from = new int[2 * links];
+    int[] to = new int[2 * links];
+    // Every link end is recorded once, so a uniform pick from endpoints is a degree-weighted pick of a vertex.
+    int[] endpoints = new int[2 * links];
+    int count = 0;
+
+    for (int v = 1; v < n; v++) {
+      for (int k = 0; k < edgesPerVertex; k++) {
+        int target = count == 0 ? 0 : endpoints[random.nextInt(count)];
+        from[count] = v;
+        to[count] = target;
+        from[count + 1] = target;
+        to[count + 1] = v;
+        endpoints[count] = v;
+        endpoints[count + 1] = target;
+        count += 2;
+      }
+    }
+    return fromEdges(n, from, to);
+  }
+
+  private static int[][] fromEdges(int n, int[] from, int[] to) {
+    int[] degree = new int[n];
+    for (int v : from) degree[v]++;
+    int[][] adjacency = new int[n][];
+    for (int v = 0; v < n; v++) adjacency[v] = new int[degree[v]];
+    Arrays.fill(degree, 0);
+    for (int e = 0; e < from.length; e++) adjacency[from[e]][degree[from[e]]++] = to[e];
+    return adjacency;
+  }
+
+  /**
+   * Builds Vertex objects for an adjacency, with values drawn uniformly from [-n, n).
+   *
+   * @param adjacency the neighbor ids of each vertex
+   * @param seed the random seed for the values
+   * @return the vertices, indexed by id
+   */
+  public static List<Vertex<Integer>> vertices(int[][] adjacency, long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+    int n = adjacency.length;
+    List<Vertex<Integer>> vertices = new ArrayList<>(n);
+    for (int v = 0; v < n; v++) vertices.add(new Vertex<>(random.nextInt(-n, n)));
+    for (int v = 0; v < n; v++) {
+      List<Vertex<Integer>> neighbors = vertices.get(v).neighbors;
+      for (int neighbor : adjacency[v]) neighbors.add(vertices.get(neighbor));
+    }
+    return vertices;
+  }
+
+  /**
+   * Builds the map form of an adjacency, keyed on vertex id. Duplicate edges collapse into one.
+   *
+   * @param adjacency the neighbor ids of each vertex
+   * @return a map from each vertex id to the set of its neighbor ids
+   */
+  public static Map<Integer, Set<Integer>> map(int[][] adjacency) {
+    Map<Integer, Set<Integer>> graph = new HashMap<>(adjacency.length * 2);
+    for (int v = 0; v < adjacency.length; v++) {
+      Set<Integer> neighbors = new HashSet<>(adjacency[v].length * 2);
+      for (int neighbor : adjacency[v]) neighbors.add(neighbor);
+      graph.put(v, neighbors);
+    }
+    return graph;
+  }
+
+  /**
+   * Returns a social-network-shaped group of professionals: connections follow preferential attachment,
+   * so a few people know very many others, and companies are sized by a Zipf distribution, so a few
+   * employ most people. Company names are "Company0", "Company1" and so on, with "Company0" the largest.
+   *
+   * @param n the number of professionals
+   * @param connectionsPerPerson the number of connections each person makes on joining
+   * @param companies the number of companies
+   * @param seed the random seed
+   * @return the professionals, indexed by id
+   */
+  public static List<Professional> professionals(int n, int connectionsPerPerson, int companies, long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+    double[] cumulative = new double[companies];
+    double total = 0;
+    for (int c = 0; c < companies; c++) cumulative[c] = total += 1.0 / (c + 1);
+
+    List<Professional> people = new ArrayList<>(n);
+    for (int v = 0; v < n; v++) {
+      int company = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+      if (company < 0) company = Math.min(companies - 1, -company - 1);
+      people.add(new Professional("Person" + v, "Company" + company, random.nextInt(40), new HashSet<>()));
+    }
+
+    int[][] adjacency = preferentialAttachment(n, connectionsPerPerson, random.nextLong());
+    for (int v = 0; v < n; v++) {
+      Set<Professional> connections = people.get(v).getConnections();
+      for (int neighbor : adjacency[v]) {
+        if (neighbor != v) connections.add(people.get(neighbor));
+      }
+    }
+    return people;
+  }
+
+  /**
+   * Returns a board for nextMoves with walls ('X') scattered at random and every other square open (' ').
+   *
+   * @param rows the number of rows
+   * @param columns the number of columns
+   * @param wallFraction the chance that each square is a wall
+   * @param seed the random seed
+   * @return the board
+   */
+  public static char[][] board(int rows, int columns, double wallFraction, long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+    char[][] board = new char[rows][columns];
+    for (char[] row : board) {
+      for (int c = 0; c < columns; c++) row[c] = random.nextDouble() < wallFraction ? 'X' : ' ';
+    }
+    return board;
+  }
+}
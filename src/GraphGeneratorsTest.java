@@ -0,0 +1,89 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+public class GraphGeneratorsTest {
+
+  /**
+   * Test that the same seed gives the same graph and a different seed a different one.
+   */
+  @Test
+  public void testSeeded() {
+    assertArrayEquals(GraphGenerators.erdosRenyi(500, 3, 1), GraphGenerators.erdosRenyi(500, 3, 1));
+    assertArrayEquals(GraphGenerators.preferentialAttachment(500, 2, 1), GraphGenerators.preferentialAttachment(500, 2, 1));
+    assertFalse(Arrays.deepEquals(GraphGenerators.erdosRenyi(500, 3, 1), GraphGenerators.erdosRenyi(500, 3, 2)));
+  }
+
+  /**
+   * Test the shape of chains and grids.
+   */
+  @Test
+  public void testChainAndGrid() {
+    int[][] chain = GraphGenerators.chain(4);
+    assertArrayEquals(new int[][] {{1}, {2}, {3}, {}}, chain);
+
+    int[][] grid = GraphGenerators.grid(3);
+    assertEquals(9, grid.length);
+    assertArrayEquals(new int[] {1, 3}, grid[0]);
+    assertArrayEquals(new int[] {5}, grid[2]);
+    assertArrayEquals(new int[] {}, grid[8]);
+    assertEquals(9, Practice.sortedReachable(GraphGenerators.map(grid), 0).size());
+  }
+
+  /**
+   * Test that preferential attachment makes every link in both directions and gives hubs.
+   */
+  @Test
+  public void testPreferentialAttachment() {
+    int[][] graph = GraphGenerators.preferentialAttachment(5000, 2, 7);
+    long edges = 0;
+    int maxDegree = 0;
+    for (int[] neighbors : graph) {
+      edges += neighbors.length;
+      maxDegree = Math.max(maxDegree, neighbors.length);
+    }
+    assertEquals(2L * 2 * 4999, edges);
+    assertTrue(maxDegree > 50, "expected a hub, largest degree was " + maxDegree);
+
+    Map<Integer, Set<Integer>> map = GraphGenerators.map(graph);
+    for (int v = 0; v < graph.length; v++) {
+      for (int neighbor : graph[v]) assertTrue(map.get(neighbor).contains(v));
+    }
+  }
+
+  /**
+   * Test that the Vertex and Professional forms agree with the adjacency they were built from.
+   */
+  @Test
+  public void testConversions() {
+    int[][] adjacency = GraphGenerators.erdosRenyi(200, 2, 3);
+    List<Vertex<Integer>> vertices = GraphGenerators.vertices(adjacency, 3);
+    for (int v = 0; v < adjacency.length; v++) {
+      assertEquals(adjacency[v].length, vertices.get(v).neighbors.size());
+      assertTrue(vertices.get(v).data >= -200 && vertices.get(v).data < 200);
+    }
+
+    List<Professional> people = GraphGenerators.professionals(1000, 2, 10, 5);
+    assertEquals(1000, people.size());
+    assertTrue(Practice.hasExtendedConnectionAtCompany(people.get(999), "Company0"));
+    assertFalse(Practice.hasExtendedConnectionAtCompany(people.get(999), "Nowhere"));
+  }
+
+  /**
+   * Test that boards have the requested size and roughly the requested share of walls.
+   */
+  @Test
+  public void testBoard() {
+    char[][] board = GraphGenerators.board(100, 50, 0.25, 9);
+    assertEquals(100, board.length);
+    int walls = 0;
+    for (char[] row : board) {
+      assertEquals(50, row.length);
+      for (char square : row) {
+        if (square == 'X') walls++;
+        else assertEquals(' ', square);
+      }
+    }
+    assertEquals(1250, walls, 150);
+  }
+}
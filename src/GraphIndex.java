@@ -0,0 +1,258 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Precomputed indexes that answer twoWay and hasExtendedConnectionAtCompany without a traversal,
+ * and that can be saved to disk and memory-mapped back on startup instead of being rebuilt.
+ *
+ * The component index stores the strongly connected component of every vertex of a graph with ids
+ * 0..n-1, so twoWay is one comparison. The company index stores, for every professional ordinal of a
+ * ProfessionalNetwork, which extended network they are in and, for every network, the sorted ids of
+ * the companies someone in it works at. It assumes connections are symmetric, as ProfessionalNetwork does.
+ *
+ * A snapshot records the fingerprint of the graph it was built from. Opening it with a different
+ * fingerprint fails, as does opening one whose contents do not match their checksum, so a stale or
+ * damaged index is never used. Callers choose the fingerprint, typically a graph version number or
+ * the value of fingerprint(...).
+ *
+ * Snapshot layout, all little-endian:
+ * <pre>
+ *   header     magic "GIDX", format version, graph fingerprint (long), CRC32 of everything after the header (long)
+ *   components int n, int[n]
+ *   networks   int p, int[p]                    network number of each professional ordinal
+ *   companies  int k, int[k + 1], int[total]    company ids of network i are at [offsets[i], offsets[i + 1])
+ *   names      int c, then c times: int length, UTF-8 bytes
+ * </pre>
+ */
+public class GraphIndex {
+  static final int MAGIC = 0x58444947; // "GIDX" read as a little-endian int
+  static final int FORMAT_VERSION = 1;
+  static final int HEADER_BYTES = 24;
+
+  private final IntBuffer components;
+  private final IntBuffer networkOf;
+  private final IntBuffer companyOffsets;
+  private final IntBuffer companyIds;
+  private final String[] companyNames;
+  private final Map<String, Integer> companyLookup = new HashMap<>();
+
+  private GraphIndex(IntBuffer components, IntBuffer networkOf, IntBuffer companyOffsets, IntBuffer companyIds, String[] companyNames) {
+    this.components = components;
+    this.networkOf = networkOf;
+    this.companyOffsets = companyOffsets;
+    this.companyIds = companyIds;
+    this.companyNames = companyNames;
+    for (int i = 0; i < companyNames.length; i++) companyLookup.put(companyNames[i], i);
+  }
+
+  /**
+   * Builds the indexes.
+   *
+   * @param graph the graph to index for twoWay, or null for none
+   * @param vertexCount the number of vertices in graph, whose ids are 0..vertexCount-1
+   * @param network the professionals to index for hasExtendedConnectionAtCompany, or null for none
+   * @return the built indexes
+   */
+  public static GraphIndex build(Graph graph, int vertexCount, ProfessionalNetwork network) {
+    int[] components = graph == null ? new int[0] : StronglyConnectedComponents.compute(graph, vertexCount);
+
+    int professionals = network == null ? 0 : network.size();
+    int[] networkOf = new int[professionals];
+    Map<Integer, Integer> networkNumbers = new HashMap<>();
+    Map<String, Integer> companyNumbers = new LinkedHashMap<>();
+    List<TreeSet<Integer>> companiesByNetwork = new ArrayList<>();
+
+    for (int ordinal = 0; ordinal < professionals; ordinal++) {
+      int representative = network.networkOf(ordinal);
+      Integer number = networkNumbers.get(representative);
+      if (number == null) {
+        number = networkNumbers.size();
+        networkNumbers.put(representative, number);
+        companiesByNetwork.add(new TreeSet<>());
+      }
+      networkOf[ordinal] = number;
+
+      String company = network.professional(ordinal).getCompany();
+      Integer companyId = companyNumbers.get(company);
+      if (companyId == null) {
+        companyId = companyNumbers.size();
+        companyNumbers.put(company, companyId);
+      }
+      companiesByNetwork.get(number).add(companyId);
+    }
+
+    int[] companyOffsets = new int[companiesByNetwork.size() + 1];
+    for (int i = 0; i < companiesByNetwork.size(); i++) companyOffsets[i + 1] = companyOffsets[i] + companiesByNetwork.get(i).size();
+    int[] companyIds = new int[companyOffsets[companiesByNetwork.size()]];
+    int at = 0;
+    for (TreeSet<Integer> companies : companiesByNetwork) {
+      for (int companyId : companies) companyIds[at++] = companyId;
+    }
+
+    return new GraphIndex(IntBuffer.wrap(components), IntBuffer.wrap(networkOf), IntBuffer.wrap(companyOffsets),
+        IntBuffer.wrap(companyIds), companyNumbers.keySet().toArray(new String[0]));
+  }
+
+  /**
+   * Returns true if each of the two vertices can reach the other, with the same meaning as Practice.twoWay.
+   *
+   * @param v1 the id of the first vertex
+   * @param v2 the id of the second vertex
+   * @return true if there is a two-way connection between v1 and v2
+   */
+  public boolean twoWay(int v1, int v2) {
+    return QueryMetrics.TWO_WAY.recordHit(components.limit(), true, () -> components.get(v1) == components.get(v2));
+  }
+
+  /**
+   * Returns true if anyone in the extended network of the professional with the given ordinal
+   * works at the given company, with the same meaning as Practice.hasExtendedConnectionAtCompany.
+   *
+   * @param ordinal the ProfessionalNetwork ordinal of the professional
+   * @param companyName the name of the company to check for employment
+   * @return true if a person in the extended network works at the specified company
+   */
+  public boolean hasExtendedConnectionAtCompany(int ordinal, String companyName) {
+    return QueryMetrics.HAS_EXTENDED_CONNECTION_AT_COMPANY.recordHit(networkOf.limit(), true, () -> companyInNetwork(ordinal, companyName));
+  }
+
+  private boolean companyInNetwork(int ordinal, String companyName) {
+    Integer companyId = companyLookup.get(companyName);
+    if (companyId == null) return false;
+
+    int network = networkOf.get(ordinal);
+    int low = companyOffsets.get(network);
+    int high = companyOffsets.get(network + 1) - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int midId = companyIds.get(mid);
+      if (midId < companyId) low = mid + 1;
+      else if (midId > companyId) high = mid - 1;
+      else return true;
+    }
+    return false;
+  }
+
+  /**
+   * Writes the indexes to a snapshot file.
+   *
+   * @param path the file to write
+   * @param fingerprint identifies the graph these indexes were built from
+   * @throws IOException if the file cannot be written
+   */
+  public void write(Path path, long fingerprint) throws IOException {
+    byte[][] names = new byte[companyNames.length][];
+    long payloadBytes = 4L * (1 + components.limit()) + 4L * (1 + networkOf.limit())
+        + 4L * (1 + companyOffsets.limit() + companyIds.limit()) + 4;
+    for (int i = 0; i < names.length; i++) {
+      names[i] = companyNames[i].getBytes(StandardCharsets.UTF_8);
+      payloadBytes += 4 + names[i].length;
+    }
+
+    ByteBuffer payload = ByteBuffer.allocate(Math.toIntExact(payloadBytes)).order(ByteOrder.LITTLE_ENDIAN);
+    putInts(payload, components, components.limit());
+    putInts(payload, networkOf, networkOf.limit());
+    putInts(payload, companyOffsets, companyOffsets.limit() - 1);
+    for (int i = 0; i < companyIds.limit(); i++) payload.putInt(companyIds.get(i));
+    payload.putInt(names.length);
+    for (byte[] name : names) payload.putInt(name.length).put(name);
+    payload.flip();
+
+    CRC32 crc = new CRC32();
+    crc.update(payload.duplicate());
+
+    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    header.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(fingerprint).putLong(crc.getValue()).flip();
+
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      while (header.hasRemaining()) channel.write(header);
+      while (payload.hasRemaining()) channel.write(payload);
+    }
+  }
+
+  private static void putInts(ByteBuffer payload, IntBuffer values, int count) {
+    payload.putInt(count);
+    for (int i = 0; i < values.limit(); i++) payload.putInt(values.get(i));
+  }
+
+  /**
+   * Memory-maps a snapshot file written by write.
+   *
+   * @param path the file to open
+   * @param expectedFingerprint the fingerprint of the graph the caller is about to query
+   * @return the indexes, reading directly from the mapped file
+   * @throws IOException if the file cannot be read, is damaged, or was built from a different graph
+   */
+  public static GraphIndex open(Path path, long expectedFingerprint) throws IOException {
+    ByteBuffer file;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() < HEADER_BYTES + 16 || channel.size() > Integer.MAX_VALUE) throw new IOException("Not an index snapshot: " + path);
+      file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    if (file.getInt() != MAGIC) throw new IOException("Not an index snapshot: " + path);
+    int version = file.getInt();
+    if (version != FORMAT_VERSION) throw new IOException("Unsupported index snapshot version " + version + ": " + path);
+    long fingerprint = file.getLong();
+    if (fingerprint != expectedFingerprint) {
+      throw new IOException("Index snapshot is stale: built for graph " + fingerprint + " but graph is " + expectedFingerprint + ": " + path);
+    }
+    long checksum = file.getLong();
+
+    ByteBuffer payload = file.slice().order(ByteOrder.LITTLE_ENDIAN);
+    CRC32 crc = new CRC32();
+    crc.update(payload.duplicate());
+    if (crc.getValue() != checksum) throw new IOException("Index snapshot checksum mismatch: " + path);
+
+    try {
+      IntBuffer components = section(payload, payload.getInt());
+      IntBuffer networkOf = section(payload, payload.getInt());
+      int networks = payload.getInt();
+      IntBuffer companyOffsets = section(payload, networks + 1);
+      IntBuffer companyIds = section(payload, companyOffsets.get(networks));
+      String[] names = new String[payload.getInt()];
+      for (int i = 0; i < names.length; i++) {
+        byte[] name = new byte[payload.getInt()];
+        payload.get(name);
+        names[i] = new String(name, StandardCharsets.UTF_8);
+      }
+      return new GraphIndex(components, networkOf, companyOffsets, companyIds, names);
+    } catch (RuntimeException e) {
+      throw new IOException("Corrupt index snapshot: " + path, e);
+    }
+  }
+
+  private static IntBuffer section(ByteBuffer payload, int count) {
+    ByteBuffer bytes = payload.slice().order(ByteOrder.LITTLE_ENDIAN);
+    bytes.limit(Math.multiplyExact(count, Integer.BYTES));
+    payload.position(payload.position() + bytes.limit());
+    return bytes.asIntBuffer();
+  }
+
+  /**
+   * Returns a 64-bit fingerprint of a graph's structure, for use when the graph has no version number of its own.
+   *
+   * @param graph the graph
+   * @param vertexCount the number of vertices in graph, whose ids are 0..vertexCount-1
+   * @return a hash of every vertex's neighbor list
+   */
+  public static long fingerprint(Graph graph, int vertexCount) {
+    long[] hash = {1469598103934665603L ^ vertexCount};
+    for (int v = 0; v < vertexCount; v++) {
+      hash[0] = (hash[0] ^ -1) * 1099511628211L;
+      graph.forEachNeighbor(v, neighbor -> {
+        hash[0] = (hash[0] ^ neighbor) * 1099511628211L;
+        return true;
+      });
+    }
+    return hash[0];
+  }
+}
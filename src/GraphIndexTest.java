@@ -0,0 +1,156 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+public class GraphIndexTest {
+
+  @TempDir
+  Path dir;
+
+  private FrozenGraph.Handle<Integer> randomGraph(int vertices, int edges, long seed) {
+    Random random = new Random(seed);
+    List<Vertex<Integer>> all = new ArrayList<>();
+    for (int i = 0; i < vertices; i++) all.add(new Vertex<>(i));
+    for (int i = 0; i < edges; i++) {
+      all.get(random.nextInt(vertices)).neighbors.add(all.get(random.nextInt(vertices)));
+    }
+    return FrozenGraph.freeze(all);
+  }
+
+  private ProfessionalNetwork randomNetwork(int people, int connections, long seed) {
+    Random random = new Random(seed);
+    String[] companies = {"Acme", "Globex", "Initech", "Umbrella", "Hooli", "Soylent"};
+    ProfessionalNetwork network = new ProfessionalNetwork();
+    List<Professional> all = new ArrayList<>();
+    for (int i = 0; i < people; i++) {
+      Professional person = new Professional("p" + i, companies[random.nextInt(companies.length)], i % 10, new HashSet<>());
+      all.add(person);
+      network.ordinal(person);
+    }
+    for (int i = 0; i < connections; i++) {
+      network.addConnection(all.get(random.nextInt(people)), all.get(random.nextInt(people)));
+    }
+    return network;
+  }
+
+  /**
+   * Test that strongly connected components put vertices together exactly when Practice.twoWay says so.
+   */
+  @Test
+  public void testComponentsMatchTwoWay() {
+    FrozenGraph.Handle<Integer> handle = randomGraph(60, 90, 5);
+    FrozenGraph<Integer> graph = handle.graph();
+    int[] components = StronglyConnectedComponents.compute(graph, graph.vertexCount());
+
+    for (int a = 0; a < graph.vertexCount(); a++) {
+      for (int b = 0; b < graph.vertexCount(); b++) {
+        assertEquals(Practice.twoWay(handle.vertex(a), handle.vertex(b)), components[a] == components[b]);
+      }
+    }
+  }
+
+  /**
+   * Test that every edge between components goes from a higher component number to a lower one.
+   */
+  @Test
+  public void testComponentsInReverseTopologicalOrder() {
+    FrozenGraph<Integer> graph = randomGraph(200, 260, 9).graph();
+    int[] components = StronglyConnectedComponents.compute(graph, graph.vertexCount());
+
+    for (int v = 0; v < graph.vertexCount(); v++) {
+      int from = components[v];
+      graph.forEachNeighbor(v, neighbor -> {
+        assertTrue(components[neighbor] <= from);
+        return true;
+      });
+    }
+  }
+
+  /**
+   * Test that a long chain does not overflow the stack.
+   */
+  @Test
+  public void testDeepChain() {
+    Map<Integer, Set<Integer>> chain = new HashMap<>();
+    for (int i = 0; i < 200_000; i++) chain.put(i, new HashSet<>(List.of((i + 1) % 200_000)));
+    CsrGraph graph = CsrGraph.fromMap(chain);
+    int[] components = StronglyConnectedComponents.compute(graph, graph.vertexCount());
+    assertEquals(components[0], components[199_999]);
+  }
+
+  /**
+   * Test that a snapshot written to disk and mapped back answers like Practice.
+   */
+  @Test
+  public void testRoundTripMatchesPractice() throws IOException {
+    FrozenGraph.Handle<Integer> handle = randomGraph(80, 120, 3);
+    FrozenGraph<Integer> graph = handle.graph();
+    ProfessionalNetwork network = randomNetwork(100, 60, 4);
+    long fingerprint = GraphIndex.fingerprint(graph, graph.vertexCount());
+
+    Path file = dir.resolve("index.bin");
+    GraphIndex.build(graph, graph.vertexCount(), network).write(file, fingerprint);
+    GraphIndex index = GraphIndex.open(file, fingerprint);
+
+    for (int a = 0; a < graph.vertexCount(); a++) {
+      for (int b = 0; b < graph.vertexCount(); b++) {
+        assertEquals(Practice.twoWay(handle.vertex(a), handle.vertex(b)), index.twoWay(a, b));
+      }
+    }
+    for (int ordinal = 0; ordinal < network.size(); ordinal++) {
+      for (String company : List.of("Acme", "Globex", "Initech", "Umbrella", "Hooli", "Soylent", "Nobody")) {
+        assertEquals(Practice.hasExtendedConnectionAtCompany(network.professional(ordinal), company),
+            index.hasExtendedConnectionAtCompany(ordinal, company));
+      }
+    }
+  }
+
+  /**
+   * Test that a snapshot built for another version of the graph is rejected.
+   */
+  @Test
+  public void testStaleSnapshotRejected() throws IOException {
+    FrozenGraph<Integer> graph = randomGraph(20, 30, 1).graph();
+    Path file = dir.resolve("index.bin");
+    GraphIndex.build(graph, graph.vertexCount(), null).write(file, 7);
+
+    assertThrows(IOException.class, () -> GraphIndex.open(file, 8));
+    assertTrue(GraphIndex.open(file, 7).twoWay(3, 3));
+  }
+
+  /**
+   * Test that a damaged snapshot is rejected.
+   */
+  @Test
+  public void testCorruptSnapshotRejected() throws IOException {
+    FrozenGraph<Integer> graph = randomGraph(20, 30, 1).graph();
+    Path file = dir.resolve("index.bin");
+    GraphIndex.build(graph, graph.vertexCount(), randomNetwork(10, 5, 2)).write(file, 7);
+
+    byte[] bytes = Files.readAllBytes(file);
+    bytes[bytes.length - 1] ^= 1;
+    Files.write(file, bytes);
+    assertThrows(IOException.class, () -> GraphIndex.open(file, 7));
+
+    Files.write(file, new byte[] {1, 2, 3});
+    assertThrows(IOException.class, () -> GraphIndex.open(file, 7));
+  }
+
+  /**
+   * Test that the fingerprint changes when an edge changes.
+   */
+  @Test
+  public void testFingerprintTracksEdges() {
+    Map<Integer, Set<Integer>> map = new HashMap<>();
+    for (int i = 0; i < 5; i++) map.put(i, new HashSet<>());
+    map.get(0).add(1);
+    long before = GraphIndex.fingerprint(CsrGraph.fromMap(map), 5);
+    assertEquals(before, GraphIndex.fingerprint(CsrGraph.fromMap(map), 5));
+    map.get(1).add(2);
+    assertNotEquals(before, GraphIndex.fingerprint(CsrGraph.fromMap(map), 5));
+  }
+}
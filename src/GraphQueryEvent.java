@@ -0,0 +1,41 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A Java Flight Recorder event for one graph query, written by QueryMetrics.
+ *
+ * Only queries slower than the threshold are recorded, 20 ms unless a recording's settings say otherwise,
+ * for example with jfr configure or -XX:StartFlightRecording:settings=... and "graph.Query#threshold=5 ms".
+ * Stack traces are off by default because the query name already says where the event came from.
+ */
+@Name("graph.Query")
+@Label("Graph Query")
+@Category("Graph")
+@Description("A Practice query, or an answer to one served from a cache or an index")
+@Threshold("20 ms")
+@StackTrace(false)
+public class GraphQueryEvent extends Event {
+  @Label("Query")
+  String query;
+
+  @Label("Graph Size")
+  @Description("Number of vertices in the graph, or -1 if the query was given a single vertex and the size is not known")
+  int graphSize;
+
+  @Label("Vertices Visited")
+  long verticesVisited;
+
+  @Label("Edges Scanned")
+  long edgesScanned;
+
+  @Label("Cache Hit")
+  boolean cacheHit;
+
+  @Label("Index Hit")
+  boolean indexHit;
+}
@@ -0,0 +1,261 @@
+import java.util.*;
+
+/**
+ * A copy of a CsrGraph with its vertices renumbered so that traversals touch memory in a more local order.
+ *
+ * The renumbered graph has ids 0..n-1 and is kept alongside maps in both directions between new and
+ * original ids. Queries take and return original ids, so callers never see the renumbering.
+ *
+ * Three orders are offered. BFS numbers vertices in breadth-first order, which places each vertex
+ * near the ones it was discovered from. REVERSE_CUTHILL_MCKEE does the same over the graph with edge
+ * directions ignored, starting each component from a low-degree vertex, expanding neighbors in order
+ * of increasing degree and reversing the result, which keeps edges close to the diagonal. DEGREE puts
+ * the highest-degree vertices first so the hubs most traversals pass through share a few cache lines.
+ */
+public class GraphReordering {
+
+  /**
+   * The available renumbering strategies.
+   */
+  public enum Order { BFS, REVERSE_CUTHILL_MCKEE, DEGREE }
+
+  private final CsrGraph graph;
+  private final int[] originalIds;
+  private final int[] sortedOriginalIds;
+  private final int[] newIdOfPosition;
+
+  private GraphReordering(CsrGraph graph, int[] originalIds, int[] sortedOriginalIds, int[] newIdOfPosition) {
+    this.graph = graph;
+    this.originalIds = originalIds;
+    this.sortedOriginalIds = sortedOriginalIds;
+    this.newIdOfPosition = newIdOfPosition;
+  }
+
+  /**
+   * Renumbers the vertices of a graph.
+   *
+   * @param graph the graph to renumber
+   * @param order the order to number vertices in
+   * @return the renumbered graph with its id maps
+   */
+  public static GraphReordering reorder(CsrGraph graph, Order order) {
+    int[] permutation;
+    switch (order) {
+      case BFS:
+        permutation = bfsOrder(graph);
+        break;
+      case REVERSE_CUTHILL_MCKEE:
+        permutation = reverseCuthillMcKee(graph);
+        break;
+      default:
+        permutation = degreeOrder(graph);
+        break;
+    }
+    return relabel(graph, permutation);
+  }
+
+  /**
+   * Returns the renumbered graph, whose ids are the new ids 0..n-1.
+   *
+   * @return the renumbered graph
+   */
+  public CsrGraph graph() {
+    return graph;
+  }
+
+  /**
+   * Returns the new id of the vertex with the given original id, or -1 if there is no such vertex.
+   *
+   * @param originalId the original vertex id
+   * @return the new vertex id
+   */
+  public int toNew(int originalId) {
+    int position = Arrays.binarySearch(sortedOriginalIds, originalId);
+    return position < 0 ? -1 : newIdOfPosition[position];
+  }
+
+  /**
+   * Returns the original id of the vertex with the given new id.
+   *
+   * @param newId the new vertex id
+   * @return the original vertex id
+   */
+  public int toOriginal(int newId) {
+    return originalIds[newId];
+  }
+
+  /**
+   * Returns a sorted list of all original ids reachable from the given original id,
+   * with the same meaning as Practice.sortedReachable on a map graph.
+   *
+   * @param starting the original id of the starting vertex
+   * @return a sorted list of all reachable original ids
+   */
+  public List<Integer> sortedReachable(int starting) {
+    List<Integer> reachable = new ArrayList<>();
+    int start = toNew(starting);
+    if (start < 0 || !graph.isKey(start)) return reachable;
+
+    int[] ids = GraphTraversal.reachable(graph, start);
+    for (int i = 0; i < ids.length; i++) ids[i] = originalIds[ids[i]];
+    Arrays.sort(ids);
+    for (int id : ids) reachable.add(id);
+    return reachable;
+  }
+
+  /**
+   * Returns whether there is a path from starting to ending through non-negative original ids only,
+   * with the same meaning as Practice.positivePathExists.
+   *
+   * @param starting the original id of the starting vertex
+   * @param ending the original id of the ending vertex
+   * @return whether there exists a valid positive path from starting to ending
+   */
+  public boolean positivePathExists(int starting, int ending) {
+    if (starting < 0 || ending < 0) return false;
+    int start = toNew(starting);
+    int end = toNew(ending);
+    if (start < 0 || end < 0 || !graph.isKey(start) || !graph.isKey(end)) return false;
+    return GraphTraversal.anyReachable(graph, start, vertex -> vertex == end, vertex -> originalIds[vertex] >= 0);
+  }
+
+  /**
+   * Builds the renumbered graph, where permutation lists original positions in their new order.
+   */
+  private static GraphReordering relabel(CsrGraph graph, int[] permutation) {
+    int n = graph.vertexCount();
+    int[] newIdOfPosition = new int[n];
+    for (int newId = 0; newId < n; newId++) newIdOfPosition[permutation[newId]] = newId;
+
+    int[] ids = new int[n];
+    int[] originalIds = new int[n];
+    int[] offsets = new int[n + 1];
+    int[] targets = new int[graph.edgeCount()];
+    BitSet keys = graph.keys == null ? null : new BitSet(n);
+    for (int newId = 0; newId < n; newId++) {
+      int old = permutation[newId];
+      ids[newId] = newId;
+      if (keys != null && graph.isKey(old)) keys.set(newId);
+      originalIds[newId] = graph.ids[old];
+      int at = offsets[newId];
+      for (int e = graph.offsets[old]; e < graph.offsets[old + 1]; e++) targets[at++] = newIdOfPosition[graph.targets[e]];
+      Arrays.sort(targets, offsets[newId], at);
+      offsets[newId + 1] = at;
+    }
+
+    return new GraphReordering(new CsrGraph(ids, offsets, targets, keys), originalIds, graph.ids.clone(), newIdOfPosition);
+  }
+
+  private static int[] bfsOrder(CsrGraph graph) {
+    int n = graph.vertexCount();
+    int[] order = new int[n];
+    boolean[] placed = new boolean[n];
+    int count = 0;
+
+    for (int root = 0; root < n; root++) {
+      if (placed[root]) continue;
+      placed[root] = true;
+      int next = count;
+      order[count++] = root;
+
+      for (; next < count; next++) {
+        int vertex = order[next];
+        for (int e = graph.offsets[vertex]; e < graph.offsets[vertex + 1]; e++) {
+          int neighbor = graph.targets[e];
+          if (placed[neighbor]) continue;
+          placed[neighbor] = true;
+          order[count++] = neighbor;
+        }
+      }
+    }
+
+    return order;
+  }
+
+  private static int[] reverseCuthillMcKee(CsrGraph graph) {
+    int n = graph.vertexCount();
+
+    // Ignore edge directions: each vertex's neighbors are its out-edges followed by its in-edges.
+    int[] degree = new int[n];
+    for (int i = 0; i < n; i++) {
+      degree[i] += graph.degree(i);
+      for (int e = graph.offsets[i]; e < graph.offsets[i + 1]; e++) degree[graph.targets[e]]++;
+    }
+    int[] offsets = new int[n + 1];
+    for (int i = 0; i < n; i++) offsets[i + 1] = offsets[i] + degree[i];
+    int[] next = Arrays.copyOf(offsets, n);
+    int[] neighbors = new int[offsets[n]];
+    for (int i = 0; i < n; i++) {
+      for (int e = graph.offsets[i]; e < graph.offsets[i + 1]; e++) {
+        neighbors[next[i]++] = graph.targets[e];
+        neighbors[next[graph.targets[e]]++] = i;
+      }
+    }
+
+    int[] byDegree = new int[n];
+    for (int i = 0; i < n; i++) byDegree[i] = i;
+    sortByDegree(byDegree, n, degree);
+
+    int[] order = new int[n];
+    boolean[] placed = new boolean[n];
+    int count = 0;
+    int[] pending = new int[16];
+
+    for (int root : byDegree) {
+      if (placed[root]) continue;
+      placed[root] = true;
+      int head = count;
+      order[count++] = root;
+
+      for (; head < count; head++) {
+        int vertex = order[head];
+        int found = 0;
+        for (int e = offsets[vertex]; e < offsets[vertex + 1]; e++) {
+          int neighbor = neighbors[e];
+          if (placed[neighbor]) continue;
+          placed[neighbor] = true;
+          if (found == pending.length) pending = Arrays.copyOf(pending, found * 2);
+          pending[found++] = neighbor;
+        }
+        sortByDegree(pending, found, degree);
+        System.arraycopy(pending, 0, order, count, found);
+        count += found;
+      }
+    }
+
+    for (int i = 0, j = n - 1; i < j; i++, j--) {
+      int swap = order[i];
+      order[i] = order[j];
+      order[j] = swap;
+    }
+    return order;
+  }
+
+  private static void sortByDegree(int[] vertices, int length, int[] degree) {
+    // Packing degree above vertex lets a primitive sort order the batch without boxing.
+    long[] keys = new long[length];
+    for (int i = 0; i < length; i++) keys[i] = ((long) degree[vertices[i]] << 32) | vertices[i];
+    Arrays.sort(keys);
+    for (int i = 0; i < length; i++) vertices[i] = (int) keys[i];
+  }
+
+  private static int[] degreeOrder(CsrGraph graph) {
+    int n = graph.vertexCount();
+    int[] degree = new int[n];
+    for (int i = 0; i < n; i++) {
+      degree[i] += graph.degree(i);
+      for (int e = graph.offsets[i]; e < graph.offsets[i + 1]; e++) degree[graph.targets[e]]++;
+    }
+
+    // Counting sort by degree, highest first, keeping the original order among equals.
+    int maxDegree = 0;
+    for (int d : degree) maxDegree = Math.max(maxDegree, d);
+    int[] start = new int[maxDegree + 2];
+    for (int d : degree) start[maxDegree - d + 1]++;
+    for (int d = 0; d <= maxDegree; d++) start[d + 1] += start[d];
+
+    int[] order = new int[n];
+    for (int i = 0; i < n; i++) order[start[maxDegree - degree[i]]++] = i;
+    return order;
+  }
+}
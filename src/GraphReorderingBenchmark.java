@@ -0,0 +1,80 @@
+import java.util.*;
+
+/**
+ * Compares traversal latency on a graph with scrambled ids against each GraphReordering order.
+ *
+ * Usage: java GraphReorderingBenchmark [side]
+ *
+ * The graph is a side-by-side grid where every cell links to its right and lower neighbors, with a
+ * few random shortcuts, and its ids are shuffled so that neighboring cells sit far apart in memory.
+ * Java cannot read hardware cache-miss counters, so run under "perf stat -e cache-misses" to see them.
+ */
+public class GraphReorderingBenchmark {
+  public static void main(String[] args) {
+    int side = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+    int n = side * side;
+    Random random = new Random(42);
+
+    int[] shuffled = new int[n];
+    for (int i = 0; i < n; i++) shuffled[i] = i;
+    for (int i = n - 1; i > 0; i--) {
+      int j = random.nextInt(i + 1);
+      int swap = shuffled[i];
+      shuffled[i] = shuffled[j];
+      shuffled[j] = swap;
+    }
+
+    int[] ids = new int[n];
+    int[] offsets = new int[n + 1];
+    int[][] lists = new int[n][];
+    for (int cell = 0; cell < n; cell++) {
+      int row = cell / side;
+      int col = cell % side;
+      List<Integer> out = new ArrayList<>(3);
+      if (col + 1 < side) out.add(shuffled[cell + 1]);
+      if (row + 1 < side) out.add(shuffled[cell + side]);
+      if (random.nextInt(100) == 0) out.add(shuffled[random.nextInt(n)]);
+      int position = shuffled[cell];
+      lists[position] = out.stream().mapToInt(Integer::intValue).toArray();
+    }
+    for (int i = 0; i < n; i++) {
+      ids[i] = i;
+      offsets[i + 1] = offsets[i] + lists[i].length;
+    }
+    int[] targets = new int[offsets[n]];
+    for (int i = 0; i < n; i++) System.arraycopy(lists[i], 0, targets, offsets[i], lists[i].length);
+    CsrGraph graph = new CsrGraph(ids, offsets, targets);
+
+    int[] starts = new int[5];
+    for (int i = 0; i < starts.length; i++) starts[i] = shuffled[random.nextInt(side * 4)];
+
+    System.out.printf("vertices=%d edges=%d%n", graph.vertexCount(), graph.edgeCount());
+    // Both sides run the same CsrGraph kernel, so the difference is the memory layout alone.
+    long expected = time("original", graph, starts);
+
+    for (GraphReordering.Order order : GraphReordering.Order.values()) {
+      long reorderStart = System.nanoTime();
+      GraphReordering reordered = GraphReordering.reorder(graph, order);
+      System.out.printf("%-22s reordering took %.1f ms%n", order, (System.nanoTime() - reorderStart) / 1e6);
+
+      int[] newStarts = new int[starts.length];
+      for (int i = 0; i < starts.length; i++) newStarts[i] = reordered.toNew(starts[i]);
+      if (time(order.toString(), reordered.graph(), newStarts) != expected) throw new AssertionError(order + " changed the reachable sets");
+    }
+  }
+
+  private static long time(String label, CsrGraph graph, int[] starts) {
+    long total = 0;
+    for (int warmup = 0; warmup < 2; warmup++) {
+      for (int start : starts) total += graph.sortedReachable(start).size();
+    }
+
+    total = 0;
+    long begin = System.nanoTime();
+    for (int round = 0; round < 3; round++) {
+      for (int start : starts) total += graph.sortedReachable(start).size();
+    }
+    System.out.printf("%-22s %8.1f ms per round%n", label, (System.nanoTime() - begin) / 3e6);
+    return total;
+  }
+}
@@ -0,0 +1,70 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+public class GraphReorderingTest {
+
+  private Map<Integer, Set<Integer>> randomGraph(long seed) {
+    Random random = new Random(seed);
+    Map<Integer, Set<Integer>> graph = new HashMap<>();
+    for (int i = 0; i < 150; i++) graph.put(random.nextInt(2000) - 500, new HashSet<>());
+    List<Integer> keys = new ArrayList<>(graph.keySet());
+    for (int i = 0; i < 220; i++) graph.get(keys.get(random.nextInt(keys.size()))).add(keys.get(random.nextInt(keys.size())));
+    return graph;
+  }
+
+  /**
+   * Test that every order answers queries in original ids exactly as Practice does.
+   */
+  @Test
+  public void testQueriesMatchPracticeForEveryOrder() {
+    Map<Integer, Set<Integer>> graph = randomGraph(31);
+    List<Integer> keys = new ArrayList<>(graph.keySet());
+    CsrGraph csr = CsrGraph.fromMap(graph);
+
+    for (GraphReordering.Order order : GraphReordering.Order.values()) {
+      GraphReordering reordered = GraphReordering.reorder(csr, order);
+      for (int id : keys) assertEquals(Practice.sortedReachable(graph, id), reordered.sortedReachable(id), order.toString());
+
+      Random random = new Random(4);
+      for (int i = 0; i < 300; i++) {
+        int a = keys.get(random.nextInt(keys.size()));
+        int b = keys.get(random.nextInt(keys.size()));
+        assertEquals(Practice.positivePathExists(graph, a, b), reordered.positivePathExists(a, b), order.toString());
+      }
+    }
+  }
+
+  /**
+   * Test that the id maps are inverse permutations.
+   */
+  @Test
+  public void testIdMapsAreInverses() {
+    CsrGraph csr = CsrGraph.fromMap(randomGraph(8));
+    for (GraphReordering.Order order : GraphReordering.Order.values()) {
+      GraphReordering reordered = GraphReordering.reorder(csr, order);
+      boolean[] seen = new boolean[csr.vertexCount()];
+      for (int i = 0; i < csr.vertexCount(); i++) {
+        int newId = reordered.toNew(csr.id(i));
+        assertFalse(seen[newId]);
+        seen[newId] = true;
+        assertEquals(csr.id(i), reordered.toOriginal(newId));
+      }
+      assertEquals(-1, reordered.toNew(1_000_000));
+    }
+  }
+
+  /**
+   * Test that BFS order numbers a chain given in reverse in walking order.
+   */
+  @Test
+  public void testBfsOrderFollowsEdges() {
+    // ids 0..3 with edges 0 -> 3 -> 2 -> 1
+    CsrGraph chain = new CsrGraph(new int[] {0, 1, 2, 3}, new int[] {0, 1, 1, 2, 3}, new int[] {3, 1, 2});
+    GraphReordering reordered = GraphReordering.reorder(chain, GraphReordering.Order.BFS);
+    assertEquals(0, reordered.toNew(0));
+    assertEquals(1, reordered.toNew(3));
+    assertEquals(2, reordered.toNew(2));
+    assertEquals(3, reordered.toNew(1));
+  }
+}
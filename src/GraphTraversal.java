@@ -0,0 +1,425 @@
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+/**
+ * Traversal kernels written once against Graph and shared by every graph form.
+ *
+ * The kernels are iterative, so deep graphs cannot overflow the call stack, and keep visited vertices
+ * in a BitSet that grows with the highest id seen. Callers that cannot afford heap memory sized by the
+ * graph pass a Workspace of their own instead.
+ *
+ * A query run through runWhile is checked every CHECK_INTERVAL expanded vertices and abandoned with a
+ * CancellationException once its condition fails, so a traversal nobody is waiting for stops promptly.
+ */
+public final class GraphTraversal {
+  /** The number of vertices expanded between two checks of a runWhile condition. */
+  static final int CHECK_INTERVAL = 256;
+
+  private static final ThreadLocal<BooleanSupplier> KEEP_GOING = new ThreadLocal<>();
+  private static final AtomicInteger CHECKING = new AtomicInteger();
+
+  private GraphTraversal() {
+  }
+
+  /**
+   * Runs a query whose traversals on this thread stop, by throwing CancellationException, as soon as
+   * keepGoing returns false. Conditions may be nested; a traversal goes on only while all of them hold.
+   *
+   * @param <T> the type of the query's result
+   * @param keepGoing asked before the first vertex and every CHECK_INTERVAL vertices after it
+   * @param query the query to run
+   * @return the query's result
+   * @throws CancellationException if keepGoing returned false while a traversal was running
+   */
+  public static <T> T runWhile(BooleanSupplier keepGoing, Supplier<T> query) {
+    BooleanSupplier outer = KEEP_GOING.get();
+    KEEP_GOING.set(outer == null ? keepGoing : () -> outer.getAsBoolean() && keepGoing.getAsBoolean());
+    CHECKING.incrementAndGet();
+    try {
+      return query.get();
+    } finally {
+      CHECKING.decrementAndGet();
+      KEEP_GOING.set(outer);
+    }
+  }
+
+  /** Returns the graph as is, or wrapped to check this thread's runWhile condition as vertices are expanded. */
+  private static Graph checked(Graph graph) {
+    if (CHECKING.get() == 0) return graph;
+    BooleanSupplier keepGoing = KEEP_GOING.get();
+    if (keepGoing == null) return graph;
+
+    int[] expanded = {0};
+    return (vertex, action) -> {
+      if (expanded[0]++ % CHECK_INTERVAL == 0 && !keepGoing.getAsBoolean()) throw new CancellationException("Traversal abandoned");
+      return graph.forEachNeighbor(vertex, action);
+    };
+  }
+
+  /**
+   * Returns the ids of every vertex reachable from the starting vertex, including itself, in breadth-first order.
+   *
+   * @param graph the graph to traverse
+   * @param starting the id of the starting vertex
+   * @return the reachable vertex ids
+   */
+  public static int[] reachable(Graph graph, int starting) {
+    graph = checked(graph);
+    Frontier frontier = new Frontier();
+    frontier.offer(starting);
+
+    TraversalStats stats = TraversalStats.begin();
+    if (stats != null) return reachable(graph, frontier, stats);
+
+    // Vertices are never removed, so the frontier's array doubles as the breadth-first order.
+    for (int next = 0; next < frontier.size; next++) graph.forEachNeighbor(frontier.items[next], frontier::offer);
+
+    return Arrays.copyOf(frontier.items, frontier.size);
+  }
+
+  /** The same search as reachable, recording statistics; kept apart so the plain loop carries no extra work. */
+  private static int[] reachable(Graph graph, Frontier frontier, TraversalStats stats) {
+    IntPredicate offer = neighbor -> {
+      stats.edge();
+      return frontier.offer(neighbor);
+    };
+
+    int depth = 0;
+    int levelEnd = frontier.size;
+    for (int next = 0; next < frontier.size; next++) {
+      if (next == levelEnd) {
+        depth++;
+        levelEnd = frontier.size;
+      }
+      stats.visit(frontier.items[next], depth, frontier.size - next);
+      graph.forEachNeighbor(frontier.items[next], offer);
+    }
+
+    stats.finish(false);
+    return Arrays.copyOf(frontier.items, frontier.size);
+  }
+
+  /**
+   * Returns the number of vertices reachable from the starting vertex, including itself, that match the predicate.
+   *
+   * @param graph the graph to traverse
+   * @param starting the id of the starting vertex
+   * @param predicate the test applied to each reachable vertex id
+   * @return the number of matching reachable vertices
+   */
+  public static int count(Graph graph, int starting, IntPredicate predicate) {
+    int total = 0;
+    for (int vertex : reachable(graph, starting)) {
+      if (predicate.test(vertex)) total++;
+    }
+    return total;
+  }
+
+  /**
+   * Returns true if a vertex matching isTarget can be reached from the starting vertex.
+   * The starting vertex itself counts. Vertices that fail canExpand are still checked against
+   * isTarget, but the search does not continue past them.
+   *
+   * @param graph the graph to traverse
+   * @param starting the id of the starting vertex
+   * @param isTarget the test for the vertex being looked for
+   * @param canExpand the test for whether the search may continue through a vertex
+   * @return whether a matching vertex is reachable
+   */
+  public static boolean anyReachable(Graph graph, int starting, IntPredicate isTarget, IntPredicate canExpand) {
+    if (isTarget.test(starting)) return true;
+    if (!canExpand.test(starting)) return false;
+
+    graph = checked(graph);
+    Frontier frontier = new Frontier();
+    frontier.offer(starting);
+
+    TraversalStats stats = TraversalStats.begin();
+    if (stats != null) return anyReachable(graph, frontier, isTarget, canExpand, stats);
+
+    IntPredicate visit = neighbor -> {
+      if (frontier.visited.get(neighbor)) return true;
+      if (isTarget.test(neighbor)) return false;
+      if (canExpand.test(neighbor)) frontier.offer(neighbor);
+      else frontier.visited.set(neighbor);
+      return true;
+    };
+
+    // Used as a stack: depth-first reaches a distant target without holding a whole level.
+    while (frontier.size > 0) {
+      if (!graph.forEachNeighbor(frontier.pop(), visit)) return true;
+    }
+
+    return false;
+  }
+
+  /** The same search as anyReachable, recording statistics; kept apart so the plain loop carries no extra work. */
+  private static boolean anyReachable(Graph graph, Frontier frontier, IntPredicate isTarget, IntPredicate canExpand, TraversalStats stats) {
+    // The depth of each vertex on the stack, kept in step with frontier.items.
+    int[][] depths = {new int[frontier.items.length]};
+    int[] current = {0};
+    IntPredicate visit = neighbor -> {
+      stats.edge();
+      if (frontier.visited.get(neighbor)) return true;
+      if (isTarget.test(neighbor)) return false;
+      if (canExpand.test(neighbor)) {
+        frontier.offer(neighbor);
+        if (depths[0].length < frontier.items.length) depths[0] = Arrays.copyOf(depths[0], frontier.items.length);
+        depths[0][frontier.size - 1] = current[0] + 1;
+      } else {
+        frontier.visited.set(neighbor);
+      }
+      return true;
+    };
+
+    while (frontier.size > 0) {
+      current[0] = depths[0][frontier.size - 1];
+      stats.visit(frontier.items[frontier.size - 1], current[0], frontier.size);
+      if (!graph.forEachNeighbor(frontier.pop(), visit)) {
+        stats.finish(true);
+        return true;
+      }
+    }
+
+    stats.finish(false);
+    return false;
+  }
+
+  /**
+   * Visits every vertex reachable from the starting vertex, including itself, in breadth-first order, keeping
+   * the visited set and the order in the caller's workspace rather than on the heap. The vertices are left at
+   * positions 0 to the returned count - 1 of the workspace, still marked; the caller reads them and then
+   * calls workspace.clear with the count. If the traversal fails, the workspace is cleared before the
+   * exception is passed on.
+   *
+   * @param graph the graph to traverse
+   * @param starting the id of the starting vertex
+   * @param workspace empty storage with room for every vertex of the graph
+   * @return the number of reachable vertices
+   */
+  public static int reachable(Graph graph, int starting, Workspace workspace) {
+    graph = checked(graph);
+    int[] count = {0};
+    workspace.mark(starting);
+    workspace.put(count[0]++, starting);
+    IntPredicate offer = neighbor -> {
+      if (workspace.mark(neighbor)) workspace.put(count[0]++, neighbor);
+      return true;
+    };
+
+    try {
+      TraversalStats stats = TraversalStats.begin();
+      if (stats != null) return reachable(graph, workspace, count, offer, stats);
+
+      for (int next = 0; next < count[0]; next++) graph.forEachNeighbor(workspace.get(next), offer);
+      return count[0];
+    } catch (RuntimeException | Error e) {
+      workspace.clear(count[0]);
+      throw e;
+    }
+  }
+
+  /** The same search as reachable with a workspace, recording statistics. */
+  private static int reachable(Graph graph, Workspace workspace, int[] count, IntPredicate offer, TraversalStats stats) {
+    IntPredicate counted = neighbor -> {
+      stats.edge();
+      return offer.test(neighbor);
+    };
+
+    int depth = 0;
+    int levelEnd = count[0];
+    for (int next = 0; next < count[0]; next++) {
+      if (next == levelEnd) {
+        depth++;
+        levelEnd = count[0];
+      }
+      int vertex = workspace.get(next);
+      stats.visit(vertex, depth, count[0] - next);
+      graph.forEachNeighbor(vertex, counted);
+    }
+
+    stats.finish(false);
+    return count[0];
+  }
+
+  /**
+   * The same search as anyReachable, keeping the visited set and the work queue in the caller's workspace
+   * rather than on the heap. The search is breadth-first, and the workspace is cleared before returning.
+   *
+   * @param graph the graph to traverse
+   * @param starting the id of the starting vertex
+   * @param isTarget the test for the vertex being looked for
+   * @param canExpand the test for whether the search may continue through a vertex
+   * @param workspace empty storage with room for every vertex of the graph
+   * @return whether a matching vertex is reachable
+   */
+  public static boolean anyReachable(Graph graph, int starting, IntPredicate isTarget, IntPredicate canExpand, Workspace workspace) {
+    if (isTarget.test(starting)) return true;
+    if (!canExpand.test(starting)) return false;
+
+    graph = checked(graph);
+    int[] count = {0};
+    workspace.mark(starting);
+    workspace.put(count[0]++, starting);
+    // Only expandable vertices are marked, so everything marked is in the order and clear can find it.
+    IntPredicate visit = neighbor -> {
+      if (isTarget.test(neighbor)) return false;
+      if (canExpand.test(neighbor) && workspace.mark(neighbor)) workspace.put(count[0]++, neighbor);
+      return true;
+    };
+
+    try {
+      TraversalStats stats = TraversalStats.begin();
+      if (stats != null) return anyReachable(graph, workspace, count, visit, stats);
+
+      for (int next = 0; next < count[0]; next++) {
+        if (!graph.forEachNeighbor(workspace.get(next), visit)) return true;
+      }
+      return false;
+    } finally {
+      workspace.clear(count[0]);
+    }
+  }
+
+  /** The same search as anyReachable with a workspace, recording statistics. */
+  private static boolean anyReachable(Graph graph, Workspace workspace, int[] count, IntPredicate visit, TraversalStats stats) {
+    IntPredicate counted = neighbor -> {
+      stats.edge();
+      return visit.test(neighbor);
+    };
+
+    int depth = 0;
+    int levelEnd = count[0];
+    for (int next = 0; next < count[0]; next++) {
+      if (next == levelEnd) {
+        depth++;
+        levelEnd = count[0];
+      }
+      int vertex = workspace.get(next);
+      stats.visit(vertex, depth, count[0] - next);
+      if (!graph.forEachNeighbor(vertex, counted)) {
+        stats.finish(true);
+        return true;
+      }
+    }
+
+    stats.finish(false);
+    return false;
+  }
+
+  /**
+   * Returns true if the target can be reached from the starting vertex. A vertex always reaches itself.
+   *
+   * @param graph the graph to traverse
+   * @param starting the id of the starting vertex
+   * @param target the id of the target vertex
+   * @return whether target is reachable from starting
+   */
+  public static boolean reaches(Graph graph, int starting, int target) {
+    return anyReachable(graph, starting, vertex -> vertex == target, vertex -> true);
+  }
+
+  /**
+   * Copies the adjacency of a graph with ids 0..vertexCount-1 into flat arrays, for algorithms that
+   * need to stop part-way through a vertex's edges and resume later.
+   *
+   * @param graph the graph to copy
+   * @param vertexCount the number of vertices
+   * @return the offsets (vertexCount + 1 of them) and the targets; the edges of v are at [offsets[v], offsets[v + 1])
+   */
+  static int[][] adjacency(Graph graph, int vertexCount) {
+    int[] offsets = new int[vertexCount + 1];
+    for (int v = 0; v < vertexCount; v++) {
+      int[] degree = {0};
+      graph.forEachNeighbor(v, neighbor -> {
+        degree[0]++;
+        return true;
+      });
+      offsets[v + 1] = offsets[v] + degree[0];
+    }
+    int[] targets = new int[offsets[vertexCount]];
+    for (int v = 0; v < vertexCount; v++) {
+      int[] at = {offsets[v]};
+      graph.forEachNeighbor(v, neighbor -> {
+        targets[at[0]++] = neighbor;
+        return true;
+      });
+    }
+    return new int[][] {offsets, targets};
+  }
+
+  /**
+   * Caller-supplied storage for a traversal: a visited set over the graph's vertex ids and an array, with
+   * room for every vertex, holding the vertices in the order they were found. A workspace serves one
+   * traversal at a time and can be reused once cleared.
+   */
+  public interface Workspace {
+
+    /**
+     * Marks a vertex as visited.
+     *
+     * @param vertex the id of the vertex
+     * @return true if the vertex was not marked before
+     */
+    boolean mark(int vertex);
+
+    /**
+     * Removes the mark from a vertex.
+     *
+     * @param vertex the id of the vertex
+     */
+    void unmark(int vertex);
+
+    /**
+     * Stores a vertex at a position in the visiting order.
+     *
+     * @param index the position
+     * @param vertex the id of the vertex
+     */
+    void put(int index, int vertex);
+
+    /**
+     * Returns the vertex at a position in the visiting order.
+     *
+     * @param index the position
+     * @return the id of the vertex
+     */
+    int get(int index);
+
+    /**
+     * Unmarks the first count vertices of the visiting order, leaving the workspace ready for another
+     * traversal. The cost follows the traversal rather than the size of the graph.
+     *
+     * @param count the number of vertices the traversal found
+     */
+    default void clear(int count) {
+      for (int i = 0; i < count; i++) unmark(get(i));
+    }
+  }
+
+  /**
+   * The visited set plus a growable array of vertices waiting to be expanded.
+   */
+  private static final class Frontier {
+    final BitSet visited = new BitSet();
+    int[] items = new int[16];
+    int size;
+
+    boolean offer(int vertex) {
+      if (visited.get(vertex)) return true;
+      visited.set(vertex);
+      if (size == items.length) items = Arrays.copyOf(items, size * 2);
+      items[size++] = vertex;
+      return true;
+    }
+
+    int pop() {
+      return items[--size];
+    }
+  }
+}
@@ -0,0 +1,142 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+
+public class GraphTraversalTest {
+
+  /**
+   * Test that the same kernel gives the same reachable set over a map adapter and its CsrGraph.
+   */
+  @Test
+  public void testAdaptersAgreeWithCompactForm() {
+    Map<Integer, Set<Integer>> graph = new HashMap<>();
+    graph.put(1, new HashSet<>(Arrays.asList(2, 3)));
+    graph.put(2, new HashSet<>(Arrays.asList(4)));
+    graph.put(3, new HashSet<>(Arrays.asList(1)));
+    graph.put(4, new HashSet<>());
+    graph.put(5, new HashSet<>(Arrays.asList(1)));
+
+    GraphAdapter<Integer> adapter = GraphAdapter.ofMap(graph);
+    Set<Integer> viaAdapter = new TreeSet<>();
+    for (int id : GraphTraversal.reachable(adapter, adapter.idOf(1))) viaAdapter.add(adapter.key(id));
+
+    CsrGraph csr = CsrGraph.fromMap(graph);
+    Set<Integer> viaCsr = new TreeSet<>();
+    for (int position : GraphTraversal.reachable(csr, csr.indexOf(1))) viaCsr.add(csr.id(position));
+
+    assertEquals(Set.of(1, 2, 3, 4), viaAdapter);
+    assertEquals(viaAdapter, viaCsr);
+    assertEquals(4, adapter.size());
+  }
+
+  /**
+   * Test that anyReachable checks blocked vertices as targets but does not continue through them.
+   */
+  @Test
+  public void testAnyReachableRespectsCanExpand() {
+    // 0 --> 1 --> 2
+    CsrGraph chain = new CsrGraph(new int[] {0, 1, 2}, new int[] {0, 1, 2, 2}, new int[] {1, 2});
+    assertTrue(GraphTraversal.anyReachable(chain, 0, v -> v == 1, v -> v != 1));
+    assertFalse(GraphTraversal.anyReachable(chain, 0, v -> v == 2, v -> v != 1));
+    assertTrue(GraphTraversal.reaches(chain, 0, 2));
+    assertFalse(GraphTraversal.reaches(chain, 2, 0));
+    assertTrue(GraphTraversal.reaches(chain, 2, 2));
+  }
+
+  /**
+   * Test that a chain far deeper than the call stack allows is traversed without overflow.
+   */
+  @Test
+  public void testDeepChainDoesNotOverflow() {
+    int length = 200_000;
+    Vertex<Integer> head = new Vertex<>(1);
+    Vertex<Integer> current = head;
+    for (int i = 1; i < length; i++) {
+      Vertex<Integer> next = new Vertex<>(i % 2);
+      current.neighbors.add(next);
+      current = next;
+    }
+
+    assertEquals(length / 2 + 1, Practice.oddVertices(head));
+    assertFalse(Practice.twoWay(head, current));
+  }
+
+  /**
+   * Test the Professional adapter through the kernel.
+   */
+  @Test
+  public void testProfessionalAdapter() {
+    Professional d = new Professional("D", "Global Inc.", 6, new HashSet<>());
+    Professional b = new Professional("B", "Other Corp", 5, new HashSet<>(Arrays.asList(d)));
+    GraphAdapter<Professional> graph = GraphAdapter.ofProfessionals();
+
+    assertTrue(GraphTraversal.anyReachable(graph, graph.idOf(b), id -> graph.key(id).getCompany().equals("Global Inc."), id -> true));
+    assertEquals(2, GraphTraversal.count(graph, graph.idOf(b), id -> true));
+  }
+
+  /**
+   * Test that the workspace kernels find what the heap kernels find and leave the workspace clear.
+   */
+  @Test
+  public void testWorkspaceKernels() {
+    // 0 --> 1 --> 2 --> 0, 2 --> 3
+    CsrGraph graph = new CsrGraph(new int[] {0, 1, 2, 3}, new int[] {0, 1, 2, 4, 4}, new int[] {1, 2, 0, 3});
+    BitSet marked = new BitSet();
+    int[] order = new int[4];
+    GraphTraversal.Workspace workspace = new GraphTraversal.Workspace() {
+      @Override
+      public boolean mark(int vertex) {
+        if (marked.get(vertex)) return false;
+        marked.set(vertex);
+        return true;
+      }
+
+      @Override
+      public void unmark(int vertex) {
+        marked.clear(vertex);
+      }
+
+      @Override
+      public void put(int index, int vertex) {
+        order[index] = vertex;
+      }
+
+      @Override
+      public int get(int index) {
+        return order[index];
+      }
+    };
+
+    int count = GraphTraversal.reachable(graph, 1, workspace);
+    assertArrayEquals(GraphTraversal.reachable(graph, 1), Arrays.copyOf(order, count));
+    workspace.clear(count);
+    assertTrue(marked.isEmpty());
+
+    assertTrue(GraphTraversal.anyReachable(graph, 0, v -> v == 3, v -> true, workspace));
+    assertFalse(GraphTraversal.anyReachable(graph, 0, v -> v == 3, v -> v != 2, workspace));
+    assertTrue(marked.isEmpty());
+  }
+
+  /**
+   * Test that a traversal run under a failing condition stops, and that the condition is checked as it goes.
+   */
+  @Test
+  public void testRunWhileStopsTraversal() {
+    int length = 10 * GraphTraversal.CHECK_INTERVAL;
+    int[] offsets = new int[length + 1];
+    int[] targets = new int[length - 1];
+    for (int i = 0; i < length - 1; i++) {
+      targets[i] = i + 1;
+      offsets[i + 1] = i + 1;
+    }
+    offsets[length] = length - 1;
+    CsrGraph chain = new CsrGraph(new int[length], offsets, targets);
+
+    int[] checks = {0};
+    assertThrows(CancellationException.class, () -> GraphTraversal.runWhile(() -> ++checks[0] < 3, () -> GraphTraversal.reachable(chain, 0)));
+    assertEquals(3, checks[0]);
+    assertEquals(length, GraphTraversal.runWhile(() -> true, () -> GraphTraversal.reachable(chain, 0)).length);
+    assertEquals(length, GraphTraversal.reachable(chain, 0).length);
+  }
+}
@@ -0,0 +1,722 @@
+import java.util.*;
+
+/**
+ * Finds paths across very large boards by searching an abstract graph of clusters first (HPA*), and
+ * refining the result one cluster at a time.
+ *
+ * Moves are those of Practice.nextMoves, one square in each of the directions. The board is cut into
+ * square clusters. Wherever two neighboring clusters touch along a run of open cells on both sides, one
+ * transition in the middle of the run, or one at each end of a long run, becomes a pair of abstract
+ * nodes joined by a move; diagonal moves across a border that such a run cannot stand in for become
+ * transitions of their own. Within each cluster the distances between its abstract nodes are found in
+ * advance. A query joins the start and goal to the nodes of their clusters, runs A* over the abstract
+ * graph, and then fills in each step with a search inside one cluster, so the cells it touches are
+ * mostly those near the path. The paths are near-shortest rather than shortest, as the transitions
+ * force them through fixed points on each border.
+ *
+ * When the directions include the four straight steps, as king and rook moves do, a path is found whenever
+ * one exists. Otherwise, or from a start on an 'X', a failed abstract search is followed by an A* search over
+ * the whole board. Its arrays, 12 bytes per cell, are allocated by the first query that needs them and kept
+ * for later ones.
+ *
+ * The board is read in place. After a cell changes, call update for it: the clusters it can affect are
+ * rebuilt before the next query, and the rest are left as they are. The board must be rectangular.
+ * A planner is used by one thread at a time.
+ */
+public class HierarchicalPlanner {
+  private static final int INFINITY = Integer.MAX_VALUE;
+  // A run of transitions this long or longer gets one at each end instead of one in the middle.
+  private static final int LONG_RUN = 6;
+  // The clusters to the right, below, below right and below left, which with their mirror images are all eight neighbors.
+  private static final int[][] PAIR_OFFSETS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+  // Stand-ins for the start and goal among the abstract nodes, which are never negative.
+  private static final long START = -1;
+  private static final long GOAL = -2;
+  private static final long NONE = -3;
+
+  private final char[][] board;
+  private final int[][] directions;
+  private final int rows;
+  private final int columns;
+  private final int size;
+  private final int clusterRows;
+  private final int clusterColumns;
+  private final boolean straightSteps;
+
+  // The directed transitions between each cluster and the neighbor at PAIR_OFFSETS[p], as pairs of from and to cells.
+  private final int[][] transitions;
+  private final Cluster[] clusters;
+  // Clusters with a changed cell, and those among them where the cell is on the border and can change transitions.
+  private final Set<Integer> dirty = new HashSet<>();
+  private final Set<Integer> dirtyBorders = new HashSet<>();
+  private long expansions;
+
+  // One cluster at a time is copied into a grid of open cells with a closed border, so moves need no bounds checks.
+  private final int stride;
+  private final boolean[] localOpen;
+  private final int[] localOffsets;
+  private final int[] localDistance;
+  private final int[] localParent;
+  private final int[] localQueue;
+  private int loaded = -1;
+  private long[] heap = new long[64];
+  private int heapSize;
+  // Abstract searches are numbered, so the per-node state of an earlier one reads as unset without clearing.
+  private int search;
+  // The whole-board search, set up when first needed. A cell's distance and parent belong to the current
+  // search only when flatSeen holds its number.
+  private int[] flatSeen;
+  private int[] flatDistance;
+  private int[] flatParent;
+  private int flatSearch;
+
+  /** The abstract nodes of one cluster, the distances between them, and the moves out of it. */
+  private static final class Cluster {
+    // Sorted cells.
+    int[] nodes = new int[0];
+    // distances[i * nodes.length + j] is the distance from nodes[i] to nodes[j] within the cluster.
+    int[] distances = new int[0];
+    // Moves to other clusters, sorted by the cell they leave from.
+    int[] exitFrom = new int[0];
+    int[] exitTo = new int[0];
+    // The state of each node in the abstract search numbered seen[i], and closed once it is expanded.
+    int[] seen = new int[0];
+    int[] best = new int[0];
+    long[] parent = new long[0];
+    boolean[] closed = new boolean[0];
+  }
+
+  /**
+   * Constructs a planner with clusters of 32 by 32 cells.
+   *
+   * @param board a rectangular array where 'X' represents an impassable location
+   * @param directions the [row, column] directions a move may take, each at most one square in each axis
+   */
+  public HierarchicalPlanner(char[][] board, int[][] directions) {
+    this(board, directions, 32);
+  }
+
+  /**
+   * Constructs a planner, building the abstract graph of the whole board.
+   *
+   * @param board a rectangular array where 'X' represents an impassable location
+   * @param directions the [row, column] directions a move may take, each at most one square in each axis
+   * @param clusterSize the side of each cluster, at least 2
+   */
+  public HierarchicalPlanner(char[][] board, int[][] directions, int clusterSize) {
+    if (clusterSize < 2) throw new IllegalArgumentException("clusterSize must be at least 2: " + clusterSize);
+    this.board = board;
+    this.directions = directions;
+    this.rows = board.length;
+    this.columns = rows == 0 ? 0 : board[0].length;
+    for (char[] row : board) {
+      if (row.length != columns) throw new IllegalArgumentException("The board must be rectangular");
+    }
+    Math.multiplyExact(rows, columns);
+
+    Set<Integer> steps = new HashSet<>();
+    for (int[] direction : directions) {
+      if (Math.abs(direction[0]) > 1 || Math.abs(direction[1]) > 1) {
+        throw new IllegalArgumentException("Directions may move at most one square: " + Arrays.toString(direction));
+      }
+      steps.add(direction[0] * 3 + direction[1]);
+    }
+    this.straightSteps = steps.containsAll(List.of(-3, 3, -1, 1));
+
+    this.size = clusterSize;
+    this.clusterRows = (rows + size - 1) / size;
+    this.clusterColumns = (columns + size - 1) / size;
+    int clusterCount = clusterRows * clusterColumns;
+    this.transitions = new int[clusterCount * PAIR_OFFSETS.length][];
+    this.clusters = new Cluster[clusterCount];
+    this.stride = size + 2;
+    this.localOpen = new boolean[stride * stride];
+    this.localOffsets = new int[directions.length];
+    for (int d = 0; d < directions.length; d++) localOffsets[d] = directions[d][0] * stride + directions[d][1];
+    this.localDistance = new int[stride * stride];
+    this.localParent = new int[stride * stride];
+    this.localQueue = new int[stride * stride];
+
+    for (int c = 0; c < clusterCount; c++) {
+      for (int p = 0; p < PAIR_OFFSETS.length; p++) transitions[c * PAIR_OFFSETS.length + p] = findTransitions(c, p);
+    }
+    for (int c = 0; c < clusterCount; c++) clusters[c] = buildCluster(c);
+  }
+
+  /**
+   * Marks the clusters a changed cell can affect, to be rebuilt before the next query.
+   *
+   * @param row the row of the cell
+   * @param col the column of the cell
+   */
+  public void update(int row, int col) {
+    cell(row, col);
+    dirty.add(clusterOf(row, col));
+    int rowInCluster = row % size;
+    int colInCluster = col % size;
+    if (rowInCluster == 0 || rowInCluster == size - 1 || colInCluster == 0 || colInCluster == size - 1) dirtyBorders.add(clusterOf(row, col));
+    loaded = -1;
+  }
+
+  /**
+   * Returns the number of cells and abstract nodes expanded by queries since the planner was constructed,
+   * not counting the building of the abstract graph.
+   *
+   * @return the expansion count
+   */
+  public long expansions() {
+    return expansions;
+  }
+
+  /**
+   * Returns the number of abstract nodes, the size of the graph each query searches first.
+   *
+   * @return the number of abstract nodes
+   */
+  public int abstractNodeCount() {
+    rebuild();
+    int count = 0;
+    for (Cluster cluster : clusters) count += cluster.nodes.length;
+    return count;
+  }
+
+  /**
+   * Returns whether this planner's abstract graph, its transitions and each cluster's nodes, distances and
+   * exits, is the same as another's.
+   */
+  boolean sameAbstractGraph(HierarchicalPlanner other) {
+    rebuild();
+    other.rebuild();
+    if (!Arrays.deepEquals(transitions, other.transitions) || clusters.length != other.clusters.length) return false;
+    for (int c = 0; c < clusters.length; c++) {
+      Cluster mine = clusters[c];
+      Cluster theirs = other.clusters[c];
+      if (!Arrays.equals(mine.nodes, theirs.nodes) || !Arrays.equals(mine.distances, theirs.distances)
+          || !Arrays.equals(mine.exitFrom, theirs.exitFrom) || !Arrays.equals(mine.exitTo, theirs.exitTo)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns a near-shortest path from start to goal.
+   *
+   * @param start the [row, column] of the starting position
+   * @param goal the [row, column] of the goal
+   * @return the [row, column] of every position on the path, start and goal included, or an empty list if
+   *         the goal cannot be reached
+   */
+  public List<int[]> path(int[] start, int[] goal) {
+    int from = cell(start[0], start[1]);
+    int to = cell(goal[0], goal[1]);
+    rebuild();
+
+    List<int[]> path = new ArrayList<>();
+    if (from == to) {
+      path.add(new int[] {start[0], start[1]});
+      return path;
+    }
+    if (!open(to)) return path;
+
+    int[] waypoints = abstractPath(from, to);
+    if (waypoints == null) return straightSteps && open(from) ? path : flatPath(from, to);
+
+    path.add(new int[] {start[0], start[1]});
+    for (int i = 1; i < waypoints.length; i++) refine(waypoints[i - 1], waypoints[i], path);
+    return path;
+  }
+
+  /** A* over the whole board, for the queries the abstract graph cannot answer. */
+  private List<int[]> flatPath(int from, int to) {
+    if (flatSeen == null) {
+      flatSeen = new int[rows * columns];
+      flatDistance = new int[rows * columns];
+      flatParent = new int[rows * columns];
+    }
+    flatSearch++;
+    flatSeen[from] = flatSearch;
+    flatDistance[from] = 0;
+    heapSize = 0;
+    push((long) heuristic(from, to) << 32 | from);
+    while (heapSize > 0) {
+      long entry = pop();
+      int current = (int) entry;
+      int distance = flatDistance[current];
+      if ((entry >>> 32) != distance + heuristic(current, to)) continue;
+      expansions++;
+      if (current == to) break;
+      int row = current / columns;
+      int col = current % columns;
+      for (int[] direction : directions) {
+        int nextRow = row + direction[0];
+        int nextCol = col + direction[1];
+        if (nextRow < 0 || nextRow >= rows || nextCol < 0 || nextCol >= columns || board[nextRow][nextCol] == 'X') continue;
+        int next = nextRow * columns + nextCol;
+        if (flatSeen[next] == flatSearch && flatDistance[next] <= distance + 1) continue;
+        flatSeen[next] = flatSearch;
+        flatDistance[next] = distance + 1;
+        flatParent[next] = current;
+        push((long) (distance + 1 + heuristic(next, to)) << 32 | next);
+      }
+    }
+
+    List<int[]> path = new ArrayList<>();
+    if (flatSeen[to] != flatSearch) return path;
+    for (int cell = to; cell != from; cell = flatParent[cell]) path.add(new int[] {cell / columns, cell % columns});
+    path.add(new int[] {from / columns, from % columns});
+    Collections.reverse(path);
+    return path;
+  }
+
+  private int cell(int row, int col) {
+    if (row < 0 || row >= rows || col < 0 || col >= columns) throw new IllegalArgumentException("Position is off the board: " + row + ", " + col);
+    return row * columns + col;
+  }
+
+  private boolean open(int cell) {
+    return board[cell / columns][cell % columns] != 'X';
+  }
+
+  private int clusterOf(int row, int col) {
+    return row / size * clusterColumns + col / size;
+  }
+
+  private int clusterOf(int cell) {
+    return clusterOf(cell / columns, cell % columns);
+  }
+
+  private boolean hasStep(int dr, int dc) {
+    for (int[] direction : directions) {
+      if (direction[0] == dr && direction[1] == dc) return true;
+    }
+    return false;
+  }
+
+  /** Returns the transitions from cluster c to its neighbor at PAIR_OFFSETS[p] and back, as from and to cells. */
+  private int[] findTransitions(int c, int p) {
+    int clusterRow = c / clusterColumns;
+    int clusterColumn = c % clusterColumns;
+    int otherRow = clusterRow + PAIR_OFFSETS[p][0];
+    int otherColumn = clusterColumn + PAIR_OFFSETS[p][1];
+    if (otherRow >= clusterRows || otherColumn < 0 || otherColumn >= clusterColumns) return new int[0];
+
+    IntList found = new IntList();
+    if (p >= 2) {
+      // Diagonal neighbors touch at one corner, crossed by a single diagonal move each way.
+      int row = otherRow * size - 1;
+      int col = p == 2 ? otherColumn * size - 1 : clusterColumn * size;
+      int dc = p == 2 ? 1 : -1;
+      addMove(found, row, col, row + 1, col + dc);
+      addMove(found, row + 1, col + dc, row, col);
+      return found.toArray();
+    }
+
+    // The cells on each side of the border, a[i] in this cluster facing b[i] in the other, along a line.
+    boolean across = p == 0;
+    int length = across ? Math.min(size, rows - clusterRow * size) : Math.min(size, columns - clusterColumn * size);
+    int lineRow = across ? clusterRow * size : otherRow * size - 1;
+    int lineCol = across ? otherColumn * size - 1 : clusterColumn * size;
+    int alongRow = across ? 1 : 0;
+    int alongCol = across ? 0 : 1;
+    int crossRow = across ? 0 : 1;
+    int crossCol = across ? 1 : 0;
+
+    boolean[] straight = new boolean[length];
+    for (int i = 0; i < length; i++) {
+      int row = lineRow + i * alongRow;
+      int col = lineCol + i * alongCol;
+      straight[i] = board[row][col] != 'X' && board[row + crossRow][col + crossCol] != 'X';
+    }
+
+    for (int i = 0; i < length; ) {
+      if (!straight[i]) {
+        i++;
+        continue;
+      }
+      int end = i;
+      while (end + 1 < length && straight[end + 1]) end++;
+      int[] picks = end - i + 1 >= LONG_RUN ? new int[] {i, end} : new int[] {(i + end) >>> 1};
+      for (int at : picks) {
+        int row = lineRow + at * alongRow;
+        int col = lineCol + at * alongCol;
+        addMove(found, row, col, row + crossRow, col + crossCol);
+        addMove(found, row + crossRow, col + crossCol, row, col);
+      }
+      i = end + 1;
+    }
+
+    // A diagonal move across the border is only needed where neither of its ends has a straight move across,
+    // as otherwise that move and a step along the border take its place.
+    for (int i = 0; i < length; i++) {
+      for (int side = -1; side <= 1; side += 2) {
+        int j = i + side;
+        if (j < 0 || j >= length || straight[i] || straight[j]) continue;
+        int row = lineRow + i * alongRow;
+        int col = lineCol + i * alongCol;
+        int otherRowOnLine = lineRow + j * alongRow + crossRow;
+        int otherColOnLine = lineCol + j * alongCol + crossCol;
+        addMove(found, row, col, otherRowOnLine, otherColOnLine);
+        addMove(found, otherRowOnLine, otherColOnLine, row, col);
+      }
+    }
+    return found.toArray();
+  }
+
+  private void addMove(IntList found, int fromRow, int fromCol, int toRow, int toCol) {
+    if (board[fromRow][fromCol] == 'X' || board[toRow][toCol] == 'X' || !hasStep(toRow - fromRow, toCol - fromCol)) return;
+    found.add(fromRow * columns + fromCol);
+    found.add(toRow * columns + toCol);
+  }
+
+  /** Collects the nodes and exits of cluster c from the transitions with its neighbors, and the distances between the nodes. */
+  private Cluster buildCluster(int c) {
+    IntList nodes = new IntList();
+    List<long[]> exits = new ArrayList<>();
+    int clusterRow = c / clusterColumns;
+    int clusterColumn = c % clusterColumns;
+    for (int dr = -1; dr <= 1; dr++) {
+      for (int dc = -1; dc <= 1; dc++) {
+        int otherRow = clusterRow + dr;
+        int otherColumn = clusterColumn + dc;
+        if ((dr == 0 && dc == 0) || otherRow < 0 || otherRow >= clusterRows || otherColumn < 0 || otherColumn >= clusterColumns) continue;
+        int[] moves = transitionsBetween(c, otherRow * clusterColumns + otherColumn);
+        for (int m = 0; m < moves.length; m += 2) {
+          if (clusterOf(moves[m]) == c) {
+            nodes.add(moves[m]);
+            exits.add(new long[] {moves[m], moves[m + 1]});
+          } else {
+            nodes.add(moves[m + 1]);
+          }
+        }
+      }
+    }
+
+    Cluster cluster = new Cluster();
+    cluster.nodes = nodes.toSortedDistinctArray();
+    exits.sort(Comparator.comparingLong(exit -> exit[0]));
+    cluster.exitFrom = new int[exits.size()];
+    cluster.exitTo = new int[exits.size()];
+    for (int e = 0; e < exits.size(); e++) {
+      cluster.exitFrom[e] = (int) exits.get(e)[0];
+      cluster.exitTo[e] = (int) exits.get(e)[1];
+    }
+
+    int k = cluster.nodes.length;
+    cluster.distances = new int[k * k];
+    cluster.seen = new int[k];
+    cluster.best = new int[k];
+    cluster.parent = new long[k];
+    cluster.closed = new boolean[k];
+    for (int i = 0; i < k; i++) {
+      searchCluster(c, cluster.nodes[i], false, false);
+      for (int j = 0; j < k; j++) cluster.distances[i * k + j] = localDistance[local(c, cluster.nodes[j])];
+    }
+    return cluster;
+  }
+
+  private int[] transitionsBetween(int c, int other) {
+    if (other < c) return transitionsBetween(other, c);
+    int dr = other / clusterColumns - c / clusterColumns;
+    int dc = other % clusterColumns - c % clusterColumns;
+    for (int p = 0; p < PAIR_OFFSETS.length; p++) {
+      if (PAIR_OFFSETS[p][0] == dr && PAIR_OFFSETS[p][1] == dc) return transitions[c * PAIR_OFFSETS.length + p];
+    }
+    throw new IllegalStateException("Clusters " + c + " and " + other + " are not neighbors");
+  }
+
+  /**
+   * Finds the transitions again around each cluster with a changed border cell, then rebuilds the nodes and
+   * distances of every changed cluster and of every neighbor whose transitions were found again.
+   */
+  private void rebuild() {
+    if (dirty.isEmpty()) return;
+    Set<Integer> affected = new HashSet<>(dirty);
+    for (int c : dirtyBorders) {
+      int clusterRow = c / clusterColumns;
+      int clusterColumn = c % clusterColumns;
+      for (int dr = -1; dr <= 1; dr++) {
+        for (int dc = -1; dc <= 1; dc++) {
+          int otherRow = clusterRow + dr;
+          int otherColumn = clusterColumn + dc;
+          if (otherRow < 0 || otherRow >= clusterRows || otherColumn < 0 || otherColumn >= clusterColumns) continue;
+          int other = otherRow * clusterColumns + otherColumn;
+          affected.add(other);
+          if (other == c) continue;
+          int low = Math.min(c, other);
+          int high = Math.max(c, other);
+          for (int p = 0; p < PAIR_OFFSETS.length; p++) {
+            if (PAIR_OFFSETS[p][0] == high / clusterColumns - low / clusterColumns && PAIR_OFFSETS[p][1] == high % clusterColumns - low % clusterColumns) {
+              transitions[low * PAIR_OFFSETS.length + p] = findTransitions(low, p);
+            }
+          }
+        }
+      }
+    }
+    for (int c : affected) clusters[c] = buildCluster(c);
+    dirty.clear();
+    dirtyBorders.clear();
+  }
+
+  /** Returns the index of a cell in the grid of cluster c. */
+  private int local(int c, int cell) {
+    int row = cell / columns - c / clusterColumns * size;
+    int col = cell % columns - c % clusterColumns * size;
+    return (row + 1) * stride + col + 1;
+  }
+
+  /** Returns the cell at an index in the grid of cluster c. */
+  private int cellAt(int c, int local) {
+    return (c / clusterColumns * size + local / stride - 1) * columns + c % clusterColumns * size + local % stride - 1;
+  }
+
+  private void load(int c) {
+    if (loaded == c) return;
+    int top = c / clusterColumns * size;
+    int left = c % clusterColumns * size;
+    int height = Math.min(size, rows - top);
+    int width = Math.min(size, columns - left);
+    Arrays.fill(localOpen, false);
+    for (int row = 0; row < height; row++) {
+      char[] line = board[top + row];
+      for (int col = 0; col < width; col++) localOpen[(row + 1) * stride + col + 1] = line[left + col] != 'X';
+    }
+    loaded = c;
+  }
+
+  /**
+   * Breadth-first search within cluster c from a cell, leaving each cell's distance in localDistance.
+   * Backward, it follows moves in reverse, so the distances are to the cell rather than from it.
+   */
+  private void searchCluster(int c, int from, boolean backward, boolean count) {
+    load(c);
+    Arrays.fill(localDistance, INFINITY);
+    int head = 0;
+    int tail = 0;
+    int start = local(c, from);
+    localDistance[start] = 0;
+    localQueue[tail++] = start;
+    while (head < tail) {
+      int current = localQueue[head++];
+      int distance = localDistance[current] + 1;
+      for (int offset : localOffsets) {
+        int next = backward ? current - offset : current + offset;
+        // Forward, the cell is one a move lands on; backward, one a move leaves from, which the path must
+        // also have landed on earlier. Either way it must be open.
+        if (localDistance[next] != INFINITY || !localOpen[next]) continue;
+        localDistance[next] = distance;
+        localQueue[tail++] = next;
+      }
+    }
+    if (count) expansions += tail;
+  }
+
+  /**
+   * Searches the abstract graph from start to goal, with both joined to the nodes of their clusters.
+   * Returns the cells to pass through, start and goal included, or null if there is no abstract path.
+   */
+  private int[] abstractPath(int start, int goal) {
+    int startCluster = clusterOf(start);
+    int goalCluster = clusterOf(goal);
+    Cluster first = clusters[startCluster];
+    Cluster last = clusters[goalCluster];
+
+    searchCluster(startCluster, start, false, true);
+    int[] fromStart = new int[first.nodes.length];
+    for (int i = 0; i < fromStart.length; i++) fromStart[i] = localDistance[local(startCluster, first.nodes[i])];
+    int direct = startCluster == goalCluster ? localDistance[local(startCluster, goal)] : INFINITY;
+
+    searchCluster(goalCluster, goal, true, true);
+    int[] toGoal = new int[last.nodes.length];
+    for (int i = 0; i < toGoal.length; i++) toGoal[i] = localDistance[local(goalCluster, last.nodes[i])];
+
+    // A* over the abstract nodes, each known by its cluster in the high half of a long and its index in the low
+    // half; the start and goal are joined by the distances just found. Entries are {f, g, node}.
+    search++;
+    long goalParent = NONE;
+    int goalBest = INFINITY;
+    PriorityQueue<long[]> queue = new PriorityQueue<>((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(b[1], a[1]));
+    for (int i = 0; i < fromStart.length; i++) reach(queue, startCluster, i, fromStart[i], START, goal);
+    if (direct != INFINITY) {
+      goalBest = direct;
+      goalParent = START;
+      queue.add(new long[] {direct, direct, GOAL});
+    }
+
+    while (!queue.isEmpty()) {
+      long[] entry = queue.poll();
+      int distance = (int) entry[1];
+      long node = entry[2];
+      if (node == GOAL) {
+        if (distance > goalBest) continue;
+        expansions++;
+        return waypoints(start, goal, goalParent);
+      }
+      int c = (int) (node >>> 32);
+      int i = (int) node;
+      Cluster cluster = clusters[c];
+      if (cluster.closed[i] || distance > cluster.best[i]) continue;
+      cluster.closed[i] = true;
+      expansions++;
+
+      int cell = cluster.nodes[i];
+      int k = cluster.nodes.length;
+      for (int j = 0; j < k; j++) {
+        int cost = cluster.distances[i * k + j];
+        if (cost != INFINITY) reach(queue, c, j, distance + cost, node, goal);
+      }
+      if (c == goalCluster && toGoal[i] != INFINITY && distance + toGoal[i] < goalBest) {
+        goalBest = distance + toGoal[i];
+        goalParent = node;
+        queue.add(new long[] {goalBest, goalBest, GOAL});
+      }
+      int e = Arrays.binarySearch(cluster.exitFrom, cell);
+      if (e < 0) continue;
+      while (e > 0 && cluster.exitFrom[e - 1] == cell) e--;
+      for (; e < cluster.exitFrom.length && cluster.exitFrom[e] == cell; e++) {
+        int to = cluster.exitTo[e];
+        int other = clusterOf(to);
+        reach(queue, other, Arrays.binarySearch(clusters[other].nodes, to), distance + 1, node, goal);
+      }
+    }
+    return null;
+  }
+
+  /** Records a path of the given length to node j of cluster c, if it is the shortest found so far. */
+  private void reach(PriorityQueue<long[]> queue, int c, int j, int distance, long from, int goal) {
+    Cluster cluster = clusters[c];
+    if (distance == INFINITY) return;
+    if (cluster.seen[j] != search) {
+      cluster.seen[j] = search;
+      cluster.best[j] = INFINITY;
+      cluster.closed[j] = false;
+    }
+    if (cluster.closed[j] || cluster.best[j] <= distance) return;
+    cluster.best[j] = distance;
+    cluster.parent[j] = from;
+    queue.add(new long[] {(long) distance + heuristic(cluster.nodes[j], goal), distance, (long) c << 32 | j});
+  }
+
+  private int heuristic(int from, int to) {
+    return Math.max(Math.abs(from / columns - to / columns), Math.abs(from % columns - to % columns));
+  }
+
+  /** Returns the cells on the abstract path, from start to goal, following parents back from the goal's. */
+  private int[] waypoints(int start, int goal, long goalParent) {
+    IntList reversed = new IntList();
+    reversed.add(goal);
+    for (long node = goalParent; node != START; ) {
+      Cluster cluster = clusters[(int) (node >>> 32)];
+      reversed.add(cluster.nodes[(int) node]);
+      node = cluster.parent[(int) node];
+    }
+    reversed.add(start);
+    int[] waypoints = reversed.toArray();
+    for (int i = 0, j = waypoints.length - 1; i < j; i++, j--) {
+      int swap = waypoints[i];
+      waypoints[i] = waypoints[j];
+      waypoints[j] = swap;
+    }
+    return waypoints;
+  }
+
+  /** Appends the cells after from up to and including to, which are one move apart or in the same cluster. */
+  private void refine(int from, int to, List<int[]> path) {
+    int c = clusterOf(from);
+    if (clusterOf(to) != c) {
+      path.add(new int[] {to / columns, to % columns});
+      return;
+    }
+    searchToward(c, from, to);
+    int at = path.size();
+    for (int local = local(c, to); local != local(c, from); local = localParent[local]) {
+      int cell = cellAt(c, local);
+      path.add(at, new int[] {cell / columns, cell % columns});
+    }
+  }
+
+  /**
+   * A* within cluster c from one cell to another, leaving the index each cell was reached from in localParent.
+   * Entries in the heap are the f value above the index, so they order by f alone.
+   */
+  private void searchToward(int c, int from, int to) {
+    load(c);
+    Arrays.fill(localDistance, INFINITY);
+    int goal = local(c, to);
+    int start = local(c, from);
+    localDistance[start] = 0;
+    heapSize = 0;
+    push((long) localHeuristic(start, goal) << 32 | start);
+    while (heapSize > 0) {
+      long entry = pop();
+      int current = (int) entry;
+      int distance = localDistance[current];
+      // A cell reached again more cheaply leaves its older entry behind, with a larger f.
+      if ((entry >>> 32) != distance + localHeuristic(current, goal)) continue;
+      expansions++;
+      if (current == goal) return;
+      for (int offset : localOffsets) {
+        int next = current + offset;
+        if (localDistance[next] <= distance + 1 || !localOpen[next]) continue;
+        localDistance[next] = distance + 1;
+        localParent[next] = current;
+        push((long) (distance + 1 + localHeuristic(next, goal)) << 32 | next);
+      }
+    }
+  }
+
+  private int localHeuristic(int from, int to) {
+    return Math.max(Math.abs(from / stride - to / stride), Math.abs(from % stride - to % stride));
+  }
+
+  private void push(long entry) {
+    if (heapSize == heap.length) heap = Arrays.copyOf(heap, heapSize * 2);
+    int at = heapSize++;
+    while (at > 0 && heap[(at - 1) >>> 1] > entry) {
+      heap[at] = heap[(at - 1) >>> 1];
+      at = (at - 1) >>> 1;
+    }
+    heap[at] = entry;
+  }
+
+  private long pop() {
+    long top = heap[0];
+    long last = heap[--heapSize];
+    int at = 0;
+    while (true) {
+      int child = 2 * at + 1;
+      if (child >= heapSize) break;
+      if (child + 1 < heapSize && heap[child + 1] < heap[child]) child++;
+      if (heap[child] >= last) break;
+      heap[at] = heap[child];
+      at = child;
+    }
+    heap[at] = last;
+    return top;
+  }
+
+  /** A growable array of ints. */
+  private static final class IntList {
+    private int[] items = new int[8];
+    private int size;
+
+    void add(int value) {
+      if (size == items.length) items = Arrays.copyOf(items, size * 2);
+      items[size++] = value;
+    }
+
+    int[] toArray() {
+      return Arrays.copyOf(items, size);
+    }
+
+    int[] toSortedDistinctArray() {
+      int[] sorted = toArray();
+      Arrays.sort(sorted);
+      int distinct = 0;
+      for (int i = 0; i < sorted.length; i++) {
+        if (distinct == 0 || sorted[i] != sorted[distinct - 1]) sorted[distinct++] = sorted[i];
+      }
+      return Arrays.copyOf(sorted, distinct);
+    }
+  }
+}
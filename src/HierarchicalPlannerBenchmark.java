@@ -0,0 +1,72 @@
+import java.util.*;
+
+/**
+ * Compares long queries with HierarchicalPlanner against a search over the whole board with IncrementalPlanner.
+ *
+ * Usage: java HierarchicalPlannerBenchmark [side] [queries] [clusterSize]
+ *
+ * The board is side by side with 20% walls, and moves are king moves. Each query runs between random cells
+ * in opposite quarters of the board. Between queries one random cell toggles, and the time to rebuild the
+ * clusters around it is counted with the query.
+ */
+public class HierarchicalPlannerBenchmark {
+  private static final int[][] KING_MOVES = {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+
+  public static void main(String[] args) {
+    int side = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+    int queries = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+    int clusterSize = args.length > 2 ? Integer.parseInt(args[2]) : 32;
+    char[][] board = GraphGenerators.board(side, side, 0.2, 42);
+
+    long started = System.nanoTime();
+    HierarchicalPlanner planner = new HierarchicalPlanner(board, KING_MOVES, clusterSize);
+    long buildNanos = System.nanoTime() - started;
+
+    Random random = new Random(42);
+    long hierarchicalNanos = 0;
+    long hierarchicalExpansions = 0;
+    long hierarchicalLength = 0;
+    long flatNanos = 0;
+    long flatExpansions = 0;
+    long flatLength = 0;
+    int found = 0;
+    for (int query = 0; query < queries; query++) {
+      int[] start = {random.nextInt(side / 4), random.nextInt(side / 4)};
+      int[] goal = {side - 1 - random.nextInt(side / 4), side - 1 - random.nextInt(side / 4)};
+      board[start[0]][start[1]] = ' ';
+      board[goal[0]][goal[1]] = ' ';
+      planner.update(start[0], start[1]);
+      planner.update(goal[0], goal[1]);
+      int row = random.nextInt(side);
+      int col = random.nextInt(side);
+      board[row][col] = board[row][col] == 'X' ? ' ' : 'X';
+      planner.update(row, col);
+
+      long before = planner.expansions();
+      started = System.nanoTime();
+      List<int[]> path = planner.path(start, goal);
+      hierarchicalNanos += System.nanoTime() - started;
+      hierarchicalExpansions += planner.expansions() - before;
+
+      started = System.nanoTime();
+      IncrementalPlanner flat = new IncrementalPlanner(board, KING_MOVES, start, goal);
+      int distance = flat.distance();
+      flatNanos += System.nanoTime() - started;
+      flatExpansions += flat.expansions();
+
+      if (path.isEmpty() != (distance < 0)) throw new AssertionError("Reachability differs from the flat search");
+      if (distance > 0) {
+        found++;
+        hierarchicalLength += path.size() - 1;
+        flatLength += distance;
+      }
+    }
+
+    System.out.printf("board=%dx%d clusters=%d abstract nodes=%d build=%.1f ms queries=%d%n", side, side, clusterSize,
+        planner.abstractNodeCount(), buildNanos / 1e6, queries);
+    System.out.printf("%-13s %9.3f ms  %10.1f expansions per query%n", "hierarchical", hierarchicalNanos / 1e6 / queries,
+        (double) hierarchicalExpansions / queries);
+    System.out.printf("%-13s %9.3f ms  %10.1f expansions per query%n", "flat", flatNanos / 1e6 / queries, (double) flatExpansions / queries);
+    System.out.printf("path length %.3f times the shortest over %d reachable queries%n", (double) hierarchicalLength / flatLength, found);
+  }
+}
@@ -0,0 +1,163 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+public class HierarchicalPlannerTest {
+  private static final int[][] KING_MOVES = {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+  private static final int[][] ROOK_STEPS = {{-1, 0}, {0, -1}, {0, 1}, {1, 0}};
+  private static final int[][] FORWARD_STEPS = {{0, 1}, {1, 0}, {1, 1}};
+
+  /** The distance by breadth-first search over nextMoves, or -1 if the goal cannot be reached. */
+  private int bfs(char[][] board, int[][] directions, int[] start, int[] goal) {
+    int columns = board[0].length;
+    int[] distance = new int[board.length * columns];
+    Arrays.fill(distance, -1);
+    ArrayDeque<int[]> queue = new ArrayDeque<>();
+    distance[start[0] * columns + start[1]] = 0;
+    queue.add(start);
+    while (!queue.isEmpty()) {
+      int[] current = queue.poll();
+      if (Arrays.equals(current, goal)) return distance[current[0] * columns + current[1]];
+      for (int[] next : Practice.nextMoves(board, current, directions)) {
+        if (distance[next[0] * columns + next[1]] >= 0) continue;
+        distance[next[0] * columns + next[1]] = distance[current[0] * columns + current[1]] + 1;
+        queue.add(next);
+      }
+    }
+    return -1;
+  }
+
+  /** Checks that the path is made of legal moves from start to goal, and returns its number of moves. */
+  private int assertValidPath(char[][] board, int[][] directions, int[] start, int[] goal, int distance, List<int[]> path) {
+    if (distance < 0) {
+      assertTrue(path.isEmpty());
+      return -1;
+    }
+    assertFalse(path.isEmpty(), "no path found where one exists");
+    assertArrayEquals(start, path.get(0));
+    assertArrayEquals(goal, path.get(path.size() - 1));
+    for (int i = 1; i < path.size(); i++) {
+      int[] step = path.get(i);
+      assertTrue(Practice.nextMoves(board, path.get(i - 1), directions).stream().anyMatch(move -> Arrays.equals(move, step)));
+    }
+    assertTrue(path.size() - 1 >= distance);
+    return path.size() - 1;
+  }
+
+  private int[] randomCell(Random random, char[][] board) {
+    return new int[] {random.nextInt(board.length), random.nextInt(board[0].length)};
+  }
+
+  /**
+   * Test that paths are found exactly when the goal can be reached, are legal, and are close to shortest.
+   */
+  @Test
+  public void testMatchesBreadthFirstSearch() {
+    Random random = new Random(5);
+    for (int[][] directions : new int[][][] {KING_MOVES, ROOK_STEPS}) {
+      // Neither side is a multiple of the cluster size, so the last clusters are partial.
+      char[][] board = GraphGenerators.board(90, 110, 0.3, 17);
+      HierarchicalPlanner planner = new HierarchicalPlanner(board, directions, 16);
+      long found = 0;
+      long shortest = 0;
+      for (int query = 0; query < 150; query++) {
+        int[] start = randomCell(random, board);
+        int[] goal = query % 5 == 0 ? new int[] {Math.min(89, start[0] + 3), Math.max(0, start[1] - 4)} : randomCell(random, board);
+        int distance = bfs(board, directions, start, goal);
+        int length = assertValidPath(board, directions, start, goal, distance, planner.path(start, goal));
+        if (distance >= 0) {
+          found += length;
+          shortest += distance;
+        }
+      }
+      assertTrue(found <= shortest * 1.15, found + " moves where " + shortest + " would do");
+    }
+  }
+
+  /**
+   * Test that rebuilding only the clusters around each changed cell gives the same abstract graph, down to
+   * the transitions and the distances within each cluster, as building it again, and that paths stay right.
+   */
+  @Test
+  public void testUpdatesMatchNewPlanner() {
+    Random random = new Random(9);
+    char[][] board = GraphGenerators.board(64, 80, 0.25, 3);
+    HierarchicalPlanner planner = new HierarchicalPlanner(board, KING_MOVES, 8);
+    for (int round = 0; round < 40; round++) {
+      for (int change = 0; change < 5; change++) {
+        int[] cell = randomCell(random, board);
+        // Three changes in five fall on cluster borders, where the transitions are.
+        if (change % 2 == 0) cell[1] = cell[1] / 8 * 8 + 7;
+        board[cell[0]][cell[1]] = board[cell[0]][cell[1]] == 'X' ? ' ' : 'X';
+        planner.update(cell[0], cell[1]);
+      }
+      HierarchicalPlanner fresh = new HierarchicalPlanner(board, KING_MOVES, 8);
+      assertEquals(fresh.abstractNodeCount(), planner.abstractNodeCount());
+      assertTrue(planner.sameAbstractGraph(fresh), "abstract graph differs after round " + round);
+      int[] start = randomCell(random, board);
+      int[] goal = randomCell(random, board);
+      assertValidPath(board, KING_MOVES, start, goal, bfs(board, KING_MOVES, start, goal), planner.path(start, goal));
+    }
+  }
+
+  /**
+   * Test the cases the abstract graph cannot answer alone: one-way moves, and a start on an 'X'.
+   */
+  @Test
+  public void testFallsBackToFlatSearch() {
+    Random random = new Random(13);
+    char[][] board = GraphGenerators.board(50, 50, 0.3, 23);
+    HierarchicalPlanner forward = new HierarchicalPlanner(board, FORWARD_STEPS, 10);
+    HierarchicalPlanner king = new HierarchicalPlanner(board, KING_MOVES, 10);
+    for (int query = 0; query < 60; query++) {
+      int[] start = randomCell(random, board);
+      int[] goal = randomCell(random, board);
+      assertValidPath(board, FORWARD_STEPS, start, goal, bfs(board, FORWARD_STEPS, start, goal), forward.path(start, goal));
+      assertValidPath(board, KING_MOVES, start, goal, bfs(board, KING_MOVES, start, goal), king.path(start, goal));
+    }
+
+    char[][] walled = {
+        "    X    ".toCharArray(),
+        "  XXXXX  ".toCharArray(),
+        "  X X X  ".toCharArray(),
+        "  XXXXX  ".toCharArray(),
+    };
+    HierarchicalPlanner planner = new HierarchicalPlanner(walled, ROOK_STEPS, 3);
+    assertEquals(List.of(), planner.path(new int[] {2, 3}, new int[] {2, 5}));
+    assertEquals(2, planner.path(new int[] {1, 3}, new int[] {0, 3}).size());
+    assertEquals(5, planner.path(new int[] {1, 3}, new int[] {0, 0}).size());
+    assertEquals(1, planner.path(new int[] {2, 3}, new int[] {2, 3}).size());
+    assertEquals(List.of(), planner.path(new int[] {0, 0}, new int[] {0, 4}));
+  }
+
+  /**
+   * Test that a long query expands far fewer cells than a search over the whole board.
+   */
+  @Test
+  public void testExpandsFewerCellsThanFlatSearch() {
+    char[][] board = GraphGenerators.board(600, 600, 0.2, 42);
+    board[0][0] = ' ';
+    board[599][599] = ' ';
+    HierarchicalPlanner planner = new HierarchicalPlanner(board, KING_MOVES);
+    int[] start = {0, 0};
+    int[] goal = {599, 599};
+    List<int[]> path = planner.path(start, goal);
+
+    IncrementalPlanner flat = new IncrementalPlanner(board, KING_MOVES, start, goal);
+    assertValidPath(board, KING_MOVES, start, goal, flat.distance(), path);
+    assertTrue(planner.expansions() * 5 < flat.expansions(), planner.expansions() + " expansions against " + flat.expansions());
+  }
+
+  /**
+   * Test that moves longer than one square and ragged boards are rejected.
+   */
+  @Test
+  public void testRejectsBadInput() {
+    char[][] board = GraphGenerators.board(10, 10, 0.1, 1);
+    assertThrows(IllegalArgumentException.class, () -> new HierarchicalPlanner(board, new int[][] {{2, 1}}));
+    assertThrows(IllegalArgumentException.class, () -> new HierarchicalPlanner(board, KING_MOVES, 1));
+    assertThrows(IllegalArgumentException.class, () -> new HierarchicalPlanner(new char[][] {{' ', ' '}, {' '}}, KING_MOVES));
+    HierarchicalPlanner planner = new HierarchicalPlanner(board, KING_MOVES);
+    assertThrows(IllegalArgumentException.class, () -> planner.path(new int[] {0, 0}, new int[] {10, 0}));
+  }
+}
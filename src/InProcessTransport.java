@@ -0,0 +1,108 @@
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * A ShardTransport that runs the shards of a PartitionedGraph in this JVM, one ForkJoinPool task per shard
+ * in each superstep.
+ *
+ * The shards keep their traversal state inside the PartitionedGraph, so only one InProcessTransport should
+ * traverse a given PartitionedGraph at a time.
+ */
+public class InProcessTransport implements ShardTransport {
+  private final PartitionedGraph graph;
+  private final ForkJoinPool pool;
+
+  /**
+   * Constructs an InProcessTransport that runs the shards on the common pool.
+   *
+   * @param graph the partitioned graph
+   */
+  public InProcessTransport(PartitionedGraph graph) {
+    this(graph, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Constructs an InProcessTransport that runs the shards on the given pool.
+   *
+   * @param graph the partitioned graph
+   * @param pool the pool to run shard tasks on
+   */
+  public InProcessTransport(PartitionedGraph graph, ForkJoinPool pool) {
+    this.graph = graph;
+    this.pool = pool;
+  }
+
+  @Override
+  public int shardCount() {
+    return graph.shardCount();
+  }
+
+  @Override
+  public int shardOf(int id) {
+    return graph.shardOf(id);
+  }
+
+  @Override
+  public boolean containsKey(int id) {
+    return graph.shard(graph.shardOf(id)).containsKey(id);
+  }
+
+  @Override
+  public void begin(int target, boolean positiveOnly) {
+    for (int s = 0; s < graph.shardCount(); s++) graph.shard(s).begin(target, positiveOnly);
+  }
+
+  @Override
+  public int[][][] superstep(int[][] inboxes) {
+    List<Callable<int[][]>> steps = new ArrayList<>();
+    for (int s = 0; s < graph.shardCount(); s++) {
+      PartitionedGraph.Shard shard = graph.shard(s);
+      int[] inbox = inboxes[s];
+      steps.add(() -> inbox.length == 0 ? new int[graph.shardCount()][0] : shard.step(inbox));
+    }
+
+    int[][][] outboxes = new int[graph.shardCount()][][];
+    boolean found = false;
+    List<Future<int[][]>> results = pool.invokeAll(steps);
+    for (int s = 0; s < outboxes.length; s++) {
+      outboxes[s] = join(results.get(s));
+      if (outboxes[s] == null) found = true;
+    }
+    return found ? null : outboxes;
+  }
+
+  private static int[][] join(Future<int[][]> result) {
+    try {
+      return result.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted during a superstep", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Shard failed during a superstep", e.getCause());
+    }
+  }
+
+  @Override
+  public int[] visitedIds() {
+    int[][] parts = new int[graph.shardCount()][];
+    int total = 0;
+    for (int s = 0; s < parts.length; s++) {
+      parts[s] = graph.shard(s).visitedIds();
+      total += parts[s].length;
+    }
+    int[] ids = new int[total];
+    int at = 0;
+    for (int[] part : parts) {
+      System.arraycopy(part, 0, ids, at, part.length);
+      at += part.length;
+    }
+    return ids;
+  }
+
+  @Override
+  public void close() {
+  }
+}
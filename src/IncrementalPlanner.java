@@ -0,0 +1,322 @@
+import java.util.*;
+
+/**
+ * Keeps a shortest path across a board up to date while the board changes, with D* Lite.
+ *
+ * Moves are those of Practice.nextMoves: each of the directions, landing on the board and not on an 'X',
+ * at a cost of one. The planner searches backward from the goal, so every cell it has settled knows its
+ * distance to the goal. When cells change, only the cells whose distance can depend on them are put back
+ * in the search queue, and the next query repairs distances outward from the change until the start is
+ * settled again, which usually touches a small part of what a new search would. The start may also move,
+ * as it does for an agent following the path, without the search being thrown away.
+ *
+ * The heuristic is the number of moves needed if there were no walls, from the longest row and column
+ * steps among the directions, so paths are shortest for any set of directions.
+ * The board must be rectangular. A planner is used by one thread at a time.
+ */
+public class IncrementalPlanner {
+  private static final int INFINITY = Integer.MAX_VALUE;
+
+  private final char[][] board;
+  private final int rows;
+  private final int columns;
+  private final int[] rowSteps;
+  private final int[] columnSteps;
+  private final int maxRowStep;
+  private final int maxColumnStep;
+  private final int goal;
+
+  private final boolean[] open;
+  private final int[] g;
+  private final int[] rhs;
+  private final Queue queue;
+  private int start;
+  private int lastStart;
+  private int km;
+  private long expansions;
+
+  /**
+   * Constructs a planner for a board, searching nothing until the first query.
+   *
+   * @param board a rectangular array where 'X' represents an impassable location
+   * @param directions the [row, column] directions a move may take
+   * @param start the [row, column] of the starting position
+   * @param goal the [row, column] of the goal
+   */
+  public IncrementalPlanner(char[][] board, int[][] directions, int[] start, int[] goal) {
+    this.board = board;
+    this.rows = board.length;
+    this.columns = rows == 0 ? 0 : board[0].length;
+    for (char[] row : board) {
+      if (row.length != columns) throw new IllegalArgumentException("The board must be rectangular");
+    }
+    int cells = Math.multiplyExact(rows, columns);
+
+    this.rowSteps = new int[directions.length];
+    this.columnSteps = new int[directions.length];
+    int maxRow = 0;
+    int maxColumn = 0;
+    for (int d = 0; d < directions.length; d++) {
+      rowSteps[d] = directions[d][0];
+      columnSteps[d] = directions[d][1];
+      maxRow = Math.max(maxRow, Math.abs(rowSteps[d]));
+      maxColumn = Math.max(maxColumn, Math.abs(columnSteps[d]));
+    }
+    this.maxRowStep = maxRow;
+    this.maxColumnStep = maxColumn;
+
+    this.open = new boolean[cells];
+    for (int cell = 0; cell < cells; cell++) open[cell] = board[cell / columns][cell % columns] != 'X';
+    this.g = new int[cells];
+    this.rhs = new int[cells];
+    Arrays.fill(g, INFINITY);
+    Arrays.fill(rhs, INFINITY);
+    this.queue = new Queue(cells);
+
+    this.goal = cell(goal[0], goal[1]);
+    this.start = cell(start[0], start[1]);
+    this.lastStart = this.start;
+    rhs[this.goal] = 0;
+    queue.insert(this.goal, key(this.goal));
+  }
+
+  private int cell(int row, int col) {
+    if (row < 0 || row >= rows || col < 0 || col >= columns) throw new IllegalArgumentException("Position is off the board: " + row + ", " + col);
+    return row * columns + col;
+  }
+
+  /**
+   * Returns the number of moves on a shortest path from the start to the goal, searching as needed.
+   *
+   * @return the distance, or -1 if the goal cannot be reached
+   */
+  public int distance() {
+    computeShortestPath();
+    return g[start] == INFINITY ? -1 : g[start];
+  }
+
+  /**
+   * Returns a shortest path from the start to the goal, searching as needed.
+   *
+   * @return the [row, column] of every position on the path, start and goal included, or an empty list if
+   *         the goal cannot be reached
+   */
+  public List<int[]> path() {
+    computeShortestPath();
+    List<int[]> path = new ArrayList<>();
+    if (g[start] == INFINITY) return path;
+
+    int cell = start;
+    path.add(new int[] {cell / columns, cell % columns});
+    while (cell != goal) {
+      // Once the search is done, the neighbor closest to the goal is always one move closer than this cell.
+      int next = -1;
+      for (int d = 0; d < rowSteps.length; d++) {
+        int successor = successor(cell, d);
+        if (successor >= 0 && open[successor] && (next < 0 || g[successor] < g[next])) next = successor;
+      }
+      cell = next;
+      path.add(new int[] {cell / columns, cell % columns});
+    }
+    return path;
+  }
+
+  /**
+   * Moves the start, keeping everything searched so far.
+   *
+   * @param start the [row, column] of the new starting position
+   */
+  public void moveStart(int[] start) {
+    this.start = cell(start[0], start[1]);
+    // The queue's keys were computed for the old start; raising every new key by how far the start
+    // has moved keeps them comparable without going through the queue.
+    km += heuristic(lastStart, this.start);
+    lastStart = this.start;
+  }
+
+  /**
+   * Reads one cell of the board again after it has changed, and marks the cells whose distance may depend on it.
+   *
+   * @param row the row of the cell
+   * @param col the column of the cell
+   */
+  public void update(int row, int col) {
+    int cell = cell(row, col);
+    boolean nowOpen = board[row][col] != 'X';
+    if (open[cell] == nowOpen) return;
+    open[cell] = nowOpen;
+
+    // Only the moves into the cell changed cost, so only the cells a move away from it need recomputing.
+    for (int d = 0; d < rowSteps.length; d++) {
+      int predecessor = predecessor(cell, d);
+      if (predecessor >= 0) updateVertex(predecessor);
+    }
+  }
+
+  /**
+   * Returns the number of cells the search has expanded since the planner was constructed.
+   *
+   * @return the expansion count
+   */
+  public long expansions() {
+    return expansions;
+  }
+
+  private int successor(int cell, int d) {
+    int row = cell / columns + rowSteps[d];
+    int col = cell % columns + columnSteps[d];
+    return row < 0 || row >= rows || col < 0 || col >= columns ? -1 : row * columns + col;
+  }
+
+  private int predecessor(int cell, int d) {
+    int row = cell / columns - rowSteps[d];
+    int col = cell % columns - columnSteps[d];
+    return row < 0 || row >= rows || col < 0 || col >= columns ? -1 : row * columns + col;
+  }
+
+  private int heuristic(int from, int to) {
+    int rowDistance = Math.abs(from / columns - to / columns);
+    int columnDistance = Math.abs(from % columns - to % columns);
+    int byRows = maxRowStep == 0 ? 0 : (rowDistance + maxRowStep - 1) / maxRowStep;
+    int byColumns = maxColumnStep == 0 ? 0 : (columnDistance + maxColumnStep - 1) / maxColumnStep;
+    return Math.max(byRows, byColumns);
+  }
+
+  /** Returns the queue key of a cell, the two D* Lite priorities packed high and low into one long. */
+  private long key(int cell) {
+    int best = Math.min(g[cell], rhs[cell]);
+    if (best == INFINITY) return Long.MAX_VALUE;
+    return ((long) best + heuristic(start, cell) + km) << 32 | best;
+  }
+
+  private void updateVertex(int cell) {
+    if (cell != goal) {
+      int best = INFINITY;
+      for (int d = 0; d < rowSteps.length; d++) {
+        int successor = successor(cell, d);
+        if (successor >= 0 && open[successor] && g[successor] != INFINITY) best = Math.min(best, g[successor] + 1);
+      }
+      rhs[cell] = best;
+    }
+    if (g[cell] != rhs[cell]) queue.insertOrUpdate(cell, key(cell));
+    else queue.remove(cell);
+  }
+
+  private void computeShortestPath() {
+    while (!queue.isEmpty() && (queue.topKey() < key(start) || rhs[start] != g[start])) {
+      long oldKey = queue.topKey();
+      int cell = queue.pop();
+      long newKey = key(cell);
+      if (oldKey < newKey) {
+        queue.insert(cell, newKey);
+        continue;
+      }
+
+      expansions++;
+      if (g[cell] > rhs[cell]) {
+        g[cell] = rhs[cell];
+      } else {
+        g[cell] = INFINITY;
+        updateVertex(cell);
+      }
+      for (int d = 0; d < rowSteps.length; d++) {
+        int predecessor = predecessor(cell, d);
+        if (predecessor >= 0) updateVertex(predecessor);
+      }
+    }
+  }
+
+  /** A binary min-heap of cells by key, which knows where each cell is so it can move or remove it. */
+  private static final class Queue {
+    private final int[] position;
+    private int[] cells = new int[64];
+    private long[] keys = new long[64];
+    private int size;
+
+    Queue(int cellCount) {
+      position = new int[cellCount];
+      Arrays.fill(position, -1);
+    }
+
+    boolean isEmpty() {
+      return size == 0;
+    }
+
+    long topKey() {
+      return keys[0];
+    }
+
+    void insert(int cell, long key) {
+      if (size == cells.length) {
+        cells = Arrays.copyOf(cells, size * 2);
+        keys = Arrays.copyOf(keys, size * 2);
+      }
+      place(size++, cell, key);
+      siftUp(size - 1);
+    }
+
+    void insertOrUpdate(int cell, long key) {
+      int at = position[cell];
+      if (at < 0) {
+        insert(cell, key);
+        return;
+      }
+      keys[at] = key;
+      siftUp(at);
+      siftDown(position[cell]);
+    }
+
+    int pop() {
+      int top = cells[0];
+      removeAt(0);
+      return top;
+    }
+
+    void remove(int cell) {
+      int at = position[cell];
+      if (at >= 0) removeAt(at);
+    }
+
+    private void removeAt(int at) {
+      position[cells[at]] = -1;
+      size--;
+      if (at == size) return;
+      int moved = cells[size];
+      place(at, moved, keys[size]);
+      siftUp(at);
+      if (position[moved] == at) siftDown(at);
+    }
+
+    private void place(int at, int cell, long key) {
+      cells[at] = cell;
+      keys[at] = key;
+      position[cell] = at;
+    }
+
+    private void siftUp(int at) {
+      int cell = cells[at];
+      long key = keys[at];
+      while (at > 0) {
+        int parent = (at - 1) >>> 1;
+        if (keys[parent] <= key) break;
+        place(at, cells[parent], keys[parent]);
+        at = parent;
+      }
+      place(at, cell, key);
+    }
+
+    private void siftDown(int at) {
+      int cell = cells[at];
+      long key = keys[at];
+      while (true) {
+        int child = 2 * at + 1;
+        if (child >= size) break;
+        if (child + 1 < size && keys[child + 1] < keys[child]) child++;
+        if (keys[child] >= key) break;
+        place(at, cells[child], keys[child]);
+        at = child;
+      }
+      place(at, cell, key);
+    }
+  }
+}
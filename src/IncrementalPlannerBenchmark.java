@@ -0,0 +1,59 @@
+import java.util.*;
+
+/**
+ * Compares replanning with IncrementalPlanner after single-cell changes against a new search after each change.
+ *
+ * Usage: java IncrementalPlannerBenchmark [side] [changes]
+ *
+ * The board is side by side with 20% walls, and the path runs between opposite corners with king moves.
+ * One change in four closes or opens a cell on the current path; the rest toggle cells anywhere.
+ */
+public class IncrementalPlannerBenchmark {
+  private static final int[][] KING_MOVES = {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+
+  public static void main(String[] args) {
+    int side = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+    int changes = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+    char[][] board = GraphGenerators.board(side, side, 0.2, 42);
+    int[] start = {0, 0};
+    int[] goal = {side - 1, side - 1};
+    board[0][0] = ' ';
+    board[side - 1][side - 1] = ' ';
+
+    IncrementalPlanner planner = new IncrementalPlanner(board, KING_MOVES, start, goal);
+    planner.distance();
+    Random random = new Random(42);
+    long repairNanos = 0;
+    long repairExpansions = 0;
+    long freshNanos = 0;
+    long freshExpansions = 0;
+    for (int change = 0; change < changes; change++) {
+      int[] cell;
+      if (change % 4 == 0 && planner.distance() > 1) {
+        List<int[]> path = planner.path();
+        cell = path.get(1 + random.nextInt(path.size() - 2));
+      } else {
+        cell = new int[] {random.nextInt(side), random.nextInt(side)};
+        if (Arrays.equals(cell, start) || Arrays.equals(cell, goal)) continue;
+      }
+      board[cell[0]][cell[1]] = board[cell[0]][cell[1]] == 'X' ? ' ' : 'X';
+
+      long before = planner.expansions();
+      long started = System.nanoTime();
+      planner.update(cell[0], cell[1]);
+      int distance = planner.distance();
+      repairNanos += System.nanoTime() - started;
+      repairExpansions += planner.expansions() - before;
+
+      started = System.nanoTime();
+      IncrementalPlanner fresh = new IncrementalPlanner(board, KING_MOVES, start, goal);
+      if (fresh.distance() != distance) throw new AssertionError("Replanned distance " + distance + " differs from " + fresh.distance());
+      freshNanos += System.nanoTime() - started;
+      freshExpansions += fresh.expansions();
+    }
+
+    System.out.printf("board=%dx%d changes=%d%n", side, side, changes);
+    System.out.printf("%-12s %9.3f ms  %10.1f expansions per change%n", "replan", repairNanos / 1e6 / changes, (double) repairExpansions / changes);
+    System.out.printf("%-12s %9.3f ms  %10.1f expansions per change%n", "new search", freshNanos / 1e6 / changes, (double) freshExpansions / changes);
+  }
+}
@@ -0,0 +1,154 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+public class IncrementalPlannerTest {
+  private static final int[][] KING_MOVES = {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+  private static final int[][] ROOK_STEPS = {{-1, 0}, {0, -1}, {0, 1}, {1, 0}};
+  private static final int[][] KNIGHT_MOVES = {{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}};
+
+  /** The distance by breadth-first search over nextMoves, or -1 if the goal cannot be reached. */
+  private int bfs(char[][] board, int[][] directions, int[] start, int[] goal) {
+    int columns = board[0].length;
+    int[] distance = new int[board.length * columns];
+    Arrays.fill(distance, -1);
+    ArrayDeque<int[]> queue = new ArrayDeque<>();
+    distance[start[0] * columns + start[1]] = 0;
+    queue.add(start);
+    while (!queue.isEmpty()) {
+      int[] current = queue.poll();
+      if (Arrays.equals(current, goal)) return distance[current[0] * columns + current[1]];
+      for (int[] next : Practice.nextMoves(board, current, directions)) {
+        if (distance[next[0] * columns + next[1]] >= 0) continue;
+        distance[next[0] * columns + next[1]] = distance[current[0] * columns + current[1]] + 1;
+        queue.add(next);
+      }
+    }
+    return -1;
+  }
+
+  private void assertValidPath(char[][] board, int[][] directions, int[] start, int[] goal, int distance, List<int[]> path) {
+    if (distance < 0) {
+      assertTrue(path.isEmpty());
+      return;
+    }
+    assertEquals(distance + 1, path.size());
+    assertArrayEquals(start, path.get(0));
+    assertArrayEquals(goal, path.get(path.size() - 1));
+    for (int i = 1; i < path.size(); i++) {
+      int[] step = path.get(i);
+      assertTrue(Practice.nextMoves(board, path.get(i - 1), directions).stream().anyMatch(move -> Arrays.equals(move, step)));
+    }
+  }
+
+  /**
+   * Test that the planner's distances and paths stay shortest while random cells toggle.
+   */
+  @Test
+  public void testMatchesBreadthFirstSearchAcrossChanges() {
+    Random random = new Random(7);
+    for (int[][] directions : new int[][][] {KING_MOVES, ROOK_STEPS, KNIGHT_MOVES}) {
+      char[][] board = GraphGenerators.board(30, 40, 0.3, 11);
+      int[] start = {0, 0};
+      int[] goal = {29, 39};
+      board[0][0] = ' ';
+      board[29][39] = ' ';
+      IncrementalPlanner planner = new IncrementalPlanner(board, directions, start, goal);
+
+      for (int change = 0; change < 150; change++) {
+        int expected = bfs(board, directions, start, goal);
+        assertEquals(expected, planner.distance(), "after " + change + " changes");
+        assertValidPath(board, directions, start, goal, expected, planner.path());
+
+        int row = random.nextInt(30);
+        int col = random.nextInt(40);
+        board[row][col] = board[row][col] == 'X' ? ' ' : 'X';
+        planner.update(row, col);
+      }
+    }
+  }
+
+  /**
+   * Test that the start can move along the path and the distances stay right as cells change around it.
+   */
+  @Test
+  public void testMovingStart() {
+    char[][] board = GraphGenerators.board(25, 25, 0.25, 3);
+    int[] goal = {24, 24};
+    board[0][0] = ' ';
+    board[24][24] = ' ';
+    IncrementalPlanner planner = new IncrementalPlanner(board, KING_MOVES, new int[] {0, 0}, goal);
+    Random random = new Random(5);
+    int[] position = {0, 0};
+
+    while (!Arrays.equals(position, goal) && planner.distance() > 0) {
+      position = planner.path().get(1);
+      planner.moveStart(position);
+      int row = random.nextInt(25);
+      int col = random.nextInt(25);
+      if ((row != goal[0] || col != goal[1]) && (row != position[0] || col != position[1])) {
+        board[row][col] = board[row][col] == 'X' ? ' ' : 'X';
+        planner.update(row, col);
+      }
+      assertEquals(bfs(board, KING_MOVES, position, goal), planner.distance());
+    }
+  }
+
+  /**
+   * Test that replanning after a change expands, on average, a small fraction of the cells the first
+   * search did, with one change in four on the current path.
+   */
+  @Test
+  public void testRepairIsLocal() {
+    char[][] board = GraphGenerators.board(200, 200, 0.2, 9);
+    board[0][0] = ' ';
+    board[199][199] = ' ';
+    IncrementalPlanner planner = new IncrementalPlanner(board, KING_MOVES, new int[] {0, 0}, new int[] {199, 199});
+    assertTrue(planner.distance() > 0);
+    long fresh = planner.expansions();
+
+    Random random = new Random(1);
+    int changes = 100;
+    for (int change = 0; change < changes; change++) {
+      int[] cell;
+      if (change % 4 == 0) {
+        List<int[]> path = planner.path();
+        cell = path.get(1 + random.nextInt(path.size() - 2));
+      } else {
+        cell = new int[] {random.nextInt(200), 1 + random.nextInt(198)};
+      }
+      board[cell[0]][cell[1]] = board[cell[0]][cell[1]] == 'X' ? ' ' : 'X';
+      planner.update(cell[0], cell[1]);
+      planner.distance();
+    }
+    long repairs = planner.expansions() - fresh;
+    assertTrue(repairs / changes < fresh / 10, "repairs took " + repairs / changes + " on average against " + fresh);
+    assertEquals(bfs(board, KING_MOVES, new int[] {0, 0}, new int[] {199, 199}), planner.distance());
+  }
+
+  /**
+   * Test an unreachable goal, a start on the goal, and a goal that opens up later.
+   */
+  @Test
+  public void testEdgeCases() {
+    char[][] board = {
+        {' ', 'X', ' '},
+        {' ', 'X', ' '},
+        {' ', 'X', ' '}
+    };
+    IncrementalPlanner planner = new IncrementalPlanner(board, ROOK_STEPS, new int[] {0, 0}, new int[] {0, 2});
+    assertEquals(-1, planner.distance());
+    assertTrue(planner.path().isEmpty());
+
+    board[2][1] = ' ';
+    planner.update(2, 1);
+    assertEquals(6, planner.distance());
+
+    planner.moveStart(new int[] {0, 2});
+    assertEquals(0, planner.distance());
+    assertEquals(1, planner.path().size());
+
+    assertThrows(IllegalArgumentException.class, () -> new IncrementalPlanner(new char[][] {{' '}, {' ', ' '}}, ROOK_STEPS, new int[] {0, 0}, new int[] {1, 1}));
+    assertThrows(IllegalArgumentException.class, () -> planner.moveStart(new int[] {3, 0}));
+  }
+}
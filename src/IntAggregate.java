@@ -0,0 +1,271 @@
+import java.util.OptionalInt;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntPredicate;
+
+/**
+ * A statistic over int values, computed in mergeable parts, for TraversalPipeline.
+ *
+ * A part starts empty, takes values one at a time, and can be merged with another part of the same
+ * aggregate, so the values can be split among threads in any way and the parts combined afterwards.
+ * Parts are mutable, so accepting a value allocates nothing. The static methods give the common
+ * statistics; anything else can implement the four methods itself.
+ *
+ * @param <A> the type of a part, mutable
+ * @param <R> the type of the finished result
+ */
+public interface IntAggregate<A, R> {
+
+  /**
+   * Returns a new, empty part.
+   *
+   * @return a part that has taken no values
+   */
+  A start();
+
+  /**
+   * Adds one value to a part.
+   *
+   * @param part the part to add to
+   * @param value the value
+   */
+  void accept(A part, int value);
+
+  /**
+   * Combines two parts, either of which may be reused as the result.
+   *
+   * @param left a part
+   * @param right another part of the same aggregate
+   * @return a part holding the values of both
+   */
+  A merge(A left, A right);
+
+  /**
+   * Returns the result for a part.
+   *
+   * @param part the part holding every value
+   * @return the statistic
+   */
+  R finish(A part);
+
+  /**
+   * Returns an aggregate that only takes the values matching a predicate.
+   *
+   * @param predicate the test for values to keep
+   * @return the filtered aggregate
+   */
+  default IntAggregate<A, R> filter(IntPredicate predicate) {
+    IntAggregate<A, R> inner = this;
+    return new IntAggregate<>() {
+      @Override
+      public A start() {
+        return inner.start();
+      }
+
+      @Override
+      public void accept(A part, int value) {
+        if (predicate.test(value)) inner.accept(part, value);
+      }
+
+      @Override
+      public A merge(A left, A right) {
+        return inner.merge(left, right);
+      }
+
+      @Override
+      public R finish(A part) {
+        return inner.finish(part);
+      }
+    };
+  }
+
+  /**
+   * Returns an aggregate that counts the values matching a predicate.
+   *
+   * @param predicate the test for values to count
+   * @return the count aggregate
+   */
+  static IntAggregate<long[], Long> counting(IntPredicate predicate) {
+    return new Longs<Long>(1) {
+      @Override
+      public void accept(long[] part, int value) {
+        if (predicate.test(value)) part[0]++;
+      }
+
+      @Override
+      public Long finish(long[] part) {
+        return part[0];
+      }
+    };
+  }
+
+  /**
+   * Returns an aggregate that adds up the values as longs, so it does not overflow where an int sum would.
+   *
+   * @return the sum aggregate
+   */
+  static IntAggregate<long[], Long> summing() {
+    return new Longs<Long>(1) {
+      @Override
+      public void accept(long[] part, int value) {
+        part[0] += value;
+      }
+
+      @Override
+      public Long finish(long[] part) {
+        return part[0];
+      }
+    };
+  }
+
+  /**
+   * Returns an aggregate that counts the values by their remainder modulo m, always from 0 to m - 1.
+   *
+   * @param modulus the modulus, at least 1
+   * @return the aggregate, whose result holds the count for each remainder
+   */
+  static IntAggregate<long[], long[]> countingByResidue(int modulus) {
+    if (modulus < 1) throw new IllegalArgumentException("modulus must be positive: " + modulus);
+    return new Longs<long[]>(modulus) {
+      @Override
+      public void accept(long[] part, int value) {
+        part[Math.floorMod(value, modulus)]++;
+      }
+
+      @Override
+      public long[] finish(long[] part) {
+        return part;
+      }
+    };
+  }
+
+  /**
+   * Returns an aggregate that counts the values in equal-width buckets. Bucket i holds the values from
+   * min + i * width up to but not including min + (i + 1) * width; values below the first bucket are
+   * counted in it, and values above the last bucket in that one.
+   *
+   * @param min the lowest value of the first bucket
+   * @param width the width of each bucket, at least 1
+   * @param buckets the number of buckets, at least 1
+   * @return the aggregate, whose result holds the count for each bucket
+   */
+  static IntAggregate<long[], long[]> histogram(int min, int width, int buckets) {
+    if (width < 1 || buckets < 1) throw new IllegalArgumentException("width and buckets must be positive: " + width + ", " + buckets);
+    return new Longs<long[]>(buckets) {
+      @Override
+      public void accept(long[] part, int value) {
+        long bucket = Math.floorDiv((long) value - min, width);
+        part[(int) Math.max(0, Math.min(buckets - 1, bucket))]++;
+      }
+
+      @Override
+      public long[] finish(long[] part) {
+        return part;
+      }
+    };
+  }
+
+  /**
+   * Returns an aggregate that folds the values together with an associative operator, as IntStream.reduce does.
+   *
+   * @param operator an associative operator
+   * @return the aggregate, whose result is empty if there were no values
+   */
+  static IntAggregate<int[], OptionalInt> reducing(IntBinaryOperator operator) {
+    return new IntAggregate<>() {
+      // part[0] is 1 once a value has been taken, and part[1] the folded value.
+      @Override
+      public int[] start() {
+        return new int[2];
+      }
+
+      @Override
+      public void accept(int[] part, int value) {
+        part[1] = part[0] == 0 ? value : operator.applyAsInt(part[1], value);
+        part[0] = 1;
+      }
+
+      @Override
+      public int[] merge(int[] left, int[] right) {
+        if (right[0] == 0) return left;
+        if (left[0] == 0) return right;
+        left[1] = operator.applyAsInt(left[1], right[1]);
+        return left;
+      }
+
+      @Override
+      public OptionalInt finish(int[] part) {
+        return part[0] == 0 ? OptionalInt.empty() : OptionalInt.of(part[1]);
+      }
+    };
+  }
+
+  /**
+   * Returns an aggregate that folds the values together with an associative operator, starting from its identity.
+   *
+   * @param identity the identity of the operator
+   * @param operator an associative operator
+   * @return the aggregate, whose result is identity if there were no values
+   */
+  static IntAggregate<int[], Integer> reducing(int identity, IntBinaryOperator operator) {
+    return new IntAggregate<>() {
+      @Override
+      public int[] start() {
+        return new int[] {identity};
+      }
+
+      @Override
+      public void accept(int[] part, int value) {
+        part[0] = operator.applyAsInt(part[0], value);
+      }
+
+      @Override
+      public int[] merge(int[] left, int[] right) {
+        left[0] = operator.applyAsInt(left[0], right[0]);
+        return left;
+      }
+
+      @Override
+      public Integer finish(int[] part) {
+        return part[0];
+      }
+    };
+  }
+
+  /**
+   * Returns an aggregate for the smallest value.
+   *
+   * @return the aggregate, whose result is empty if there were no values
+   */
+  static IntAggregate<int[], OptionalInt> min() {
+    return reducing(Math::min);
+  }
+
+  /**
+   * Returns an aggregate for the largest value.
+   *
+   * @return the aggregate, whose result is empty if there were no values
+   */
+  static IntAggregate<int[], OptionalInt> max() {
+    return reducing(Math::max);
+  }
+
+  /** An aggregate whose part is an array of longs, merged by adding them element by element. */
+  abstract class Longs<R> implements IntAggregate<long[], R> {
+    private final int length;
+
+    Longs(int length) {
+      this.length = length;
+    }
+
+    @Override
+    public long[] start() {
+      return new long[length];
+    }
+
+    @Override
+    public long[] merge(long[] left, long[] right) {
+      for (int i = 0; i < length; i++) left[i] += right[i];
+      return left;
+    }
+  }
+}
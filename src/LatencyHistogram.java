@@ -0,0 +1,162 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of non-negative long values, such as latencies in nanoseconds, in the style of HdrHistogram.
+ *
+ * Values below 128 are counted exactly. From there up to 2^42, about 73 minutes in nanoseconds, each power
+ * of two is split into 64 equal buckets, so a value is kept to within 1 part in 64, two significant digits.
+ * Larger values share one overflow bucket; they still count towards max and mean exactly, and a percentile
+ * that lands among them is reported as the maximum.
+ *
+ * Many threads can record into one histogram at once without contending much on shared counters. The
+ * bucket counts are split into at most 4 stripes, and each thread records into the stripe its thread id
+ * picks; the count and sum are LongAdders; and the maximum is only written when it grows. A stripe takes
+ * under 19 KB and is allocated the first time a thread records into it, so a histogram stays below 76 KB.
+ */
+public class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 7;
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  private static final int HALF_COUNT = SUB_BUCKET_COUNT / 2;
+  private static final int HIGHEST_BIT = 42;
+  private static final int OVERFLOW = SUB_BUCKET_COUNT + (HIGHEST_BIT - SUB_BUCKET_BITS) * HALF_COUNT;
+  private static final int BUCKET_COUNT = OVERFLOW + 1;
+  private static final int STRIPES = stripeCount(Runtime.getRuntime().availableProcessors());
+
+  private final AtomicReferenceArray<AtomicLongArray> stripes = new AtomicReferenceArray<>(STRIPES);
+  private final LongAdder total = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+  private final AtomicLong max = new AtomicLong();
+
+  /** The power of two at or above the processor count, at most 4. */
+  private static int stripeCount(int processors) {
+    return processors <= 1 ? 1 : Math.min(4, Integer.highestOneBit(processors - 1) << 1);
+  }
+
+  /**
+   * Records one value.
+   *
+   * @param value the value to record
+   * @throws IllegalArgumentException if value is negative
+   */
+  public void record(long value) {
+    if (value < 0) throw new IllegalArgumentException("Negative value: " + value);
+    stripe((int) Thread.currentThread().getId() & (STRIPES - 1)).incrementAndGet(indexOf(value));
+    total.increment();
+    sum.add(value);
+    if (value > max.get()) max.accumulateAndGet(value, Math::max);
+  }
+
+  private AtomicLongArray stripe(int index) {
+    AtomicLongArray stripe = stripes.get(index);
+    if (stripe != null) return stripe;
+    stripes.compareAndSet(index, null, new AtomicLongArray(BUCKET_COUNT));
+    return stripes.get(index);
+  }
+
+  /** Returns the count in the given bucket, summed over every stripe. */
+  private long countAt(int index) {
+    long count = 0;
+    for (int i = 0; i < STRIPES; i++) {
+      AtomicLongArray stripe = stripes.get(i);
+      if (stripe != null) count += stripe.get(index);
+    }
+    return count;
+  }
+
+  private static int indexOf(long value) {
+    if (value < SUB_BUCKET_COUNT) return (int) value;
+    if (value >>> HIGHEST_BIT != 0) return OVERFLOW;
+    int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+    int sub = (int) (value >>> shift);
+    return SUB_BUCKET_COUNT + (shift - 1) * HALF_COUNT + (sub - HALF_COUNT);
+  }
+
+  /** Returns the largest value that would be counted in the given bucket. */
+  private static long highestInBucket(int index) {
+    if (index < SUB_BUCKET_COUNT) return index;
+    if (index == OVERFLOW) return Long.MAX_VALUE;
+    int shift = (index - SUB_BUCKET_COUNT) / HALF_COUNT + 1;
+    long sub = (index - SUB_BUCKET_COUNT) % HALF_COUNT + HALF_COUNT;
+    return (sub << shift) + (1L << shift) - 1;
+  }
+
+  /**
+   * Returns the number of values recorded.
+   *
+   * @return the count of recorded values
+   */
+  public long count() {
+    return total.sum();
+  }
+
+  /**
+   * Returns the largest value recorded, exactly, or 0 if none have been.
+   *
+   * @return the maximum recorded value
+   */
+  public long max() {
+    return max.get();
+  }
+
+  /**
+   * Returns the mean of the recorded values, or 0 if none have been.
+   *
+   * @return the mean recorded value
+   */
+  public double mean() {
+    long count = total.sum();
+    return count == 0 ? 0 : (double) sum.sum() / count;
+  }
+
+  /**
+   * Returns a value that the given percentage of recorded values are at or below, to within the
+   * histogram's precision. The result is never below the true percentile and never above max().
+   *
+   * @param percentile the percentile, from 0 to 100
+   * @return the value at that percentile, or 0 if nothing has been recorded
+   */
+  public long valueAtPercentile(double percentile) {
+    long count = total.sum();
+    if (count == 0) return 0;
+    long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * count));
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += countAt(i);
+      if (seen >= rank) return Math.min(highestInBucket(i), max.get());
+    }
+    return max.get();
+  }
+
+  /**
+   * Adds every value recorded in another histogram to this one.
+   *
+   * @param other the histogram to add
+   */
+  public void add(LatencyHistogram other) {
+    AtomicLongArray counts = stripe(0);
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      long count = other.countAt(i);
+      if (count != 0) counts.addAndGet(i, count);
+    }
+    total.add(other.total.sum());
+    sum.add(other.sum.sum());
+    max.accumulateAndGet(other.max.get(), Math::max);
+  }
+
+  /**
+   * Forgets every recorded value. Values recorded while this runs may or may not be kept.
+   */
+  public void reset() {
+    for (int i = 0; i < STRIPES; i++) {
+      AtomicLongArray stripe = stripes.get(i);
+      if (stripe == null) continue;
+      for (int j = 0; j < BUCKET_COUNT; j++) stripe.set(j, 0);
+    }
+    total.reset();
+    sum.reset();
+    max.set(0);
+  }
+}
@@ -0,0 +1,99 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+public class LatencyHistogramTest {
+
+  /**
+   * Test that percentiles of a uniform spread are within the histogram's precision.
+   */
+  @Test
+  public void testPercentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (long value = 1; value <= 1_000_000; value++) histogram.record(value * 1000);
+
+    assertEquals(1_000_000, histogram.count());
+    assertEquals(1_000_000_000L, histogram.max());
+    assertEquals(500_000_500.0, histogram.mean(), 1);
+    for (double percentile : new double[] {50, 90, 99, 99.9, 99.99}) {
+      long expected = (long) (percentile * 10_000) * 1000;
+      long actual = histogram.valueAtPercentile(percentile);
+      assertTrue(actual >= expected, percentile + ": " + actual);
+      assertTrue(actual <= expected + expected / 64 + 1, percentile + ": " + actual);
+    }
+    assertEquals(1_000_000_000L, histogram.valueAtPercentile(100));
+  }
+
+  /**
+   * Test that small values are counted exactly.
+   */
+  @Test
+  public void testSmallValuesExact() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int value : new int[] {0, 3, 3, 7, 127}) histogram.record(value);
+    assertEquals(0, histogram.valueAtPercentile(0));
+    assertEquals(3, histogram.valueAtPercentile(40));
+    assertEquals(7, histogram.valueAtPercentile(80));
+    assertEquals(127, histogram.valueAtPercentile(99));
+  }
+
+  /**
+   * Test that values past the tracked range and negative values are handled.
+   */
+  @Test
+  public void testExtremes() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(Long.MAX_VALUE);
+    assertEquals(Long.MAX_VALUE, histogram.valueAtPercentile(50));
+
+    long hour = 3_600_000_000_000L;
+    LatencyHistogram hours = new LatencyHistogram();
+    hours.record(hour);
+    hours.record(3 * hour);
+    assertTrue(hours.valueAtPercentile(50) >= hour && hours.valueAtPercentile(50) <= hour + hour / 64);
+    assertEquals(3 * hour, hours.valueAtPercentile(100));
+    assertThrows(IllegalArgumentException.class, () -> histogram.record(-1));
+    assertEquals(0, new LatencyHistogram().valueAtPercentile(99));
+  }
+
+  /**
+   * Test that adding histograms gives the same answers as recording everything into one, and that reset empties it.
+   */
+  @Test
+  public void testAddAndReset() {
+    Random random = new Random(4);
+    LatencyHistogram left = new LatencyHistogram();
+    LatencyHistogram right = new LatencyHistogram();
+    LatencyHistogram both = new LatencyHistogram();
+    for (int i = 0; i < 10_000; i++) {
+      long value = (long) Math.abs(random.nextGaussian() * 1e6);
+      (i % 2 == 0 ? left : right).record(value);
+      both.record(value);
+    }
+    left.add(right);
+    assertEquals(both.count(), left.count());
+    assertEquals(both.max(), left.max());
+    assertEquals(both.valueAtPercentile(99), left.valueAtPercentile(99));
+
+    left.reset();
+    assertEquals(0, left.count());
+    assertEquals(0, left.valueAtPercentile(50));
+  }
+
+  /**
+   * Test that recording from several threads at once loses nothing.
+   */
+  @Test
+  public void testConcurrentRecording() throws InterruptedException {
+    LatencyHistogram histogram = new LatencyHistogram();
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread(() -> {
+        for (int i = 0; i < 50_000; i++) histogram.record(i);
+      });
+      threads[t].start();
+    }
+    for (Thread thread : threads) thread.join();
+    assertEquals(200_000, histogram.count());
+  }
+}
@@ -0,0 +1,129 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a mix of Practice queries against one shared generated graph at a fixed arrival rate and
+ * reports latency percentiles and throughput for each query type.
+ *
+ * Usage: java LoadDriver [key=value ...]
+ *
+ *   vertices  size of the generated graphs, default 10000
+ *   rate      queries issued per second, default 2000
+ *   duration  seconds of measured load, default 10
+ *   warmup    seconds of load before measuring starts, default 3
+ *   threads   worker threads running the queries, default the number of processors
+ *   mix       relative weight of each query, default twoWay=40,sortedReachable=40,hasExtendedConnectionAtCompany=20
+ *   seed      random seed for the graphs and the query choices, default 42
+ *
+ * The load is open-loop: query i is due at start + i / rate whether or not earlier queries have finished,
+ * and its latency is measured from when it was due, not from when a worker picked it up. A driver that
+ * waits for each answer before sending the next slows down exactly when the system does, and then
+ * never records the queries it failed to send; measuring this way counts that queueing delay in full.
+ *
+ * twoWay and sortedReachable run on a preferential-attachment Vertex graph, and
+ * hasExtendedConnectionAtCompany on a social network of professionals with 50 companies.
+ * Everything is generated in memory, so no network or files are needed.
+ */
+public class LoadDriver {
+  private static final String[] QUERIES = {"twoWay", "sortedReachable", "hasExtendedConnectionAtCompany"};
+
+  public static void main(String[] args) throws InterruptedException {
+    Map<String, String> options = new HashMap<>();
+    for (String arg : args) {
+      int equals = arg.indexOf('=');
+      if (equals < 0) throw new IllegalArgumentException("Expected key=value: " + arg);
+      options.put(arg.substring(0, equals), arg.substring(equals + 1));
+    }
+    int vertices = Integer.parseInt(options.getOrDefault("vertices", "10000"));
+    double rate = Double.parseDouble(options.getOrDefault("rate", "2000"));
+    double duration = Double.parseDouble(options.getOrDefault("duration", "10"));
+    double warmup = Double.parseDouble(options.getOrDefault("warmup", "3"));
+    int threads = Integer.parseInt(options.getOrDefault("threads", String.valueOf(Runtime.getRuntime().availableProcessors())));
+    long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+    double[] weights = parseMix(options.getOrDefault("mix", "twoWay=40,sortedReachable=40,hasExtendedConnectionAtCompany=20"));
+
+    List<Vertex<Integer>> graph = GraphGenerators.vertices(GraphGenerators.preferentialAttachment(vertices, 2, seed), seed);
+    List<Professional> people = GraphGenerators.professionals(vertices, 2, 50, seed);
+    SplittableRandom random = new SplittableRandom(seed);
+
+    LatencyHistogram[] histograms = new LatencyHistogram[QUERIES.length];
+    for (int q = 0; q < QUERIES.length; q++) histograms[q] = new LatencyHistogram();
+    ExecutorService workers = Executors.newFixedThreadPool(threads);
+
+    long interval = (long) (1e9 / rate);
+    long warmupQueries = (long) (warmup * rate);
+    long totalQueries = warmupQueries + (long) (duration * rate);
+    long begin = System.nanoTime();
+    long measureFrom = begin + warmupQueries * interval;
+    long[] sink = new long[1];
+
+    for (long i = 0; i < totalQueries; i++) {
+      long due = begin + i * interval;
+      long wait;
+      while ((wait = due - System.nanoTime()) > 0) LockSupport.parkNanos(wait);
+
+      int query = pick(weights, random.nextDouble());
+      int a = random.nextInt(vertices);
+      int b = random.nextInt(vertices);
+      String company = "Company" + random.nextInt(60);
+      boolean measured = due >= measureFrom;
+      workers.execute(() -> {
+        long result;
+        switch (query) {
+          case 0: result = Practice.twoWay(graph.get(a), graph.get(b)) ? 1 : 0; break;
+          case 1: result = Practice.sortedReachable(graph.get(a)).size(); break;
+          default: result = Practice.hasExtendedConnectionAtCompany(people.get(a), company) ? 1 : 0; break;
+        }
+        if (measured) histograms[query].record(System.nanoTime() - due);
+        if (result == Long.MIN_VALUE) sink[0]++;
+      });
+    }
+    long lastDue = begin + (totalQueries - 1) * interval;
+    workers.shutdown();
+    workers.awaitTermination(1, TimeUnit.HOURS);
+    long drained = System.nanoTime();
+
+    // Completed throughput: measured queries over the time from the first measured one being due until the last finished.
+    double measuredSeconds = Math.max(1, drained - measureFrom) / 1e9;
+    System.out.printf("vertices=%d rate=%.0f/s duration=%.1fs warmup=%.1fs threads=%d%n", vertices, rate, duration, warmup, threads);
+    System.out.printf("backlog drained %.1f ms after the last query was due%n", (drained - lastDue) / 1e6);
+    System.out.printf("%-32s %8s %10s %10s %10s %10s %10s%n", "query", "count", "ops/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+    LatencyHistogram all = new LatencyHistogram();
+    for (int q = 0; q < QUERIES.length; q++) {
+      print(QUERIES[q], histograms[q], measuredSeconds);
+      all.add(histograms[q]);
+    }
+    print("all", all, measuredSeconds);
+  }
+
+  private static double[] parseMix(String mix) {
+    double[] weights = new double[QUERIES.length];
+    for (String part : mix.split(",")) {
+      String[] pair = part.split("=");
+      int query = Arrays.asList(QUERIES).indexOf(pair[0].trim());
+      if (query < 0 || pair.length != 2) throw new IllegalArgumentException("Unknown query in mix: " + part);
+      weights[query] = Double.parseDouble(pair[1]);
+    }
+
+    double total = 0;
+    for (int q = 0; q < weights.length; q++) weights[q] = total += weights[q];
+    if (total <= 0) throw new IllegalArgumentException("Mix has no weight: " + mix);
+    for (int q = 0; q < weights.length; q++) weights[q] /= total;
+    return weights;
+  }
+
+  /** Picks a query from cumulative weights ending at 1. */
+  private static int pick(double[] cumulative, double uniform) {
+    for (int q = 0; q < cumulative.length - 1; q++) {
+      if (uniform < cumulative[q]) return q;
+    }
+    return cumulative.length - 1;
+  }
+
+  private static void print(String name, LatencyHistogram histogram, double seconds) {
+    System.out.printf("%-32s %8d %10.1f %10.3f %10.3f %10.3f %10.3f%n", name, histogram.count(), histogram.count() / seconds,
+        histogram.valueAtPercentile(50) / 1e6, histogram.valueAtPercentile(99) / 1e6,
+        histogram.valueAtPercentile(99.9) / 1e6, histogram.max() / 1e6);
+  }
+}
@@ -0,0 +1,281 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.IntPredicate;
+
+/**
+ * A read-only graph memory-mapped from a binary file in compressed sparse row (CSR) form.
+ *
+ * Opening a file maps it instead of reading it, so startup does not depend on the size of the graph
+ * and the graph does not have to fit on the heap. The traversals read the mapped data directly.
+ * As a Graph, its vertex ids are positions in id order, as in CsrGraph.
+ *
+ * File layout, all little-endian:
+ * <pre>
+ *   header   magic "GRPH", format version, flags, reserved (4 ints), vertex count, edge count (2 longs)
+ *   ids      int[vertexCount]        vertex ids in ascending order
+ *   padding  to an 8-byte boundary
+ *   offsets  long[vertexCount + 1]   targets of vertex i are at [offsets[i], offsets[i + 1])
+ *   targets  int[edgeCount]          neighbor positions (indexes into ids, not ids)
+ *   values   int[vertexCount]        present only when flag HAS_VALUES is set
+ *   keys     int[(vertexCount + 31) / 32]  present only when flag HAS_KEYS is set: bit i % 32 of word i / 32
+ *                                    is set when vertex i was a key of the map, as opposed to an id
+ *                                    that only appeared as a neighbor; without it every vertex is a key
+ * </pre>
+ */
+public class MappedGraph implements Graph {
+  static final int MAGIC = 0x48505247; // "GRPH" read as a little-endian int
+  static final int FORMAT_VERSION = 1;
+  static final int HAS_VALUES = 1;
+  static final int HAS_KEYS = 2;
+  static final int HEADER_BYTES = 32;
+
+  private final int vertexCount;
+  private final long edgeCount;
+  private final ChunkedArrays.Ints ids;
+  private final ChunkedArrays.Longs offsets;
+  private final ChunkedArrays.Ints targets;
+  private final ChunkedArrays.Ints values;
+  private final ChunkedArrays.Ints keys;
+
+  private MappedGraph(int vertexCount, long edgeCount, ChunkedArrays.Ints ids, ChunkedArrays.Longs offsets, ChunkedArrays.Ints targets,
+      ChunkedArrays.Ints values, ChunkedArrays.Ints keys) {
+    this.vertexCount = vertexCount;
+    this.edgeCount = edgeCount;
+    this.ids = ids;
+    this.offsets = offsets;
+    this.targets = targets;
+    this.values = values;
+    this.keys = keys;
+  }
+
+  /**
+   * Writes a map graph to the given file. Neighbors that are not keys of the map are written as vertices with no edges,
+   * marked as not being keys.
+   *
+   * @param path the file to write
+   * @param graph a map representing the graph
+   * @throws IOException if the file cannot be written
+   */
+  public static void write(Path path, Map<Integer, Set<Integer>> graph) throws IOException {
+    CsrGraph csr = CsrGraph.fromMap(graph);
+    long[] offsets = new long[csr.offsets.length];
+    for (int i = 0; i < offsets.length; i++) offsets[i] = csr.offsets[i];
+    write(path, csr.ids, offsets, csr.targets, null, csr.keys);
+  }
+
+  /**
+   * Writes a graph already in CSR form to the given file.
+   *
+   * @param path the file to write
+   * @param ids the vertex ids, in ascending order
+   * @param offsets where each vertex's targets start, with one extra entry for the end of the last vertex
+   * @param targets the neighbor positions of every vertex, one after another
+   * @param values the value stored at each vertex, or null for none
+   * @throws IOException if the file cannot be written
+   */
+  public static void write(Path path, int[] ids, long[] offsets, int[] targets, int[] values) throws IOException {
+    write(path, ids, offsets, targets, values, null);
+  }
+
+  private static void write(Path path, int[] ids, long[] offsets, int[] targets, int[] values, BitSet keys) throws IOException {
+    if (offsets.length != ids.length + 1 || offsets[ids.length] != targets.length) {
+      throw new IllegalArgumentException("offsets do not match ids and targets");
+    }
+    if (values != null && values.length != ids.length) {
+      throw new IllegalArgumentException("values must have one entry per vertex");
+    }
+
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+      buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putInt((values == null ? 0 : HAS_VALUES) | (keys == null ? 0 : HAS_KEYS)).putInt(0);
+      buffer.putLong(ids.length).putLong(targets.length);
+
+      for (int id : ids) putInt(channel, buffer, id);
+      if (ids.length % 2 == 1) putInt(channel, buffer, 0);
+      for (long offset : offsets) {
+        if (buffer.remaining() < Long.BYTES) drain(channel, buffer);
+        buffer.putLong(offset);
+      }
+      for (int target : targets) putInt(channel, buffer, target);
+      if (values != null) {
+        for (int value : values) putInt(channel, buffer, value);
+      }
+      if (keys != null) {
+        for (int word = 0; word < (ids.length + 31) / 32; word++) {
+          int bits = 0;
+          for (int i = keys.nextSetBit(word * 32); i >= 0 && i < (word + 1) * 32; i = keys.nextSetBit(i + 1)) bits |= 1 << (i & 31);
+          putInt(channel, buffer, bits);
+        }
+      }
+      drain(channel, buffer);
+    }
+  }
+
+  private static void putInt(FileChannel channel, ByteBuffer buffer, int value) throws IOException {
+    if (buffer.remaining() < Integer.BYTES) drain(channel, buffer);
+    buffer.putInt(value);
+  }
+
+  private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) channel.write(buffer);
+    buffer.clear();
+  }
+
+  /**
+   * Maps the given graph file into memory.
+   *
+   * @param path the file to open
+   * @return a graph reading directly from the mapped file
+   * @throws IOException if the file cannot be read or is not a graph file
+   */
+  public static MappedGraph open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size < HEADER_BYTES) throw new IOException("Not a graph file: " + path);
+
+      ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+      if (header.getInt() != MAGIC) throw new IOException("Not a graph file: " + path);
+      int version = header.getInt();
+      if (version != FORMAT_VERSION) throw new IOException("Unsupported graph file version " + version + ": " + path);
+      int flags = header.getInt();
+      header.getInt();
+      long vertexCount = header.getLong();
+      long edgeCount = header.getLong();
+      if (vertexCount < 0 || vertexCount >= Integer.MAX_VALUE || edgeCount < 0) throw new IOException("Corrupt graph header: " + path);
+
+      long idsAt = HEADER_BYTES;
+      long offsetsAt = idsAt + 4 * (vertexCount + (vertexCount % 2));
+      long targetsAt = offsetsAt + 8 * (vertexCount + 1);
+      long valuesAt = targetsAt + 4 * edgeCount;
+      boolean hasValues = (flags & HAS_VALUES) != 0;
+      boolean hasKeys = (flags & HAS_KEYS) != 0;
+      long keysAt = valuesAt + (hasValues ? 4 * vertexCount : 0);
+      long expected = keysAt + (hasKeys ? 4 * ((vertexCount + 31) / 32) : 0);
+      if (size != expected) throw new IOException("Graph file is " + size + " bytes but its header describes " + expected + ": " + path);
+
+      return new MappedGraph((int) vertexCount, edgeCount,
+          ChunkedArrays.Ints.map(channel, idsAt, vertexCount),
+          ChunkedArrays.Longs.map(channel, offsetsAt, vertexCount + 1),
+          ChunkedArrays.Ints.map(channel, targetsAt, edgeCount),
+          hasValues ? ChunkedArrays.Ints.map(channel, valuesAt, vertexCount) : null,
+          hasKeys ? ChunkedArrays.Ints.map(channel, keysAt, (vertexCount + 31) / 32) : null);
+    }
+  }
+
+  /**
+   * Returns the number of vertices in the graph.
+   *
+   * @return the number of vertices
+   */
+  public int vertexCount() {
+    return vertexCount;
+  }
+
+  /**
+   * Returns the number of edges in the graph.
+   *
+   * @return the number of edges
+   */
+  public long edgeCount() {
+    return edgeCount;
+  }
+
+  /**
+   * Returns the position of the vertex with the given id, or a negative number if there is none.
+   *
+   * @param id the vertex id
+   * @return the position of the vertex
+   */
+  public int indexOf(int id) {
+    int low = 0;
+    int high = vertexCount - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int midId = ids.get(mid);
+      if (midId < id) low = mid + 1;
+      else if (midId > id) high = mid - 1;
+      else return mid;
+    }
+    return -(low + 1);
+  }
+
+  /**
+   * Returns the id of the vertex at the given position.
+   *
+   * @param index the position of the vertex
+   * @return the vertex id
+   */
+  public int id(int index) {
+    return ids.get(index);
+  }
+
+  /**
+   * Returns whether the vertex at the given position was a key of the map it was written from, rather than
+   * an id that only appeared as a neighbor.
+   *
+   * @param index the position of the vertex
+   * @return whether the vertex is a key
+   */
+  public boolean isKey(int index) {
+    return keys == null || (keys.get(index >>> 5) & 1 << (index & 31)) != 0;
+  }
+
+  /**
+   * Returns the value of the vertex at the given position. Files written without values use the vertex id.
+   *
+   * @param index the position of the vertex
+   * @return the vertex value
+   */
+  public int value(int index) {
+    return values == null ? ids.get(index) : values.get(index);
+  }
+
+  @Override
+  public boolean forEachNeighbor(int vertex, IntPredicate action) {
+    for (long e = offsets.get(vertex), end = offsets.get(vertex + 1); e < end; e++) {
+      if (!action.test(targets.get(e))) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Returns a sorted list of all vertex ids reachable from the given starting id,
+   * with the same meaning as Practice.sortedReachable on a map graph.
+   *
+   * @param starting the starting vertex id
+   * @return a sorted list of all reachable vertex ids
+   */
+  public List<Integer> sortedReachable(int starting) {
+    List<Integer> reachable = new ArrayList<>();
+    int start = indexOf(starting);
+    if (start < 0 || !isKey(start)) return reachable;
+
+    int[] positions = GraphTraversal.reachable(this, start);
+    // ids are stored in ascending order, so sorting the positions sorts the ids.
+    Arrays.sort(positions);
+    for (int position : positions) reachable.add(ids.get(position));
+    return reachable;
+  }
+
+  /**
+   * Returns whether there is a path from starting to ending through non-negative ids only,
+   * with the same meaning as Practice.positivePathExists.
+   *
+   * @param starting the starting vertex id
+   * @param ending the ending vertex id
+   * @return whether there exists a valid positive path from starting to ending
+   */
+  public boolean positivePathExists(int starting, int ending) {
+    if (starting < 0 || ending < 0) return false;
+    int start = indexOf(starting);
+    int end = indexOf(ending);
+    if (start < 0 || end < 0 || !isKey(start) || !isKey(end)) return false;
+    return GraphTraversal.anyReachable(this, start, vertex -> vertex == end, vertex -> ids.get(vertex) >= 0);
+  }
+}
@@ -0,0 +1,120 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+public class MappedGraphTest {
+
+  @TempDir
+  Path dir;
+
+  private Map<Integer, Set<Integer>> randomGraph(int vertices, int edges, long seed) {
+    Random random = new Random(seed);
+    Map<Integer, Set<Integer>> graph = new HashMap<>();
+    for (int i = 0; i < vertices; i++) graph.put(i * 3 - vertices, new HashSet<>());
+    List<Integer> ids = new ArrayList<>(graph.keySet());
+    for (int i = 0; i < edges; i++) {
+      graph.get(ids.get(random.nextInt(ids.size()))).add(ids.get(random.nextInt(ids.size())));
+    }
+    return graph;
+  }
+
+  /**
+   * Test that queries on the mapped file match Practice on the original map, including negative ids.
+   */
+  @Test
+  public void testQueriesMatchPractice() throws IOException {
+    Map<Integer, Set<Integer>> graph = randomGraph(200, 300, 11);
+    Path file = dir.resolve("graph.bin");
+    MappedGraph.write(file, graph);
+    MappedGraph mapped = MappedGraph.open(file);
+
+    assertEquals(200, mapped.vertexCount());
+    long edges = 0;
+    for (Set<Integer> neighbors : graph.values()) edges += neighbors.size();
+    assertEquals(edges, mapped.edgeCount());
+    for (int id : graph.keySet()) {
+      assertEquals(Practice.sortedReachable(graph, id), mapped.sortedReachable(id));
+    }
+
+    Random random = new Random(5);
+    List<Integer> ids = new ArrayList<>(graph.keySet());
+    for (int i = 0; i < 500; i++) {
+      int a = ids.get(random.nextInt(ids.size()));
+      int b = ids.get(random.nextInt(ids.size()));
+      assertEquals(Practice.positivePathExists(graph, a, b), mapped.positivePathExists(a, b));
+    }
+  }
+
+  /**
+   * Test that ids missing from the file behave like ids missing from the map.
+   */
+  @Test
+  public void testMissingIds() throws IOException {
+    Map<Integer, Set<Integer>> graph = new HashMap<>();
+    graph.put(1, new HashSet<>(Arrays.asList(2)));
+    graph.put(2, new HashSet<>());
+    Path file = dir.resolve("small.bin");
+    MappedGraph.write(file, graph);
+    MappedGraph mapped = MappedGraph.open(file);
+
+    assertTrue(mapped.sortedReachable(99).isEmpty());
+    assertFalse(mapped.positivePathExists(1, 99));
+    assertTrue(mapped.positivePathExists(1, 2));
+    assertTrue(mapped.indexOf(99) < 0);
+  }
+
+  /**
+   * Test that ids which only appear as neighbors keep their meaning through the file, across a word of key bits.
+   */
+  @Test
+  public void testNeighborOnlyIds() throws IOException {
+    Map<Integer, Set<Integer>> graph = new HashMap<>();
+    for (int i = 0; i < 40; i++) graph.put(i * 2, new HashSet<>(Arrays.asList(i * 2 + 1, (i * 2 + 2) % 80)));
+    Path file = dir.resolve("neighbors.bin");
+    MappedGraph.write(file, graph);
+    MappedGraph mapped = MappedGraph.open(file);
+
+    assertEquals(80, mapped.vertexCount());
+    for (int id = -1; id <= 80; id++) {
+      assertEquals(Practice.sortedReachable(graph, id), mapped.sortedReachable(id), "from " + id);
+      assertEquals(Practice.positivePathExists(graph, 0, id), mapped.positivePathExists(0, id), "0 to " + id);
+      assertEquals(Practice.positivePathExists(graph, id, 70), mapped.positivePathExists(id, 70), id + " to 70");
+    }
+    assertTrue(mapped.isKey(mapped.indexOf(64)));
+    assertFalse(mapped.isKey(mapped.indexOf(65)));
+  }
+
+  /**
+   * Test that explicit vertex values are stored and read back.
+   */
+  @Test
+  public void testValues() throws IOException {
+    Path file = dir.resolve("values.bin");
+    MappedGraph.write(file, new int[] {10, 20, 30}, new long[] {0, 1, 2, 2}, new int[] {1, 2}, new int[] {7, 8, 9});
+    MappedGraph mapped = MappedGraph.open(file);
+
+    assertEquals(8, mapped.value(1));
+    assertEquals(30, mapped.id(2));
+    assertEquals(Arrays.asList(10, 20, 30), mapped.sortedReachable(10));
+  }
+
+  /**
+   * Test that files that are not graph files, or are truncated, are rejected.
+   */
+  @Test
+  public void testRejectsBadFiles() throws IOException {
+    Path junk = dir.resolve("junk.bin");
+    Files.write(junk, new byte[64]);
+    assertThrows(IOException.class, () -> MappedGraph.open(junk));
+
+    Path file = dir.resolve("truncated.bin");
+    MappedGraph.write(file, randomGraph(20, 30, 3));
+    byte[] bytes = Files.readAllBytes(file);
+    Files.write(file, Arrays.copyOf(bytes, bytes.length - 4));
+    assertThrows(IOException.class, () -> MappedGraph.open(file));
+  }
+}
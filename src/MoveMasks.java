@@ -0,0 +1,158 @@
+import java.util.*;
+
+/**
+ * Computes the legal moves of many positions on one board at once, as bit masks.
+ *
+ * Bit d of a position's mask is set when moving by directions[d] stays on the board and does not land
+ * on an 'X', which is exactly when Practice.nextMoves would list that move; moves(row, col, mask) turns a
+ * mask back into that list. Up to 32 directions are supported.
+ *
+ * For a board that many batches are run against, construct a MoveMasks once. It copies the board into a
+ * flat array of open cells, surrounded by a border of walls as wide as the longest direction, so that
+ * every move is a single array read at a fixed offset and none needs a bounds check. The copy is a
+ * snapshot: after a cell of the board changes, call update for that cell. The static compute works on
+ * the board directly, for a batch against a board that will not be used again.
+ *
+ * A MoveMasks may be used from several threads at once, as long as none of them calls update.
+ */
+public class MoveMasks {
+  private final char[][] board;
+  private final int[][] directions;
+  private final int rows;
+  private final int columns;
+  private final int pad;
+  private final int width;
+  private final byte[] open;
+  private final int[] offsets;
+
+  /**
+   * Constructs a MoveMasks for a board and set of directions.
+   *
+   * @param board an array where 'X' represents an impassable location; shorter rows are treated as walled off
+   * @param directions the [row, column] directions to try, at most 32
+   */
+  public MoveMasks(char[][] board, int[][] directions) {
+    checkDirections(directions);
+    this.board = board;
+    this.directions = directions;
+    this.rows = board.length;
+    int longest = 0;
+    for (char[] row : board) longest = Math.max(longest, row.length);
+    this.columns = longest;
+
+    int reach = 0;
+    for (int[] direction : directions) reach = Math.max(reach, Math.max(Math.abs(direction[0]), Math.abs(direction[1])));
+    this.pad = reach;
+    this.width = columns + 2 * pad;
+    this.open = new byte[Math.multiplyExact(rows + 2 * pad, width)];
+    for (int r = 0; r < rows; r++) {
+      for (int c = 0; c < board[r].length; c++) read(r, c);
+    }
+
+    this.offsets = new int[directions.length];
+    for (int d = 0; d < directions.length; d++) offsets[d] = directions[d][0] * width + directions[d][1];
+  }
+
+  private static void checkDirections(int[][] directions) {
+    if (directions.length > Integer.SIZE) {
+      throw new IllegalArgumentException("At most " + Integer.SIZE + " directions fit in a mask: " + directions.length);
+    }
+  }
+
+  /**
+   * Reads one cell of the board again after it has changed.
+   *
+   * @param row the row of the cell
+   * @param col the column of the cell
+   */
+  public void update(int row, int col) {
+    read(row, col);
+  }
+
+  private void read(int row, int col) {
+    open[(row + pad) * width + col + pad] = (byte) (board[row][col] == 'X' ? 0 : 1);
+  }
+
+  /**
+   * Returns the move mask of every position.
+   *
+   * @param rowsOf the row of each position
+   * @param colsOf the column of each position, in step with rowsOf
+   * @return the mask of each position
+   */
+  public int[] compute(int[] rowsOf, int[] colsOf) {
+    int[] masks = new int[rowsOf.length];
+    compute(rowsOf, colsOf, rowsOf.length, masks);
+    return masks;
+  }
+
+  /**
+   * Writes the move mask of the first count positions into masks, so a caller running batch after batch
+   * allocates nothing.
+   *
+   * @param rowsOf the row of each position
+   * @param colsOf the column of each position, in step with rowsOf
+   * @param count the number of positions
+   * @param masks where to write the mask of each position
+   */
+  public void compute(int[] rowsOf, int[] colsOf, int count, int[] masks) {
+    int[] offsets = this.offsets;
+    byte[] open = this.open;
+    for (int i = 0; i < count; i++) {
+      int row = rowsOf[i];
+      int col = colsOf[i];
+      if (Integer.compareUnsigned(row, rows) >= 0 || Integer.compareUnsigned(col, columns) >= 0) {
+        throw new IllegalArgumentException("Position is off the board: " + row + ", " + col);
+      }
+      int cell = (row + pad) * width + col + pad;
+      int mask = 0;
+      for (int d = 0; d < offsets.length; d++) mask |= open[cell + offsets[d]] << d;
+      masks[i] = mask;
+    }
+  }
+
+  /**
+   * Returns the move mask of every position, reading the board directly.
+   *
+   * @param board a rectangular array where 'X' represents an impassable location
+   * @param rowsOf the row of each position
+   * @param colsOf the column of each position, in step with rowsOf
+   * @param directions the [row, column] directions to try, at most 32
+   * @return the mask of each position
+   */
+  public static int[] compute(char[][] board, int[] rowsOf, int[] colsOf, int[][] directions) {
+    checkDirections(directions);
+    int[] masks = new int[rowsOf.length];
+    for (int i = 0; i < masks.length; i++) {
+      int mask = 0;
+      for (int d = 0; d < directions.length; d++) {
+        int row = rowsOf[i] + directions[d][0];
+        int col = colsOf[i] + directions[d][1];
+        // One unsigned comparison covers both ends of each range.
+        if (Integer.compareUnsigned(row, board.length) < 0 && Integer.compareUnsigned(col, board[row].length) < 0
+            && board[row][col] != 'X') {
+          mask |= 1 << d;
+        }
+      }
+      masks[i] = mask;
+    }
+    return masks;
+  }
+
+  /**
+   * Returns the moves a mask stands for, in the same form and order as Practice.nextMoves.
+   *
+   * @param row the row of the position
+   * @param col the column of the position
+   * @param mask the position's move mask
+   * @return the [row, column] of each move
+   */
+  public List<int[]> moves(int row, int col, int mask) {
+    List<int[]> moves = new ArrayList<>(Integer.bitCount(mask));
+    for (int bits = mask; bits != 0; bits &= bits - 1) {
+      int d = Integer.numberOfTrailingZeros(bits);
+      moves.add(new int[] {row + directions[d][0], col + directions[d][1]});
+    }
+    return moves;
+  }
+}
@@ -0,0 +1,62 @@
+import java.util.*;
+
+/**
+ * Compares computing the king moves of a batch of positions with nextMoves in a loop, with
+ * Practice.nextMoveMasks, and with a MoveMasks built once for the board.
+ *
+ * Usage: java MoveMasksBenchmark [side] [batch]
+ *
+ * The board is side by side with 20% walls, and the positions are random open cells. Each line shows
+ * the best time per batch of the measured rounds.
+ */
+public class MoveMasksBenchmark {
+  private static final int[][] KING_MOVES = {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+  private static final int WARMUP_ROUNDS = 2_000;
+  private static final int ROUNDS = 2_000;
+
+  public static void main(String[] args) {
+    int side = args.length > 0 ? Integer.parseInt(args[0]) : 512;
+    int batch = args.length > 1 ? Integer.parseInt(args[1]) : 4_096;
+    char[][] board = GraphGenerators.board(side, side, 0.2, 42);
+    Random random = new Random(42);
+    int[] rows = new int[batch];
+    int[] cols = new int[batch];
+    int[][] positions = new int[batch][];
+    for (int i = 0; i < batch; i++) {
+      do {
+        rows[i] = random.nextInt(side);
+        cols[i] = random.nextInt(side);
+      } while (board[rows[i]][cols[i]] == 'X');
+      positions[i] = new int[] {rows[i], cols[i]};
+    }
+    MoveMasks masks = new MoveMasks(board, KING_MOVES);
+    int[] out = new int[batch];
+    System.out.printf("board=%dx%d batch=%d%n", side, side, batch);
+
+    String[] labels = {"nextMoves loop", "nextMoveMasks", "MoveMasks, reused"};
+    long[] best = new long[labels.length];
+    Arrays.fill(best, Long.MAX_VALUE);
+    long sink = 0;
+    // The variants take turns, so drift in the machine's speed affects them all alike.
+    for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+      for (int v = 0; v < labels.length; v++) {
+        long start = System.nanoTime();
+        if (v == 0) {
+          for (int[] position : positions) sink += Practice.nextMoves(board, position, KING_MOVES).size();
+        } else if (v == 1) {
+          sink += Practice.nextMoveMasks(board, rows, cols, KING_MOVES)[batch - 1];
+        } else {
+          masks.compute(rows, cols, batch, out);
+          sink += out[batch - 1];
+        }
+        if (round >= WARMUP_ROUNDS) best[v] = Math.min(best[v], System.nanoTime() - start);
+      }
+    }
+
+    for (int v = 0; v < labels.length; v++) {
+      System.out.printf("%-20s %9.1f us  %6.1f ns/position  %5.1fx%n", labels[v], best[v] / 1e3, (double) best[v] / batch,
+          (double) best[0] / best[v]);
+    }
+    if (sink == 0) System.out.println("no moves");
+  }
+}
@@ -0,0 +1,86 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+public class MoveMasksTest {
+  private static final int[][] KING_MOVES = {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+  private static final int[][] KNIGHT_MOVES = {{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}};
+
+  private void assertSameMoves(List<int[]> expected, List<int[]> actual) {
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) assertArrayEquals(expected.get(i), actual.get(i));
+  }
+
+  /**
+   * Test that both ways of computing masks agree with nextMoves at every cell of a random board, edges included.
+   */
+  @Test
+  public void testMatchesNextMoves() {
+    char[][] board = GraphGenerators.board(17, 23, 0.3, 4);
+    for (int[][] directions : new int[][][] {KING_MOVES, KNIGHT_MOVES}) {
+      int[] rows = new int[17 * 23];
+      int[] cols = new int[17 * 23];
+      for (int i = 0; i < rows.length; i++) {
+        rows[i] = i / 23;
+        cols[i] = i % 23;
+      }
+
+      MoveMasks masks = new MoveMasks(board, directions);
+      int[] batched = masks.compute(rows, cols);
+      assertArrayEquals(batched, Practice.nextMoveMasks(board, rows, cols, directions));
+      for (int i = 0; i < rows.length; i++) {
+        List<int[]> expected = Practice.nextMoves(board, new int[] {rows[i], cols[i]}, directions);
+        assertEquals(expected.size(), Integer.bitCount(batched[i]));
+        assertSameMoves(expected, masks.moves(rows[i], cols[i], batched[i]));
+      }
+    }
+  }
+
+  /**
+   * Test that a changed cell is seen after update, and that the reused-array form only writes count masks.
+   */
+  @Test
+  public void testUpdate() {
+    char[][] board = {
+        {' ', ' ', ' '},
+        {' ', ' ', ' '},
+        {' ', ' ', ' '}
+    };
+    MoveMasks masks = new MoveMasks(board, KING_MOVES);
+    assertArrayEquals(new int[] {0xFF}, masks.compute(new int[] {1}, new int[] {1}));
+
+    board[0][1] = 'X';
+    assertArrayEquals(new int[] {0xFF}, masks.compute(new int[] {1}, new int[] {1}));
+    masks.update(0, 1);
+    assertArrayEquals(new int[] {0xFD}, masks.compute(new int[] {1}, new int[] {1}));
+
+    int[] out = {-1, -1, -1};
+    masks.compute(new int[] {0, 2, 1}, new int[] {0, 2, 1}, 2, out);
+    assertArrayEquals(new int[] {1 << 6 | 1 << 7, 1 << 0 | 1 << 1 | 1 << 3, -1}, out);
+  }
+
+  /**
+   * Test a jagged board, positions off the board, and too many directions.
+   */
+  @Test
+  public void testEdgeCases() {
+    char[][] jagged = {
+        {' ', ' ', ' ', ' '},
+        {' '},
+        {' ', ' '}
+    };
+    MoveMasks masks = new MoveMasks(jagged, KING_MOVES);
+    int[] rows = {1, 0, 2};
+    int[] cols = {0, 3, 1};
+    int[] batched = masks.compute(rows, cols);
+    assertArrayEquals(batched, Practice.nextMoveMasks(jagged, rows, cols, KING_MOVES));
+    for (int i = 0; i < rows.length; i++) {
+      assertSameMoves(Practice.nextMoves(jagged, new int[] {rows[i], cols[i]}, KING_MOVES), masks.moves(rows[i], cols[i], batched[i]));
+    }
+
+    assertThrows(IllegalArgumentException.class, () -> masks.compute(new int[] {-1}, new int[] {0}));
+    assertThrows(IllegalArgumentException.class, () -> masks.compute(new int[] {0}, new int[] {4}));
+    assertThrows(IllegalArgumentException.class, () -> new MoveMasks(jagged, new int[33][2]));
+    assertArrayEquals(new int[0], new MoveMasks(new char[0][], KING_MOVES).compute(new int[0], new int[0]));
+  }
+}
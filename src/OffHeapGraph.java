@@ -0,0 +1,408 @@
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntPredicate;
+
+/**
+ * An immutable integer graph whose arrays live outside the Java heap.
+ *
+ * The layout matches CsrGraph (sorted ids, offsets, neighbor positions, plus one value per vertex and
+ * which vertices are keys), but every array, and the visited set and work queue used while traversing,
+ * is held in direct memory. However many edges the graph has, it adds only a handful of small objects
+ * to the heap, so it does not lengthen garbage collection pauses. As a Graph, its vertex ids are
+ * positions in id order, as in CsrGraph; the queries run the shared kernels in GraphTraversal, handing
+ * them the off-heap working memory.
+ *
+ * The graph must be closed once it is no longer needed. Closing frees its memory at once, without
+ * waiting for the garbage collector. A graph may be queried from several threads at once and closed
+ * while queries are running: close waits for the queries already started to finish, and any call made
+ * after close has begun fails with an IllegalStateException rather than reading freed memory. Each
+ * query registers as a reader once; a forEachNeighbor call from outside registers for itself. On a JDK
+ * without a way to free direct memory early, closing leaves the memory to the garbage collector instead.
+ */
+public class OffHeapGraph implements Graph, AutoCloseable {
+  private final int vertexCount;
+  private final long edgeCount;
+  private ChunkedArrays.Ints ids;
+  private ChunkedArrays.Longs offsets;
+  private ChunkedArrays.Ints targets;
+  private ChunkedArrays.Ints values;
+  private ChunkedArrays.Ints keys;
+  private final Queue<Scratch> scratch = new ConcurrentLinkedQueue<>();
+  // Calls that may be reading the arrays; close frees them only once this drops to zero.
+  private final AtomicInteger readers = new AtomicInteger();
+  // The graph as the kernels see it inside a query, which has already registered as a reader.
+  private final Graph view = this::neighbors;
+  private volatile boolean closed;
+
+  private OffHeapGraph(Builder builder) {
+    this.vertexCount = builder.vertexCount;
+    this.edgeCount = builder.edgeCount;
+    this.ids = builder.ids;
+    this.offsets = builder.offsets;
+    this.targets = builder.targets;
+    this.values = builder.values;
+    this.keys = builder.keys;
+  }
+
+  /**
+   * Copies a CsrGraph off the heap.
+   *
+   * @param graph the graph to copy
+   * @param values the value stored at each vertex, by position, or null to use each vertex's id
+   * @return an off-heap copy of the graph
+   */
+  public static OffHeapGraph copyOf(CsrGraph graph, int[] values) {
+    int n = graph.vertexCount();
+    if (values != null && values.length != n) throw new IllegalArgumentException("values must have one entry per vertex");
+
+    Builder builder = new Builder(n, graph.edgeCount());
+    for (int i = 0; i < n; i++) {
+      builder.addVertex(graph.ids[i], values == null ? graph.ids[i] : values[i], graph.isKey(i));
+      for (int e = graph.offsets[i]; e < graph.offsets[i + 1]; e++) builder.addEdge(graph.targets[e]);
+    }
+    return builder.build();
+  }
+
+  /**
+   * Returns the number of vertices in the graph.
+   *
+   * @return the number of vertices
+   */
+  public int vertexCount() {
+    return vertexCount;
+  }
+
+  /**
+   * Returns the number of edges in the graph.
+   *
+   * @return the number of edges
+   */
+  public long edgeCount() {
+    return edgeCount;
+  }
+
+  /**
+   * Returns the position of the vertex with the given id, or a negative number if there is none.
+   *
+   * @param id the vertex id
+   * @return the position of the vertex
+   */
+  public int indexOf(int id) {
+    enter();
+    try {
+      return find(id);
+    } finally {
+      exit();
+    }
+  }
+
+  private int find(int id) {
+    int low = 0;
+    int high = vertexCount - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int midId = ids.get(mid);
+      if (midId < id) low = mid + 1;
+      else if (midId > id) high = mid - 1;
+      else return mid;
+    }
+    return -(low + 1);
+  }
+
+  /**
+   * Returns whether the vertex at the given position is a key, rather than an id that only appears as a neighbor.
+   *
+   * @param index the position of the vertex
+   * @return whether the vertex is a key
+   */
+  public boolean isKey(int index) {
+    enter();
+    try {
+      return key(index);
+    } finally {
+      exit();
+    }
+  }
+
+  private boolean key(int index) {
+    return (keys.get(index >>> 5) & 1 << (index & 31)) != 0;
+  }
+
+  @Override
+  public boolean forEachNeighbor(int vertex, IntPredicate action) {
+    enter();
+    try {
+      return neighbors(vertex, action);
+    } finally {
+      exit();
+    }
+  }
+
+  private boolean neighbors(int vertex, IntPredicate action) {
+    for (long e = offsets.get(vertex), end = offsets.get(vertex + 1); e < end; e++) {
+      if (!action.test(targets.get(e))) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Returns the count of vertices with odd values reachable from the vertex with the given id,
+   * with the same meaning as Practice.oddVertices. If there is no such vertex, returns 0.
+   *
+   * @param starting the starting vertex id
+   * @return the number of reachable vertices with odd values
+   */
+  public int oddVertices(int starting) {
+    enter();
+    Scratch work = null;
+    int count = 0;
+    try {
+      int start = find(starting);
+      if (start < 0) return 0;
+
+      work = borrow();
+      count = GraphTraversal.reachable(view, start, work);
+      int total = 0;
+      for (int i = 0; i < count; i++) {
+        if (values.get(work.get(i)) % 2 == 1) total++;
+      }
+      return total;
+    } finally {
+      if (work != null) release(work, count);
+      exit();
+    }
+  }
+
+  /**
+   * Returns a sorted list of all vertex ids reachable from the given starting id,
+   * with the same meaning as Practice.sortedReachable on a map graph.
+   *
+   * @param starting the starting vertex id
+   * @return a sorted list of all reachable vertex ids
+   */
+  public List<Integer> sortedReachable(int starting) {
+    enter();
+    Scratch work = null;
+    int count = 0;
+    try {
+      List<Integer> reachable = new ArrayList<>();
+      int start = find(starting);
+      if (start < 0 || !key(start)) return reachable;
+
+      work = borrow();
+      count = GraphTraversal.reachable(view, start, work);
+      int[] positions = new int[count];
+      for (int i = 0; i < count; i++) positions[i] = work.get(i);
+      // Positions follow id order, so sorting positions sorts the ids.
+      Arrays.sort(positions);
+      for (int position : positions) reachable.add(ids.get(position));
+      return reachable;
+    } finally {
+      if (work != null) release(work, count);
+      exit();
+    }
+  }
+
+  /**
+   * Returns whether there is a path from starting to ending through non-negative ids only,
+   * with the same meaning as Practice.positivePathExists.
+   *
+   * @param starting the starting vertex id
+   * @param ending the ending vertex id
+   * @return whether there exists a valid positive path from starting to ending
+   */
+  public boolean positivePathExists(int starting, int ending) {
+    enter();
+    Scratch work = null;
+    try {
+      if (starting < 0 || ending < 0) return false;
+      int start = find(starting);
+      int end = find(ending);
+      if (start < 0 || end < 0 || !key(start) || !key(end)) return false;
+
+      work = borrow();
+      return GraphTraversal.anyReachable(view, start, vertex -> vertex == end, vertex -> ids.get(vertex) >= 0, work);
+    } finally {
+      // anyReachable clears the workspace itself.
+      if (work != null) release(work, 0);
+      exit();
+    }
+  }
+
+  /**
+   * Frees this graph's memory, first waiting for the queries already running to finish. Calls made
+   * after closing has begun fail with an IllegalStateException. Closing a second time does nothing.
+   * Must not be called from inside a forEachNeighbor action on this graph, which would wait for itself.
+   */
+  @Override
+  public synchronized void close() {
+    if (closed) return;
+    closed = true;
+    // A reader registers before checking closed, so once the count reaches zero no one can be reading.
+    while (readers.get() > 0) LockSupport.parkNanos(100_000);
+    ids.free();
+    offsets.free();
+    targets.free();
+    values.free();
+    keys.free();
+    ids = null;
+    offsets = null;
+    targets = null;
+    values = null;
+    keys = null;
+    for (Scratch work; (work = scratch.poll()) != null; ) work.free();
+  }
+
+  /** Registers a call that reads the arrays, failing if the graph is closed or closing. */
+  private void enter() {
+    readers.incrementAndGet();
+    if (closed) {
+      readers.decrementAndGet();
+      throw new IllegalStateException("OffHeapGraph is closed");
+    }
+  }
+
+  private void exit() {
+    readers.decrementAndGet();
+  }
+
+  private Scratch borrow() {
+    Scratch work = scratch.poll();
+    return work != null ? work : new Scratch();
+  }
+
+  /** Clears the first count vertices of the scratch and hands it back. Called before exit, so close finds it in the pool. */
+  private void release(Scratch work, int count) {
+    work.clear(count);
+    scratch.add(work);
+  }
+
+  /**
+   * Reusable off-heap working memory for one traversal at a time: a visited bitset and the visiting order,
+   * which doubles as the work queue.
+   */
+  private final class Scratch implements GraphTraversal.Workspace {
+    private final ByteBuffer visited = ByteBuffer.allocateDirect((vertexCount + 7) >>> 3);
+    private final ChunkedArrays.Ints order = ChunkedArrays.Ints.allocate(vertexCount);
+
+    @Override
+    public boolean mark(int vertex) {
+      byte bits = visited.get(vertex >>> 3);
+      if ((bits & (1 << (vertex & 7))) != 0) return false;
+      visited.put(vertex >>> 3, (byte) (bits | (1 << (vertex & 7))));
+      return true;
+    }
+
+    @Override
+    public void unmark(int vertex) {
+      visited.put(vertex >>> 3, (byte) (visited.get(vertex >>> 3) & ~(1 << (vertex & 7))));
+    }
+
+    @Override
+    public void put(int index, int vertex) {
+      order.put(index, vertex);
+    }
+
+    @Override
+    public int get(int index) {
+      return order.get(index);
+    }
+
+    void free() {
+      ChunkedArrays.free(visited);
+      order.free();
+    }
+  }
+
+  /**
+   * Fills an OffHeapGraph one vertex at a time, in ascending id order.
+   */
+  public static final class Builder {
+    private final int vertexCount;
+    private final long edgeCount;
+    private final ChunkedArrays.Ints ids;
+    private final ChunkedArrays.Longs offsets;
+    private final ChunkedArrays.Ints targets;
+    private final ChunkedArrays.Ints values;
+    private final ChunkedArrays.Ints keys;
+    private int vertices;
+    private long edges;
+
+    /**
+     * Constructs a Builder for a graph of exactly the given size.
+     *
+     * @param vertexCount the number of vertices the graph will have
+     * @param edgeCount the number of edges the graph will have
+     */
+    public Builder(int vertexCount, long edgeCount) {
+      this.vertexCount = vertexCount;
+      this.edgeCount = edgeCount;
+      this.ids = ChunkedArrays.Ints.allocate(vertexCount);
+      this.offsets = ChunkedArrays.Longs.allocate(vertexCount + 1L);
+      this.targets = ChunkedArrays.Ints.allocate(edgeCount);
+      this.values = ChunkedArrays.Ints.allocate(vertexCount);
+      this.keys = ChunkedArrays.Ints.allocate((vertexCount + 31) / 32);
+    }
+
+    /**
+     * Starts the next vertex, which is a key. Its edges are the addEdge calls made before the next addVertex.
+     *
+     * @param id the id of the vertex, which must be greater than every id added before it
+     * @param value the value stored at the vertex
+     * @return this builder
+     */
+    public Builder addVertex(int id, int value) {
+      return addVertex(id, value, true);
+    }
+
+    /**
+     * Starts the next vertex. Its edges are the addEdge calls made before the next addVertex.
+     *
+     * @param id the id of the vertex, which must be greater than every id added before it
+     * @param value the value stored at the vertex
+     * @param key whether the vertex is a key, rather than an id that only appears as a neighbor
+     * @return this builder
+     */
+    public Builder addVertex(int id, int value, boolean key) {
+      if (vertices == vertexCount) throw new IllegalStateException("All " + vertexCount + " vertices have been added");
+      if (vertices > 0 && ids.get(vertices - 1) >= id) throw new IllegalArgumentException("Vertex ids must be added in ascending order");
+      ids.put(vertices, id);
+      values.put(vertices, value);
+      offsets.put(vertices, edges);
+      // Direct memory starts out zeroed, so only the key bits need setting.
+      if (key) keys.put(vertices >>> 5, keys.get(vertices >>> 5) | 1 << (vertices & 31));
+      vertices++;
+      return this;
+    }
+
+    /**
+     * Adds an edge from the most recently added vertex.
+     *
+     * @param target the position of the neighbor, counting vertices in the order they are added
+     * @return this builder
+     */
+    public Builder addEdge(int target) {
+      if (vertices == 0) throw new IllegalStateException("addVertex must be called before addEdge");
+      if (edges == edgeCount) throw new IllegalStateException("All " + edgeCount + " edges have been added");
+      if (target < 0 || target >= vertexCount) throw new IndexOutOfBoundsException("No vertex at position " + target);
+      targets.put(edges++, target);
+      return this;
+    }
+
+    /**
+     * Finishes the graph. Every vertex and edge declared up front must have been added.
+     *
+     * @return the finished graph
+     */
+    public OffHeapGraph build() {
+      if (vertices != vertexCount || edges != edgeCount) {
+        throw new IllegalStateException("Added " + vertices + " vertices and " + edges + " edges, expected " + vertexCount + " and " + edgeCount);
+      }
+      offsets.put(vertexCount, edges);
+      return new OffHeapGraph(this);
+    }
+  }
+}
@@ -0,0 +1,101 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+
+public class OffHeapGraphTest {
+
+  /**
+   * Test that the off-heap kernels match Practice on a random map graph with negative ids.
+   */
+  @Test
+  public void testKernelsMatchPractice() {
+    Random random = new Random(17);
+    Map<Integer, Set<Integer>> graph = new HashMap<>();
+    for (int i = -20; i < 180; i++) graph.put(i, new HashSet<>());
+    for (int i = 0; i < 260; i++) graph.get(random.nextInt(200) - 20).add(random.nextInt(200) - 20);
+
+    try (OffHeapGraph offHeap = OffHeapGraph.copyOf(CsrGraph.fromMap(graph), null)) {
+      for (int id : graph.keySet()) {
+        List<Integer> expected = Practice.sortedReachable(graph, id);
+        assertEquals(expected, offHeap.sortedReachable(id));
+        int odd = 0;
+        for (int value : expected) if (value % 2 == 1) odd++;
+        assertEquals(odd, offHeap.oddVertices(id));
+      }
+      for (int i = 0; i < 500; i++) {
+        int a = random.nextInt(200) - 20;
+        int b = random.nextInt(200) - 20;
+        assertEquals(Practice.positivePathExists(graph, a, b), offHeap.positivePathExists(a, b));
+      }
+      assertTrue(offHeap.sortedReachable(1000).isEmpty());
+    }
+  }
+
+  /**
+   * Test vertex values set through the builder, and that a closed graph refuses queries.
+   */
+  @Test
+  public void testBuilderValuesAndClose() {
+    // 10 --> 20 --> 30, values 5, 8, 9
+    OffHeapGraph graph = new OffHeapGraph.Builder(3, 2)
+        .addVertex(10, 5).addEdge(1)
+        .addVertex(20, 8).addEdge(2)
+        .addVertex(30, 9)
+        .build();
+
+    assertEquals(2, graph.oddVertices(10));
+    assertEquals(1, graph.oddVertices(30));
+    graph.close();
+    assertThrows(IllegalStateException.class, () -> graph.oddVertices(10));
+    assertThrows(IllegalStateException.class, () -> graph.forEachNeighbor(0, neighbor -> true));
+    assertThrows(IllegalStateException.class, () -> GraphTraversal.reachable(graph, 0));
+    graph.close();
+    // The JDK used here can free direct memory early, so close really returns it.
+    assertTrue(ChunkedArrays.canFree());
+  }
+
+  /**
+   * Test that the builder rejects out-of-order ids and missing edges.
+   */
+  @Test
+  public void testBuilderValidation() {
+    assertThrows(IllegalArgumentException.class, () -> new OffHeapGraph.Builder(2, 0).addVertex(5, 0).addVertex(5, 0));
+    assertThrows(IllegalStateException.class, () -> new OffHeapGraph.Builder(1, 1).addVertex(1, 0).build());
+  }
+
+  /**
+   * Test that close waits for a running reader before freeing anything, and that readers after it fail.
+   */
+  @Test
+  public void testCloseWaitsForReaders() throws Exception {
+    OffHeapGraph graph = new OffHeapGraph.Builder(2, 1).addVertex(1, 1).addEdge(1).addVertex(2, 2).build();
+    CountDownLatch reading = new CountDownLatch(1);
+    CountDownLatch finish = new CountDownLatch(1);
+    List<Integer> seen = Collections.synchronizedList(new ArrayList<>());
+
+    Thread reader = new Thread(() -> graph.forEachNeighbor(0, neighbor -> {
+      reading.countDown();
+      try {
+        finish.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      seen.add(neighbor);
+      return true;
+    }));
+    reader.start();
+    reading.await();
+
+    Thread closer = new Thread(graph::close);
+    closer.start();
+    closer.join(200);
+    assertTrue(closer.isAlive(), "close must wait for the reader");
+    finish.countDown();
+    closer.join();
+    reader.join();
+
+    assertEquals(List.of(1), seen);
+    assertThrows(IllegalStateException.class, () -> graph.indexOf(1));
+  }
+}
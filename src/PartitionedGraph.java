@@ -0,0 +1,352 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * An integer map graph split into shards, each owning a part of the vertex ids, for traversal by
+ * PartitionedTraversal.
+ *
+ * Vertex ids are assigned to shards either by a hash of the id, which spreads every part of the id space
+ * evenly, or by ranges of ids with equal numbers of vertices, which keeps neighboring ids together. A shard
+ * holds its own vertices and their edges in CSR form. An edge to a vertex in another shard points to one
+ * of the shard's ghost entries instead, which remember the remote id and its shard, so a shard can route
+ * frontier messages without knowing how the graph was split.
+ *
+ * Neighbors that are not keys of the map become vertices with no edges, as in CsrGraph.fromMap.
+ */
+public class PartitionedGraph {
+  private final int shardCount;
+  // The first id of every shard after the first, for range partitioning; null for hash partitioning.
+  private final int[] bounds;
+  private final Shard[] shards;
+  private final long cutEdges;
+
+  private PartitionedGraph(int shardCount, int[] bounds, Map<Integer, Set<Integer>> graph) {
+    this.shardCount = shardCount;
+    this.bounds = bounds;
+
+    int[] ids = vertexIds(graph);
+    int[][] owned = new int[shardCount][];
+    int[] sizes = new int[shardCount];
+    for (int id : ids) sizes[shardOf(id)]++;
+    for (int s = 0; s < shardCount; s++) owned[s] = new int[sizes[s]];
+    Arrays.fill(sizes, 0);
+    for (int id : ids) {
+      int s = shardOf(id);
+      owned[s][sizes[s]++] = id;
+    }
+
+    this.shards = new Shard[shardCount];
+    long cut = 0;
+    for (int s = 0; s < shardCount; s++) {
+      shards[s] = build(s, owned[s], graph);
+      cut += countRemoteEdges(shards[s]);
+    }
+    this.cutEdges = cut;
+  }
+
+  /**
+   * Splits a map graph into shards by a hash of each vertex id.
+   *
+   * @param graph a map representing the graph
+   * @param shardCount the number of shards
+   * @return the partitioned graph
+   */
+  public static PartitionedGraph byHash(Map<Integer, Set<Integer>> graph, int shardCount) {
+    if (shardCount < 1) throw new IllegalArgumentException("shardCount must be positive: " + shardCount);
+    return new PartitionedGraph(shardCount, null, graph);
+  }
+
+  /**
+   * Splits a map graph into shards of consecutive vertex ids, with about the same number of vertices in each.
+   *
+   * @param graph a map representing the graph
+   * @param shardCount the number of shards
+   * @return the partitioned graph
+   */
+  public static PartitionedGraph byRange(Map<Integer, Set<Integer>> graph, int shardCount) {
+    if (shardCount < 1) throw new IllegalArgumentException("shardCount must be positive: " + shardCount);
+    int[] ids = vertexIds(graph);
+    int[] bounds = new int[shardCount - 1];
+    for (int s = 1; s < shardCount; s++) {
+      // Past the last id, the remaining shards are empty.
+      long at = (long) ids.length * s / shardCount;
+      bounds[s - 1] = at < ids.length ? ids[(int) at] : Integer.MAX_VALUE;
+    }
+    return new PartitionedGraph(shardCount, bounds, graph);
+  }
+
+  private static int[] vertexIds(Map<Integer, Set<Integer>> graph) {
+    int count = graph.size();
+    for (Set<Integer> neighbors : graph.values()) count += neighbors == null ? 0 : neighbors.size();
+    int[] ids = new int[count];
+    int n = 0;
+    for (Map.Entry<Integer, Set<Integer>> entry : graph.entrySet()) {
+      ids[n++] = entry.getKey();
+      if (entry.getValue() == null) continue;
+      for (int neighbor : entry.getValue()) ids[n++] = neighbor;
+    }
+    Arrays.sort(ids, 0, n);
+
+    int distinct = 0;
+    for (int i = 0; i < n; i++) {
+      if (distinct == 0 || ids[i] != ids[distinct - 1]) ids[distinct++] = ids[i];
+    }
+    return Arrays.copyOf(ids, distinct);
+  }
+
+  private Shard build(int index, int[] keys, Map<Integer, Set<Integer>> graph) {
+    BitSet isKey = new BitSet(keys.length);
+    int[] offsets = new int[keys.length + 1];
+    for (int i = 0; i < keys.length; i++) {
+      Set<Integer> neighbors = graph.get(keys[i]);
+      if (neighbors != null || graph.containsKey(keys[i])) isKey.set(i);
+      offsets[i + 1] = offsets[i] + (neighbors == null ? 0 : neighbors.size());
+    }
+
+    int[] targets = new int[offsets[keys.length]];
+    Map<Integer, Integer> ghosts = new HashMap<>();
+    List<Integer> remoteKeys = new ArrayList<>();
+    for (int i = 0; i < keys.length; i++) {
+      Set<Integer> neighbors = graph.get(keys[i]);
+      if (neighbors == null) continue;
+      int at = offsets[i];
+      for (int neighbor : neighbors) {
+        if (shardOf(neighbor) == index) {
+          targets[at++] = Arrays.binarySearch(keys, neighbor);
+        } else {
+          Integer slot = ghosts.get(neighbor);
+          if (slot == null) {
+            slot = remoteKeys.size();
+            ghosts.put(neighbor, slot);
+            remoteKeys.add(neighbor);
+          }
+          targets[at++] = -slot - 1;
+        }
+      }
+    }
+
+    int[] remote = new int[remoteKeys.size()];
+    int[] owners = new int[remote.length];
+    for (int slot = 0; slot < remote.length; slot++) {
+      remote[slot] = remoteKeys.get(slot);
+      owners[slot] = shardOf(remote[slot]);
+    }
+    return new Shard(shardCount, keys, isKey, offsets, targets, remote, owners);
+  }
+
+  private static long countRemoteEdges(Shard shard) {
+    long count = 0;
+    for (int target : shard.targets) if (target < 0) count++;
+    return count;
+  }
+
+  /**
+   * Returns the number of shards.
+   *
+   * @return the number of shards
+   */
+  public int shardCount() {
+    return shardCount;
+  }
+
+  /**
+   * Returns the shard that owns a vertex id, whether or not the id is in the graph.
+   *
+   * @param id a vertex id
+   * @return the index of the owning shard, from 0 to shardCount() - 1
+   */
+  public int shardOf(int id) {
+    if (bounds == null) {
+      int h = id * 0x9E3779B9;
+      return Math.floorMod(h ^ (h >>> 16), shardCount);
+    }
+    int at = Arrays.binarySearch(bounds, id);
+    // Equal bounds belong to the last shard that starts there; the shards before it are empty.
+    if (at >= 0) {
+      while (at + 1 < bounds.length && bounds[at + 1] == id) at++;
+      return at + 1;
+    }
+    return -at - 1;
+  }
+
+  /**
+   * Returns the number of vertices held by one shard.
+   *
+   * @param shard the index of the shard
+   * @return its number of vertices
+   */
+  public int shardSize(int shard) {
+    return shards[shard].keys.length;
+  }
+
+  /**
+   * Returns the number of edges whose ends are in different shards, each of which can cost a message when traversed.
+   *
+   * @return the number of cut edges
+   */
+  public long cutEdges() {
+    return cutEdges;
+  }
+
+  Shard shard(int index) {
+    return shards[index];
+  }
+
+  /**
+   * One shard of a PartitionedGraph, together with the state of the traversal running on it.
+   *
+   * The vertices are numbered by their position in keys. targets holds a local position for an edge within
+   * the shard, and -(slot + 1) for an edge to remoteKeys[slot], owned by shard remoteOwners[slot].
+   * A shard is used by one thread at a time.
+   */
+  static final class Shard {
+    final int shardCount;
+    final int[] keys;
+    final BitSet isKey;
+    final int[] offsets;
+    final int[] targets;
+    final int[] remoteKeys;
+    final int[] remoteOwners;
+
+    private final BitSet visited = new BitSet();
+    // Ghosts already sent a message in this traversal; their owners need not hear of them again.
+    private final BitSet sent = new BitSet();
+    private boolean hasTarget;
+    private int target;
+    private boolean positiveOnly;
+    private int[] stack = new int[16];
+
+    Shard(int shardCount, int[] keys, BitSet isKey, int[] offsets, int[] targets, int[] remoteKeys, int[] remoteOwners) {
+      this.shardCount = shardCount;
+      this.keys = keys;
+      this.isKey = isKey;
+      this.offsets = offsets;
+      this.targets = targets;
+      this.remoteKeys = remoteKeys;
+      this.remoteOwners = remoteOwners;
+    }
+
+    /** Returns true if the id is a key of the original map graph and belongs to this shard. */
+    boolean containsKey(int id) {
+      int at = Arrays.binarySearch(keys, id);
+      return at >= 0 && isKey.get(at);
+    }
+
+    /**
+     * Forgets the previous traversal and prepares for a new one.
+     *
+     * @param target the id whose discovery ends the traversal, or a negative number to visit everything reachable
+     * @param positiveOnly whether to stop at negative ids instead of passing through them
+     */
+    void begin(int target, boolean positiveOnly) {
+      this.hasTarget = target >= 0;
+      this.target = target;
+      this.positiveOnly = positiveOnly;
+      visited.clear();
+      sent.clear();
+    }
+
+    /**
+     * Runs one superstep: visits the delivered vertices and everything reachable from them within the shard.
+     *
+     * @param inbox the ids delivered to this shard; ids it does not own are ignored
+     * @return the ids discovered in each other shard, indexed by shard, or null if the target was found
+     */
+    int[][] step(int[] inbox) {
+      int[][] outbox = new int[shardCount][];
+      int[] outSizes = new int[shardCount];
+      int size = 0;
+
+      for (int id : inbox) {
+        int v = Arrays.binarySearch(keys, id);
+        if (v < 0 || visited.get(v)) continue;
+        if (hasTarget && id == target) return null;
+        visited.set(v);
+        if (positiveOnly && id < 0) continue;
+        size = push(v, size);
+      }
+
+      // Depth-first, like GraphTraversal.anyReachable: a superstep visits everything it can reach anyway.
+      while (size > 0) {
+        int v = stack[--size];
+        for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+          int w = targets[e];
+          if (w >= 0) {
+            if (visited.get(w)) continue;
+            if (hasTarget && keys[w] == target) return null;
+            visited.set(w);
+            if (positiveOnly && keys[w] < 0) continue;
+            size = push(w, size);
+          } else {
+            int slot = -w - 1;
+            if (sent.get(slot)) continue;
+            sent.set(slot);
+            int id = remoteKeys[slot];
+            // A negative id can be neither expanded nor the target, so its owner is not told about it.
+            if (positiveOnly && id < 0) continue;
+            int owner = remoteOwners[slot];
+            if (outbox[owner] == null) outbox[owner] = new int[8];
+            else if (outSizes[owner] == outbox[owner].length) outbox[owner] = Arrays.copyOf(outbox[owner], outSizes[owner] * 2);
+            outbox[owner][outSizes[owner]++] = id;
+          }
+        }
+      }
+
+      for (int s = 0; s < shardCount; s++) {
+        outbox[s] = outbox[s] == null ? new int[0] : Arrays.copyOf(outbox[s], outSizes[s]);
+      }
+      return outbox;
+    }
+
+    private int push(int v, int size) {
+      if (size == stack.length) stack = Arrays.copyOf(stack, size * 2);
+      stack[size] = v;
+      return size + 1;
+    }
+
+    /** Returns the ids this shard visited in the current traversal, in ascending order. */
+    int[] visitedIds() {
+      int[] ids = new int[visited.cardinality()];
+      int n = 0;
+      for (int v = visited.nextSetBit(0); v >= 0; v = visited.nextSetBit(v + 1)) ids[n++] = keys[v];
+      return ids;
+    }
+
+    /** Writes the shard's graph, without any traversal state, for read to rebuild elsewhere. */
+    void write(DataOutput out) throws IOException {
+      out.writeInt(shardCount);
+      writeInts(out, keys);
+      long[] keyBits = isKey.toLongArray();
+      out.writeInt(keyBits.length);
+      for (long bits : keyBits) out.writeLong(bits);
+      writeInts(out, offsets);
+      writeInts(out, targets);
+      writeInts(out, remoteKeys);
+      writeInts(out, remoteOwners);
+    }
+
+    /** Reads a shard written by write. */
+    static Shard read(DataInput in) throws IOException {
+      int shardCount = in.readInt();
+      int[] keys = readInts(in);
+      long[] keyBits = new long[in.readInt()];
+      for (int i = 0; i < keyBits.length; i++) keyBits[i] = in.readLong();
+      return new Shard(shardCount, keys, BitSet.valueOf(keyBits), readInts(in), readInts(in), readInts(in), readInts(in));
+    }
+  }
+
+  static void writeInts(DataOutput out, int[] values) throws IOException {
+    out.writeInt(values.length);
+    for (int value : values) out.writeInt(value);
+  }
+
+  static int[] readInts(DataInput in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) throw new IOException("Negative array length: " + length);
+    int[] values = new int[length];
+    for (int i = 0; i < length; i++) values[i] = in.readInt();
+    return values;
+  }
+}
@@ -0,0 +1,105 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.util.*;
+
+public class PartitionedGraphTest {
+
+  /** A random map graph with negative vertices and some neighbors that are not keys. */
+  private Map<Integer, Set<Integer>> graph(int n, long seed) {
+    Map<Integer, Set<Integer>> graph = GraphGenerators.map(GraphGenerators.erdosRenyi(n, 2, seed));
+    Map<Integer, Set<Integer>> shifted = new HashMap<>();
+    for (Map.Entry<Integer, Set<Integer>> entry : graph.entrySet()) {
+      if (entry.getKey() % 11 == 5) continue;
+      Set<Integer> neighbors = new HashSet<>();
+      for (int neighbor : entry.getValue()) neighbors.add(neighbor - n / 4);
+      shifted.put(entry.getKey() - n / 4, neighbors);
+    }
+    return shifted;
+  }
+
+  private void assertSameAnswers(Map<Integer, Set<Integer>> graph, ShardTransport shards) throws IOException {
+    for (int start = -60; start < 240; start += 7) {
+      assertEquals(Practice.sortedReachable(graph, start), PartitionedTraversal.sortedReachable(shards, start), "from " + start);
+      for (int end = -10; end < 240; end += 31) {
+        assertEquals(Practice.positivePathExists(graph, start, end), PartitionedTraversal.positivePathExists(shards, start, end),
+            "from " + start + " to " + end);
+      }
+    }
+  }
+
+  /**
+   * Test that both partitionings answer like Practice for several shard counts.
+   */
+  @Test
+  public void testInProcessMatchesPractice() throws IOException {
+    Map<Integer, Set<Integer>> graph = graph(300, 5);
+    for (int shards : new int[] {1, 3, 8}) {
+      try (ShardTransport transport = new InProcessTransport(PartitionedGraph.byHash(graph, shards))) {
+        assertSameAnswers(graph, transport);
+      }
+      try (ShardTransport transport = new InProcessTransport(PartitionedGraph.byRange(graph, shards))) {
+        assertSameAnswers(graph, transport);
+      }
+    }
+  }
+
+  /**
+   * Test that every vertex belongs to exactly one shard and range shards are balanced and ordered.
+   */
+  @Test
+  public void testPartitioning() {
+    Map<Integer, Set<Integer>> graph = graph(1000, 9);
+    CsrGraph all = CsrGraph.fromMap(graph);
+
+    PartitionedGraph byRange = PartitionedGraph.byRange(graph, 4);
+    int total = 0;
+    for (int s = 0; s < 4; s++) {
+      total += byRange.shardSize(s);
+      assertTrue(Math.abs(byRange.shardSize(s) - all.vertexCount() / 4) <= 1);
+    }
+    assertEquals(all.vertexCount(), total);
+    assertTrue(byRange.shardOf(-250) <= byRange.shardOf(0) && byRange.shardOf(0) <= byRange.shardOf(700));
+
+    PartitionedGraph byHash = PartitionedGraph.byHash(graph, 4);
+    total = 0;
+    for (int s = 0; s < 4; s++) total += byHash.shardSize(s);
+    assertEquals(all.vertexCount(), total);
+    assertTrue(byHash.cutEdges() > 0 && byHash.cutEdges() <= all.edgeCount());
+    assertEquals(0, PartitionedGraph.byHash(graph, 1).cutEdges());
+  }
+
+  /**
+   * Test shards with no vertices, a graph smaller than the shard count, and an empty graph.
+   */
+  @Test
+  public void testEmptyShards() throws IOException {
+    Map<Integer, Set<Integer>> graph = new HashMap<>();
+    graph.put(1, new HashSet<>(List.of(2)));
+    graph.put(2, new HashSet<>(List.of(1, 3)));
+    try (ShardTransport transport = new InProcessTransport(PartitionedGraph.byRange(graph, 6))) {
+      assertEquals(List.of(1, 2, 3), PartitionedTraversal.sortedReachable(transport, 1));
+      assertTrue(PartitionedTraversal.positivePathExists(transport, 2, 1));
+      assertFalse(PartitionedTraversal.positivePathExists(transport, 2, 3));
+    }
+    try (ShardTransport transport = new InProcessTransport(PartitionedGraph.byHash(new HashMap<>(), 3))) {
+      assertEquals(List.of(), PartitionedTraversal.sortedReachable(transport, 0));
+    }
+    assertThrows(IllegalArgumentException.class, () -> PartitionedGraph.byHash(graph, 0));
+  }
+
+  /**
+   * Test that shards in child processes answer like Practice, and that a closed transport fails cleanly.
+   */
+  @Test
+  public void testProcessTransport() throws IOException {
+    Map<Integer, Set<Integer>> graph = graph(300, 13);
+    ProcessTransport transport = new ProcessTransport(PartitionedGraph.byHash(graph, 3), List.of("-Xmx64m", "-XX:TieredStopAtLevel=1"));
+    try {
+      assertSameAnswers(graph, transport);
+    } finally {
+      transport.close();
+    }
+    assertThrows(IOException.class, () -> PartitionedTraversal.sortedReachable(transport, 0));
+  }
+}
@@ -0,0 +1,86 @@
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Runs Practice's map graph queries over a PartitionedGraph, in bulk synchronous supersteps.
+ *
+ * In each superstep every shard visits the vertices delivered to it and everything it can reach from
+ * them without leaving the shard, and collects the vertices it found in other shards as one batch per
+ * shard. Between supersteps the batches are delivered, and the traversal ends when a superstep produces
+ * no messages, or as soon as a shard finds the target. A traversal therefore takes about as many
+ * supersteps as the number of times its paths cross from one shard to another, and each shard tells
+ * another about a vertex at most once.
+ *
+ * The shards run wherever the ShardTransport puts them; this class only routes their messages.
+ */
+public final class PartitionedTraversal {
+
+  private PartitionedTraversal() {
+  }
+
+  /**
+   * Returns a sorted list of all values reachable from the given starting vertex, as
+   * Practice.sortedReachable(Map, int) does for the unpartitioned graph.
+   * If the starting vertex is not a key of the graph, returns an empty list.
+   *
+   * @param shards the transport to the shards of the partitioned graph
+   * @param starting the starting vertex value
+   * @return a sorted list of all reachable vertex values
+   * @throws IOException if a shard cannot be reached
+   */
+  public static List<Integer> sortedReachable(ShardTransport shards, int starting) throws IOException {
+    if (!shards.containsKey(starting)) return new ArrayList<>();
+    shards.begin(-1, false);
+    run(shards, starting);
+
+    int[] ids = shards.visitedIds();
+    Arrays.sort(ids);
+    List<Integer> reachable = new ArrayList<>(ids.length);
+    for (int id : ids) reachable.add(id);
+    return reachable;
+  }
+
+  /**
+   * Returns true if there is a path from starting to ending passing only through non-negative vertices, as
+   * Practice.positivePathExists does for the unpartitioned graph. Both vertices must be keys of the graph.
+   *
+   * @param shards the transport to the shards of the partitioned graph
+   * @param starting the starting vertex value
+   * @param ending the ending vertex value
+   * @return whether such a path exists
+   * @throws IOException if a shard cannot be reached
+   */
+  public static boolean positivePathExists(ShardTransport shards, int starting, int ending) throws IOException {
+    if (starting < 0 || ending < 0 || !shards.containsKey(starting) || !shards.containsKey(ending)) return false;
+    shards.begin(ending, true);
+    return run(shards, starting);
+  }
+
+  /** Runs supersteps from the starting vertex until none has messages; returns true if the target was found. */
+  private static boolean run(ShardTransport shards, int starting) throws IOException {
+    int count = shards.shardCount();
+    int[][] inboxes = new int[count][0];
+    inboxes[shards.shardOf(starting)] = new int[] {starting};
+
+    boolean pending = true;
+    while (pending) {
+      int[][][] outboxes = shards.superstep(inboxes);
+      if (outboxes == null) return true;
+
+      pending = false;
+      for (int to = 0; to < count; to++) {
+        int total = 0;
+        for (int from = 0; from < count; from++) total += outboxes[from][to].length;
+        int[] inbox = new int[total];
+        int at = 0;
+        for (int from = 0; from < count; from++) {
+          System.arraycopy(outboxes[from][to], 0, inbox, at, outboxes[from][to].length);
+          at += outboxes[from][to].length;
+        }
+        inboxes[to] = inbox;
+        pending |= total > 0;
+      }
+    }
+    return false;
+  }
+}
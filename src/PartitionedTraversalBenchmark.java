@@ -0,0 +1,54 @@
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Times sortedReachable on a partitioned graph against Practice on the whole graph, for growing shard
+ * counts, with the shards in this JVM and in child processes.
+ *
+ * Usage: java PartitionedTraversalBenchmark [vertices] [maxShards] [hash|range]
+ *
+ * The graph is a seeded preferential-attachment graph, so every start reaches every vertex. Each line
+ * shows the best of the measured rounds. Scaling out needs as many free cores as shards.
+ */
+public class PartitionedTraversalBenchmark {
+  private static final int WARMUP_ROUNDS = 3;
+  private static final int ROUNDS = 5;
+
+  public static void main(String[] args) throws IOException {
+    int n = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+    int maxShards = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+    boolean byRange = args.length > 2 && args[2].equals("range");
+    Map<Integer, Set<Integer>> graph = GraphGenerators.map(GraphGenerators.preferentialAttachment(n, 2, 42));
+    System.out.printf("vertices=%d cores=%d partitioning=%s%n", graph.size(), Runtime.getRuntime().availableProcessors(),
+        byRange ? "range" : "hash");
+
+    long best = Long.MAX_VALUE;
+    for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+      long start = System.nanoTime();
+      Practice.sortedReachable(graph, 0);
+      if (round >= WARMUP_ROUNDS) best = Math.min(best, System.nanoTime() - start);
+    }
+    System.out.printf("%-24s %9.1f ms%n", "Practice", best / 1e6);
+
+    for (int shards = 1; shards <= maxShards; shards *= 2) {
+      PartitionedGraph partitioned = byRange ? PartitionedGraph.byRange(graph, shards) : PartitionedGraph.byHash(graph, shards);
+      try (ShardTransport transport = new InProcessTransport(partitioned)) {
+        report("in-process", shards, partitioned, transport);
+      }
+      try (ShardTransport transport = new ProcessTransport(partitioned)) {
+        report("processes", shards, partitioned, transport);
+      }
+    }
+  }
+
+  private static void report(String label, int shards, PartitionedGraph graph, ShardTransport transport) throws IOException {
+    long best = Long.MAX_VALUE;
+    int reached = 0;
+    for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+      long start = System.nanoTime();
+      reached = PartitionedTraversal.sortedReachable(transport, 0).size();
+      if (round >= WARMUP_ROUNDS) best = Math.min(best, System.nanoTime() - start);
+    }
+    System.out.printf("%-10s shards=%-3d  %9.1f ms  reached=%d cut edges=%d%n", label, shards, best / 1e6, reached, graph.cutEdges());
+  }
+}
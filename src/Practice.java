@@ -23,8 +23,11 @@ public class Practice {
    * @return the number of vertices with odd values reachable from the starting vertex
    */
   public static int oddVertices(Vertex<Integer> starting) {
-    Set<Vertex<Integer>> visited = new HashSet<>();
-    return oddVertices(starting, visited);
+    if (starting == null) return 0;
+    return QueryMetrics.ODD_VERTICES.record(-1, () -> {
+      GraphAdapter<Vertex<Integer>> graph = GraphAdapter.ofVertices();
+      return GraphTraversal.count(graph, graph.idOf(starting), id -> graph.key(id).data % 2 == 1);
+    });
   }
 
   public static int oddVertices(Vertex<Integer> starting, Set<Vertex<Integer>> visited) {
@@ -42,6 +45,54 @@ public class Practice {
     return total;
   }
 
+  /**
+   * Returns the count of vertices with odd values reachable from the given ordinal in a frozen graph,
+   * with the same meaning as oddVertices on the original vertex.
+   * If the ordinal is not in the graph, returns 0.
+   *
+   * @param graph a frozen Vertex graph
+   * @param starting the ordinal of the starting vertex
+   * @return the number of vertices with odd values reachable from the starting vertex
+   */
+  public static int oddVertices(FrozenGraph<Integer> graph, int starting) {
+    if (starting < 0 || starting >= graph.vertexCount()) return 0;
+    return QueryMetrics.ODD_VERTICES.record(graph.vertexCount(),
+        () -> GraphTraversal.count(graph, starting, ordinal -> graph.intValue(ordinal) % 2 == 1));
+  }
+
+  /**
+   * Computes every statistic of the pipeline over the values reachable from the starting vertex,
+   * including its own, in one traversal. oddVertices is the same as a pipeline with the single statistic
+   * IntAggregate.counting(v -> v % 2 == 1).
+   * If the starting vertex is null, every statistic is computed over no values.
+   *
+   * @param starting the starting vertex (may be null)
+   * @param pipeline the statistics to compute
+   * @return the results of the statistics
+   */
+  public static TraversalPipeline.Results aggregate(Vertex<Integer> starting, TraversalPipeline pipeline) {
+    if (starting == null) return pipeline.empty();
+    return QueryMetrics.AGGREGATE.record(-1, () -> {
+      GraphAdapter<Vertex<Integer>> graph = GraphAdapter.ofVertices();
+      return pipeline.run(graph, graph.idOf(starting), id -> graph.key(id).data);
+    });
+  }
+
+  /**
+   * Computes every statistic of the pipeline over the values reachable from the given ordinal in a frozen graph,
+   * with the same meaning as aggregate on the original vertex.
+   * If the ordinal is not in the graph, every statistic is computed over no values.
+   *
+   * @param graph a frozen Vertex graph
+   * @param starting the ordinal of the starting vertex
+   * @param pipeline the statistics to compute
+   * @return the results of the statistics
+   */
+  public static TraversalPipeline.Results aggregate(FrozenGraph<Integer> graph, int starting, TraversalPipeline pipeline) {
+    if (starting < 0 || starting >= graph.vertexCount()) return pipeline.empty();
+    return QueryMetrics.AGGREGATE.record(graph.vertexCount(), () -> pipeline.run(graph, starting, graph::intValue));
+  }
+
   /**
    * Returns a *sorted* list of all values reachable from the starting vertex (including the starting vertex itself).
    * If duplicate vertex data exists, duplicates should appear in the output.
@@ -61,12 +112,14 @@ public class Practice {
    * @return a sorted list of all reachable vertex values by 
    */
   public static List<Integer> sortedReachable(Vertex<Integer> starting) {
-    Set<Vertex<Integer>> visited = new HashSet<>();
-    sortedReachable(starting, visited);
-    List<Integer> sorted = new ArrayList<>();
-    for (Vertex<Integer> vertex : visited) sorted.add(vertex.data);
-    Collections.sort(sorted);
-    return sorted;
+    if (starting == null) return new ArrayList<>();
+    return QueryMetrics.SORTED_REACHABLE.record(-1, () -> {
+      List<Integer> sorted = new ArrayList<>();
+      GraphAdapter<Vertex<Integer>> graph = GraphAdapter.ofVertices();
+      for (int id : GraphTraversal.reachable(graph, graph.idOf(starting))) sorted.add(graph.key(id).data);
+      Collections.sort(sorted);
+      return sorted;
+    });
   }
 
   public static void sortedReachable(Vertex<Integer> starting, Set<Vertex<Integer>> visited) {
@@ -77,6 +130,27 @@ public class Practice {
     for (Vertex<Integer> neighbor : starting.neighbors) sortedReachable(neighbor, visited);
   }
 
+  /**
+   * Returns a sorted list of all values reachable from the given ordinal in a frozen graph,
+   * with the same meaning as sortedReachable on the original vertex.
+   * If the ordinal is not in the graph, returns an empty list.
+   *
+   * @param graph a frozen Vertex graph
+   * @param starting the ordinal of the starting vertex
+   * @return a sorted list of all reachable vertex values
+   */
+  public static List<Integer> sortedReachable(FrozenGraph<Integer> graph, int starting) {
+    if (starting < 0 || starting >= graph.vertexCount()) return new ArrayList<>();
+    return QueryMetrics.SORTED_REACHABLE.record(graph.vertexCount(), () -> {
+      int[] values = GraphTraversal.reachable(graph, starting);
+      for (int i = 0; i < values.length; i++) values[i] = graph.intValue(values[i]);
+      Arrays.sort(values);
+      List<Integer> sorted = new ArrayList<>(values.length);
+      for (int value : values) sorted.add(value);
+      return sorted;
+    });
+  }
+
 
 
   /**
@@ -90,13 +164,14 @@ public class Practice {
    * @return a sorted list of all reachable vertex values
    */
   public static List<Integer> sortedReachable(Map<Integer, Set<Integer>> graph, int starting) {
-    List<Integer> reachable = new ArrayList<>();
-    if (!graph.containsKey(starting)) return reachable;
-    sortedReachableHelper(graph, starting, reachable);
-    
-    
-    Collections.sort(reachable);
-    return reachable;
+    if (!graph.containsKey(starting)) return new ArrayList<>();
+    return QueryMetrics.SORTED_REACHABLE.record(graph.size(), () -> {
+      List<Integer> reachable = new ArrayList<>();
+      GraphAdapter<Integer> adapter = GraphAdapter.ofMap(graph);
+      for (int id : GraphTraversal.reachable(adapter, adapter.idOf(starting))) reachable.add(adapter.key(id));
+      Collections.sort(reachable);
+      return reachable;
+    });
   }
 
   public static void sortedReachableHelper(Map<Integer, Set<Integer>> graph, int starting, List<Integer> reachable) {
@@ -125,12 +200,12 @@ public class Practice {
   public static <T> boolean twoWay(Vertex<T> v1, Vertex<T> v2) {
     if (v1 == null || v2 == null) return false;
     if (v1 == v2) return true;
-    Set<Vertex<T>> vistied = new HashSet<>();
-    boolean route1 = oneWay(v1, v2, vistied);
-    vistied.clear();
-    boolean route2 = oneWay(v2, v1, vistied);
-    if (route1 && route2) return true;
-    return false;
+    return QueryMetrics.TWO_WAY.record(-1, () -> {
+      GraphAdapter<Vertex<T>> graph = GraphAdapter.ofVertices();
+      int id1 = graph.idOf(v1);
+      int id2 = graph.idOf(v2);
+      return GraphTraversal.reaches(graph, id1, id2) && GraphTraversal.reaches(graph, id2, id1);
+    });
   }
 
   public static <T> boolean oneWay(Vertex<T> v1, Vertex<T> v2, Set<Vertex<T>> visited) {
@@ -146,6 +221,68 @@ public class Practice {
     return false;
   }
 
+  /**
+   * Returns true if and only if each of two ordinals in a frozen graph can reach the other,
+   * with the same meaning as twoWay on the original vertices.
+   * If either ordinal is not in the graph, returns false.
+   *
+   * @param <T> the type of data stored in the vertices
+   * @param graph a frozen Vertex graph
+   * @param v1 the ordinal of the starting vertex
+   * @param v2 the ordinal of the target vertex
+   * @return true if there is a two-way connection between v1 and v2, false otherwise
+   */
+  public static <T> boolean twoWay(FrozenGraph<T> graph, int v1, int v2) {
+    if (v1 < 0 || v2 < 0 || v1 >= graph.vertexCount() || v2 >= graph.vertexCount()) return false;
+    return QueryMetrics.TWO_WAY.record(graph.vertexCount(),
+        () -> GraphTraversal.reaches(graph, v1, v2) && GraphTraversal.reaches(graph, v2, v1));
+  }
+
+  /**
+   * Returns true if any vertex reachable from the given roots can reach itself through one or more edges.
+   * Null roots and null neighbors are skipped.
+   *
+   * Example:
+   *   5 --> 8 --> 2 --> 5   has a cycle
+   *   5 --> 8 --> 2 <-- 4   does not
+   *
+   * @param <T> the type of data stored in the vertices
+   * @param roots the vertices to start from
+   * @return whether the graph reachable from roots contains a cycle
+   */
+  public static <T> boolean hasCycle(Collection<Vertex<T>> roots) {
+    return QueryMetrics.HAS_CYCLE.record(-1, () -> {
+      FrozenGraph<T> graph = FrozenGraph.freeze(roots).graph();
+      return TopologicalSort.hasCycle(graph, graph.vertexCount());
+    });
+  }
+
+  /**
+   * Returns every vertex reachable from the given roots, ordered so that each vertex comes before all of its neighbors.
+   * The sort runs in parallel, so when several orders are possible which one is returned may vary.
+   * Null roots and null neighbors are skipped.
+   *
+   * Example:
+   *   5 --> 8 --> 2 <-- 4
+   * Starting from 5 and 4, [5, 4, 8, 2], [4, 5, 8, 2] and [5, 8, 4, 2] are all valid results.
+   *
+   * @param <T> the type of data stored in the vertices
+   * @param roots the vertices to start from
+   * @return the reachable vertices in topological order
+   * @throws IllegalArgumentException if the graph reachable from roots contains a cycle
+   */
+  public static <T> List<Vertex<T>> topologicalOrder(Collection<Vertex<T>> roots) {
+    return QueryMetrics.TOPOLOGICAL_ORDER.record(-1, () -> {
+      FrozenGraph.Handle<T> handle = FrozenGraph.freeze(roots);
+      int[] order = TopologicalSort.order(handle.graph(), handle.graph().vertexCount());
+      if (order == null) throw new IllegalArgumentException("Graph contains a cycle");
+
+      List<Vertex<T>> vertices = new ArrayList<>(order.length);
+      for (int ordinal : order) vertices.add(handle.vertex(ordinal));
+      return vertices;
+    });
+  }
+
   /**
    * Returns whether there exists a path from the starting to ending vertex that includes only positive values.
    * 
@@ -160,8 +297,10 @@ public class Practice {
    */
   public static boolean positivePathExists(Map<Integer, Set<Integer>> graph, int starting, int ending) {
     if (starting < 0 || ending < 0 || !graph.containsKey(starting) || !graph.containsKey(ending)) return false;
-    Set<Integer> visited = new HashSet<>();
-    return positivePathExists(graph, starting, ending, visited);
+    return QueryMetrics.POSITIVE_PATH_EXISTS.record(graph.size(), () -> {
+      GraphAdapter<Integer> adapter = GraphAdapter.ofMap(graph);
+      return GraphTraversal.anyReachable(adapter, adapter.idOf(starting), id -> adapter.key(id) == ending, id -> adapter.key(id) >= 0);
+    });
   }
 
   public static boolean positivePathExists(Map<Integer, Set<Integer>> graph, int starting, int ending, Set<Integer> visited) {
@@ -188,8 +327,10 @@ public class Practice {
    */
   public static boolean hasExtendedConnectionAtCompany(Professional person, String companyName) {
     if (person == null) return false;
-    Set<Professional> visited = new HashSet<>();
-    return hasExtendedConnectionAtCompany(person, companyName, visited);
+    return QueryMetrics.HAS_EXTENDED_CONNECTION_AT_COMPANY.record(-1, () -> {
+      GraphAdapter<Professional> graph = GraphAdapter.ofProfessionals();
+      return GraphTraversal.anyReachable(graph, graph.idOf(person), id -> graph.key(id).getCompany().equals(companyName), id -> true);
+    });
   }
 
   public static boolean hasExtendedConnectionAtCompany(Professional person, String companyName, Set<Professional> visited) {
@@ -288,4 +429,20 @@ public class Practice {
     
     return moves;
   }
+
+  /**
+   * Returns the legal moves of many positions on one board at once, as one bit mask per position:
+   * bit d is set when nextMoves would list the move by directions[d]. This reads the board directly;
+   * for a board that many batches are run against, construct a MoveMasks once and use it instead.
+   * At most 32 directions are supported.
+   *
+   * @param board a rectangular array where 'X' represent an impassible location
+   * @param rows the row of each position
+   * @param cols the column of each position, in step with rows
+   * @param directions an array of [row, column] possible directions
+   * @return the move mask of each position
+   */
+  public static int[] nextMoveMasks(char[][] board, int[] rows, int[] cols, int[][] directions) {
+    return MoveMasks.compute(board, rows, cols, directions);
+  }
 }
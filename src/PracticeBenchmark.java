@@ -0,0 +1,183 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.function.IntFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * Benchmarks every Practice query on seeded synthetic graphs, so each optimization can be judged
+ * against the plain implementations.
+ *
+ * Usage: java PracticeBenchmark [sizes] [mode] [filter]
+ *
+ *   sizes   comma-separated vertex counts, default 1000,10000,100000; up to 10000000 with a large -Xmx
+ *   mode    thrpt (operations per second), avgt (microseconds per operation), alloc (bytes allocated
+ *           and collections per operation) or all, the default
+ *   filter  only run benchmarks whose name contains this text
+ *
+ * Each benchmark runs warmup iterations, then measured ones of about half a second each, and prints
+ * the mean and standard deviation across the measured iterations. Allocation is read from the
+ * current thread's allocation counter and the collectors' counts, like a gc profiler.
+ *
+ * Shapes: chain, grid (right and down edges), er (Erdos-Renyi, average degree 4) and pa
+ * (preferential attachment, 2 links per vertex, both directions). hasExtendedConnectionAtCompany runs
+ * on a social network with 50 Zipf-sized companies, and nextMoves on a board with 20% walls.
+ */
+public class PracticeBenchmark {
+  private static final int WARMUP_ITERATIONS = 3;
+  private static final int MEASURED_ITERATIONS = 5;
+  private static final long ITERATION_NANOS = 500_000_000L;
+  private static final long SEED = 42;
+  private static final int[][] KING_MOVES = {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+
+  private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+  private static long sink;
+
+  public static void main(String[] args) {
+    int[] sizes = Arrays.stream((args.length > 0 ? args[0] : "1000,10000,100000").split(",")).mapToInt(Integer::parseInt).toArray();
+    String mode = args.length > 1 ? args[1] : "all";
+    String filter = args.length > 2 ? args[2] : "";
+    if (!List.of("thrpt", "avgt", "alloc", "all").contains(mode)) throw new IllegalArgumentException("Unknown mode: " + mode);
+
+    System.out.printf("%-44s %10s %18s %18s %14s %8s%n", "benchmark", "vertices", "ops/s", "us/op", "B/op", "gc/op");
+    for (int size : sizes) {
+      for (Map.Entry<String, IntFunction<LongSupplier>> benchmark : benchmarks().entrySet()) {
+        String name = benchmark.getKey();
+        if (!name.contains(filter)) continue;
+        LongSupplier operation = benchmark.getValue().apply(size);
+        run(name, size, mode, operation);
+      }
+    }
+    if (sink == 42) System.out.println();
+  }
+
+  /**
+   * Returns the benchmarks by name. Each one builds its input for a given vertex count and returns the
+   * operation to time; building is not timed.
+   */
+  private static Map<String, IntFunction<LongSupplier>> benchmarks() {
+    Map<String, IntFunction<LongSupplier>> benchmarks = new LinkedHashMap<>();
+    for (String shape : List.of("chain", "grid", "er", "pa")) {
+      benchmarks.put("oddVertices/" + shape, n -> {
+        List<Vertex<Integer>> vertices = GraphGenerators.vertices(shape(shape, n), SEED);
+        Vertex<Integer> start = vertices.get(0);
+        return () -> Practice.oddVertices(start);
+      });
+      benchmarks.put("sortedReachable(Vertex)/" + shape, n -> {
+        List<Vertex<Integer>> vertices = GraphGenerators.vertices(shape(shape, n), SEED);
+        Vertex<Integer> start = vertices.get(0);
+        return () -> Practice.sortedReachable(start).size();
+      });
+      benchmarks.put("sortedReachable(Map)/" + shape, n -> {
+        Map<Integer, Set<Integer>> graph = GraphGenerators.map(shape(shape, n));
+        return () -> Practice.sortedReachable(graph, 0).size();
+      });
+      benchmarks.put("twoWay/" + shape, n -> {
+        List<Vertex<Integer>> vertices = GraphGenerators.vertices(shape(shape, n), SEED);
+        Vertex<Integer> first = vertices.get(0);
+        Vertex<Integer> last = vertices.get(vertices.size() - 1);
+        return () -> Practice.twoWay(first, last) ? 1 : 0;
+      });
+      benchmarks.put("positivePathExists/" + shape, n -> {
+        Map<Integer, Set<Integer>> graph = GraphGenerators.map(shape(shape, n));
+        int last = graph.size() - 1;
+        return () -> Practice.positivePathExists(graph, 0, last) ? 1 : 0;
+      });
+      benchmarks.put("hasCycle/" + shape, n -> {
+        List<Vertex<Integer>> vertices = GraphGenerators.vertices(shape(shape, n), SEED);
+        return () -> Practice.hasCycle(vertices) ? 1 : 0;
+      });
+    }
+    for (String shape : List.of("chain", "grid")) {
+      benchmarks.put("topologicalOrder/" + shape, n -> {
+        List<Vertex<Integer>> vertices = GraphGenerators.vertices(shape(shape, n), SEED);
+        return () -> Practice.topologicalOrder(vertices).size();
+      });
+    }
+    benchmarks.put("hasExtendedConnectionAtCompany/social", n -> {
+      List<Professional> people = GraphGenerators.professionals(n, 2, 50, SEED);
+      Professional start = people.get(n - 1);
+      // No one works here, so the whole network is searched.
+      return () -> Practice.hasExtendedConnectionAtCompany(start, "Nowhere") ? 1 : 0;
+    });
+    benchmarks.put("nextMoves/board", n -> {
+      int side = Math.max(3, (int) Math.sqrt(n));
+      char[][] board = GraphGenerators.board(side, side, 0.2, SEED);
+      SplittableRandom random = new SplittableRandom(SEED);
+      int[][] positions = new int[1024][];
+      for (int i = 0; i < positions.length; i++) positions[i] = new int[] {random.nextInt(side), random.nextInt(side)};
+      int[] next = {0};
+      return () -> Practice.nextMoves(board, positions[next[0]++ & (positions.length - 1)], KING_MOVES).size();
+    });
+    return benchmarks;
+  }
+
+  private static int[][] shape(String shape, int n) {
+    switch (shape) {
+      case "chain":
+        return GraphGenerators.chain(n);
+      case "grid":
+        return GraphGenerators.grid(Math.max(1, (int) Math.sqrt(n)));
+      case "er":
+        return GraphGenerators.erdosRenyi(n, 4, SEED);
+      case "pa":
+        return GraphGenerators.preferentialAttachment(n, 2, SEED);
+      default:
+        throw new IllegalArgumentException("Unknown shape: " + shape);
+    }
+  }
+
+  private static void run(String name, int size, String mode, LongSupplier operation) {
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) iteration(operation);
+
+    double[] opsPerSecond = new double[MEASURED_ITERATIONS];
+    double[] microsPerOp = new double[MEASURED_ITERATIONS];
+    long operations = 0;
+    long allocated = 0;
+    long collections = 0;
+    for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+      long collectionsBefore = collections();
+      long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+      long[] result = iteration(operation);
+      allocated += THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore;
+      collections += collections() - collectionsBefore;
+      operations += result[0];
+      opsPerSecond[i] = result[0] * 1e9 / result[1];
+      microsPerOp[i] = result[1] / 1e3 / result[0];
+    }
+
+    boolean all = mode.equals("all");
+    System.out.printf("%-44s %10d %18s %18s %14s %8s%n", name, size,
+        all || mode.equals("thrpt") ? summary(opsPerSecond) : "",
+        all || mode.equals("avgt") ? summary(microsPerOp) : "",
+        all || mode.equals("alloc") ? String.format("%.0f", (double) allocated / operations) : "",
+        all || mode.equals("alloc") ? String.format("%.3f", (double) collections / operations) : "");
+  }
+
+  /** Runs the operation repeatedly for about one iteration's time and returns the operation count and elapsed nanoseconds. */
+  private static long[] iteration(LongSupplier operation) {
+    long operations = 0;
+    long start = System.nanoTime();
+    long elapsed;
+    do {
+      sink += operation.getAsLong();
+      operations++;
+      elapsed = System.nanoTime() - start;
+    } while (elapsed < ITERATION_NANOS);
+    return new long[] {operations, elapsed};
+  }
+
+  private static long collections() {
+    long total = 0;
+    for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) total += Math.max(0, collector.getCollectionCount());
+    return total;
+  }
+
+  private static String summary(double[] values) {
+    double mean = 0;
+    for (double value : values) mean += value / values.length;
+    double variance = 0;
+    for (double value : values) variance += (value - mean) * (value - mean) / Math.max(1, values.length - 1);
+    return String.format("%.4g +- %.2g", mean, Math.sqrt(variance));
+  }
+}
@@ -0,0 +1,259 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.function.IntFunction;
+
+/**
+ * Performance regression gates for the Practice queries.
+ *
+ * Each query is run on the same kind of seeded graph at growing sizes, and three costs are checked
+ * against a declared budget: the work done (vertices visited plus edges scanned, from TraversalStats),
+ * the bytes allocated by the calling thread, and the running time. Work and allocation are exact, so
+ * their budgets are tight: they must grow linearly with the graph, and allocation must stay under a
+ * fixed number of bytes per vertex and edge. Time is noisy, so its budget only separates linear from
+ * quadratic growth, and it is measured on smaller graphs. The last test checks that the gate does catch
+ * a quadratic implementation.
+ *
+ * The two wall-clock tests depend on the machine being otherwise quiet, so they only run when asked for
+ * with -Dgraph.timingTests=true. The work and allocation gates always run.
+ *
+ * Growth is measured as the slope of log(cost) against log(vertices + edges) over the sizes, so 1.0 is
+ * linear and 2.0 is quadratic.
+ */
+public class PracticePerformanceTest {
+  private static final int[] SIZES = {4_000, 16_000, 64_000};
+  // Small enough that every graph fits in the processor cache; across the cache's edge, time jumps for
+  // reasons that have nothing to do with the algorithm.
+  private static final int[] TIME_SIZES = {1_000, 2_000, 4_000, 8_000};
+  private static final double MAX_LINEAR_EXPONENT = 1.15;
+  private static final double MAX_TIME_EXPONENT = 1.5;
+  private static final int TIME_ATTEMPTS = 3;
+
+  private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  /**
+   * One query on one graph, built for a given vertex count.
+   */
+  private static final class Case {
+    final long size;
+    final Runnable query;
+
+    Case(long size, Runnable query) {
+      this.size = size;
+      this.query = query;
+    }
+  }
+
+  private static Case vertexCase(int n, java.util.function.Consumer<List<Vertex<Integer>>> query) {
+    int[][] adjacency = GraphGenerators.erdosRenyi(n, 3, 17);
+    List<Vertex<Integer>> vertices = GraphGenerators.vertices(adjacency, 17);
+    return new Case(n + edges(adjacency), () -> query.accept(vertices));
+  }
+
+  private static long edges(int[][] adjacency) {
+    long edges = 0;
+    for (int[] neighbors : adjacency) edges += neighbors.length;
+    return edges;
+  }
+
+  private static Map<String, IntFunction<Case>> traversalQueries() {
+    Map<String, IntFunction<Case>> queries = new LinkedHashMap<>();
+    queries.put("oddVertices", n -> vertexCase(n, vertices -> Practice.oddVertices(vertices.get(0))));
+    queries.put("sortedReachable(Vertex)", n -> vertexCase(n, vertices -> Practice.sortedReachable(vertices.get(0))));
+    queries.put("twoWay", n -> vertexCase(n, vertices -> Practice.twoWay(vertices.get(0), new Vertex<>(0))));
+    queries.put("sortedReachable(Map)", n -> {
+      int[][] adjacency = GraphGenerators.erdosRenyi(n, 3, 17);
+      Map<Integer, Set<Integer>> graph = GraphGenerators.map(adjacency);
+      return new Case(n + edges(adjacency), () -> Practice.sortedReachable(graph, 0));
+    });
+    queries.put("positivePathExists", n -> {
+      // The target is a vertex nothing points to, so the search has to visit all it can reach.
+      int[][] adjacency = GraphGenerators.erdosRenyi(n, 3, 17);
+      Map<Integer, Set<Integer>> graph = GraphGenerators.map(adjacency);
+      graph.put(n, new HashSet<>());
+      return new Case(n + edges(adjacency), () -> Practice.positivePathExists(graph, 0, n));
+    });
+    queries.put("hasExtendedConnectionAtCompany", n -> {
+      List<Professional> people = GraphGenerators.professionals(n, 2, 20, 17);
+      return new Case(n + 4L * n, () -> Practice.hasExtendedConnectionAtCompany(people.get(0), "Nowhere"));
+    });
+    return queries;
+  }
+
+  private static Map<String, IntFunction<Case>> allQueries() {
+    Map<String, IntFunction<Case>> queries = traversalQueries();
+    queries.put("hasCycle", n -> {
+      int[][] grid = GraphGenerators.grid((int) Math.sqrt(n));
+      List<Vertex<Integer>> vertices = GraphGenerators.vertices(grid, 17);
+      return new Case(grid.length + edges(grid), () -> Practice.hasCycle(List.of(vertices.get(0))));
+    });
+    queries.put("topologicalOrder", n -> {
+      int[][] grid = GraphGenerators.grid((int) Math.sqrt(n));
+      List<Vertex<Integer>> vertices = GraphGenerators.vertices(grid, 17);
+      return new Case(grid.length + edges(grid), () -> Practice.topologicalOrder(List.of(vertices.get(0))));
+    });
+    return queries;
+  }
+
+  /** Returns the slope of log(costs) against log(sizes), by least squares. */
+  private static double growth(long[] sizes, long[] costs) {
+    double meanX = 0;
+    double meanY = 0;
+    for (int i = 0; i < sizes.length; i++) {
+      meanX += Math.log(sizes[i]) / sizes.length;
+      meanY += Math.log(Math.max(1, costs[i])) / sizes.length;
+    }
+    double covariance = 0;
+    double variance = 0;
+    for (int i = 0; i < sizes.length; i++) {
+      double dx = Math.log(sizes[i]) - meanX;
+      covariance += dx * (Math.log(Math.max(1, costs[i])) - meanY);
+      variance += dx * dx;
+    }
+    return covariance / variance;
+  }
+
+  private static long allocatedBytes(Runnable query) {
+    query.run();
+    long best = Long.MAX_VALUE;
+    for (int i = 0; i < 3; i++) {
+      long before = THREADS.getCurrentThreadAllocatedBytes();
+      query.run();
+      best = Math.min(best, THREADS.getCurrentThreadAllocatedBytes() - before);
+    }
+    return best;
+  }
+
+  private static long nanos(Runnable query) {
+    for (int i = 0; i < 3; i++) query.run();
+    long best = Long.MAX_VALUE;
+    for (int i = 0; i < 7; i++) {
+      long start = System.nanoTime();
+      query.run();
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    return best;
+  }
+
+  /**
+   * Returns the growth of the running time over the cases. A pause for garbage collection can make one
+   * size look slow, so the times are measured again, keeping the best for each size, until they are
+   * within the budget or the tries run out.
+   */
+  private static double timeGrowth(long[] sizes, Runnable[] queries) {
+    long[] times = new long[sizes.length];
+    Arrays.fill(times, Long.MAX_VALUE);
+    double growth = Double.POSITIVE_INFINITY;
+    for (int attempt = 0; attempt < TIME_ATTEMPTS && growth > MAX_TIME_EXPONENT; attempt++) {
+      for (int i = 0; i < sizes.length; i++) times[i] = Math.min(times[i], nanos(queries[i]));
+      growth = growth(sizes, times);
+    }
+    return growth;
+  }
+
+  private static void assertGrowth(String what, long[] sizes, long[] costs, double budget) {
+    double growth = growth(sizes, costs);
+    assertTrue(growth <= budget, String.format("%s grows as size^%.2f, budget is size^%.2f; costs %s at sizes %s",
+        what, growth, budget, Arrays.toString(costs), Arrays.toString(sizes)));
+  }
+
+  /**
+   * Test that the work every traversal query does is linear in the size of the graph and never more than
+   * two visits per vertex and edge.
+   */
+  @Test
+  public void testWorkIsLinear() {
+    for (Map.Entry<String, IntFunction<Case>> query : traversalQueries().entrySet()) {
+      long[] sizes = new long[SIZES.length];
+      long[] work = new long[SIZES.length];
+      for (int i = 0; i < SIZES.length; i++) {
+        Case c = query.getValue().apply(SIZES[i]);
+        TraversalStats stats = new TraversalStats();
+        stats.measure(() -> {
+          c.query.run();
+          return null;
+        });
+        sizes[i] = c.size;
+        work[i] = stats.verticesVisited() + stats.edgesScanned();
+        assertTrue(work[i] <= 2 * c.size, query.getKey() + " did " + work[i] + " steps on a graph of size " + c.size);
+      }
+      assertGrowth(query.getKey() + " work", sizes, work, MAX_LINEAR_EXPONENT);
+    }
+  }
+
+  /**
+   * Test that every query allocates linearly and within its per-vertex-and-edge byte budget.
+   */
+  @Test
+  public void testAllocationWithinBudget() {
+    Map<String, Long> bytesPerElement = new HashMap<>();
+    bytesPerElement.put("oddVertices", 48L);
+    bytesPerElement.put("sortedReachable(Vertex)", 64L);
+    bytesPerElement.put("twoWay", 48L);
+    bytesPerElement.put("sortedReachable(Map)", 64L);
+    bytesPerElement.put("positivePathExists", 48L);
+    bytesPerElement.put("hasExtendedConnectionAtCompany", 48L);
+    bytesPerElement.put("hasCycle", 160L);
+    bytesPerElement.put("topologicalOrder", 80L);
+
+    for (Map.Entry<String, IntFunction<Case>> query : allQueries().entrySet()) {
+      long budget = bytesPerElement.get(query.getKey());
+      long[] sizes = new long[SIZES.length];
+      long[] bytes = new long[SIZES.length];
+      for (int i = 0; i < SIZES.length; i++) {
+        Case c = query.getValue().apply(SIZES[i]);
+        sizes[i] = c.size;
+        bytes[i] = allocatedBytes(c.query);
+        assertTrue(bytes[i] <= budget * c.size, String.format("%s allocated %d bytes on a graph of size %d, budget is %d per element (%.1f used)",
+            query.getKey(), bytes[i], c.size, budget, (double) bytes[i] / c.size));
+      }
+      assertGrowth(query.getKey() + " allocation", sizes, bytes, MAX_LINEAR_EXPONENT);
+    }
+  }
+
+  /**
+   * Test that no query's running time grows faster than the loose time budget.
+   */
+  @Test
+  @EnabledIfSystemProperty(named = "graph.timingTests", matches = "true")
+  public void testTimeGrowth() {
+    for (Map.Entry<String, IntFunction<Case>> query : allQueries().entrySet()) {
+      long[] sizes = new long[TIME_SIZES.length];
+      Runnable[] queries = new Runnable[TIME_SIZES.length];
+      for (int i = 0; i < TIME_SIZES.length; i++) {
+        Case c = query.getValue().apply(TIME_SIZES[i]);
+        sizes[i] = c.size;
+        queries[i] = c.query;
+      }
+      double growth = timeGrowth(sizes, queries);
+      assertTrue(growth <= MAX_TIME_EXPONENT, String.format("%s time grows as size^%.2f, budget is size^%.2f",
+          query.getKey(), growth, MAX_TIME_EXPONENT));
+    }
+  }
+
+  /**
+   * Test that the gate catches a quadratic implementation: sortedReachableHelper keeps its visited
+   * vertices in a List and checks it with contains, so a vertex with many neighbors costs quadratic time.
+   */
+  @Test
+  @EnabledIfSystemProperty(named = "graph.timingTests", matches = "true")
+  public void testGateCatchesQuadraticHelper() {
+    int[] sizes = {2_000, 4_000, 8_000};
+    long[] elements = new long[sizes.length];
+    Runnable[] queries = new Runnable[sizes.length];
+    for (int i = 0; i < sizes.length; i++) {
+      Map<Integer, Set<Integer>> star = new HashMap<>();
+      Set<Integer> spokes = new HashSet<>();
+      for (int v = 1; v < sizes[i]; v++) {
+        spokes.add(v);
+        star.put(v, new HashSet<>());
+      }
+      star.put(0, spokes);
+      elements[i] = 2L * sizes[i] - 1;
+      queries[i] = () -> Practice.sortedReachableHelper(star, 0, new ArrayList<>());
+    }
+    assertTrue(timeGrowth(elements, queries) > MAX_TIME_EXPONENT);
+  }
+}
@@ -0,0 +1,235 @@
+import java.io.*;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A ShardTransport that runs each shard of a PartitionedGraph in a child JVM of its own, talking to it over
+ * its standard input and output, so that the shards share nothing but the machine.
+ *
+ * The children run this class's main method and get their shard over the pipe when they start. Every
+ * request is written to all the children before any answer is read, so the children work on a superstep
+ * at the same time. A child that dies makes the next request fail with an IOException. Closing the
+ * transport stops the children.
+ */
+public class ProcessTransport implements ShardTransport {
+  private static final byte CONTAINS = 'C';
+  private static final byte BEGIN = 'B';
+  private static final byte STEP = 'S';
+  private static final byte VISITED = 'V';
+  private static final byte QUIT = 'Q';
+
+  private final PartitionedGraph graph;
+  private final Process[] processes;
+  private final DataOutputStream[] requests;
+  private final DataInputStream[] answers;
+
+  /**
+   * Starts one child JVM per shard, with the default JVM options.
+   *
+   * @param graph the partitioned graph
+   * @throws IOException if a child cannot be started or sent its shard
+   */
+  public ProcessTransport(PartitionedGraph graph) throws IOException {
+    this(graph, List.of());
+  }
+
+  /**
+   * Starts one child JVM per shard.
+   *
+   * @param graph the partitioned graph
+   * @param jvmOptions options for each child JVM, such as a heap size
+   * @throws IOException if a child cannot be started or sent its shard
+   */
+  public ProcessTransport(PartitionedGraph graph, List<String> jvmOptions) throws IOException {
+    this.graph = graph;
+    int shards = graph.shardCount();
+    this.processes = new Process[shards];
+    this.requests = new DataOutputStream[shards];
+    this.answers = new DataInputStream[shards];
+
+    List<String> command = new ArrayList<>();
+    command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+    command.addAll(jvmOptions);
+    command.add("-cp");
+    command.add(classPath());
+    command.add(ProcessTransport.class.getName());
+
+    try {
+      for (int s = 0; s < shards; s++) {
+        processes[s] = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        requests[s] = new DataOutputStream(new BufferedOutputStream(processes[s].getOutputStream(), 1 << 16));
+        answers[s] = new DataInputStream(new BufferedInputStream(processes[s].getInputStream(), 1 << 16));
+      }
+      for (int s = 0; s < shards; s++) {
+        graph.shard(s).write(requests[s]);
+        requests[s].flush();
+      }
+      for (int s = 0; s < shards; s++) {
+        if (answers[s].readInt() != graph.shardSize(s)) throw new IOException("Shard " + s + " was not received whole");
+      }
+    } catch (IOException e) {
+      close();
+      throw e;
+    }
+  }
+
+  // The class loader that loaded this class may not be the application one, as under a test launcher,
+  // so the children are given the location of this class as well as the application class path.
+  private static String classPath() {
+    String classPath = System.getProperty("java.class.path");
+    try {
+      Path here = Paths.get(ProcessTransport.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+      return here + File.pathSeparator + classPath;
+    } catch (Exception e) {
+      return classPath;
+    }
+  }
+
+  @Override
+  public int shardCount() {
+    return graph.shardCount();
+  }
+
+  @Override
+  public int shardOf(int id) {
+    return graph.shardOf(id);
+  }
+
+  @Override
+  public boolean containsKey(int id) throws IOException {
+    int s = graph.shardOf(id);
+    requests[s].writeByte(CONTAINS);
+    requests[s].writeInt(id);
+    requests[s].flush();
+    return answers[s].readBoolean();
+  }
+
+  @Override
+  public void begin(int target, boolean positiveOnly) throws IOException {
+    for (DataOutputStream request : requests) {
+      request.writeByte(BEGIN);
+      request.writeInt(target);
+      request.writeBoolean(positiveOnly);
+      request.flush();
+    }
+    for (DataInputStream answer : answers) answer.readBoolean();
+  }
+
+  @Override
+  public int[][][] superstep(int[][] inboxes) throws IOException {
+    for (int s = 0; s < requests.length; s++) {
+      requests[s].writeByte(STEP);
+      PartitionedGraph.writeInts(requests[s], inboxes[s]);
+      requests[s].flush();
+    }
+
+    int[][][] outboxes = new int[requests.length][][];
+    boolean found = false;
+    // Every answer is read, even after one reports the target, so the pipes are left clean for the next request.
+    for (int s = 0; s < answers.length; s++) {
+      if (answers[s].readBoolean()) {
+        found = true;
+        continue;
+      }
+      outboxes[s] = new int[requests.length][];
+      for (int to = 0; to < requests.length; to++) outboxes[s][to] = PartitionedGraph.readInts(answers[s]);
+    }
+    return found ? null : outboxes;
+  }
+
+  @Override
+  public int[] visitedIds() throws IOException {
+    for (DataOutputStream request : requests) {
+      request.writeByte(VISITED);
+      request.flush();
+    }
+    int[][] parts = new int[answers.length][];
+    int total = 0;
+    for (int s = 0; s < answers.length; s++) {
+      parts[s] = PartitionedGraph.readInts(answers[s]);
+      total += parts[s].length;
+    }
+    int[] ids = new int[total];
+    int at = 0;
+    for (int[] part : parts) {
+      System.arraycopy(part, 0, ids, at, part.length);
+      at += part.length;
+    }
+    return ids;
+  }
+
+  @Override
+  public void close() {
+    for (int s = 0; s < processes.length; s++) {
+      if (processes[s] == null) continue;
+      try {
+        requests[s].writeByte(QUIT);
+        requests[s].flush();
+      } catch (IOException e) {
+        // Already gone.
+      }
+    }
+    for (Process process : processes) {
+      if (process == null) continue;
+      try {
+        if (!process.waitFor(5, TimeUnit.SECONDS)) process.destroyForcibly();
+      } catch (InterruptedException e) {
+        process.destroyForcibly();
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Runs one shard for a ProcessTransport, reading the shard and then requests from standard input and
+   * writing answers to standard output. Not meant to be run by hand.
+   *
+   * @param args ignored
+   * @throws IOException if the pipe to the parent breaks
+   */
+  public static void main(String[] args) throws IOException {
+    DataInputStream in = new DataInputStream(new BufferedInputStream(System.in, 1 << 16));
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16));
+    // Standard output carries the answers; anything else printed would corrupt them.
+    System.setOut(System.err);
+
+    PartitionedGraph.Shard shard = PartitionedGraph.Shard.read(in);
+    out.writeInt(shard.keys.length);
+    out.flush();
+
+    while (true) {
+      byte request;
+      try {
+        request = in.readByte();
+      } catch (EOFException e) {
+        return;
+      }
+      switch (request) {
+        case CONTAINS:
+          out.writeBoolean(shard.containsKey(in.readInt()));
+          break;
+        case BEGIN:
+          shard.begin(in.readInt(), in.readBoolean());
+          out.writeBoolean(true);
+          break;
+        case STEP: {
+          int[] inbox = PartitionedGraph.readInts(in);
+          int[][] outbox = inbox.length == 0 ? new int[shard.shardCount][0] : shard.step(inbox);
+          out.writeBoolean(outbox == null);
+          if (outbox != null) for (int[] messages : outbox) PartitionedGraph.writeInts(out, messages);
+          break;
+        }
+        case VISITED:
+          PartitionedGraph.writeInts(out, shard.visitedIds());
+          break;
+        case QUIT:
+          return;
+        default:
+          throw new IOException("Unknown request " + request);
+      }
+      out.flush();
+    }
+  }
+}
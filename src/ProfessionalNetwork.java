@@ -0,0 +1,161 @@
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Tracks which professionals share an extended network.
+ *
+ * Connections between professionals are symmetric and only ever added, so the
+ * extended networks can be kept in a DisjointSet keyed on the ordinal each
+ * professional is given when first seen. Asking whether two professionals are
+ * in the same extended network then takes near-constant time instead of a traversal.
+ */
+class ProfessionalNetwork {
+  private final Map<Professional, Integer> ordinals = new HashMap<>();
+  private final List<Professional> professionals = new ArrayList<>();
+  private final DisjointSet networks;
+
+  /**
+   * Constructs an empty ProfessionalNetwork.
+   */
+  public ProfessionalNetwork() {
+    this.networks = new DisjointSet(0);
+  }
+
+  private ProfessionalNetwork(List<Professional> professionals, Map<Professional, Integer> ordinals, DisjointSet networks) {
+    this.professionals.addAll(professionals);
+    this.ordinals.putAll(ordinals);
+    this.networks = networks;
+  }
+
+  /**
+   * Returns the ordinal of the given professional, registering them if they have not been seen before.
+   * A newly registered professional starts in a network of their own; their existing connections are not followed.
+   *
+   * @param person the professional to look up
+   * @return the ordinal of the professional
+   */
+  public int ordinal(Professional person) {
+    Integer ordinal = ordinals.get(person);
+    if (ordinal != null) return ordinal;
+
+    ordinal = networks.add();
+    ordinals.put(person, ordinal);
+    professionals.add(person);
+    return ordinal;
+  }
+
+  /**
+   * Returns the professional with the given ordinal.
+   *
+   * @param ordinal the ordinal of the professional
+   * @return the professional registered under that ordinal
+   */
+  public Professional professional(int ordinal) {
+    return professionals.get(ordinal);
+  }
+
+  /**
+   * Connects a and b with each other, updating both of their connection sets
+   * and merging their extended networks.
+   *
+   * @param a the first professional
+   * @param b the second professional
+   */
+  public void addConnection(Professional a, Professional b) {
+    a.getConnections().add(b);
+    b.getConnections().add(a);
+    networks.union(ordinal(a), ordinal(b));
+  }
+
+  /**
+   * Returns true if a and b are in the same extended network.
+   * A professional is always in the same extended network as themself.
+   * If either professional is null or has never been seen by this network, returns false
+   * unless they are the same professional.
+   *
+   * @param a the first professional (may be null)
+   * @param b the second professional (may be null)
+   * @return whether a can reach b through any number of connections
+   */
+  public boolean inSameNetwork(Professional a, Professional b) {
+    if (a == null || b == null) return false;
+    if (a == b) return true;
+    Integer ordinalA = ordinals.get(a);
+    Integer ordinalB = ordinals.get(b);
+    if (ordinalA == null || ordinalB == null) return false;
+    return networks.connected(ordinalA, ordinalB);
+  }
+
+  /**
+   * Returns an ordinal that stands for the whole extended network of the professional with the given ordinal.
+   * Two professionals share an extended network exactly when this returns the same value for both,
+   * until the next connection is added.
+   *
+   * @param ordinal the ordinal of the professional
+   * @return the representative ordinal of their extended network
+   */
+  public int networkOf(int ordinal) {
+    return networks.find(ordinal);
+  }
+
+  /**
+   * Returns the number of professionals registered in this network.
+   *
+   * @return the number of professionals
+   */
+  public int size() {
+    return professionals.size();
+  }
+
+  /**
+   * Returns the number of separate extended networks.
+   *
+   * @return the number of extended networks
+   */
+  public int networkCount() {
+    return networks.components();
+  }
+
+  /**
+   * Builds a ProfessionalNetwork from every professional reachable from the given roots.
+   *
+   * A search numbers the professionals first, one at a time since ordinals are handed out in order.
+   * Every connection is then united in parallel, over ranges of ordinals, in one shared lock-free
+   * DisjointSet.Concurrent, which is finally copied into the network's DisjointSet. No thread keeps
+   * a structure of its own, so memory stays at one entry per professional however many threads help.
+   *
+   * @param roots the professionals to start from
+   * @return a ProfessionalNetwork covering everyone reachable from roots
+   */
+  public static ProfessionalNetwork fromNetwork(Collection<Professional> roots) {
+    Map<Professional, Integer> ordinals = new HashMap<>();
+    List<Professional> professionals = new ArrayList<>();
+    Deque<Professional> stack = new ArrayDeque<>();
+
+    for (Professional root : roots) {
+      if (root == null || ordinals.containsKey(root)) continue;
+      ordinals.put(root, professionals.size());
+      professionals.add(root);
+      stack.push(root);
+
+      while (!stack.isEmpty()) {
+        for (Professional connection : stack.pop().getConnections()) {
+          if (connection == null || ordinals.containsKey(connection)) continue;
+          ordinals.put(connection, professionals.size());
+          professionals.add(connection);
+          stack.push(connection);
+        }
+      }
+    }
+
+    // The map and the connection sets are only read from here on, so the workers can share them.
+    DisjointSet.Concurrent networks = new DisjointSet.Concurrent(professionals.size());
+    IntStream.range(0, professionals.size()).parallel().forEach(ordinal -> {
+      for (Professional connection : professionals.get(ordinal).getConnections()) {
+        if (connection != null) networks.union(ordinal, ordinals.get(connection));
+      }
+    });
+
+    return new ProfessionalNetwork(professionals, ordinals, networks.toDisjointSet());
+  }
+}
@@ -0,0 +1,151 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+public class ProfessionalNetworkTest {
+
+  /**
+   * Test that addConnection updates both connection sets and merges the networks.
+   */
+  @Test
+  public void testAddConnectionUpdatesBothSides() {
+    Professional alice = new Professional("Alice", "Global Inc.", 5, new HashSet<>());
+    Professional bob = new Professional("Bob", "Tech Solutions", 8, new HashSet<>());
+    ProfessionalNetwork network = new ProfessionalNetwork();
+
+    network.addConnection(alice, bob);
+
+    assertTrue(alice.getConnections().contains(bob));
+    assertTrue(bob.getConnections().contains(alice));
+    assertTrue(network.inSameNetwork(alice, bob));
+    assertTrue(network.inSameNetwork(bob, alice));
+  }
+
+  /**
+   * Test that networks merge transitively: A - B and C - D, then B - C.
+   */
+  @Test
+  public void testTransitiveMerge() {
+    Professional a = new Professional("A", "Other Corp", 3, new HashSet<>());
+    Professional b = new Professional("B", "Other Corp", 4, new HashSet<>());
+    Professional c = new Professional("C", "Other Corp", 5, new HashSet<>());
+    Professional d = new Professional("D", "Other Corp", 6, new HashSet<>());
+    ProfessionalNetwork network = new ProfessionalNetwork();
+
+    network.addConnection(a, b);
+    network.addConnection(c, d);
+    assertFalse(network.inSameNetwork(a, d));
+    assertEquals(2, network.networkCount());
+
+    network.addConnection(b, c);
+    assertTrue(network.inSameNetwork(a, d));
+    assertEquals(1, network.networkCount());
+  }
+
+  /**
+   * Test null and unknown professionals.
+   */
+  @Test
+  public void testNullAndUnknown() {
+    Professional a = new Professional("A", "Other Corp", 3, new HashSet<>());
+    Professional stranger = new Professional("Z", "Other Corp", 3, new HashSet<>());
+    ProfessionalNetwork network = new ProfessionalNetwork();
+    network.ordinal(a);
+
+    assertFalse(network.inSameNetwork(a, null));
+    assertFalse(network.inSameNetwork(null, a));
+    assertFalse(network.inSameNetwork(a, stranger));
+    assertTrue(network.inSameNetwork(stranger, stranger));
+  }
+
+  /**
+   * Test that the bulk load agrees with pairwise addConnection on a larger network
+   * made of several rings.
+   */
+  @Test
+  public void testFromNetworkMatchesIncremental() {
+    int rings = 7;
+    int ringSize = 1500;
+    List<Professional> people = new ArrayList<>();
+    ProfessionalNetwork incremental = new ProfessionalNetwork();
+
+    for (int r = 0; r < rings; r++) {
+      Professional first = null;
+      Professional previous = null;
+      for (int i = 0; i < ringSize; i++) {
+        Professional person = new Professional("P" + r + "_" + i, "Company" + r, i, new HashSet<>());
+        people.add(person);
+        if (previous != null) incremental.addConnection(previous, person);
+        else first = person;
+        previous = person;
+      }
+      incremental.addConnection(previous, first);
+    }
+
+    ProfessionalNetwork bulk = ProfessionalNetwork.fromNetwork(people);
+    assertEquals(people.size(), bulk.size());
+    assertEquals(rings, bulk.networkCount());
+
+    Random random = new Random(42);
+    for (int i = 0; i < 1000; i++) {
+      Professional a = people.get(random.nextInt(people.size()));
+      Professional b = people.get(random.nextInt(people.size()));
+      assertEquals(incremental.inSameNetwork(a, b), bulk.inSameNetwork(a, b));
+    }
+  }
+
+  /**
+   * Test that the bulk load follows connections from a single root.
+   */
+  @Test
+  public void testFromNetworkFollowsConnections() {
+    Professional d = new Professional("D", "Global Inc.", 6, new HashSet<>());
+    Professional e = new Professional("E", "Other Corp", 4, new HashSet<>());
+    Professional b = new Professional("B", "Other Corp", 5, new HashSet<>(Arrays.asList(d, e)));
+
+    ProfessionalNetwork network = ProfessionalNetwork.fromNetwork(List.of(b));
+    assertEquals(3, network.size());
+    assertTrue(network.inSameNetwork(d, e));
+  }
+
+  /**
+   * Test that a one-way connection to someone already numbered from another root still joins the networks.
+   */
+  @Test
+  public void testFromNetworkJoinsAcrossRoots() {
+    Professional b = new Professional("B", "Other Corp", 5, new HashSet<>());
+    Professional a = new Professional("A", "Other Corp", 3, new HashSet<>(List.of(b)));
+    Professional c = new Professional("C", "Global Inc.", 4, new HashSet<>(List.of(b)));
+    Professional d = new Professional("D", "Global Inc.", 2, new HashSet<>());
+
+    ProfessionalNetwork network = ProfessionalNetwork.fromNetwork(List.of(a, c, d));
+    assertEquals(4, network.size());
+    assertEquals(2, network.networkCount());
+    assertTrue(network.inSameNetwork(a, c));
+    assertFalse(network.inSameNetwork(c, d));
+  }
+
+  /**
+   * Test that unions made from many threads at once give the same sets as the same unions made in turn.
+   */
+  @Test
+  public void testConcurrentUnionMatchesSequential() {
+    int size = 20_000;
+    Random random = new Random(7);
+    int[][] pairs = new int[15_000][];
+    for (int i = 0; i < pairs.length; i++) pairs[i] = new int[] {random.nextInt(size), random.nextInt(size)};
+
+    DisjointSet sequential = new DisjointSet(size);
+    for (int[] pair : pairs) sequential.union(pair[0], pair[1]);
+    DisjointSet.Concurrent concurrent = new DisjointSet.Concurrent(size);
+    Arrays.stream(pairs).parallel().forEach(pair -> concurrent.union(pair[0], pair[1]));
+    DisjointSet result = concurrent.toDisjointSet();
+
+    assertEquals(sequential.components(), result.components());
+    for (int i = 0; i < 2000; i++) {
+      int a = random.nextInt(size);
+      int b = random.nextInt(size);
+      assertEquals(sequential.connected(a, b), result.connected(a, b));
+    }
+  }
+}
@@ -0,0 +1,219 @@
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Caches the answers to Practice queries on a VersionedGraph.
+ *
+ * Entries are keyed by the query, its starting vertices and the graph version they were computed at.
+ * As soon as the graph's version moves on, every cached entry is dropped, so a stale answer is never returned.
+ * Entries are kept in least-recently-used order and evicted once their estimated size goes over the byte budget.
+ *
+ * This class is not thread-safe.
+ */
+public class QueryCache {
+  private static final long ENTRY_OVERHEAD = 96;
+  private static final long LIST_ELEMENT_SIZE = 20;
+
+  private enum Query {
+    ODD_VERTICES(QueryMetrics.ODD_VERTICES), SORTED_REACHABLE(QueryMetrics.SORTED_REACHABLE), TWO_WAY(QueryMetrics.TWO_WAY);
+
+    final QueryMetrics metrics;
+
+    Query(QueryMetrics metrics) {
+      this.metrics = metrics;
+    }
+  }
+
+  private final VersionedGraph graph;
+  private final long maxBytes;
+  private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long cachedVersion;
+  private long usedBytes;
+
+  private long hits;
+  private long misses;
+  private long evictions;
+  private long invalidations;
+
+  /**
+   * Constructs a QueryCache for the given graph.
+   *
+   * @param graph the graph whose version decides whether entries are still valid
+   * @param maxBytes the estimated number of bytes the cached answers may take up
+   */
+  public QueryCache(VersionedGraph graph, long maxBytes) {
+    if (maxBytes < 0) throw new IllegalArgumentException("maxBytes must not be negative: " + maxBytes);
+    this.graph = graph;
+    this.maxBytes = maxBytes;
+    this.cachedVersion = graph.version();
+  }
+
+  /**
+   * Returns Practice.oddVertices for the starting vertex, using a cached answer when possible.
+   *
+   * @param starting the starting vertex (may be null)
+   * @return the number of vertices with odd values reachable from the starting vertex
+   */
+  public int oddVertices(Vertex<Integer> starting) {
+    return lookup(Query.ODD_VERTICES, starting, null, () -> Practice.oddVertices(starting), count -> ENTRY_OVERHEAD);
+  }
+
+  /**
+   * Returns Practice.sortedReachable for the starting vertex, using a cached answer when possible.
+   * The returned list is shared between callers and cannot be modified.
+   *
+   * @param starting the starting vertex (may be null)
+   * @return a sorted list of all reachable vertex values
+   */
+  public List<Integer> sortedReachable(Vertex<Integer> starting) {
+    return lookup(Query.SORTED_REACHABLE, starting, null,
+        () -> Collections.unmodifiableList(Practice.sortedReachable(starting)),
+        sorted -> ENTRY_OVERHEAD + LIST_ELEMENT_SIZE * sorted.size());
+  }
+
+  /**
+   * Returns Practice.twoWay for the two vertices, using a cached answer when possible.
+   *
+   * @param v1 the starting vertex
+   * @param v2 the target vertex
+   * @return true if there is a two-way connection between v1 and v2, false otherwise
+   */
+  public boolean twoWay(Vertex<Integer> v1, Vertex<Integer> v2) {
+    return lookup(Query.TWO_WAY, v1, v2, () -> Practice.twoWay(v1, v2), answer -> ENTRY_OVERHEAD);
+  }
+
+  private <V> V lookup(Query query, Vertex<Integer> first, Vertex<Integer> second, Supplier<V> compute, ToLongFunction<V> size) {
+    Key key = new Key(query, first, second, refresh());
+    Entry entry = entries.get(key);
+    if (entry != null) {
+      hits++;
+      @SuppressWarnings("unchecked")
+      V cached = (V) entry.value;
+      return query.metrics.recordHit(-1, false, () -> cached);
+    }
+
+    misses++;
+    V value = compute.get();
+    store(key, value, size.applyAsLong(value));
+    return value;
+  }
+
+  private long refresh() {
+    long version = graph.version();
+    if (version != cachedVersion) {
+      invalidations += entries.size();
+      entries.clear();
+      usedBytes = 0;
+      cachedVersion = version;
+    }
+    return version;
+  }
+
+  private void store(Key key, Object value, long bytes) {
+    if (bytes > maxBytes) return;
+
+    entries.put(key, new Entry(value, bytes));
+    usedBytes += bytes;
+
+    Iterator<Entry> eldest = entries.values().iterator();
+    while (usedBytes > maxBytes) {
+      usedBytes -= eldest.next().bytes;
+      eldest.remove();
+      evictions++;
+    }
+  }
+
+  /**
+   * Returns the number of queries answered from the cache.
+   *
+   * @return the number of hits
+   */
+  public long hits() {
+    return hits;
+  }
+
+  /**
+   * Returns the number of queries that had to be computed.
+   *
+   * @return the number of misses
+   */
+  public long misses() {
+    return misses;
+  }
+
+  /**
+   * Returns the number of entries evicted to stay within the byte budget.
+   *
+   * @return the number of evictions
+   */
+  public long evictions() {
+    return evictions;
+  }
+
+  /**
+   * Returns the number of entries dropped because the graph changed.
+   *
+   * @return the number of invalidated entries
+   */
+  public long invalidations() {
+    return invalidations;
+  }
+
+  /**
+   * Returns the number of entries currently cached.
+   *
+   * @return the number of entries
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Returns the estimated number of bytes taken up by the cached entries.
+   *
+   * @return the estimated bytes in use
+   */
+  public long usedBytes() {
+    return usedBytes;
+  }
+
+  private static final class Entry {
+    final Object value;
+    final long bytes;
+
+    Entry(Object value, long bytes) {
+      this.value = value;
+      this.bytes = bytes;
+    }
+  }
+
+  private static final class Key {
+    final Query query;
+    final Vertex<Integer> first;
+    final Vertex<Integer> second;
+    final long version;
+
+    Key(Query query, Vertex<Integer> first, Vertex<Integer> second, long version) {
+      this.query = query;
+      this.first = first;
+      this.second = second;
+      this.version = version;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Key)) return false;
+      Key other = (Key) o;
+      return query == other.query && first == other.first && second == other.second && version == other.version;
+    }
+
+    @Override
+    public int hashCode() {
+      int hash = query.hashCode();
+      hash = 31 * hash + System.identityHashCode(first);
+      hash = 31 * hash + System.identityHashCode(second);
+      return 31 * hash + Long.hashCode(version);
+    }
+  }
+}
@@ -0,0 +1,75 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+public class QueryCacheTest {
+
+  /**
+   * Test that repeated queries hit and that a graph change invalidates them.
+   */
+  @Test
+  public void testHitsAndInvalidation() {
+    Vertex<Integer> v5 = new Vertex<>(5);
+    Vertex<Integer> v8 = new Vertex<>(8);
+    Vertex<Integer> v7 = new Vertex<>(7);
+    VersionedGraph graph = new VersionedGraph();
+    graph.addEdge(v5, v8);
+    QueryCache cache = new QueryCache(graph, 1 << 20);
+
+    assertEquals(Arrays.asList(5, 8), cache.sortedReachable(v5));
+    assertEquals(Arrays.asList(5, 8), cache.sortedReachable(v5));
+    assertEquals(1, cache.oddVertices(v5));
+    assertEquals(1, cache.hits());
+    assertEquals(2, cache.misses());
+
+    graph.addEdge(v8, v7);
+    assertEquals(2, cache.oddVertices(v5));
+    assertEquals(Arrays.asList(5, 7, 8), cache.sortedReachable(v5));
+    assertEquals(2, cache.invalidations());
+    assertEquals(1, cache.hits());
+  }
+
+  /**
+   * Test that twoWay answers are cached separately for each ordered pair.
+   */
+  @Test
+  public void testTwoWay() {
+    Vertex<Integer> v1 = new Vertex<>(1);
+    Vertex<Integer> v2 = new Vertex<>(2);
+    Vertex<Integer> v3 = new Vertex<>(3);
+    VersionedGraph graph = new VersionedGraph();
+    graph.addEdge(v1, v2);
+    graph.addEdge(v2, v1);
+    graph.addEdge(v2, v3);
+    QueryCache cache = new QueryCache(graph, 1 << 20);
+
+    assertTrue(cache.twoWay(v1, v2));
+    assertFalse(cache.twoWay(v1, v3));
+    assertTrue(cache.twoWay(v1, v2));
+    assertEquals(1, cache.hits());
+    assertEquals(2, cache.size());
+  }
+
+  /**
+   * Test that the least recently used entry is evicted once the budget is exceeded.
+   */
+  @Test
+  public void testEvictsLeastRecentlyUsed() {
+    Vertex<Integer> a = new Vertex<>(1);
+    Vertex<Integer> b = new Vertex<>(2);
+    Vertex<Integer> c = new Vertex<>(3);
+    QueryCache cache = new QueryCache(new VersionedGraph(), 250);
+
+    cache.oddVertices(a);
+    cache.oddVertices(b);
+    cache.oddVertices(a);
+    cache.oddVertices(c);
+    assertEquals(1, cache.evictions());
+    assertTrue(cache.usedBytes() <= 250);
+
+    cache.oddVertices(a);
+    assertEquals(2, cache.hits());
+    cache.oddVertices(b);
+    assertEquals(2, cache.hits());
+  }
+}
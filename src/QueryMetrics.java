@@ -0,0 +1,187 @@
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import jdk.jfr.EventType;
+
+/**
+ * Counts and times every call of one kind of graph query, publishes the totals over JMX, and writes a
+ * GraphQueryEvent to any running flight recording for calls slower than its threshold.
+ *
+ * There is one QueryMetrics per query name, shared by every caller, and it registers itself with the
+ * platform MBean server the first time it is asked for. Recording a call costs two clock reads and a few
+ * increments of counters striped across threads. Only while a flight recording has graph.Query enabled are
+ * the calls also run under TraversalStats, so that a slow call's event can say how much of the graph it visited.
+ *
+ * Recording can be turned off for one query through its Enabled attribute, or for every query by starting
+ * the JVM with -Dgraph.queryMetrics=false. While it is off, calls run without the clock reads or counters,
+ * though a flight recording with graph.Query enabled still gets its events.
+ */
+public final class QueryMetrics implements QueryMetricsMBean {
+  private static final Map<String, QueryMetrics> ALL = new ConcurrentHashMap<>();
+  private static final boolean ENABLED_BY_DEFAULT = !"false".equalsIgnoreCase(System.getProperty("graph.queryMetrics"));
+  // Asked before every call, so that no GraphQueryEvent is created unless a recording wants one.
+  private static final EventType EVENT_TYPE = EventType.getEventType(GraphQueryEvent.class);
+
+  static final QueryMetrics ODD_VERTICES = forQuery("oddVertices");
+  static final QueryMetrics AGGREGATE = forQuery("aggregate");
+  static final QueryMetrics SORTED_REACHABLE = forQuery("sortedReachable");
+  static final QueryMetrics TWO_WAY = forQuery("twoWay");
+  static final QueryMetrics POSITIVE_PATH_EXISTS = forQuery("positivePathExists");
+  static final QueryMetrics HAS_EXTENDED_CONNECTION_AT_COMPANY = forQuery("hasExtendedConnectionAtCompany");
+  static final QueryMetrics HAS_CYCLE = forQuery("hasCycle");
+  static final QueryMetrics TOPOLOGICAL_ORDER = forQuery("topologicalOrder");
+
+  private final String query;
+  private final LatencyHistogram latencies = new LatencyHistogram();
+  private final LongAdder cacheHits = new LongAdder();
+  private final LongAdder indexHits = new LongAdder();
+  private volatile boolean enabled = ENABLED_BY_DEFAULT;
+
+  private QueryMetrics(String query) {
+    this.query = query;
+  }
+
+  /**
+   * Returns the metrics for the named query, creating and registering them over JMX if this is the first time.
+   *
+   * @param query the query name
+   * @return the metrics shared by every caller of that query
+   */
+  public static QueryMetrics forQuery(String query) {
+    return ALL.computeIfAbsent(query, name -> {
+      QueryMetrics metrics = new QueryMetrics(name);
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      try {
+        ObjectName objectName = new ObjectName("graph:type=QueryMetrics,name=" + ObjectName.quote(name));
+        if (!server.isRegistered(objectName)) server.registerMBean(metrics, objectName);
+      } catch (JMException e) {
+        throw new IllegalStateException("Could not register metrics for " + name, e);
+      }
+      return metrics;
+    });
+  }
+
+  /**
+   * Runs a query that is computed from the graph, recording its latency and, if it was slow, an event.
+   *
+   * @param <T> the type of the query's result
+   * @param graphSize the number of vertices in the graph, or -1 if not known
+   * @param query the query to run
+   * @return the query's result
+   */
+  public <T> T record(int graphSize, Supplier<T> query) {
+    return record(graphSize, false, false, query);
+  }
+
+  /**
+   * Runs a lookup that answers a query from a cache or an index, recording it as a hit.
+   *
+   * @param <T> the type of the query's result
+   * @param graphSize the number of vertices in the graph, or -1 if not known
+   * @param fromIndex true for a precomputed index, false for a cache
+   * @param lookup the lookup to run
+   * @return the lookup's result
+   */
+  public <T> T recordHit(int graphSize, boolean fromIndex, Supplier<T> lookup) {
+    if (enabled) (fromIndex ? indexHits : cacheHits).increment();
+    return record(graphSize, !fromIndex, fromIndex, lookup);
+  }
+
+  private <T> T record(int graphSize, boolean cacheHit, boolean indexHit, Supplier<T> query) {
+    if (EVENT_TYPE.isEnabled()) return recordEvent(graphSize, cacheHit, indexHit, query);
+    if (!enabled) return query.get();
+    long start = System.nanoTime();
+    T result = query.get();
+    latencies.record(System.nanoTime() - start);
+    return result;
+  }
+
+  /** Runs a query while a flight recording has graph.Query enabled; kept apart so that record stays small enough to inline. */
+  private <T> T recordEvent(int graphSize, boolean cacheHit, boolean indexHit, Supplier<T> query) {
+    GraphQueryEvent event = new GraphQueryEvent();
+    TraversalStats stats = new TraversalStats();
+    long start = System.nanoTime();
+    event.begin();
+    T result = stats.measure(query);
+    event.end();
+    if (enabled) latencies.record(System.nanoTime() - start);
+
+    if (event.shouldCommit()) {
+      event.query = this.query;
+      event.graphSize = graphSize;
+      event.verticesVisited = stats.verticesVisited();
+      event.edgesScanned = stats.edgesScanned();
+      event.cacheHit = cacheHit;
+      event.indexHit = indexHit;
+      event.commit();
+    }
+    return result;
+  }
+
+  @Override
+  public String getQuery() {
+    return query;
+  }
+
+  @Override
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  @Override
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  @Override
+  public long getCount() {
+    return latencies.count();
+  }
+
+  @Override
+  public long getCacheHits() {
+    return cacheHits.sum();
+  }
+
+  @Override
+  public long getIndexHits() {
+    return indexHits.sum();
+  }
+
+  @Override
+  public double getMeanMillis() {
+    return latencies.mean() / 1e6;
+  }
+
+  @Override
+  public double getP50Millis() {
+    return latencies.valueAtPercentile(50) / 1e6;
+  }
+
+  @Override
+  public double getP99Millis() {
+    return latencies.valueAtPercentile(99) / 1e6;
+  }
+
+  @Override
+  public double getP999Millis() {
+    return latencies.valueAtPercentile(99.9) / 1e6;
+  }
+
+  @Override
+  public double getMaxMillis() {
+    return latencies.max() / 1e6;
+  }
+
+  @Override
+  public void reset() {
+    latencies.reset();
+    cacheHits.reset();
+    indexHits.reset();
+  }
+}
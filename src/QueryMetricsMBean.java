@@ -0,0 +1,88 @@
+/**
+ * The JMX view of one query's QueryMetrics, registered as graph:type=QueryMetrics,name=&lt;query&gt;.
+ * Latencies are in milliseconds and cover every call since the last reset.
+ */
+public interface QueryMetricsMBean {
+
+  /**
+   * Returns the name of the query these metrics are for.
+   *
+   * @return the query name
+   */
+  String getQuery();
+
+  /**
+   * Returns whether calls are being counted and timed.
+   *
+   * @return whether recording is on
+   */
+  boolean isEnabled();
+
+  /**
+   * Turns counting and timing of calls on or off. Counts already recorded are kept.
+   *
+   * @param enabled whether to record calls
+   */
+  void setEnabled(boolean enabled);
+
+  /**
+   * Returns the number of calls.
+   *
+   * @return the call count
+   */
+  long getCount();
+
+  /**
+   * Returns the number of calls answered from a cache.
+   *
+   * @return the cache hit count
+   */
+  long getCacheHits();
+
+  /**
+   * Returns the number of calls answered from a precomputed index.
+   *
+   * @return the index hit count
+   */
+  long getIndexHits();
+
+  /**
+   * Returns the mean latency.
+   *
+   * @return the mean latency in milliseconds
+   */
+  double getMeanMillis();
+
+  /**
+   * Returns the median latency.
+   *
+   * @return the 50th percentile latency in milliseconds
+   */
+  double getP50Millis();
+
+  /**
+   * Returns the 99th percentile latency.
+   *
+   * @return the 99th percentile latency in milliseconds
+   */
+  double getP99Millis();
+
+  /**
+   * Returns the 99.9th percentile latency.
+   *
+   * @return the 99.9th percentile latency in milliseconds
+   */
+  double getP999Millis();
+
+  /**
+   * Returns the slowest latency.
+   *
+   * @return the maximum latency in milliseconds
+   */
+  double getMaxMillis();
+
+  /**
+   * Clears every counter and the latency histogram.
+   */
+  void reset();
+}
@@ -0,0 +1,133 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.*;
+import javax.management.Attribute;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class QueryMetricsTest {
+
+  @TempDir
+  Path dir;
+
+  private List<Vertex<Integer>> chain(int length) {
+    List<Vertex<Integer>> vertices = new ArrayList<>();
+    for (int i = 0; i < length; i++) {
+      Vertex<Integer> vertex = new Vertex<>(i);
+      if (i > 0) vertices.get(i - 1).neighbors.add(vertex);
+      vertices.add(vertex);
+    }
+    return vertices;
+  }
+
+  /**
+   * Test that Practice calls are counted and visible over JMX.
+   */
+  @Test
+  public void testJmxCounters() throws Exception {
+    QueryMetrics metrics = QueryMetrics.forQuery("oddVertices");
+    metrics.reset();
+    List<Vertex<Integer>> chain = chain(50);
+    for (int i = 0; i < 10; i++) Practice.oddVertices(chain.get(i));
+
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName name = new ObjectName("graph:type=QueryMetrics,name=\"oddVertices\"");
+    assertEquals(10L, server.getAttribute(name, "Count"));
+    assertEquals(0L, server.getAttribute(name, "CacheHits"));
+    double p50 = (Double) server.getAttribute(name, "P50Millis");
+    double max = (Double) server.getAttribute(name, "MaxMillis");
+    assertTrue(p50 > 0 && p50 <= max);
+
+    server.invoke(name, "reset", new Object[0], new String[0]);
+    assertEquals(0, metrics.getCount());
+  }
+
+  /**
+   * Test that turning recording off over JMX stops counting without changing the answers.
+   */
+  @Test
+  public void testDisable() throws Exception {
+    QueryMetrics metrics = QueryMetrics.forQuery("oddVertices");
+    metrics.reset();
+    List<Vertex<Integer>> chain = chain(10);
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName name = new ObjectName("graph:type=QueryMetrics,name=\"oddVertices\"");
+    assertEquals(true, server.getAttribute(name, "Enabled"));
+
+    server.setAttribute(name, new Attribute("Enabled", false));
+    try {
+      assertEquals(5, Practice.oddVertices(chain.get(0)));
+      assertEquals(0, metrics.getCount());
+    } finally {
+      metrics.setEnabled(true);
+    }
+    assertEquals(5, Practice.oddVertices(chain.get(0)));
+    assertEquals(1, metrics.getCount());
+  }
+
+  /**
+   * Test that cache and index answers are counted as hits.
+   */
+  @Test
+  public void testHits() {
+    QueryMetrics twoWay = QueryMetrics.forQuery("twoWay");
+    twoWay.reset();
+    List<Vertex<Integer>> chain = chain(5);
+    chain.get(4).neighbors.add(chain.get(0));
+
+    QueryCache cache = new QueryCache(new VersionedGraph(), 1 << 20);
+    assertTrue(cache.twoWay(chain.get(0), chain.get(3)));
+    assertTrue(cache.twoWay(chain.get(0), chain.get(3)));
+    assertEquals(2, twoWay.getCount());
+    assertEquals(1, twoWay.getCacheHits());
+
+    FrozenGraph<Integer> frozen = FrozenGraph.freeze(List.of(chain.get(0))).graph();
+    GraphIndex index = GraphIndex.build(frozen, frozen.vertexCount(), null);
+    assertTrue(index.twoWay(0, 4));
+    assertEquals(1, twoWay.getIndexHits());
+    assertEquals(3, twoWay.getCount());
+  }
+
+  /**
+   * Test that a recording with graph.Query enabled gets events carrying the query and what it visited,
+   * and that the threshold keeps fast queries out.
+   */
+  @Test
+  public void testFlightRecorderEvents() throws Exception {
+    List<Vertex<Integer>> chain = chain(200);
+    Path file = dir.resolve("queries.jfr");
+
+    try (Recording recording = new Recording()) {
+      recording.enable("graph.Query").withThreshold(java.time.Duration.ZERO);
+      recording.start();
+      Practice.sortedReachable(chain.get(0));
+      Practice.twoWay(chain.get(0), chain.get(199));
+      recording.stop();
+      recording.dump(file);
+    }
+
+    List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+    assertEquals(2, events.size());
+    RecordedEvent sorted = events.stream().filter(e -> e.getString("query").equals("sortedReachable")).findFirst().orElseThrow();
+    assertEquals(200, sorted.getLong("verticesVisited"));
+    assertEquals(199, sorted.getLong("edgesScanned"));
+    assertEquals(-1, sorted.getInt("graphSize"));
+    assertFalse(sorted.getBoolean("cacheHit"));
+
+    try (Recording recording = new Recording()) {
+      recording.enable("graph.Query").withThreshold(java.time.Duration.ofHours(1));
+      recording.start();
+      Practice.sortedReachable(chain.get(0));
+      recording.stop();
+      Path slowOnly = dir.resolve("slow.jfr");
+      recording.dump(slowOnly);
+      assertEquals(0, RecordingFile.readAllEvents(slowOnly).size());
+    }
+  }
+}
@@ -0,0 +1,401 @@
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Answers graph queries asynchronously for many concurrent callers.
+ *
+ * Queries on a SnapshotGraph.Snapshot are queued and gathered into micro-batches. Within a batch, every
+ * query on the same snapshot and starting vertex shares one traversal, so a burst of oddVertices,
+ * sortedReachable and twoWay calls from the same vertex walks the graph once. The traversals check
+ * between vertices whether anyone is still waiting for them, and stop early once every query that
+ * depends on them has been cancelled or has run past its deadline.
+ *
+ * The remaining Practice queries are run one task per call, under GraphTraversal.runWhile, so their
+ * traversals likewise stop once the future has timed out or been cancelled.
+ *
+ * Work runs on virtual threads when the running JDK has them, and on a cached pool of daemon threads otherwise.
+ */
+public class QueryService implements AutoCloseable {
+  private enum Kind { ODD_VERTICES, SORTED_REACHABLE, TWO_WAY }
+
+  private final ExecutorService executor = newExecutor();
+  private final BlockingQueue<Request> pending = new LinkedBlockingQueue<>();
+  private final int maxBatch;
+  private final long batchWindowNanos;
+  private final Thread dispatcher;
+  private volatile boolean closed;
+
+  /**
+   * Constructs a QueryService that batches up to 256 queries arriving within one millisecond of each other.
+   */
+  public QueryService() {
+    this(256, Duration.ofMillis(1));
+  }
+
+  /**
+   * Constructs a QueryService with the given batching limits.
+   *
+   * @param maxBatch the largest number of queries handled in one batch
+   * @param batchWindow how long to wait for more queries after the first one in a batch arrives
+   */
+  public QueryService(int maxBatch, Duration batchWindow) {
+    if (maxBatch < 1) throw new IllegalArgumentException("maxBatch must be positive: " + maxBatch);
+    this.maxBatch = maxBatch;
+    this.batchWindowNanos = batchWindow.toNanos();
+    this.dispatcher = new Thread(this::dispatch, "query-service-dispatcher");
+    this.dispatcher.setDaemon(true);
+    this.dispatcher.start();
+  }
+
+  private static ExecutorService newExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "query-service-worker");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+  }
+
+  /**
+   * Asynchronously counts the vertices with odd values reachable from the starting vertex in the snapshot.
+   *
+   * @param snapshot the snapshot to query
+   * @param starting the id of the starting vertex
+   * @param timeout how long the caller is willing to wait
+   * @return a future for the number of reachable vertices with odd values
+   */
+  public CompletableFuture<Integer> oddVertices(SnapshotGraph.Snapshot snapshot, int starting, Duration timeout) {
+    return enqueue(Kind.ODD_VERTICES, snapshot, starting, starting, timeout);
+  }
+
+  /**
+   * Asynchronously lists the sorted values reachable from the starting vertex in the snapshot.
+   * The list in the completed future cannot be modified.
+   *
+   * @param snapshot the snapshot to query
+   * @param starting the id of the starting vertex
+   * @param timeout how long the caller is willing to wait
+   * @return a future for the sorted list of reachable values
+   */
+  public CompletableFuture<List<Integer>> sortedReachable(SnapshotGraph.Snapshot snapshot, int starting, Duration timeout) {
+    return enqueue(Kind.SORTED_REACHABLE, snapshot, starting, starting, timeout);
+  }
+
+  /**
+   * Asynchronously checks whether each of two vertices in the snapshot can reach the other.
+   *
+   * @param snapshot the snapshot to query
+   * @param v1 the id of the first vertex
+   * @param v2 the id of the second vertex
+   * @param timeout how long the caller is willing to wait
+   * @return a future for whether there is a two-way connection between v1 and v2
+   */
+  public CompletableFuture<Boolean> twoWay(SnapshotGraph.Snapshot snapshot, int v1, int v2, Duration timeout) {
+    return enqueue(Kind.TWO_WAY, snapshot, v1, v2, timeout);
+  }
+
+  /**
+   * Runs Practice.oddVertices asynchronously.
+   *
+   * @param starting the starting vertex (may be null)
+   * @param timeout how long the caller is willing to wait
+   * @return a future for the number of reachable vertices with odd values
+   */
+  public CompletableFuture<Integer> oddVertices(Vertex<Integer> starting, Duration timeout) {
+    return submit(() -> Practice.oddVertices(starting), timeout);
+  }
+
+  /**
+   * Runs Practice.sortedReachable asynchronously on a Vertex graph.
+   *
+   * @param starting the starting vertex (may be null)
+   * @param timeout how long the caller is willing to wait
+   * @return a future for the sorted list of reachable values
+   */
+  public CompletableFuture<List<Integer>> sortedReachable(Vertex<Integer> starting, Duration timeout) {
+    return submit(() -> Practice.sortedReachable(starting), timeout);
+  }
+
+  /**
+   * Runs Practice.sortedReachable asynchronously on a map graph.
+   *
+   * @param graph a map representing the graph
+   * @param starting the starting vertex value
+   * @param timeout how long the caller is willing to wait
+   * @return a future for the sorted list of reachable values
+   */
+  public CompletableFuture<List<Integer>> sortedReachable(Map<Integer, Set<Integer>> graph, int starting, Duration timeout) {
+    return submit(() -> Practice.sortedReachable(graph, starting), timeout);
+  }
+
+  /**
+   * Runs Practice.twoWay asynchronously.
+   *
+   * @param <T> the type of data stored in the vertices
+   * @param v1 the starting vertex
+   * @param v2 the target vertex
+   * @param timeout how long the caller is willing to wait
+   * @return a future for whether there is a two-way connection between v1 and v2
+   */
+  public <T> CompletableFuture<Boolean> twoWay(Vertex<T> v1, Vertex<T> v2, Duration timeout) {
+    return submit(() -> Practice.twoWay(v1, v2), timeout);
+  }
+
+  /**
+   * Runs Practice.positivePathExists asynchronously.
+   *
+   * @param graph a map representing the graph
+   * @param starting the starting vertex value
+   * @param ending the ending vertex value
+   * @param timeout how long the caller is willing to wait
+   * @return a future for whether there exists a valid positive path from starting to ending
+   */
+  public CompletableFuture<Boolean> positivePathExists(Map<Integer, Set<Integer>> graph, int starting, int ending, Duration timeout) {
+    return submit(() -> Practice.positivePathExists(graph, starting, ending), timeout);
+  }
+
+  /**
+   * Runs Practice.hasExtendedConnectionAtCompany asynchronously.
+   *
+   * @param person the professional to start the search from (may be null)
+   * @param companyName the name of the company to check for employment
+   * @param timeout how long the caller is willing to wait
+   * @return a future for whether a person in the extended network works at the company
+   */
+  public CompletableFuture<Boolean> hasExtendedConnectionAtCompany(Professional person, String companyName, Duration timeout) {
+    return submit(() -> Practice.hasExtendedConnectionAtCompany(person, companyName), timeout);
+  }
+
+  /**
+   * Runs Practice.nextMoves asynchronously.
+   *
+   * @param board a rectangular array where 'X' represent an impassible location
+   * @param current the [row, column] starting position of the player
+   * @param directions an array of [row, column] possible directions
+   * @param timeout how long the caller is willing to wait
+   * @return a future for the unsorted list of next moves
+   */
+  public CompletableFuture<List<int[]>> nextMoves(char[][] board, int[] current, int[][] directions, Duration timeout) {
+    return submit(() -> Practice.nextMoves(board, current, directions), timeout);
+  }
+
+  private <T> CompletableFuture<T> submit(Supplier<T> query, Duration timeout) {
+    if (closed) return CompletableFuture.failedFuture(new IllegalStateException("QueryService is closed"));
+    CompletableFuture<T> future = new CompletableFuture<>();
+    future.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    try {
+      executor.execute(() -> {
+        if (future.isDone()) return;
+        try {
+          // Once the future times out or is cancelled, the traversal stops at its next check.
+          future.complete(GraphTraversal.runWhile(() -> !future.isDone(), query));
+        } catch (Throwable e) {
+          future.completeExceptionally(e);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      // close() ran between the check above and the submission.
+      return CompletableFuture.failedFuture(new IllegalStateException("QueryService is closed"));
+    }
+    return future;
+  }
+
+  private <T> CompletableFuture<T> enqueue(Kind kind, SnapshotGraph.Snapshot snapshot, int a, int b, Duration timeout) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    if (closed) {
+      future.completeExceptionally(new IllegalStateException("QueryService is closed"));
+      return future;
+    }
+    if (a < 0 || a >= snapshot.size() || b < 0 || b >= snapshot.size()) {
+      future.completeExceptionally(new IndexOutOfBoundsException("No vertex " + (a < 0 || a >= snapshot.size() ? a : b) + " in graph of size " + snapshot.size()));
+      return future;
+    }
+
+    future.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    @SuppressWarnings("unchecked")
+    CompletableFuture<Object> untyped = (CompletableFuture<Object>) future;
+    pending.add(new Request(kind, snapshot, a, b, untyped));
+    // If close() ran since the check above, the dispatcher may already have failed what was pending.
+    if (closed) failPending();
+    return future;
+  }
+
+  private void dispatch() {
+    List<Request> batch = new ArrayList<>(maxBatch);
+    try {
+      while (!closed) {
+        batch.add(pending.take());
+        long deadline = System.nanoTime() + batchWindowNanos;
+        while (batch.size() < maxBatch) {
+          Request next = pending.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+          if (next == null) break;
+          batch.add(next);
+        }
+
+        run(batch);
+        batch.clear();
+      }
+    } catch (InterruptedException e) {
+      // close() interrupts the dispatcher to stop it.
+    }
+
+    for (Request request : batch) request.future.completeExceptionally(new IllegalStateException("QueryService is closed"));
+    failPending();
+  }
+
+  private void failPending() {
+    for (Request request; (request = pending.poll()) != null; ) {
+      request.future.completeExceptionally(new IllegalStateException("QueryService is closed"));
+    }
+  }
+
+  private void run(List<Request> batch) {
+    Map<SnapshotGraph.Snapshot, Map<Integer, Traversal>> bySnapshot = new IdentityHashMap<>();
+    Map<SnapshotGraph.Snapshot, List<Request>> requests = new IdentityHashMap<>();
+
+    for (Request request : batch) {
+      if (request.future.isDone()) continue;
+      requests.computeIfAbsent(request.snapshot, s -> new ArrayList<>()).add(request);
+      Map<Integer, Traversal> traversals = bySnapshot.computeIfAbsent(request.snapshot, s -> new HashMap<>());
+      traversals.computeIfAbsent(request.a, start -> new Traversal(request.snapshot, start)).dependents.add(request);
+      if (request.kind == Kind.TWO_WAY && request.a != request.b) {
+        traversals.computeIfAbsent(request.b, start -> new Traversal(request.snapshot, start)).dependents.add(request);
+      }
+    }
+
+    for (Map.Entry<SnapshotGraph.Snapshot, Map<Integer, Traversal>> entry : bySnapshot.entrySet()) {
+      Map<Integer, Traversal> traversals = entry.getValue();
+      List<Request> group = requests.get(entry.getKey());
+      CompletableFuture<?>[] runs = new CompletableFuture<?>[traversals.size()];
+      int i = 0;
+      for (Traversal traversal : traversals.values()) runs[i++] = CompletableFuture.runAsync(traversal, executor);
+
+      CompletableFuture.allOf(runs).whenComplete((ignored, failure) -> {
+        for (Request request : group) answer(request, traversals, failure);
+      });
+    }
+  }
+
+  private static void answer(Request request, Map<Integer, Traversal> traversals, Throwable failure) {
+    if (request.future.isDone()) return;
+    if (failure != null) {
+      request.future.completeExceptionally(failure);
+      return;
+    }
+
+    Traversal fromA = traversals.get(request.a);
+    switch (request.kind) {
+      case ODD_VERTICES:
+        request.future.complete(fromA.oddVertices());
+        break;
+      case SORTED_REACHABLE:
+        request.future.complete(fromA.sortedReachable());
+        break;
+      case TWO_WAY:
+        request.future.complete(fromA.reached.get(request.b) && traversals.get(request.b).reached.get(request.a));
+        break;
+    }
+  }
+
+  /**
+   * Stops accepting queries, fails any that are still queued and shuts down the worker threads.
+   * Batches the dispatcher has already handed to the workers still complete.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    dispatcher.interrupt();
+    // The dispatcher must be done submitting traversals before the executor starts rejecting them.
+    boolean interrupted = false;
+    while (dispatcher.isAlive()) {
+      try {
+        dispatcher.join();
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    executor.shutdown();
+    if (interrupted) Thread.currentThread().interrupt();
+  }
+
+  private static final class Request {
+    final Kind kind;
+    final SnapshotGraph.Snapshot snapshot;
+    final int a;
+    final int b;
+    final CompletableFuture<Object> future;
+
+    Request(Kind kind, SnapshotGraph.Snapshot snapshot, int a, int b, CompletableFuture<Object> future) {
+      this.kind = kind;
+      this.snapshot = snapshot;
+      this.a = a;
+      this.b = b;
+      this.future = future;
+    }
+  }
+
+  /**
+   * One reachability walk from a starting vertex, shared by every request in a batch that needs it.
+   */
+  private static final class Traversal implements Runnable {
+    final SnapshotGraph.Snapshot snapshot;
+    final int starting;
+    final List<Request> dependents = new ArrayList<>();
+    BitSet reached;
+    int[] order;
+    private Integer oddCount;
+    private List<Integer> sorted;
+
+    Traversal(SnapshotGraph.Snapshot snapshot, int starting) {
+      this.snapshot = snapshot;
+      this.starting = starting;
+    }
+
+    @Override
+    public void run() {
+      try {
+        order = GraphTraversal.runWhile(this::anyWaiting, () -> GraphTraversal.reachable(snapshot, starting));
+      } catch (CancellationException e) {
+        // Every request that needed this traversal has been cancelled or has timed out.
+        return;
+      }
+      reached = new BitSet(snapshot.size());
+      for (int vertex : order) reached.set(vertex);
+    }
+
+    private boolean anyWaiting() {
+      for (Request request : dependents) {
+        if (!request.future.isDone()) return true;
+      }
+      return false;
+    }
+
+    int oddVertices() {
+      if (oddCount == null) {
+        int total = 0;
+        for (int vertex : order) {
+          if (snapshot.value(vertex) % 2 == 1) total++;
+        }
+        oddCount = total;
+      }
+      return oddCount;
+    }
+
+    List<Integer> sortedReachable() {
+      if (sorted == null) {
+        int[] values = new int[order.length];
+        for (int i = 0; i < order.length; i++) values[i] = snapshot.value(order[i]);
+        Arrays.sort(values);
+        List<Integer> list = new ArrayList<>(order.length);
+        for (int value : values) list.add(value);
+        sorted = Collections.unmodifiableList(list);
+      }
+      return sorted;
+    }
+  }
+}
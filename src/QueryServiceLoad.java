@@ -0,0 +1,75 @@
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Drives a QueryService with a burst of concurrent queries and prints the latency distribution.
+ *
+ * Usage: java QueryServiceLoad [vertices] [queries] [concurrency]
+ *
+ * The graph is a seeded random graph where each vertex has two outgoing edges, and a hot set of
+ * starting vertices is used so that queries in the same batch often share a traversal.
+ */
+public class QueryServiceLoad {
+  public static void main(String[] args) throws Exception {
+    int vertices = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+    int queries = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+    int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 1_000;
+
+    Random random = new Random(42);
+    SnapshotGraph graph = new SnapshotGraph();
+    for (int i = 0; i < vertices; i++) graph.addVertex(random.nextInt(1000));
+    for (int i = 0; i < vertices; i++) {
+      graph.addEdge(i, random.nextInt(vertices));
+      graph.addEdge(i, random.nextInt(vertices));
+    }
+    SnapshotGraph.Snapshot snapshot = graph.snapshot();
+    int[] hot = new int[64];
+    for (int i = 0; i < hot.length; i++) hot[i] = random.nextInt(vertices);
+
+    long[] latencies = new long[queries];
+    Semaphore inFlight = new Semaphore(concurrency);
+    CountDownLatch finished = new CountDownLatch(queries);
+    Duration timeout = Duration.ofSeconds(30);
+    int[] failures = new int[1];
+
+    try (QueryService service = new QueryService()) {
+      long begin = System.nanoTime();
+      for (int i = 0; i < queries; i++) {
+        inFlight.acquire();
+        int query = i;
+        int start = hot[random.nextInt(hot.length)];
+        long issued = System.nanoTime();
+        CompletableFuture<?> future;
+        switch (i % 3) {
+          case 0: future = service.oddVertices(snapshot, start, timeout); break;
+          case 1: future = service.sortedReachable(snapshot, start, timeout); break;
+          default: future = service.twoWay(snapshot, start, hot[random.nextInt(hot.length)], timeout); break;
+        }
+        future.whenComplete((result, failure) -> {
+          latencies[query] = System.nanoTime() - issued;
+          if (failure != null) {
+            synchronized (failures) {
+              failures[0]++;
+            }
+          }
+          inFlight.release();
+          finished.countDown();
+        });
+      }
+      finished.await();
+      long elapsed = System.nanoTime() - begin;
+
+      Arrays.sort(latencies);
+      System.out.printf("vertices=%d queries=%d concurrency=%d failures=%d%n", vertices, queries, concurrency, failures[0]);
+      System.out.printf("throughput=%.0f queries/s%n", queries / (elapsed / 1e9));
+      System.out.printf("p50=%.3f ms p99=%.3f ms max=%.3f ms%n",
+          percentile(latencies, 0.50) / 1e6, percentile(latencies, 0.99) / 1e6, latencies[queries - 1] / 1e6);
+    }
+  }
+
+  private static long percentile(long[] sorted, double fraction) {
+    int index = (int) Math.ceil(fraction * sorted.length) - 1;
+    return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+  }
+}
@@ -0,0 +1,173 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class QueryServiceTest {
+  private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+  private SnapshotGraph.Snapshot randomSnapshot(int vertices, long seed) {
+    Random random = new Random(seed);
+    SnapshotGraph graph = new SnapshotGraph();
+    for (int i = 0; i < vertices; i++) graph.addVertex(random.nextInt(50));
+    for (int i = 0; i < vertices; i++) graph.addEdge(i, random.nextInt(vertices));
+    return graph.snapshot();
+  }
+
+  /**
+   * Test that batched answers match the snapshot's own queries.
+   */
+  @Test
+  public void testBatchedAnswersMatchSnapshot() throws Exception {
+    SnapshotGraph.Snapshot snapshot = randomSnapshot(300, 1);
+    try (QueryService service = new QueryService(64, Duration.ofMillis(5))) {
+      List<CompletableFuture<Integer>> odd = new ArrayList<>();
+      List<CompletableFuture<List<Integer>>> sorted = new ArrayList<>();
+      List<CompletableFuture<Boolean>> twoWay = new ArrayList<>();
+      for (int i = 0; i < 50; i++) {
+        odd.add(service.oddVertices(snapshot, i % 10, TIMEOUT));
+        sorted.add(service.sortedReachable(snapshot, i % 10, TIMEOUT));
+        twoWay.add(service.twoWay(snapshot, i % 10, (i * 7) % 10, TIMEOUT));
+      }
+
+      for (int i = 0; i < 50; i++) {
+        assertEquals(snapshot.oddVertices(i % 10), odd.get(i).get());
+        assertEquals(snapshot.sortedReachable(i % 10), sorted.get(i).get());
+        assertEquals(snapshot.twoWay(i % 10, (i * 7) % 10), twoWay.get(i).get());
+      }
+    }
+  }
+
+  /**
+   * Test that the Practice pass-through queries complete.
+   */
+  @Test
+  public void testPracticeQueries() throws Exception {
+    Vertex<Integer> v5 = new Vertex<>(5);
+    Vertex<Integer> v8 = new Vertex<>(8);
+    v5.neighbors.add(v8);
+    Map<Integer, Set<Integer>> graph = new HashMap<>();
+    graph.put(1, new HashSet<>(Arrays.asList(2)));
+    graph.put(2, new HashSet<>());
+
+    try (QueryService service = new QueryService()) {
+      assertEquals(1, service.oddVertices(v5, TIMEOUT).get());
+      assertEquals(Arrays.asList(5, 8), service.sortedReachable(v5, TIMEOUT).get());
+      assertEquals(Arrays.asList(1, 2), service.sortedReachable(graph, 1, TIMEOUT).get());
+      assertTrue(service.positivePathExists(graph, 1, 2, TIMEOUT).get());
+      assertFalse(service.twoWay(v5, v8, TIMEOUT).get());
+    }
+  }
+
+  /**
+   * Test that an expired deadline fails the future with a TimeoutException.
+   */
+  @Test
+  public void testDeadline() {
+    SnapshotGraph.Snapshot snapshot = randomSnapshot(10, 2);
+    try (QueryService service = new QueryService(16, Duration.ofMillis(200))) {
+      CompletableFuture<Integer> future = service.oddVertices(snapshot, 0, Duration.ofNanos(1));
+      ExecutionException e = assertThrows(ExecutionException.class, future::get);
+      assertTrue(e.getCause() instanceof TimeoutException);
+    }
+  }
+
+  /**
+   * Test that a Practice query past its deadline stops traversing instead of running on unobserved.
+   */
+  @Test
+  public void testPracticeDeadlineStopsTraversal() throws Exception {
+    AtomicInteger expanded = new AtomicInteger();
+    Professional person = new SlowProfessional(expanded, null);
+    for (int i = 0; i < 5_000; i++) person = new SlowProfessional(expanded, person);
+
+    try (QueryService service = new QueryService()) {
+      CompletableFuture<Boolean> future = service.hasExtendedConnectionAtCompany(person, "Nowhere", Duration.ofMillis(20));
+      ExecutionException e = assertThrows(ExecutionException.class, future::get);
+      assertTrue(e.getCause() instanceof TimeoutException);
+
+      int seen;
+      do {
+        seen = expanded.get();
+        Thread.sleep(50);
+      } while (expanded.get() != seen);
+      assertTrue(seen < 5_000, "traversal ran on to " + seen + " vertices");
+    }
+  }
+
+  /**
+   * A professional whose connections take a millisecond to look up, counting each lookup.
+   */
+  private static final class SlowProfessional extends Professional {
+    private final AtomicInteger lookups;
+
+    SlowProfessional(AtomicInteger lookups, Professional next) {
+      super("P", "Acme", 1, next == null ? Set.of() : Set.of(next));
+      this.lookups = lookups;
+    }
+
+    @Override
+    public Set<Professional> getConnections() {
+      lookups.incrementAndGet();
+      try {
+        Thread.sleep(1);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return super.getConnections();
+    }
+  }
+
+  /**
+   * Test that unknown vertex ids and a closed service fail immediately.
+   */
+  @Test
+  public void testInvalidRequests() {
+    SnapshotGraph.Snapshot snapshot = randomSnapshot(10, 3);
+    QueryService service = new QueryService();
+    assertTrue(service.twoWay(snapshot, 0, 10, TIMEOUT).isCompletedExceptionally());
+    service.close();
+    assertTrue(service.oddVertices(snapshot, 0, TIMEOUT).isCompletedExceptionally());
+  }
+
+  /**
+   * Test that closing the service while batches are still arriving leaves no future unfinished.
+   */
+  @Test
+  public void testCloseWhileBatching() throws Exception {
+    SnapshotGraph.Snapshot snapshot = randomSnapshot(2000, 4);
+    Duration patient = Duration.ofMinutes(5);
+    for (int attempt = 0; attempt < 20; attempt++) {
+      QueryService service = new QueryService(8, Duration.ofMillis(1));
+      List<CompletableFuture<?>> futures = Collections.synchronizedList(new ArrayList<>());
+      CountDownLatch started = new CountDownLatch(2);
+      List<Thread> callers = new ArrayList<>();
+      for (int t = 0; t < 2; t++) {
+        int offset = t;
+        Thread caller = new Thread(() -> {
+          started.countDown();
+          for (int i = 0; i < 2000; i++) {
+            futures.add(service.sortedReachable(snapshot, (i * 31 + offset) % 2000, patient));
+            futures.add(service.oddVertices(snapshot, i % 2000, patient));
+          }
+        });
+        caller.start();
+        callers.add(caller);
+      }
+      started.await();
+      Thread.sleep(attempt % 4);
+      service.close();
+      for (Thread caller : callers) caller.join();
+
+      for (CompletableFuture<?> future : futures) {
+        try {
+          future.get(10, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+          assertTrue(e.getCause() instanceof IllegalStateException, e.getCause().toString());
+        }
+      }
+    }
+  }
+}
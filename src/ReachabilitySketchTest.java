@@ -0,0 +1,68 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+public class ReachabilitySketchTest {
+
+  private FrozenGraph.Handle<Integer> randomGraph(int vertices, int edges, long seed) {
+    Random random = new Random(seed);
+    List<Vertex<Integer>> all = new ArrayList<>();
+    for (int i = 0; i < vertices; i++) all.add(new Vertex<>(random.nextInt(100) - 20));
+    for (int i = 0; i < edges; i++) {
+      all.get(random.nextInt(vertices)).neighbors.add(all.get(random.nextInt(vertices)));
+    }
+    return FrozenGraph.freeze(all);
+  }
+
+  /**
+   * Test that every vertex's estimates are within four standard errors of the exact counts.
+   */
+  @Test
+  public void testEstimatesWithinErrorBound() {
+    FrozenGraph.Handle<Integer> handle = randomGraph(3000, 3600, 21);
+    FrozenGraph<Integer> graph = handle.graph();
+    ReachabilitySketch sketch = ReachabilitySketch.build(graph, 12);
+    double bound = 4 * sketch.relativeStandardError();
+
+    for (int v = 0; v < graph.vertexCount(); v++) {
+      int reachable = Practice.sortedReachable(graph, v).size();
+      int odd = Practice.oddVertices(graph, v);
+      assertEquals(reachable, sketch.reachableCount(v), bound * reachable + 1, "reachable from " + v);
+      assertEquals(odd, sketch.oddCount(v), bound * odd + 1, "odd from " + v);
+    }
+  }
+
+  /**
+   * Test that small reachable sets are counted exactly.
+   */
+  @Test
+  public void testSmallGraphExact() {
+    Vertex<Integer> v1 = new Vertex<>(5);
+    Vertex<Integer> v2 = new Vertex<>(8);
+    Vertex<Integer> v3 = new Vertex<>(8);
+    Vertex<Integer> v4 = new Vertex<>(2);
+    Vertex<Integer> v5 = new Vertex<>(4);
+    v1.neighbors.add(v2);
+    v1.neighbors.add(v3);
+    v2.neighbors.add(v4);
+    v3.neighbors.add(v4);
+    v5.neighbors.add(v4);
+    v4.neighbors.add(v1);
+
+    FrozenGraph.Handle<Integer> handle = FrozenGraph.freeze(List.of(v1, v5));
+    ReachabilitySketch sketch = ReachabilitySketch.build(handle.graph(), ReachabilitySketch.DEFAULT_PRECISION);
+    assertEquals(4, sketch.reachableCount(handle.ordinalOf(v1)));
+    assertEquals(5, sketch.reachableCount(handle.ordinalOf(v5)));
+    assertEquals(1, sketch.oddCount(handle.ordinalOf(v2)));
+  }
+
+  /**
+   * Test that a precision outside the supported range is rejected.
+   */
+  @Test
+  public void testBadPrecision() {
+    FrozenGraph<Integer> graph = randomGraph(10, 10, 1).graph();
+    assertThrows(IllegalArgumentException.class, () -> ReachabilitySketch.build(graph, 3));
+    assertThrows(IllegalArgumentException.class, () -> ReachabilitySketch.build(graph, 17));
+  }
+}
@@ -0,0 +1,64 @@
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Carries PartitionedTraversal's requests to the shards of a PartitionedGraph, wherever they run, and
+ * their answers back.
+ *
+ * Every shard is asked the same thing at once and answers independently, so a transport is free to run
+ * the shards in parallel. InProcessTransport runs them on a ForkJoinPool in this JVM, and ProcessTransport
+ * runs each in a child JVM of its own. A transport carries one traversal at a time.
+ */
+public interface ShardTransport extends Closeable {
+
+  /**
+   * Returns the number of shards.
+   *
+   * @return the number of shards
+   */
+  int shardCount();
+
+  /**
+   * Returns the shard that owns a vertex id.
+   *
+   * @param id a vertex id
+   * @return the index of the owning shard
+   */
+  int shardOf(int id);
+
+  /**
+   * Returns true if the id is a key of the partitioned map graph.
+   *
+   * @param id a vertex id
+   * @return whether the owning shard has the id as a key
+   * @throws IOException if the shard cannot be reached
+   */
+  boolean containsKey(int id) throws IOException;
+
+  /**
+   * Clears every shard's traversal state and starts a new traversal.
+   *
+   * @param target the id whose discovery ends the traversal, or a negative number to visit everything reachable
+   * @param positiveOnly whether negative ids are visited without being passed through
+   * @throws IOException if a shard cannot be reached
+   */
+  void begin(int target, boolean positiveOnly) throws IOException;
+
+  /**
+   * Runs one superstep on every shard. Each shard visits the ids delivered to it and everything it reaches
+   * from them without leaving the shard, and reports the ids it found in other shards.
+   *
+   * @param inboxes the ids delivered to each shard, indexed by shard
+   * @return the ids each shard found in every other shard, as outboxes[from][to], or null if a shard found the target
+   * @throws IOException if a shard cannot be reached
+   */
+  int[][][] superstep(int[][] inboxes) throws IOException;
+
+  /**
+   * Returns the ids visited in the current traversal by every shard, in no particular order.
+   *
+   * @return the visited ids
+   * @throws IOException if a shard cannot be reached
+   */
+  int[] visitedIds() throws IOException;
+}
@@ -0,0 +1,251 @@
+import java.util.*;
+import java.util.function.IntPredicate;
+
+/**
+ * A graph of integer-valued vertices that can be read from many threads while another thread changes it.
+ *
+ * Vertices are numbered 0..size-1 in the order they are added. Every change publishes a new immutable
+ * Snapshot, and readers traverse whichever Snapshot they picked up without taking any locks, so a reader
+ * always sees the graph exactly as it was at one version.
+ *
+ * Snapshots share everything that did not change. Adjacency arrays are kept in chunks of vertices, so an
+ * edge change copies the outer chunk table, the one chunk holding the edge's source and that vertex's
+ * neighbor array, rather than the whole graph. Writers are serialized with each other.
+ */
+public class SnapshotGraph {
+  private static final int CHUNK_BITS = 10;
+  private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+  private static final int[] NO_NEIGHBORS = new int[0];
+
+  private volatile Snapshot current = new Snapshot(new int[0][], new int[0][][], 0, 0);
+
+  /**
+   * Returns the latest published snapshot.
+   *
+   * @return the current snapshot
+   */
+  public Snapshot snapshot() {
+    return current;
+  }
+
+  /**
+   * Adds a vertex with the given value and returns its id.
+   *
+   * @param value the value stored at the new vertex
+   * @return the id of the new vertex
+   */
+  public synchronized int addVertex(int value) {
+    Snapshot old = current;
+    int id = old.size;
+    int chunk = id >>> CHUNK_BITS;
+
+    int[][] values = old.values;
+    int[][][] adjacency = old.adjacency;
+    if (chunk == values.length) {
+      values = Arrays.copyOf(values, chunk + 1);
+      adjacency = Arrays.copyOf(adjacency, chunk + 1);
+      values[chunk] = new int[CHUNK_SIZE];
+      adjacency[chunk] = new int[CHUNK_SIZE][];
+      Arrays.fill(adjacency[chunk], NO_NEIGHBORS);
+    } else {
+      values = values.clone();
+      adjacency = adjacency.clone();
+      values[chunk] = values[chunk].clone();
+      adjacency[chunk] = adjacency[chunk].clone();
+    }
+
+    values[chunk][id & CHUNK_MASK] = value;
+    current = new Snapshot(values, adjacency, id + 1, old.version + 1);
+    return id;
+  }
+
+  /**
+   * Adds an edge from one vertex to another.
+   *
+   * @param from the id of the vertex the edge leaves
+   * @param to the id of the vertex the edge enters
+   */
+  public synchronized void addEdge(int from, int to) {
+    Snapshot old = current;
+    old.checkVertex(from);
+    old.checkVertex(to);
+
+    int[] neighbors = old.neighbors(from);
+    int[] updated = Arrays.copyOf(neighbors, neighbors.length + 1);
+    updated[neighbors.length] = to;
+    publish(old, from, updated);
+  }
+
+  /**
+   * Removes one edge from one vertex to another. If there is no such edge, nothing changes.
+   *
+   * @param from the id of the vertex the edge leaves
+   * @param to the id of the vertex the edge enters
+   * @return true if an edge was removed
+   */
+  public synchronized boolean removeEdge(int from, int to) {
+    Snapshot old = current;
+    old.checkVertex(from);
+
+    int[] neighbors = old.neighbors(from);
+    for (int i = 0; i < neighbors.length; i++) {
+      if (neighbors[i] != to) continue;
+
+      int[] updated = new int[neighbors.length - 1];
+      System.arraycopy(neighbors, 0, updated, 0, i);
+      System.arraycopy(neighbors, i + 1, updated, i, neighbors.length - i - 1);
+      publish(old, from, updated);
+      return true;
+    }
+
+    return false;
+  }
+
+  private void publish(Snapshot old, int vertex, int[] neighbors) {
+    int chunk = vertex >>> CHUNK_BITS;
+    int[][][] adjacency = old.adjacency.clone();
+    adjacency[chunk] = adjacency[chunk].clone();
+    adjacency[chunk][vertex & CHUNK_MASK] = neighbors;
+    current = new Snapshot(old.values, adjacency, old.size, old.version + 1);
+  }
+
+  /**
+   * An immutable view of the graph at one version. Safe to share between threads.
+   */
+  public static final class Snapshot implements Graph {
+    private final int[][] values;
+    private final int[][][] adjacency;
+    private final int size;
+    private final long version;
+
+    private Snapshot(int[][] values, int[][][] adjacency, int size, long version) {
+      this.values = values;
+      this.adjacency = adjacency;
+      this.size = size;
+      this.version = version;
+    }
+
+    private void checkVertex(int vertex) {
+      if (vertex < 0 || vertex >= size) throw new IndexOutOfBoundsException("No vertex " + vertex + " in graph of size " + size);
+    }
+
+    /**
+     * Returns the number of changes made to the graph before this snapshot was published.
+     *
+     * @return the version of this snapshot
+     */
+    public long version() {
+      return version;
+    }
+
+    /**
+     * Returns the number of vertices in this snapshot.
+     *
+     * @return the number of vertices
+     */
+    public int size() {
+      return size;
+    }
+
+    /**
+     * Returns the value stored at the given vertex.
+     *
+     * @param vertex the id of the vertex
+     * @return the value of the vertex
+     */
+    public int value(int vertex) {
+      checkVertex(vertex);
+      return values[vertex >>> CHUNK_BITS][vertex & CHUNK_MASK];
+    }
+
+    /**
+     * Returns the ids of the direct neighbors of the given vertex.
+     * The array is shared with the snapshot and must not be modified.
+     *
+     * @param vertex the id of the vertex
+     * @return the neighbor ids, in the order their edges were added
+     */
+    public int[] neighbors(int vertex) {
+      checkVertex(vertex);
+      return adjacency[vertex >>> CHUNK_BITS][vertex & CHUNK_MASK];
+    }
+
+    @Override
+    public boolean forEachNeighbor(int vertex, IntPredicate action) {
+      for (int neighbor : neighbors(vertex)) {
+        if (!action.test(neighbor)) return false;
+      }
+      return true;
+    }
+
+    /**
+     * Returns the count of vertices with odd values reachable from the starting vertex,
+     * with the same meaning as Practice.oddVertices.
+     *
+     * @param starting the id of the starting vertex
+     * @return the number of reachable vertices with odd values
+     */
+    public int oddVertices(int starting) {
+      int total = 0;
+      for (int vertex : reachable(starting)) {
+        if (value(vertex) % 2 == 1) total++;
+      }
+      return total;
+    }
+
+    /**
+     * Returns a sorted list of all values reachable from the starting vertex,
+     * with the same meaning as Practice.sortedReachable.
+     *
+     * @param starting the id of the starting vertex
+     * @return a sorted list of all reachable vertex values
+     */
+    public List<Integer> sortedReachable(int starting) {
+      int[] reachable = reachable(starting);
+      int[] sorted = new int[reachable.length];
+      for (int i = 0; i < reachable.length; i++) sorted[i] = value(reachable[i]);
+      Arrays.sort(sorted);
+
+      List<Integer> result = new ArrayList<>(sorted.length);
+      for (int value : sorted) result.add(value);
+      return result;
+    }
+
+    /**
+     * Returns true if each of the two vertices can reach the other, with the same meaning as Practice.twoWay.
+     *
+     * @param v1 the id of the first vertex
+     * @param v2 the id of the second vertex
+     * @return true if there is a two-way connection between v1 and v2
+     */
+    public boolean twoWay(int v1, int v2) {
+      return reaches(v1, v2) && reaches(v2, v1);
+    }
+
+    /**
+     * Returns true if the target can be reached from the starting vertex.
+     * A vertex is always considered reachable from itself.
+     *
+     * @param starting the id of the starting vertex
+     * @param target the id of the target vertex
+     * @return whether target is reachable from starting
+     */
+    public boolean reaches(int starting, int target) {
+      checkVertex(starting);
+      checkVertex(target);
+      return GraphTraversal.reaches(this, starting, target);
+    }
+
+    /**
+     * Returns the ids of every vertex reachable from the starting vertex, including itself.
+     *
+     * @param starting the id of the starting vertex
+     * @return the reachable vertex ids, in breadth-first order
+     */
+    public int[] reachable(int starting) {
+      checkVertex(starting);
+      return GraphTraversal.reachable(this, starting);
+    }
+  }
+}
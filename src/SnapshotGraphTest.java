@@ -0,0 +1,110 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class SnapshotGraphTest {
+
+  /**
+   * Test the snapshot queries against the Vertex-based Practice queries on the same graph:
+   *   5 --> 8a --> 2
+   *   |
+   *   v
+   *   8b
+   */
+  @Test
+  public void testQueriesMatchPractice() {
+    SnapshotGraph graph = new SnapshotGraph();
+    int v5 = graph.addVertex(5);
+    int v8a = graph.addVertex(8);
+    int v8b = graph.addVertex(8);
+    int v2 = graph.addVertex(2);
+    graph.addEdge(v5, v8a);
+    graph.addEdge(v5, v8b);
+    graph.addEdge(v8a, v2);
+
+    SnapshotGraph.Snapshot snapshot = graph.snapshot();
+    assertEquals(Arrays.asList(2, 5, 8, 8), snapshot.sortedReachable(v5));
+    assertEquals(1, snapshot.oddVertices(v5));
+    assertFalse(snapshot.twoWay(v5, v2));
+    assertTrue(snapshot.twoWay(v2, v2));
+
+    graph.addEdge(v2, v5);
+    assertFalse(snapshot.twoWay(v5, v2));
+    assertTrue(graph.snapshot().twoWay(v5, v2));
+  }
+
+  /**
+   * Test that old snapshots are unaffected by later changes.
+   */
+  @Test
+  public void testSnapshotsAreIsolated() {
+    SnapshotGraph graph = new SnapshotGraph();
+    int a = graph.addVertex(1);
+    int b = graph.addVertex(3);
+    graph.addEdge(a, b);
+    SnapshotGraph.Snapshot before = graph.snapshot();
+
+    assertTrue(graph.removeEdge(a, b));
+    int c = graph.addVertex(5);
+    graph.addEdge(a, c);
+
+    assertEquals(2, before.size());
+    assertArrayEquals(new int[] {b}, before.neighbors(a));
+    assertEquals(2, before.oddVertices(a));
+    assertArrayEquals(new int[] {c}, graph.snapshot().neighbors(a));
+    assertEquals(before.version() + 3, graph.snapshot().version());
+  }
+
+  /**
+   * Test that vertices past the first chunk are stored and read correctly.
+   */
+  @Test
+  public void testManyVertices() {
+    SnapshotGraph graph = new SnapshotGraph();
+    int count = 5000;
+    for (int i = 0; i < count; i++) graph.addVertex(i);
+    for (int i = 0; i + 1 < count; i++) graph.addEdge(i, i + 1);
+
+    SnapshotGraph.Snapshot snapshot = graph.snapshot();
+    assertEquals(count, snapshot.reachable(0).length);
+    assertEquals(count / 2, snapshot.oddVertices(0));
+    assertEquals(4999, snapshot.value(4999));
+    assertThrows(IndexOutOfBoundsException.class, () -> snapshot.value(count));
+  }
+
+  /**
+   * Test that readers always see a consistent chain while a writer keeps extending it.
+   * Every odd version follows an edge, so the chain from 0 then has exactly size() vertices.
+   */
+  @Test
+  public void testConcurrentReadersSeeConsistentSnapshots() throws Exception {
+    SnapshotGraph graph = new SnapshotGraph();
+    graph.addVertex(0);
+    AtomicBoolean done = new AtomicBoolean();
+    ExecutorService readers = Executors.newFixedThreadPool(4);
+    List<Future<Integer>> results = new ArrayList<>();
+
+    for (int r = 0; r < 4; r++) {
+      results.add(readers.submit(() -> {
+        int checked = 0;
+        while (!done.get()) {
+          SnapshotGraph.Snapshot snapshot = graph.snapshot();
+          if (snapshot.version() % 2 == 1 && snapshot.reachable(0).length != snapshot.size()) return -1;
+          checked++;
+        }
+        return checked;
+      }));
+    }
+
+    for (int i = 1; i < 3000; i++) {
+      int vertex = graph.addVertex(i);
+      graph.addEdge(vertex - 1, vertex);
+    }
+    done.set(true);
+
+    for (Future<Integer> result : results) assertTrue(result.get() >= 0);
+    readers.shutdown();
+  }
+}
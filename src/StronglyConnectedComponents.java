@@ -0,0 +1,84 @@
+import java.util.Arrays;
+
+/**
+ * Finds the strongly connected components of a Graph whose vertex ids are 0..n-1.
+ *
+ * Two vertices are in the same component exactly when each can reach the other, which is the
+ * question Practice.twoWay answers, so once components are known twoWay is a single comparison.
+ * Tarjan's algorithm is run with an explicit stack, so deep graphs cannot overflow the call stack.
+ */
+public final class StronglyConnectedComponents {
+  private StronglyConnectedComponents() {
+  }
+
+  /**
+   * Returns the component of every vertex. Components are numbered 0..k-1 in reverse topological
+   * order: every edge between two components goes from a higher number to a lower one.
+   *
+   * @param graph the graph to split into components
+   * @param vertexCount the number of vertices, whose ids are 0..vertexCount-1
+   * @return the component number of each vertex
+   */
+  public static int[] compute(Graph graph, int vertexCount) {
+    // Flat arrays let a vertex's edges be resumed part-way through.
+    int[][] adjacency = GraphTraversal.adjacency(graph, vertexCount);
+    int[] offsets = adjacency[0];
+    int[] targets = adjacency[1];
+
+    int[] component = new int[vertexCount];
+    int[] index = new int[vertexCount];
+    int[] low = new int[vertexCount];
+    int[] edge = new int[vertexCount];
+    boolean[] onStack = new boolean[vertexCount];
+    int[] stack = new int[vertexCount];
+    int[] calls = new int[vertexCount];
+    Arrays.fill(index, -1);
+    int nextIndex = 0;
+    int components = 0;
+    int top = 0;
+
+    for (int root = 0; root < vertexCount; root++) {
+      if (index[root] >= 0) continue;
+      int depth = 0;
+      calls[depth++] = root;
+      index[root] = low[root] = nextIndex++;
+      edge[root] = offsets[root];
+      stack[top++] = root;
+      onStack[root] = true;
+
+      while (depth > 0) {
+        int v = calls[depth - 1];
+        if (edge[v] < offsets[v + 1]) {
+          int w = targets[edge[v]++];
+          if (index[w] < 0) {
+            index[w] = low[w] = nextIndex++;
+            edge[w] = offsets[w];
+            stack[top++] = w;
+            onStack[w] = true;
+            calls[depth++] = w;
+          } else if (onStack[w]) {
+            low[v] = Math.min(low[v], index[w]);
+          }
+          continue;
+        }
+
+        depth--;
+        if (depth > 0) {
+          int parent = calls[depth - 1];
+          low[parent] = Math.min(low[parent], low[v]);
+        }
+        if (low[v] == index[v]) {
+          int w;
+          do {
+            w = stack[--top];
+            onStack[w] = false;
+            component[w] = components;
+          } while (w != v);
+          components++;
+        }
+      }
+    }
+
+    return component;
+  }
+}
@@ -0,0 +1,153 @@
+import java.util.Arrays;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * Cycle detection and topological ordering for a Graph whose vertex ids are 0..n-1.
+ *
+ * hasCycle is an iterative depth-first search, so deep graphs cannot overflow the call stack.
+ * order is Kahn's algorithm run in parallel: every vertex has an atomic count of its unprocessed
+ * predecessors, and whichever thread brings a count to zero takes the vertex on. Ready vertices sit
+ * in per-task batches on a ForkJoinPool, and a task with more than it needs hands half of them to a
+ * new task that an idle worker can steal. The graph must be safe to read from several threads at once,
+ * as the immutable graph forms are.
+ */
+public final class TopologicalSort {
+  private static final int BATCH = 256;
+
+  private TopologicalSort() {
+  }
+
+  /**
+   * Returns true if the graph contains a cycle, including a vertex with an edge to itself.
+   *
+   * @param graph the graph to check
+   * @param vertexCount the number of vertices, whose ids are 0..vertexCount-1
+   * @return whether any vertex can reach itself through one or more edges
+   */
+  public static boolean hasCycle(Graph graph, int vertexCount) {
+    int[][] adjacency = GraphTraversal.adjacency(graph, vertexCount);
+    int[] offsets = adjacency[0];
+    int[] targets = adjacency[1];
+
+    // 0 = not seen, 1 = on the current path, 2 = finished.
+    byte[] state = new byte[vertexCount];
+    int[] edge = new int[vertexCount];
+    int[] path = new int[vertexCount];
+
+    for (int root = 0; root < vertexCount; root++) {
+      if (state[root] != 0) continue;
+      int depth = 0;
+      path[depth++] = root;
+      state[root] = 1;
+      edge[root] = offsets[root];
+
+      while (depth > 0) {
+        int v = path[depth - 1];
+        if (edge[v] == offsets[v + 1]) {
+          state[v] = 2;
+          depth--;
+          continue;
+        }
+
+        int w = targets[edge[v]++];
+        if (state[w] == 1) return true;
+        if (state[w] == 0) {
+          state[w] = 1;
+          edge[w] = offsets[w];
+          path[depth++] = w;
+        }
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Returns the vertices in an order where every edge goes from an earlier vertex to a later one,
+   * or null if the graph has a cycle and no such order exists. When several orders are possible,
+   * which one is returned may differ between runs.
+   *
+   * @param graph the graph to sort
+   * @param vertexCount the number of vertices, whose ids are 0..vertexCount-1
+   * @return the vertex ids in topological order, or null if there is a cycle
+   */
+  public static int[] order(Graph graph, int vertexCount) {
+    return order(graph, vertexCount, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Returns the vertices in topological order as order(graph, vertexCount) does, running on the given pool.
+   *
+   * @param graph the graph to sort
+   * @param vertexCount the number of vertices, whose ids are 0..vertexCount-1
+   * @param pool the pool to run on
+   * @return the vertex ids in topological order, or null if there is a cycle
+   */
+  public static int[] order(Graph graph, int vertexCount, ForkJoinPool pool) {
+    AtomicIntegerArray inDegree = new AtomicIntegerArray(vertexCount);
+    pool.submit(() -> IntStream.range(0, vertexCount).parallel().forEach(v -> graph.forEachNeighbor(v, neighbor -> {
+      inDegree.incrementAndGet(neighbor);
+      return true;
+    }))).join();
+
+    // Submitted like the count above, so the scan runs on the given pool rather than the common pool.
+    int[] sources = pool.submit(() -> IntStream.range(0, vertexCount).parallel().filter(v -> inDegree.get(v) == 0).toArray())
+        .join();
+    int[] order = new int[vertexCount];
+    AtomicInteger placed = new AtomicInteger();
+    pool.invoke(new Batch(null, graph, inDegree, order, placed, sources, sources.length));
+
+    return placed.get() == vertexCount ? order : null;
+  }
+
+  /**
+   * Places a batch of ready vertices and any vertices they make ready, splitting off work as it grows.
+   */
+  private static final class Batch extends CountedCompleter<Void> {
+    private static final long serialVersionUID = 1L;
+    private final transient Graph graph;
+    private final AtomicIntegerArray inDegree;
+    private final int[] order;
+    private final AtomicInteger placed;
+    private int[] ready;
+    private int size;
+
+    Batch(Batch parent, Graph graph, AtomicIntegerArray inDegree, int[] order, AtomicInteger placed, int[] ready, int size) {
+      super(parent);
+      this.graph = graph;
+      this.inDegree = inDegree;
+      this.order = order;
+      this.placed = placed;
+      this.ready = ready;
+      this.size = size;
+    }
+
+    @Override
+    public void compute() {
+      while (size > 0) {
+        if (size > 2 * BATCH) {
+          int half = size / 2;
+          addToPendingCount(1);
+          new Batch(this, graph, inDegree, order, placed, Arrays.copyOfRange(ready, size - half, size), half).fork();
+          size -= half;
+        }
+
+        int v = ready[--size];
+        // A vertex is placed before any successor can be released, so successors always land later.
+        order[placed.getAndIncrement()] = v;
+        graph.forEachNeighbor(v, neighbor -> {
+          if (inDegree.decrementAndGet(neighbor) == 0) {
+            if (size == ready.length) ready = Arrays.copyOf(ready, Math.max(16, size * 2));
+            ready[size++] = neighbor;
+          }
+          return true;
+        });
+      }
+      tryComplete();
+    }
+  }
+}
@@ -0,0 +1,113 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+public class TopologicalSortTest {
+
+  private CsrGraph randomDag(int vertices, int edges, long seed) {
+    Random random = new Random(seed);
+    Map<Integer, Set<Integer>> graph = new HashMap<>();
+    for (int i = 0; i < vertices; i++) graph.put(i, new HashSet<>());
+    for (int i = 0; i < edges; i++) {
+      int a = random.nextInt(vertices);
+      int b = random.nextInt(vertices);
+      if (a != b) graph.get(Math.min(a, b)).add(Math.max(a, b));
+    }
+    return CsrGraph.fromMap(graph);
+  }
+
+  private void assertTopological(CsrGraph graph, int[] order) {
+    assertNotNull(order);
+    assertEquals(graph.vertexCount(), order.length);
+    int[] position = new int[order.length];
+    Arrays.fill(position, -1);
+    for (int i = 0; i < order.length; i++) {
+      assertEquals(-1, position[order[i]], "vertex placed twice");
+      position[order[i]] = i;
+    }
+    for (int v = 0; v < graph.vertexCount(); v++) {
+      int from = position[v];
+      graph.forEachNeighbor(v, neighbor -> {
+        assertTrue(from < position[neighbor]);
+        return true;
+      });
+    }
+  }
+
+  /**
+   * Test that a DAG is sorted correctly when the work is split across several threads.
+   */
+  @Test
+  public void testParallelOrder() {
+    CsrGraph graph = randomDag(20_000, 60_000, 3);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      assertTopological(graph, TopologicalSort.order(graph, graph.vertexCount(), pool));
+    } finally {
+      pool.shutdown();
+    }
+    assertTopological(graph, TopologicalSort.order(graph, graph.vertexCount()));
+    assertFalse(TopologicalSort.hasCycle(graph, graph.vertexCount()));
+  }
+
+  /**
+   * Test that a single back edge is found and makes sorting impossible.
+   */
+  @Test
+  public void testCycle() {
+    Map<Integer, Set<Integer>> map = new HashMap<>();
+    for (int i = 0; i < 1000; i++) map.put(i, new HashSet<>(i + 1 < 1000 ? Set.of(i + 1) : Set.of()));
+    assertFalse(TopologicalSort.hasCycle(CsrGraph.fromMap(map), 1000));
+
+    map.get(999).add(500);
+    CsrGraph cyclic = CsrGraph.fromMap(map);
+    assertTrue(TopologicalSort.hasCycle(cyclic, 1000));
+    assertNull(TopologicalSort.order(cyclic, 1000));
+  }
+
+  /**
+   * Test that a self loop counts as a cycle.
+   */
+  @Test
+  public void testSelfLoop() {
+    CsrGraph graph = CsrGraph.fromMap(Map.of(0, Set.of(1), 1, Set.of(1)));
+    assertTrue(TopologicalSort.hasCycle(graph, 2));
+    assertNull(TopologicalSort.order(graph, 2));
+  }
+
+  /**
+   * Test the Vertex entry points in Practice, including a chain deep enough to overflow a recursive search.
+   */
+  @Test
+  public void testPracticeVertexGraphs() {
+    Vertex<Integer> v5 = new Vertex<>(5);
+    Vertex<Integer> v8 = new Vertex<>(8);
+    Vertex<Integer> v2 = new Vertex<>(2);
+    Vertex<Integer> v4 = new Vertex<>(4);
+    v5.neighbors.add(v8);
+    v8.neighbors.add(v2);
+    v4.neighbors.add(v2);
+
+    assertFalse(Practice.hasCycle(List.of(v5, v4)));
+    List<Vertex<Integer>> order = Practice.topologicalOrder(List.of(v5, v4));
+    assertEquals(4, order.size());
+    assertTrue(order.indexOf(v5) < order.indexOf(v8));
+    assertTrue(order.indexOf(v8) < order.indexOf(v2));
+    assertTrue(order.indexOf(v4) < order.indexOf(v2));
+
+    v2.neighbors.add(v5);
+    assertTrue(Practice.hasCycle(List.of(v4)));
+    assertThrows(IllegalArgumentException.class, () -> Practice.topologicalOrder(List.of(v4)));
+
+    Vertex<Integer> head = new Vertex<>(0);
+    Vertex<Integer> tail = head;
+    for (int i = 1; i < 100_000; i++) {
+      Vertex<Integer> next = new Vertex<>(i);
+      tail.neighbors.add(next);
+      tail = next;
+    }
+    assertFalse(Practice.hasCycle(List.of(head)));
+    assertEquals(99_999, Practice.topologicalOrder(List.of(head)).get(99_999).data);
+  }
+}
@@ -0,0 +1,25 @@
+/**
+ * Receives events from the traversal kernels in GraphTraversal once installed with TraversalStats.setListener.
+ *
+ * Both methods run on the thread doing the traversal, inside it, so they should be quick. Every method
+ * has an empty default, so a listener only implements the events it wants.
+ */
+public interface TraversalListener {
+
+  /**
+   * Called as each vertex is taken from the frontier to have its edges scanned.
+   *
+   * @param vertex the id of the vertex
+   * @param depth the number of edges between the starting vertex and this one along the search
+   */
+  default void vertexVisited(int vertex, int depth) {
+  }
+
+  /**
+   * Called when a traversal ends.
+   *
+   * @param stats the statistics of this one traversal
+   */
+  default void traversalFinished(TraversalStats stats) {
+  }
+}
@@ -0,0 +1,192 @@
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Computes any number of statistics over the values of the vertices reachable from a start, in one traversal.
+ *
+ * Each statistic is an IntAggregate, added to the pipeline before it runs; adding one returns a Stat that
+ * picks its result out of the Results of a run. A run traverses the graph once, then passes the value of
+ * every reached vertex to each aggregate in turn, so ten statistics cost one traversal and ten cheap
+ * updates per vertex rather than ten traversals. Given a ForkJoinPool, the reached vertices are split
+ * among its threads and the parts of each aggregate merged at the end.
+ *
+ * A pipeline can be run any number of times, also from several threads at once, as long as its aggregates
+ * are stateless, as the built-in ones are. A run uses the statistics added before it started; one added
+ * while it runs is left out of its Results. Practice.oddVertices is the single statistic
+ * IntAggregate.counting(v -> v % 2 == 1).
+ */
+public final class TraversalPipeline {
+  private static final int CHUNK = 8_192;
+
+  // Replaced, never changed, by add, so a run can read it once and use that copy throughout.
+  private volatile IntAggregate<Object, ?>[] aggregates = noAggregates();
+
+  /**
+   * The handle of one statistic in a pipeline, used to read its result from the pipeline's Results.
+   *
+   * @param <R> the type of the result
+   */
+  public static final class Stat<R> {
+    private final TraversalPipeline pipeline;
+    private final int index;
+
+    private Stat(TraversalPipeline pipeline, int index) {
+      this.pipeline = pipeline;
+      this.index = index;
+    }
+  }
+
+  /**
+   * The results of one run of a pipeline.
+   */
+  public static final class Results {
+    private final TraversalPipeline pipeline;
+    private final Object[] results;
+    private final int vertexCount;
+
+    private Results(TraversalPipeline pipeline, Object[] results, int vertexCount) {
+      this.pipeline = pipeline;
+      this.results = results;
+      this.vertexCount = vertexCount;
+    }
+
+    /**
+     * Returns the result of one statistic.
+     *
+     * @param <R> the type of the result
+     * @param stat the statistic, added to the pipeline that produced these results
+     * @return its result
+     */
+    @SuppressWarnings("unchecked")
+    public <R> R get(Stat<R> stat) {
+      if (stat.pipeline != pipeline) throw new IllegalArgumentException("The statistic belongs to a different pipeline");
+      if (stat.index >= results.length) throw new IllegalArgumentException("The statistic was added after this run");
+      return (R) results[stat.index];
+    }
+
+    /**
+     * Returns the number of vertices the run reached, including the starting vertex.
+     *
+     * @return the number of reached vertices
+     */
+    public int vertexCount() {
+      return vertexCount;
+    }
+  }
+
+  /**
+   * Adds a statistic to the pipeline.
+   *
+   * @param <A> the type of the aggregate's parts
+   * @param <R> the type of its result
+   * @param aggregate the statistic to compute
+   * @return the handle for reading its result
+   */
+  @SuppressWarnings("unchecked")
+  public synchronized <A, R> Stat<R> add(IntAggregate<A, R> aggregate) {
+    IntAggregate<Object, ?>[] added = Arrays.copyOf(aggregates, aggregates.length + 1);
+    added[added.length - 1] = (IntAggregate<Object, ?>) aggregate;
+    aggregates = added;
+    return new Stat<>(this, added.length - 1);
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static IntAggregate<Object, ?>[] noAggregates() {
+    return new IntAggregate[0];
+  }
+
+  /**
+   * Returns the results of every statistic over the values of an empty set of vertices.
+   *
+   * @return the empty results
+   */
+  public Results empty() {
+    IntAggregate<Object, ?>[] all = aggregates;
+    return finish(all, parts(all), 0);
+  }
+
+  /**
+   * Traverses the graph from the starting vertex and computes every statistic over the reached vertices' values.
+   *
+   * @param graph the graph to traverse
+   * @param starting the id of the starting vertex
+   * @param valueOf the value of the vertex with a given id
+   * @return the results
+   */
+  public Results run(Graph graph, int starting, IntUnaryOperator valueOf) {
+    IntAggregate<Object, ?>[] all = aggregates;
+    int[] reached = GraphTraversal.reachable(graph, starting);
+    return finish(all, accumulate(all, reached, 0, reached.length, valueOf), reached.length);
+  }
+
+  /**
+   * Traverses the graph from the starting vertex and computes every statistic over the reached vertices'
+   * values, splitting the values among the pool's threads. valueOf and the aggregates must be safe to call
+   * from several threads at once.
+   *
+   * @param graph the graph to traverse
+   * @param starting the id of the starting vertex
+   * @param valueOf the value of the vertex with a given id
+   * @param pool the pool to compute the statistics on
+   * @return the results
+   */
+  public Results run(Graph graph, int starting, IntUnaryOperator valueOf, ForkJoinPool pool) {
+    IntAggregate<Object, ?>[] all = aggregates;
+    int[] reached = GraphTraversal.reachable(graph, starting);
+    return finish(all, pool.invoke(new Accumulate(all, reached, 0, reached.length, valueOf)), reached.length);
+  }
+
+  private static Object[] parts(IntAggregate<Object, ?>[] all) {
+    Object[] parts = new Object[all.length];
+    for (int i = 0; i < parts.length; i++) parts[i] = all[i].start();
+    return parts;
+  }
+
+  private static Object[] accumulate(IntAggregate<Object, ?>[] all, int[] reached, int from, int to, IntUnaryOperator valueOf) {
+    Object[] parts = parts(all);
+    for (int i = from; i < to; i++) {
+      int value = valueOf.applyAsInt(reached[i]);
+      for (int a = 0; a < all.length; a++) all[a].accept(parts[a], value);
+    }
+    return parts;
+  }
+
+  private Results finish(IntAggregate<Object, ?>[] all, Object[] parts, int vertexCount) {
+    Object[] results = new Object[parts.length];
+    for (int i = 0; i < parts.length; i++) results[i] = all[i].finish(parts[i]);
+    return new Results(this, results, vertexCount);
+  }
+
+  /** Accumulates a range of the reached vertices, halving it until it is one chunk. */
+  private static final class Accumulate extends RecursiveTask<Object[]> {
+    private static final long serialVersionUID = 1L;
+    private final transient IntAggregate<Object, ?>[] all;
+    private final int[] reached;
+    private final int from;
+    private final int to;
+    private final transient IntUnaryOperator valueOf;
+
+    Accumulate(IntAggregate<Object, ?>[] all, int[] reached, int from, int to, IntUnaryOperator valueOf) {
+      this.all = all;
+      this.reached = reached;
+      this.from = from;
+      this.to = to;
+      this.valueOf = valueOf;
+    }
+
+    @Override
+    protected Object[] compute() {
+      if (to - from <= CHUNK) return accumulate(all, reached, from, to, valueOf);
+
+      int middle = (from + to) >>> 1;
+      Accumulate right = new Accumulate(all, reached, middle, to, valueOf);
+      right.fork();
+      Object[] left = new Accumulate(all, reached, from, middle, valueOf).compute();
+      Object[] rightParts = right.join();
+      for (int a = 0; a < left.length; a++) left[a] = all[a].merge(left[a], rightParts[a]);
+      return left;
+    }
+  }
+}
@@ -0,0 +1,65 @@
+import java.util.*;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Compares ten statistics computed by one TraversalPipeline run against ten separate traversals, one per statistic.
+ *
+ * Usage: java TraversalPipelineBenchmark [vertices]
+ *
+ * The graph is a seeded preferential-attachment graph, so every start reaches every vertex. Each line
+ * shows the best time of the measured rounds.
+ */
+public class TraversalPipelineBenchmark {
+  private static final int WARMUP_ROUNDS = 10;
+  private static final int ROUNDS = 30;
+
+  public static void main(String[] args) {
+    int n = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+    CsrGraph graph = CsrGraph.fromMap(GraphGenerators.map(GraphGenerators.preferentialAttachment(n, 2, 42)));
+    IntUnaryOperator valueOf = v -> v * 31 % 1000;
+    System.out.printf("vertices=%d edges=%d%n", graph.vertexCount(), graph.edgeCount());
+
+    List<IntAggregate<?, ?>> statistics = new ArrayList<>();
+    statistics.add(IntAggregate.counting(v -> v % 2 == 1));
+    statistics.add(IntAggregate.summing());
+    statistics.add(IntAggregate.min());
+    statistics.add(IntAggregate.max());
+    statistics.add(IntAggregate.countingByResidue(3));
+    statistics.add(IntAggregate.countingByResidue(7));
+    statistics.add(IntAggregate.histogram(0, 100, 10));
+    statistics.add(IntAggregate.summing().filter(v -> v > 500));
+    statistics.add(IntAggregate.counting(v -> v < 10));
+    statistics.add(IntAggregate.reducing(0, (a, b) -> a ^ b));
+
+    TraversalPipeline fused = new TraversalPipeline();
+    List<TraversalPipeline> separate = new ArrayList<>();
+    for (IntAggregate<?, ?> statistic : statistics) {
+      fused.add(statistic);
+      TraversalPipeline single = new TraversalPipeline();
+      single.add(statistic);
+      separate.add(single);
+    }
+
+    long bestFused = Long.MAX_VALUE;
+    long bestSeparate = Long.MAX_VALUE;
+    long sink = 0;
+    for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+      long start = System.nanoTime();
+      sink += fused.run(graph, 0, valueOf).vertexCount();
+      long fusedTime = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      for (TraversalPipeline single : separate) sink += single.run(graph, 0, valueOf).vertexCount();
+      long separateTime = System.nanoTime() - start;
+
+      if (round >= WARMUP_ROUNDS) {
+        bestFused = Math.min(bestFused, fusedTime);
+        bestSeparate = Math.min(bestSeparate, separateTime);
+      }
+    }
+
+    System.out.printf("%-24s %9.2f ms%n", "one pipeline run", bestFused / 1e6);
+    System.out.printf("%-24s %9.2f ms  (%.1fx)%n", "ten traversals", bestSeparate / 1e6, (double) bestSeparate / bestFused);
+    if (sink == 0) System.out.println("nothing was reached");
+  }
+}
@@ -0,0 +1,127 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+public class TraversalPipelineTest {
+
+  private List<Vertex<Integer>> chain(int... values) {
+    List<Vertex<Integer>> vertices = new ArrayList<>();
+    for (int value : values) {
+      Vertex<Integer> vertex = new Vertex<>(value);
+      if (!vertices.isEmpty()) vertices.get(vertices.size() - 1).neighbors.add(vertex);
+      vertices.add(vertex);
+    }
+    return vertices;
+  }
+
+  /**
+   * Test every built-in statistic against the values it was given.
+   */
+  @Test
+  public void testBuiltInStatistics() {
+    TraversalPipeline pipeline = new TraversalPipeline();
+    TraversalPipeline.Stat<Long> odd = pipeline.add(IntAggregate.counting(v -> v % 2 != 0));
+    TraversalPipeline.Stat<Long> sum = pipeline.add(IntAggregate.summing());
+    TraversalPipeline.Stat<OptionalInt> min = pipeline.add(IntAggregate.min());
+    TraversalPipeline.Stat<OptionalInt> max = pipeline.add(IntAggregate.max());
+    TraversalPipeline.Stat<long[]> residues = pipeline.add(IntAggregate.countingByResidue(3));
+    TraversalPipeline.Stat<long[]> histogram = pipeline.add(IntAggregate.histogram(0, 10, 3));
+    TraversalPipeline.Stat<Integer> product = pipeline.add(IntAggregate.reducing(1, (a, b) -> a * b));
+    TraversalPipeline.Stat<Long> positiveSum = pipeline.add(IntAggregate.summing().filter(v -> v > 0));
+
+    List<Vertex<Integer>> chain = chain(5, -4, 12, 7, 31, 2);
+    TraversalPipeline.Results results = Practice.aggregate(chain.get(0), pipeline);
+    assertEquals(6, results.vertexCount());
+    assertEquals(3L, results.get(odd));
+    assertEquals(53L, results.get(sum));
+    assertEquals(OptionalInt.of(-4), results.get(min));
+    assertEquals(OptionalInt.of(31), results.get(max));
+    assertArrayEquals(new long[] {1, 2, 3}, results.get(residues));
+    assertArrayEquals(new long[] {4, 1, 1}, results.get(histogram));
+    assertEquals(5 * -4 * 12 * 7 * 31 * 2, results.get(product));
+    assertEquals(57L, results.get(positiveSum));
+
+    TraversalPipeline.Results fromTail = Practice.aggregate(chain.get(4), pipeline);
+    assertEquals(2, fromTail.vertexCount());
+    assertEquals(1L, fromTail.get(odd));
+  }
+
+  /**
+   * Test that a null start gives every statistic over no values.
+   */
+  @Test
+  public void testEmpty() {
+    TraversalPipeline pipeline = new TraversalPipeline();
+    TraversalPipeline.Stat<Long> count = pipeline.add(IntAggregate.counting(v -> true));
+    TraversalPipeline.Stat<OptionalInt> max = pipeline.add(IntAggregate.max());
+    TraversalPipeline.Stat<Integer> sum = pipeline.add(IntAggregate.reducing(0, Integer::sum));
+
+    TraversalPipeline.Results results = Practice.aggregate(null, pipeline);
+    assertEquals(0, results.vertexCount());
+    assertEquals(0L, results.get(count));
+    assertEquals(OptionalInt.empty(), results.get(max));
+    assertEquals(0, results.get(sum));
+  }
+
+  /**
+   * Test that the odd count agrees with oddVertices, and that ten statistics take one traversal.
+   */
+  @Test
+  public void testOneTraversal() {
+    int[][] adjacency = GraphGenerators.erdosRenyi(2000, 3, 21);
+    List<Vertex<Integer>> vertices = GraphGenerators.vertices(adjacency, 21);
+    TraversalPipeline pipeline = new TraversalPipeline();
+    TraversalPipeline.Stat<Long> odd = pipeline.add(IntAggregate.counting(v -> v % 2 == 1));
+    for (int i = 0; i < 9; i++) pipeline.add(IntAggregate.countingByResidue(i + 2));
+
+    for (int start = 0; start < 2000; start += 97) {
+      Vertex<Integer> vertex = vertices.get(start);
+      TraversalStats stats = new TraversalStats();
+      TraversalPipeline.Results results = stats.measure(() -> Practice.aggregate(vertex, pipeline));
+      assertEquals(1, stats.traversals());
+      assertEquals(Practice.oddVertices(vertex), results.get(odd).intValue());
+      assertEquals(Practice.sortedReachable(vertex).size(), results.vertexCount());
+    }
+  }
+
+  /**
+   * Test that splitting the values among threads gives the same results as one thread.
+   */
+  @Test
+  public void testParallelMatchesSequential() {
+    int[][] adjacency = GraphGenerators.preferentialAttachment(50_000, 2, 3);
+    CsrGraph graph = CsrGraph.fromMap(GraphGenerators.map(adjacency));
+    TraversalPipeline pipeline = new TraversalPipeline();
+    TraversalPipeline.Stat<Long> sum = pipeline.add(IntAggregate.summing());
+    TraversalPipeline.Stat<OptionalInt> min = pipeline.add(IntAggregate.min().filter(v -> v > 100));
+    TraversalPipeline.Stat<long[]> histogram = pipeline.add(IntAggregate.histogram(0, 1000, 64));
+
+    TraversalPipeline.Results sequential = pipeline.run(graph, 0, v -> v * 7 % 50_000);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      TraversalPipeline.Results parallel = pipeline.run(graph, 0, v -> v * 7 % 50_000, pool);
+      assertEquals(sequential.get(sum), parallel.get(sum));
+      assertEquals(sequential.get(min), parallel.get(min));
+      assertArrayEquals(sequential.get(histogram), parallel.get(histogram));
+      assertEquals(50_000, parallel.vertexCount());
+      assertEquals(IntStream.range(0, 50_000).mapToLong(v -> v * 7 % 50_000).sum(), parallel.get(sum));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Test that a statistic is only read from its own pipeline's results.
+   */
+  @Test
+  public void testForeignStat() {
+    TraversalPipeline first = new TraversalPipeline();
+    TraversalPipeline second = new TraversalPipeline();
+    TraversalPipeline.Stat<Long> stat = second.add(IntAggregate.summing());
+    TraversalPipeline.Results results = first.empty();
+    assertThrows(IllegalArgumentException.class, () -> results.get(stat));
+    assertThrows(IllegalArgumentException.class, () -> IntAggregate.histogram(0, 0, 4));
+  }
+}
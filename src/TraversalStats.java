@@ -0,0 +1,196 @@
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Statistics about the traversals a query ran: how many vertices it visited, how many edges it scanned,
+ * how deep and wide the search got, whether it stopped early and how long it took.
+ *
+ * Every Practice query that runs through the GraphTraversal kernels can be measured by wrapping it:
+ * <pre>
+ *   TraversalStats stats = new TraversalStats();
+ *   boolean result = stats.measure(() -> Practice.twoWay(v1, v2));
+ *   stats.verticesVisited();   // summed over both directions twoWay searched
+ * </pre>
+ *
+ * When nothing is being measured and no listener is installed, a kernel pays two volatile reads per
+ * traversal and then runs exactly the loop it ran before statistics existed, so there is no per-vertex
+ * or per-edge cost. A TraversalStats is meant to be used by one thread at a time.
+ */
+public final class TraversalStats {
+  private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+  private static final AtomicInteger MEASURING = new AtomicInteger();
+  private static volatile TraversalListener listener;
+
+  private int traversals;
+  private long verticesVisited;
+  private long edgesScanned;
+  private int maxDepth;
+  private int maxFrontier;
+  private boolean earlyExit;
+  private long elapsedNanos;
+  private long startedAt;
+
+  /**
+   * Runs a query and adds the statistics of every traversal it runs on this thread to this object.
+   * Measurements may be nested; the inner one is counted in the outer one too.
+   *
+   * @param <T> the type of the query's result
+   * @param query the query to run
+   * @return the query's result
+   */
+  public <T> T measure(Supplier<T> query) {
+    Scope outer = CURRENT.get();
+    CURRENT.set(new Scope(this, outer));
+    MEASURING.incrementAndGet();
+    try {
+      return query.get();
+    } finally {
+      MEASURING.decrementAndGet();
+      CURRENT.set(outer);
+    }
+  }
+
+  /**
+   * Installs a listener that sees every traversal on every thread, or removes it if null.
+   * While a listener is installed every traversal pays for collecting statistics.
+   *
+   * @param newListener the listener, or null for none
+   */
+  public static void setListener(TraversalListener newListener) {
+    listener = newListener;
+  }
+
+  /**
+   * Returns the installed listener, or null if there is none.
+   *
+   * @return the listener
+   */
+  public static TraversalListener listener() {
+    return listener;
+  }
+
+  /** Returns fresh statistics for a traversal that is about to start, or null if nobody will look at them. */
+  static TraversalStats begin() {
+    if (MEASURING.get() == 0 && listener == null) return null;
+    if (CURRENT.get() == null && listener == null) return null;
+    TraversalStats stats = new TraversalStats();
+    stats.traversals = 1;
+    stats.startedAt = System.nanoTime();
+    return stats;
+  }
+
+  /** Records the expansion of one vertex. */
+  void visit(int vertex, int depth, int frontier) {
+    verticesVisited++;
+    if (depth > maxDepth) maxDepth = depth;
+    if (frontier > maxFrontier) maxFrontier = frontier;
+    TraversalListener current = listener;
+    if (current != null) current.vertexVisited(vertex, depth);
+  }
+
+  /** Records the scanning of one edge. */
+  void edge() {
+    edgesScanned++;
+  }
+
+  /** Ends a traversal begun with begin, passing its statistics on to the measurement and the listener. */
+  void finish(boolean stoppedEarly) {
+    earlyExit = stoppedEarly;
+    elapsedNanos = System.nanoTime() - startedAt;
+    for (Scope scope = CURRENT.get(); scope != null; scope = scope.outer) scope.stats.add(this);
+    TraversalListener installed = listener;
+    if (installed != null) installed.traversalFinished(this);
+  }
+
+  private void add(TraversalStats other) {
+    traversals += other.traversals;
+    verticesVisited += other.verticesVisited;
+    edgesScanned += other.edgesScanned;
+    maxDepth = Math.max(maxDepth, other.maxDepth);
+    maxFrontier = Math.max(maxFrontier, other.maxFrontier);
+    earlyExit |= other.earlyExit;
+    elapsedNanos += other.elapsedNanos;
+  }
+
+  /**
+   * Returns the number of traversals counted.
+   *
+   * @return the number of traversals
+   */
+  public int traversals() {
+    return traversals;
+  }
+
+  /**
+   * Returns the number of vertices whose edges were scanned, summed over every traversal.
+   *
+   * @return the number of vertices visited
+   */
+  public long verticesVisited() {
+    return verticesVisited;
+  }
+
+  /**
+   * Returns the number of edges looked at, summed over every traversal.
+   *
+   * @return the number of edges scanned
+   */
+  public long edgesScanned() {
+    return edgesScanned;
+  }
+
+  /**
+   * Returns the largest number of edges between a starting vertex and a visited vertex along the search.
+   *
+   * @return the maximum depth reached
+   */
+  public int maxDepth() {
+    return maxDepth;
+  }
+
+  /**
+   * Returns the largest number of vertices waiting to be visited at once.
+   *
+   * @return the maximum frontier size
+   */
+  public int maxFrontier() {
+    return maxFrontier;
+  }
+
+  /**
+   * Returns true if any traversal stopped as soon as it found what it was looking for.
+   *
+   * @return whether a traversal exited early
+   */
+  public boolean earlyExit() {
+    return earlyExit;
+  }
+
+  /**
+   * Returns the time spent inside traversals, summed over every traversal.
+   *
+   * @return the elapsed time in nanoseconds
+   */
+  public long elapsedNanos() {
+    return elapsedNanos;
+  }
+
+  /**
+   * One measure call in progress on a thread, linked to the one it is nested in.
+   */
+  private static final class Scope {
+    final TraversalStats stats;
+    final Scope outer;
+
+    Scope(TraversalStats stats, Scope outer) {
+      this.stats = stats;
+      this.outer = outer;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "TraversalStats[traversals=" + traversals + ", verticesVisited=" + verticesVisited + ", edgesScanned=" + edgesScanned
+        + ", maxDepth=" + maxDepth + ", maxFrontier=" + maxFrontier + ", earlyExit=" + earlyExit + ", elapsedNanos=" + elapsedNanos + "]";
+  }
+}
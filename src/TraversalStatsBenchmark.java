@@ -0,0 +1,77 @@
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntSupplier;
+
+/**
+ * Shows what traversal statistics cost: GraphTraversal.reachable with statistics off, measured with
+ * TraversalStats, and with a listener installed, next to a copy of the kernel with no statistics code at all.
+ *
+ * Usage: java TraversalStatsBenchmark [vertices]
+ *
+ * The graph is a seeded preferential-attachment graph, so every start reaches every vertex.
+ * Each line shows the best time of the measured rounds and its difference from the copy with no statistics code.
+ */
+public class TraversalStatsBenchmark {
+  private static final int WARMUP_ROUNDS = 20;
+  private static final int ROUNDS = 60;
+
+  public static void main(String[] args) {
+    int n = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+    CsrGraph graph = CsrGraph.fromMap(GraphGenerators.map(GraphGenerators.preferentialAttachment(n, 2, 42)));
+    System.out.printf("vertices=%d edges=%d%n", graph.vertexCount(), graph.edgeCount());
+
+    TraversalStats stats = new TraversalStats();
+    TraversalListener listener = new TraversalListener() {
+    };
+    String[] labels = {"no statistics code", "statistics off", "measured", "listener installed"};
+    IntSupplier[] variants = {
+        () -> referenceReachable(graph, 0).length,
+        () -> GraphTraversal.reachable(graph, 0).length,
+        () -> stats.measure(() -> GraphTraversal.reachable(graph, 0).length),
+        () -> {
+          TraversalStats.setListener(listener);
+          try {
+            return GraphTraversal.reachable(graph, 0).length;
+          } finally {
+            TraversalStats.setListener(null);
+          }
+        }
+    };
+
+    // The variants take turns, so drift in the machine's speed affects them all alike.
+    long[] best = new long[variants.length];
+    Arrays.fill(best, Long.MAX_VALUE);
+    long sink = 0;
+    for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+      for (int v = 0; v < variants.length; v++) {
+        long start = System.nanoTime();
+        sink += variants[v].getAsInt();
+        if (round >= WARMUP_ROUNDS) best[v] = Math.min(best[v], System.nanoTime() - start);
+      }
+    }
+
+    for (int v = 0; v < variants.length; v++) {
+      System.out.printf("%-20s %8.3f ms  %+6.1f%%%n", labels[v], best[v] / 1e6, 100.0 * (best[v] - best[0]) / best[0]);
+    }
+    if (sink == 0) System.out.println("nothing was reached");
+  }
+
+  /** The breadth-first loop of GraphTraversal.reachable as it was before statistics were added. */
+  private static int[] referenceReachable(Graph graph, int starting) {
+    BitSet visited = new BitSet();
+    int[][] items = {new int[16]};
+    int[] size = {0};
+    visited.set(starting);
+    items[0][size[0]++] = starting;
+    for (int next = 0; next < size[0]; next++) {
+      graph.forEachNeighbor(items[0][next], neighbor -> {
+        if (visited.get(neighbor)) return true;
+        visited.set(neighbor);
+        if (size[0] == items[0].length) items[0] = Arrays.copyOf(items[0], size[0] * 2);
+        items[0][size[0]++] = neighbor;
+        return true;
+      });
+    }
+    return Arrays.copyOf(items[0], size[0]);
+  }
+}
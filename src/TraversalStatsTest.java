@@ -0,0 +1,135 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+public class TraversalStatsTest {
+
+  @AfterEach
+  public void removeListener() {
+    TraversalStats.setListener(null);
+  }
+
+  private List<Vertex<Integer>> chain(int length) {
+    List<Vertex<Integer>> vertices = new ArrayList<>();
+    for (int i = 0; i < length; i++) {
+      Vertex<Integer> vertex = new Vertex<>(i);
+      if (i > 0) vertices.get(i - 1).neighbors.add(vertex);
+      vertices.add(vertex);
+    }
+    return vertices;
+  }
+
+  /**
+   * Test the statistics of a full breadth-first traversal.
+   */
+  @Test
+  public void testFullTraversal() {
+    List<Vertex<Integer>> chain = chain(10);
+    TraversalStats stats = new TraversalStats();
+    assertEquals(5, stats.measure(() -> Practice.oddVertices(chain.get(0))));
+
+    assertEquals(1, stats.traversals());
+    assertEquals(10, stats.verticesVisited());
+    assertEquals(9, stats.edgesScanned());
+    assertEquals(9, stats.maxDepth());
+    assertEquals(1, stats.maxFrontier());
+    assertFalse(stats.earlyExit());
+    assertTrue(stats.elapsedNanos() > 0);
+  }
+
+  /**
+   * Test that breadth-first frontier width and depth are measured by level.
+   */
+  @Test
+  public void testFrontierAndDepth() {
+    Vertex<Integer> root = new Vertex<>(0);
+    for (int i = 1; i <= 5; i++) {
+      Vertex<Integer> child = new Vertex<>(i);
+      child.neighbors.add(new Vertex<>(10 + i));
+      root.neighbors.add(child);
+    }
+    TraversalStats stats = new TraversalStats();
+    assertEquals(11, stats.measure(() -> Practice.sortedReachable(root)).size());
+    assertEquals(11, stats.verticesVisited());
+    assertEquals(2, stats.maxDepth());
+    assertEquals(5, stats.maxFrontier());
+  }
+
+  /**
+   * Test that a search that finds its target is marked as exiting early, and that twoWay counts both directions.
+   */
+  @Test
+  public void testEarlyExit() {
+    List<Vertex<Integer>> chain = chain(100);
+    chain.get(99).neighbors.add(chain.get(0));
+
+    TraversalStats stats = new TraversalStats();
+    assertTrue(stats.measure(() -> Practice.twoWay(chain.get(0), chain.get(1))));
+    assertEquals(2, stats.traversals());
+    assertTrue(stats.earlyExit());
+    assertEquals(98, stats.maxDepth());
+  }
+
+  /**
+   * Test that nested measurements both count the inner traversals, and only the outer sees the rest.
+   */
+  @Test
+  public void testNested() {
+    List<Vertex<Integer>> chain = chain(5);
+    TraversalStats outer = new TraversalStats();
+    TraversalStats inner = new TraversalStats();
+    outer.measure(() -> {
+      Practice.oddVertices(chain.get(0));
+      return inner.measure(() -> Practice.oddVertices(chain.get(2)));
+    });
+    assertEquals(2, outer.traversals());
+    assertEquals(8, outer.verticesVisited());
+    assertEquals(1, inner.traversals());
+    assertEquals(3, inner.verticesVisited());
+  }
+
+  /**
+   * Test that an installed listener sees every vertex and every traversal, and nothing once removed.
+   */
+  @Test
+  public void testListener() {
+    List<Vertex<Integer>> chain = chain(6);
+    List<Integer> depths = new ArrayList<>();
+    List<TraversalStats> finished = new ArrayList<>();
+    TraversalStats.setListener(new TraversalListener() {
+      @Override
+      public void vertexVisited(int vertex, int depth) {
+        depths.add(depth);
+      }
+
+      @Override
+      public void traversalFinished(TraversalStats stats) {
+        finished.add(stats);
+      }
+    });
+
+    Practice.sortedReachable(chain.get(0));
+    assertEquals(List.of(0, 1, 2, 3, 4, 5), depths);
+    assertEquals(1, finished.size());
+    assertEquals(6, finished.get(0).verticesVisited());
+
+    TraversalStats.setListener(null);
+    Practice.sortedReachable(chain.get(0));
+    assertEquals(1, finished.size());
+  }
+
+  /**
+   * Test that queries give the same answers whether or not they are measured.
+   */
+  @Test
+  public void testSameResults() {
+    Map<Integer, Set<Integer>> graph = GraphGenerators.map(GraphGenerators.erdosRenyi(300, 2, 8));
+    TraversalStats stats = new TraversalStats();
+    for (int v = 0; v < 300; v += 7) {
+      int start = v;
+      assertEquals(Practice.sortedReachable(graph, start), stats.measure(() -> Practice.sortedReachable(graph, start)));
+      assertEquals(Practice.positivePathExists(graph, start, 299), stats.measure(() -> Practice.positivePathExists(graph, start, 299)));
+    }
+  }
+}
@@ -0,0 +1,176 @@
+import java.util.*;
+
+/**
+ * Wraps a Vertex graph whose edges change over time and keeps registered reachability results up to date.
+ *
+ * All edge changes must go through addEdge and removeEdge so the wrapper can see them.
+ * Every change bumps the version, which callers can use to tell whether something they computed is stale.
+ *
+ * When an edge is added from a vertex that a result already reaches, only the region that has just
+ * become reachable is traversed, so the cost depends on the size of the change rather than the graph.
+ * Removing an edge can shrink the reachable region in ways that are expensive to track, so any result
+ * that reached the edge's source is recomputed from its starting vertex instead.
+ */
+public class VersionedGraph {
+  private long version;
+  private final List<Reachability> tracked = new ArrayList<>();
+
+  /**
+   * Returns the number of edge changes made through this wrapper.
+   *
+   * @return the current version of the graph
+   */
+  public long version() {
+    return version;
+  }
+
+  /**
+   * Adds an edge from one vertex to another and updates every tracked result.
+   *
+   * @param from the vertex the edge leaves
+   * @param to the vertex the edge enters
+   */
+  public void addEdge(Vertex<Integer> from, Vertex<Integer> to) {
+    Objects.requireNonNull(from, "from");
+    Objects.requireNonNull(to, "to");
+
+    from.neighbors.add(to);
+    version++;
+
+    for (Reachability result : tracked) {
+      if (result.reachable.contains(from)) result.extend(to);
+    }
+  }
+
+  /**
+   * Removes one edge from one vertex to another and updates every tracked result.
+   * If there is no such edge, nothing changes.
+   *
+   * @param from the vertex the edge leaves
+   * @param to the vertex the edge enters
+   * @return true if an edge was removed
+   */
+  public boolean removeEdge(Vertex<Integer> from, Vertex<Integer> to) {
+    Objects.requireNonNull(from, "from");
+    if (!from.neighbors.remove(to)) return false;
+    version++;
+
+    for (Reachability result : tracked) {
+      if (result.reachable.contains(from)) result.recompute();
+    }
+
+    return true;
+  }
+
+  /**
+   * Starts tracking the vertices reachable from the given starting vertex.
+   *
+   * @param starting the starting vertex (may be null)
+   * @return a result that is kept up to date as edges change
+   */
+  public Reachability track(Vertex<Integer> starting) {
+    Reachability result = new Reachability(starting);
+    tracked.add(result);
+    return result;
+  }
+
+  /**
+   * Stops keeping the given result up to date.
+   *
+   * @param result a result returned by track
+   */
+  public void untrack(Reachability result) {
+    tracked.remove(result);
+  }
+
+  /**
+   * The vertices reachable from one starting vertex, along with the values
+   * oddVertices and sortedReachable would return for it.
+   */
+  public static class Reachability {
+    private final Vertex<Integer> starting;
+    private final Set<Vertex<Integer>> reachable = new HashSet<>();
+    private final TreeMap<Integer, Integer> valueCounts = new TreeMap<>();
+    private int oddCount;
+
+    private Reachability(Vertex<Integer> starting) {
+      this.starting = starting;
+      extend(starting);
+    }
+
+    private void recompute() {
+      reachable.clear();
+      valueCounts.clear();
+      oddCount = 0;
+      extend(starting);
+    }
+
+    private void extend(Vertex<Integer> vertex) {
+      if (vertex == null || reachable.contains(vertex)) return;
+
+      Deque<Vertex<Integer>> stack = new ArrayDeque<>();
+      reachable.add(vertex);
+      stack.push(vertex);
+
+      while (!stack.isEmpty()) {
+        Vertex<Integer> current = stack.pop();
+        if (current.data % 2 == 1) oddCount++;
+        valueCounts.merge(current.data, 1, Integer::sum);
+
+        for (Vertex<Integer> neighbor : current.neighbors) {
+          if (neighbor != null && reachable.add(neighbor)) stack.push(neighbor);
+        }
+      }
+    }
+
+    /**
+     * Returns the vertex this result was started from.
+     *
+     * @return the starting vertex (may be null)
+     */
+    public Vertex<Integer> starting() {
+      return starting;
+    }
+
+    /**
+     * Returns true if the given vertex is currently reachable from the starting vertex.
+     *
+     * @param vertex the vertex to check
+     * @return whether the vertex is reachable
+     */
+    public boolean reaches(Vertex<Integer> vertex) {
+      return reachable.contains(vertex);
+    }
+
+    /**
+     * Returns the reachable vertices as a read-only view.
+     *
+     * @return the set of reachable vertices
+     */
+    public Set<Vertex<Integer>> reachable() {
+      return Collections.unmodifiableSet(reachable);
+    }
+
+    /**
+     * Returns the same count as Practice.oddVertices for the starting vertex.
+     *
+     * @return the number of reachable vertices with odd values
+     */
+    public int oddVertices() {
+      return oddCount;
+    }
+
+    /**
+     * Returns the same list as Practice.sortedReachable for the starting vertex.
+     *
+     * @return a sorted list of all reachable vertex values
+     */
+    public List<Integer> sortedReachable() {
+      List<Integer> sorted = new ArrayList<>(reachable.size());
+      for (Map.Entry<Integer, Integer> entry : valueCounts.entrySet()) {
+        for (int i = 0; i < entry.getValue(); i++) sorted.add(entry.getKey());
+      }
+      return sorted;
+    }
+  }
+}
@@ -0,0 +1,123 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+public class VersionedGraphTest {
+
+  /**
+   * Test that adding edges extends a tracked result to match a fresh traversal.
+   */
+  @Test
+  public void testAddEdgeExtendsResult() {
+    // 5 --> 8 ; 3 --> 9 (not yet reachable)
+    Vertex<Integer> v5 = new Vertex<>(5);
+    Vertex<Integer> v8 = new Vertex<>(8);
+    Vertex<Integer> v3 = new Vertex<>(3);
+    Vertex<Integer> v9 = new Vertex<>(9);
+    VersionedGraph graph = new VersionedGraph();
+    graph.addEdge(v5, v8);
+    graph.addEdge(v3, v9);
+
+    VersionedGraph.Reachability result = graph.track(v5);
+    assertEquals(1, result.oddVertices());
+    assertEquals(Arrays.asList(5, 8), result.sortedReachable());
+
+    graph.addEdge(v8, v3);
+    assertEquals(Practice.oddVertices(v5), result.oddVertices());
+    assertEquals(Practice.sortedReachable(v5), result.sortedReachable());
+    assertTrue(result.reaches(v9));
+  }
+
+  /**
+   * Test that an edge added outside the reachable region leaves the result alone.
+   */
+  @Test
+  public void testAddEdgeOutsideRegion() {
+    Vertex<Integer> v1 = new Vertex<>(1);
+    Vertex<Integer> v2 = new Vertex<>(2);
+    Vertex<Integer> v3 = new Vertex<>(3);
+    VersionedGraph graph = new VersionedGraph();
+    VersionedGraph.Reachability result = graph.track(v1);
+
+    graph.addEdge(v2, v3);
+    assertEquals(Arrays.asList(1), result.sortedReachable());
+    assertEquals(1, graph.version());
+  }
+
+  /**
+   * Test that removing an edge shrinks a tracked result, even around a cycle.
+   */
+  @Test
+  public void testRemoveEdgeRecomputes() {
+    // 1 --> 2 --> 3 --> 2, 1 --> 7
+    Vertex<Integer> v1 = new Vertex<>(1);
+    Vertex<Integer> v2 = new Vertex<>(2);
+    Vertex<Integer> v3 = new Vertex<>(3);
+    Vertex<Integer> v7 = new Vertex<>(7);
+    VersionedGraph graph = new VersionedGraph();
+    graph.addEdge(v1, v2);
+    graph.addEdge(v2, v3);
+    graph.addEdge(v3, v2);
+    graph.addEdge(v1, v7);
+    VersionedGraph.Reachability result = graph.track(v1);
+    assertEquals(3, result.oddVertices());
+
+    assertTrue(graph.removeEdge(v1, v2));
+    assertEquals(Arrays.asList(1, 7), result.sortedReachable());
+    assertEquals(2, result.oddVertices());
+    assertFalse(result.reaches(v3));
+
+    assertFalse(graph.removeEdge(v1, v2));
+    assertEquals(5, graph.version());
+  }
+
+  /**
+   * Test that duplicate values are kept, matching Practice.sortedReachable.
+   */
+  @Test
+  public void testDuplicateValues() {
+    Vertex<Integer> v5 = new Vertex<>(5);
+    Vertex<Integer> v8a = new Vertex<>(8);
+    Vertex<Integer> v8b = new Vertex<>(8);
+    VersionedGraph graph = new VersionedGraph();
+    VersionedGraph.Reachability result = graph.track(v5);
+
+    graph.addEdge(v5, v8a);
+    graph.addEdge(v5, v8b);
+    assertEquals(Arrays.asList(5, 8, 8), result.sortedReachable());
+  }
+
+  /**
+   * Test a random sequence of changes against fresh traversals.
+   */
+  @Test
+  public void testRandomChangesMatchPractice() {
+    Random random = new Random(7);
+    List<Vertex<Integer>> vertices = new ArrayList<>();
+    for (int i = 0; i < 60; i++) vertices.add(new Vertex<>(random.nextInt(20)));
+    VersionedGraph graph = new VersionedGraph();
+    VersionedGraph.Reachability result = graph.track(vertices.get(0));
+
+    for (int step = 0; step < 500; step++) {
+      Vertex<Integer> from = vertices.get(random.nextInt(vertices.size()));
+      if (random.nextInt(4) == 0 && !from.neighbors.isEmpty()) {
+        graph.removeEdge(from, from.neighbors.get(random.nextInt(from.neighbors.size())));
+      } else {
+        graph.addEdge(from, vertices.get(random.nextInt(vertices.size())));
+      }
+      assertEquals(Practice.oddVertices(vertices.get(0)), result.oddVertices());
+      assertEquals(Practice.sortedReachable(vertices.get(0)), result.sortedReachable());
+    }
+  }
+
+  /**
+   * Test that a null starting vertex is tracked as an empty result.
+   */
+  @Test
+  public void testNullStarting() {
+    VersionedGraph graph = new VersionedGraph();
+    VersionedGraph.Reachability result = graph.track(null);
+    assertEquals(0, result.oddVertices());
+    assertTrue(result.sortedReachable().isEmpty());
+  }
+}